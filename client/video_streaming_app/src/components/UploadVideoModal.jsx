@@ -1,12 +1,9 @@
-// src/components/UploadVideoModal.jsx - COMPLETE CODE USING axiosInstance
+// src/components/UploadVideoModal.jsx
 import React, { useState } from 'react';
-import axiosInstance from '../api/axiosInstance'; // --- IMPORTANT: Changed to import axiosInstance
+import { uploadVideoResumable } from '../utils/resumableUpload';
 import { toast } from 'react-toastify'; // Import toast for consistent notifications
 import '../css/UploadVideoModal.css';
 
-// The path will be relative to API_BASE_URL defined in axiosInstance.js
-const UPLOAD_PATH = '/videos/upload'; 
-
 const UploadVideoModal = ({ onClose, onUploadSuccess }) => {
     const [title, setTitle] = useState('');
     const [description, setDescription] = useState('');
@@ -35,25 +32,16 @@ const UploadVideoModal = ({ onClose, onUploadSuccess }) => {
         setIsUploading(true);
         setUploadProgress(0); // Reset progress
 
-        const formData = new FormData();
-        formData.append('title', title);
-        formData.append('description', description);
-        formData.append('file', videoFile); // Backend's DTO expects 'file'
-
         try {
-            // Token handling is now automatically done by axiosInstance.interceptors.request.use
-            const response = await axiosInstance.post(UPLOAD_PATH, formData, { // --- IMPORTANT: Using axiosInstance.post
-                headers: {
-                    'Content-Type': 'multipart/form-data',
-                    // 'Authorization' header is added by the interceptor
-                },
-                onUploadProgress: (progressEvent) => {
-                    const percentCompleted = Math.round((progressEvent.loaded * 100) / progressEvent.total);
-                    setUploadProgress(percentCompleted);
-                }
+            // Sent in resumable chunks; a dropped connection only costs the chunks in flight
+            const response = await uploadVideoResumable({
+                file: videoFile,
+                title,
+                description,
+                onProgress: setUploadProgress,
             });
 
-            if (response.status === 200 || response.status === 201) {
+            if (response.uploadId) {
                 setUploadSuccess(true);
                 toast.success('Video upload initiated successfully! Processing will begin shortly.'); // Success toast
                 setTitle('');
@@ -67,8 +55,7 @@ const UploadVideoModal = ({ onClose, onUploadSuccess }) => {
                     }
                 }, 2000); // Close after 2 seconds
             } else {
-                // This block might be less hit if axios interceptors handle specific statuses
-                const message = response.data.message || 'Video upload failed due to an unknown reason.';
+                const message = 'Video upload failed due to an unknown reason.';
                 setFormError(message);
                 toast.error(message);
             }
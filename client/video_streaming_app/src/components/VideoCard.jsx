@@ -1,10 +1,21 @@
 // src/components/VideoCard.jsx
 
-import React from 'react';
+import React, { useState } from 'react';
 import { Link } from 'react-router-dom';
+import { API_BASE_URL } from '../config/config';
+import { blurHashToDataUrl } from '../utils/blurhash';
 import '../css/VideoCard.css';
 
+// " · ~3 min left" from the transcoder's estimate, or nothing while it is still unknown
+const formatEta = (etaSeconds) => {
+    if (etaSeconds == null) return '';
+    if (etaSeconds < 60) return ' · <1 min left';
+    return ` · ~${Math.round(etaSeconds / 60)} min left`;
+};
+
 const VideoCard = ({ video, showActions, onEdit, onDelete }) => {
+    const [thumbnailFailed, setThumbnailFailed] = useState(false);
+
     // Defensive check: Ensure video object and video.videoId are valid before rendering a link
     // If videoId is missing, we render a non-clickable placeholder or nothing.
     if (!video || typeof video.videoId === 'undefined' || video.videoId === null) {
@@ -24,25 +35,47 @@ const VideoCard = ({ video, showActions, onEdit, onDelete }) => {
     }
 
     const videoLink = `/videos/${video.videoId}`;
+    // The list payload only carries a BlurHash; paint it immediately and let the real thumbnail load lazily over it
+    const placeholderUrl = blurHashToDataUrl(video.thumbnailBlurHash);
+    // Thumbnails aren't public: the list payload carries a signed per-video token for the img src
+    const thumbnailUrl = `${API_BASE_URL}/videos/thumbnails/${video.videoId}?token=${encodeURIComponent(video.thumbnailToken || '')}`;
+    // The server snaps widths to 160/320/640/1280 and picks WebP/JPEG from the Accept header
+    const thumbnailSrcSet = [320, 640, 1280].map((w) => `${thumbnailUrl}&w=${w} ${w}w`).join(', ');
 
     return (
         <div className="video-card">
             {/* Link to the video player page - using video.videoId */}
             {/* The Link component now only renders if video.videoId is valid */}
             <Link to={videoLink} className="video-card-link">
-                <div className="video-thumbnail-container">
-                   {video.thumbnailData ? (
+                <div
+                    className="video-thumbnail-container"
+                    style={placeholderUrl ? { backgroundImage: `url(${placeholderUrl})`, backgroundSize: 'cover' } : undefined}
+                >
+                   {!thumbnailFailed ? (
                         <img
-                            src={`data:image/jpeg;base64,${video.thumbnailData}`}
+                            src={`${thumbnailUrl}&w=640`}
+                            srcSet={thumbnailSrcSet}
+                            sizes="(max-width: 600px) 100vw, (max-width: 1200px) 50vw, 320px"
                             alt={`Thumbnail for ${video.videoName}`}
                             className="video-thumbnail"
+                            loading="lazy"
+                            onError={() => setThumbnailFailed(true)}
                         />
-                    ) : (
-                        // Fallback to a placeholder if thumbnailData is not available
+                    ) : placeholderUrl ? null : (
+                        // Fallback to a placeholder if no thumbnail is available
                         <div className="video-placeholder-box">
                             No Thumbnail Available
                         </div>
                     )}
+                    {video.status && video.status !== 'READY' && (
+                        <div className={`video-status-badge ${video.status === 'FAILED' ? 'video-status-failed' : ''}`}>
+                            {video.status === 'FAILED'
+                                ? 'Processing failed'
+                                : video.processingPercent != null
+                                    ? `Processing ${video.processingPercent}%${formatEta(video.processingEtaSeconds)}`
+                                    : 'Processing...'}
+                        </div>
+                    )}
                 </div>
                 <div className="video-info">
                     {/* TITLE: Use video.videoName from your backend DTO */}
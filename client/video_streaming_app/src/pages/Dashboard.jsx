@@ -14,15 +14,19 @@ const Dashboard = () => {
     const [loading, setLoading] = useState(true);
     const [error, setError] = useState('');
 
+    const [nextCursor, setNextCursor] = useState(null); // null once the last page is loaded
+    const [loadingMore, setLoadingMore] = useState(false);
+
     // Function to fetch videos from the backend
     const fetchVideos = async () => {
         setLoading(true); // Start loading
         setError('');     // Clear previous errors
         try {
-            // Assuming your backend has an endpoint like /api/videos/all
+            // GET /api/videos is keyset-paginated: { items, nextCursor, hasMore }
             // axiosInstance will automatically add the Authorization header and handle token refresh
            const response = await axiosInstance.get('/videos');
-            setVideos(response.data); // Set the fetched videos
+            setVideos(response.data.items); // Set the fetched videos
+            setNextCursor(response.data.nextCursor);
             toast.success('Videos loaded successfully!'); // Success notification
         } catch (err) {
             console.error('Failed to fetch videos:', err);
@@ -35,6 +39,22 @@ const Dashboard = () => {
         }
     };
 
+    // Appends the next page after the last video already shown
+    const loadMoreVideos = async () => {
+        if (!nextCursor) return;
+        setLoadingMore(true);
+        try {
+            const response = await axiosInstance.get('/videos', { params: { cursor: nextCursor } });
+            setVideos(prevVideos => [...prevVideos, ...response.data.items]);
+            setNextCursor(response.data.nextCursor);
+        } catch (err) {
+            console.error('Failed to load more videos:', err);
+            toast.error('Failed to load more videos. Please try again.');
+        } finally {
+            setLoadingMore(false);
+        }
+    };
+
     // useEffect hook to call fetchVideos when the component mounts
     useEffect(() => {
         fetchVideos();
@@ -58,6 +78,13 @@ const Dashboard = () => {
                                 // Ensure VideoCard can handle your video object structure (e.g., video.id, video.title, video.thumbnailUrl)
                                 <VideoCard key={video.videoId} video={video} />
                             ))}
+                            {nextCursor && (
+                                <div className="load-more-container">
+                                    <button className="load-more-button" onClick={loadMoreVideos} disabled={loadingMore}>
+                                        {loadingMore ? 'Loading...' : 'Load more'}
+                                    </button>
+                                </div>
+                            )}
                         </div>
                     ) : (
                         // If no videos are available after loading
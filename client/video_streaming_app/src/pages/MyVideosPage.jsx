@@ -8,6 +8,7 @@ import LoadingSpinner from "../components/LoadingSpinner";
 import Modal from "../components/Modal"; // <--- IMPORTANT: This is our new Modal component
 import axiosInstance from "../api/axiosInstance";
 import { toast } from "react-toastify";
+import { subscribeToVideoEvents } from "../utils/videoEvents";
 
 import "../css/MyVideosPage.css"; // Link to the CSS we just created
 
@@ -15,6 +16,8 @@ const MyVideosPage = () => {
   const [myVideos, setMyVideos] = useState([]);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState("");
+  const [nextCursor, setNextCursor] = useState(null); // null once the last page is loaded
+  const [loadingMore, setLoadingMore] = useState(false);
 
   // State for Modals
   const [showEditModal, setShowEditModal] = useState(false);
@@ -37,8 +40,10 @@ const MyVideosPage = () => {
     setError(""); // Clear any previous errors
     try {
       // Referring to your VideoController: @GetMapping("/my-videos")
+      // Keyset-paginated: { items, nextCursor, hasMore }
       const response = await axiosInstance.get("/videos/my-videos");
-      setMyVideos(response.data);
+      setMyVideos(response.data.items);
+      setNextCursor(response.data.nextCursor);
       toast.success("Your videos loaded successfully!");
     } catch (err) {
       console.error("Failed to fetch my videos:", err);
@@ -53,11 +58,54 @@ const MyVideosPage = () => {
     }
   };
 
+  // Appends the next page after the last video already shown
+  const loadMoreVideos = async () => {
+    if (!nextCursor) return;
+    setLoadingMore(true);
+    try {
+      const response = await axiosInstance.get("/videos/my-videos", {
+        params: { cursor: nextCursor },
+      });
+      setMyVideos((prevVideos) => [...prevVideos, ...response.data.items]);
+      setNextCursor(response.data.nextCursor);
+    } catch (err) {
+      console.error("Failed to load more videos:", err);
+      toast.error("Failed to load more videos. Please try again.");
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   // Effect hook to call fetchMyVideos when the component mounts
   useEffect(() => {
     fetchMyVideos();
   }, []);
 
+  // Live processing status/progress pushed by the server instead of re-fetching the list
+  useEffect(() => {
+    const unsubscribe = subscribeToVideoEvents((update) => {
+      setMyVideos((prevVideos) =>
+        prevVideos.map((video) =>
+          video.videoId === update.videoId
+            ? {
+                ...video,
+                status: update.status,
+                processingStage: update.stage,
+                processingPercent: update.percent,
+                processingEtaSeconds: update.etaSeconds,
+              }
+            : video
+        )
+      );
+      if (update.status === "READY") {
+        toast.success("A video finished processing and is ready to watch.");
+      } else if (update.status === "FAILED") {
+        toast.error("A video failed to process.");
+      }
+    });
+    return unsubscribe;
+  }, []);
+
   // --- Modal related functions ---
 
   const openEditModal = (video) => {
@@ -169,6 +217,17 @@ const MyVideosPage = () => {
                   onDelete={() => openDeleteModal(video)} // Pass function to open delete modal
                 />
               ))}
+              {nextCursor && (
+                <div className="load-more-container">
+                  <button
+                    className="load-more-button"
+                    onClick={loadMoreVideos}
+                    disabled={loadingMore}
+                  >
+                    {loadingMore ? "Loading..." : "Load more"}
+                  </button>
+                </div>
+              )}
             </div>
           ) : (
             // Message if no videos are found
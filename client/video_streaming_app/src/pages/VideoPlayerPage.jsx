@@ -11,6 +11,9 @@ import axiosInstance from "../api/axiosInstance";
 import { toast } from "react-toastify";
 import "../css/VideoPlayerPage.css";
 
+// Must stay at or below the bucket size of the retention histogram on the server
+const HEARTBEAT_INTERVAL_MS = 10000;
+
 const VideoPlayerPage = () => {
     const { videoId } = useParams();
     const navigate = useNavigate();
@@ -41,6 +44,10 @@ const VideoPlayerPage = () => {
     // This ref will help us determine if the user has manually selected a quality
     const userSelectedQualityRef = useRef("auto");
 
+    // Watch-time heartbeats: one random session ID per player page, and the time playback was last accounted for
+    const heartbeatSessionIdRef = useRef(Math.random().toString(36).slice(2) + Date.now().toString(36));
+    const lastHeartbeatAtRef = useRef(null);
+
     // Helper to extract token and expiry from a full HLS URL
     const extractTokenAndExpiry = useCallback((fullAbsoluteUrl) => {
         try {
@@ -307,6 +314,44 @@ const VideoPlayerPage = () => {
         }
     }, [videoId]);
 
+    // Reports the current position and the playback time since the previous heartbeat
+    const sendHeartbeat = useCallback(() => {
+        const player = playerRef.current;
+        if (!player || lastHeartbeatAtRef.current === null) {
+            return;
+        }
+        const now = Date.now();
+        const watchedSeconds = (now - lastHeartbeatAtRef.current) / 1000;
+        lastHeartbeatAtRef.current = now;
+
+        const hls = hlsInstanceRef.current;
+        const level = hls && hls.currentLevel >= 0 ? hls.levels[hls.currentLevel] : null;
+        axiosInstance
+            .post(`/videos/${videoId}/heartbeat`, {
+                positionSeconds: player.getCurrentTime() || 0,
+                watchedSeconds,
+                rendition: level && level.height ? `${level.height}p` : "auto",
+                sessionId: heartbeatSessionIdRef.current,
+            })
+            .catch((err) => {
+                console.debug(`Heartbeat for video ${videoId} failed:`, err);
+            });
+    }, [videoId]);
+
+    // Heartbeat every HEARTBEAT_INTERVAL_MS while playing, plus a final one when playback stops
+    useEffect(() => {
+        if (!isPlaying) {
+            return undefined;
+        }
+        lastHeartbeatAtRef.current = Date.now();
+        const intervalId = setInterval(sendHeartbeat, HEARTBEAT_INTERVAL_MS);
+        return () => {
+            clearInterval(intervalId);
+            sendHeartbeat();
+            lastHeartbeatAtRef.current = null;
+        };
+    }, [isPlaying, sendHeartbeat]);
+
     // Callback when ReactPlayer is ready and has loaded its internal player
     const onPlayerReady = useCallback((player) => {
         // player is the ReactPlayer instance. We need its internal Hls.js instance.
@@ -0,0 +1,108 @@
+// src/utils/blurhash.js
+// Minimal BlurHash decoder (https://blurha.sh). Turns the short placeholder string
+// from the backend into a tiny data URL that can be painted before the thumbnail loads.
+
+const BASE83_CHARS =
+    "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz#$%*+,-.:;=?@[]^_{|}~";
+
+const decode83 = (str) => {
+    let value = 0;
+    for (const c of str) {
+        value = value * 83 + BASE83_CHARS.indexOf(c);
+    }
+    return value;
+};
+
+const srgbToLinear = (value) => {
+    const v = value / 255;
+    return v <= 0.04045 ? v / 12.92 : Math.pow((v + 0.055) / 1.055, 2.4);
+};
+
+const linearToSrgb = (value) => {
+    const v = Math.max(0, Math.min(1, value));
+    return v <= 0.0031308
+        ? Math.round(v * 12.92 * 255)
+        : Math.round((1.055 * Math.pow(v, 1 / 2.4) - 0.055) * 255);
+};
+
+const signPow = (value, exp) => Math.sign(value) * Math.pow(Math.abs(value), exp);
+
+const decodeDC = (value) => [
+    srgbToLinear(value >> 16),
+    srgbToLinear((value >> 8) & 255),
+    srgbToLinear(value & 255),
+];
+
+const decodeAC = (value, maximumValue) => [
+    signPow((Math.floor(value / (19 * 19)) - 9) / 9, 2) * maximumValue,
+    signPow((Math.floor(value / 19) % 19 - 9) / 9, 2) * maximumValue,
+    signPow((value % 19 - 9) / 9, 2) * maximumValue,
+];
+
+// Cache decoded placeholders; the same videos are rendered again on every list refresh
+const cache = new Map();
+
+/**
+ * Decodes a BlurHash into a PNG data URL of the given (small) size.
+ * Returns null when the hash is missing or malformed.
+ */
+export const blurHashToDataUrl = (hash, width = 32, height = 18) => {
+    if (!hash || hash.length < 6) {
+        return null;
+    }
+    const cacheKey = `${hash}:${width}x${height}`;
+    if (cache.has(cacheKey)) {
+        return cache.get(cacheKey);
+    }
+    try {
+        const sizeFlag = decode83(hash[0]);
+        const numY = Math.floor(sizeFlag / 9) + 1;
+        const numX = (sizeFlag % 9) + 1;
+        if (hash.length !== 4 + 2 * numX * numY) {
+            return null;
+        }
+        const maximumValue = (decode83(hash[1]) + 1) / 166;
+
+        const colors = [decodeDC(decode83(hash.substring(2, 6)))];
+        for (let i = 1; i < numX * numY; i++) {
+            colors.push(decodeAC(decode83(hash.substring(4 + i * 2, 6 + i * 2)), maximumValue));
+        }
+
+        const canvas = document.createElement("canvas");
+        canvas.width = width;
+        canvas.height = height;
+        const ctx = canvas.getContext("2d");
+        const imageData = ctx.createImageData(width, height);
+        const pixels = imageData.data;
+
+        for (let y = 0; y < height; y++) {
+            for (let x = 0; x < width; x++) {
+                let r = 0;
+                let g = 0;
+                let b = 0;
+                for (let j = 0; j < numY; j++) {
+                    for (let i = 0; i < numX; i++) {
+                        const basis =
+                            Math.cos((Math.PI * x * i) / width) * Math.cos((Math.PI * y * j) / height);
+                        const color = colors[i + j * numX];
+                        r += color[0] * basis;
+                        g += color[1] * basis;
+                        b += color[2] * basis;
+                    }
+                }
+                const offset = 4 * (x + y * width);
+                pixels[offset] = linearToSrgb(r);
+                pixels[offset + 1] = linearToSrgb(g);
+                pixels[offset + 2] = linearToSrgb(b);
+                pixels[offset + 3] = 255;
+            }
+        }
+        ctx.putImageData(imageData, 0, 0);
+        const dataUrl = canvas.toDataURL();
+        cache.set(cacheKey, dataUrl);
+        return dataUrl;
+    } catch (e) {
+        console.warn("Failed to decode BlurHash placeholder:", e);
+        return null;
+    }
+};
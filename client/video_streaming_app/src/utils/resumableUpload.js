@@ -0,0 +1,124 @@
+// src/utils/resumableUpload.js
+import axiosInstance from "../api/axiosInstance";
+
+const UPLOADS_PATH = "/videos/uploads";
+const PARALLEL_CHUNKS = 3;
+const MAX_ATTEMPTS = 5;
+const RETRY_BASE_DELAY_MS = 1000;
+const SESSION_STORAGE_PREFIX = "resumableUpload:";
+
+const sleep = (ms) => new Promise((resolve) => setTimeout(resolve, ms));
+
+// Same file picked again (e.g. after a reload) resumes the same session
+const fileKey = (file) => `${SESSION_STORAGE_PREFIX}${file.name}:${file.size}:${file.lastModified}`;
+
+// Client errors other than timeouts/rate limits won't get better by retrying
+const isRetryable = (error) => {
+  const status = error.response?.status;
+  return !status || status >= 500 || status === 408 || status === 429;
+};
+
+// Existing session for this file, with the offset to resume from; null if there is none (or it expired)
+const findSession = async (file) => {
+  const uploadId = localStorage.getItem(fileKey(file));
+  if (!uploadId) return null;
+  try {
+    const response = await axiosInstance.head(`${UPLOADS_PATH}/${uploadId}`);
+    return {
+      uploadId,
+      length: Number(response.headers["upload-length"]),
+      chunkSize: Number(response.headers["upload-chunk-size"]),
+      offset: Number(response.headers["upload-offset"]),
+    };
+  } catch (error) {
+    localStorage.removeItem(fileKey(file));
+    return null;
+  }
+};
+
+/**
+ * Uploads a video in fixed-size chunks (POST, then PATCH per chunk), several chunks at a
+ * time. Failed chunks are retried with backoff; an interrupted upload of the same file
+ * resumes from the offset reported by HEAD.
+ *
+ * @param onProgress Called with the percentage of bytes acknowledged by the server
+ * @returns The final upload status ({ uploadId, videoId, ... })
+ */
+export const uploadVideoResumable = async ({ file, title, description, onProgress }) => {
+  let session = await findSession(file);
+  if (!session) {
+    const response = await axiosInstance.post(UPLOADS_PATH, {
+      title,
+      description,
+      fileName: file.name,
+      contentType: file.type,
+      length: file.size,
+    });
+    session = response.data;
+    localStorage.setItem(fileKey(file), session.uploadId);
+  }
+
+  const { uploadId, chunkSize, length } = session;
+  const pending = [];
+  for (let offset = session.offset; offset < length; offset += chunkSize) {
+    pending.push(offset);
+  }
+  // Bytes before the resume offset are already on the server
+  let acknowledged = session.offset;
+  const inFlight = new Map(); // offset -> bytes sent so far
+  const reportProgress = () => {
+    let sending = 0;
+    inFlight.forEach((bytes) => (sending += bytes));
+    onProgress?.(Math.min(100, Math.round(((acknowledged + sending) * 100) / length)));
+  };
+  reportProgress();
+
+  let finalStatus = null;
+  const sendChunk = async (offset) => {
+    const chunk = file.slice(offset, Math.min(offset + chunkSize, length));
+    for (let attempt = 1; ; attempt++) {
+      try {
+        inFlight.set(offset, 0);
+        const response = await axiosInstance.patch(`${UPLOADS_PATH}/${uploadId}`, chunk, {
+          headers: {
+            "Content-Type": "application/offset+octet-stream",
+            "Upload-Offset": String(offset),
+          },
+          onUploadProgress: (event) => {
+            inFlight.set(offset, event.loaded);
+            reportProgress();
+          },
+        });
+        inFlight.delete(offset);
+        acknowledged += chunk.size;
+        reportProgress();
+        if (response.data?.complete) {
+          finalStatus = response.data;
+        }
+        return;
+      } catch (error) {
+        inFlight.delete(offset);
+        if (attempt >= MAX_ATTEMPTS || !isRetryable(error)) throw error;
+        await sleep(RETRY_BASE_DELAY_MS * 2 ** (attempt - 1));
+      }
+    }
+  };
+
+  const worker = async () => {
+    while (pending.length > 0) {
+      await sendChunk(pending.shift());
+    }
+  };
+  await Promise.all(Array.from({ length: Math.min(PARALLEL_CHUNKS, pending.length) }, worker));
+
+  if (!finalStatus) {
+    // Every chunk was already on the server (resumed after the last one landed)
+    const response = await axiosInstance.head(`${UPLOADS_PATH}/${uploadId}`);
+    if (Number(response.headers["upload-offset"]) < length) {
+      throw new Error("Upload incomplete, please try again.");
+    }
+    finalStatus = { uploadId, length, chunkSize, offset: length };
+  }
+  localStorage.removeItem(fileKey(file));
+  return finalStatus;
+};
@@ -0,0 +1,81 @@
+// src/utils/videoEvents.js
+import { API_BASE_URL } from "../config/config";
+
+const RETRY_DELAY_MS = 5000;
+
+// Parses one SSE block ("event: x\ndata: {...}") into { event, data }; comments and keepalives yield null
+const parseEventBlock = (block) => {
+  let event = "message";
+  const dataLines = [];
+  for (const line of block.split("\n")) {
+    if (line.startsWith("event:")) {
+      event = line.slice(6).trim();
+    } else if (line.startsWith("data:")) {
+      dataLines.push(line.slice(5).trimStart());
+    }
+  }
+  if (dataLines.length === 0) return null;
+  try {
+    return { event, data: JSON.parse(dataLines.join("\n")) };
+  } catch (e) {
+    return null;
+  }
+};
+
+/**
+ * Subscribes to processing updates for the current user's videos (GET /videos/events).
+ * EventSource can't send the Authorization header, so the stream is read with fetch.
+ * Reconnects after errors, picking up a refreshed access token from localStorage.
+ *
+ * @param onUpdate Called with ({ videoId, status, stage, percent }, eventName)
+ * @returns A function that closes the stream
+ */
+export const subscribeToVideoEvents = (onUpdate) => {
+  let closed = false;
+  let controller = null;
+  let retryTimer = null;
+
+  const connect = async () => {
+    controller = new AbortController();
+    const token = localStorage.getItem("accessToken");
+    try {
+      const response = await fetch(`${API_BASE_URL}/videos/events`, {
+        headers: {
+          Accept: "text/event-stream",
+          ...(token && token !== "null" ? { Authorization: `Bearer ${token}` } : {}),
+        },
+        credentials: "include",
+        signal: controller.signal,
+      });
+      if (!response.ok || !response.body) {
+        throw new Error(`Event stream rejected with status ${response.status}`);
+      }
+      const reader = response.body.pipeThrough(new TextDecoderStream()).getReader();
+      let buffer = "";
+      while (!closed) {
+        const { value, done } = await reader.read();
+        if (done) break;
+        buffer += value.replace(/\r\n/g, "\n");
+        let separator;
+        while ((separator = buffer.indexOf("\n\n")) >= 0) {
+          const parsed = parseEventBlock(buffer.slice(0, separator));
+          buffer = buffer.slice(separator + 2);
+          if (parsed) onUpdate(parsed.data, parsed.event);
+        }
+      }
+    } catch (err) {
+      if (!closed) console.warn("Video event stream interrupted:", err.message);
+    }
+    if (!closed) {
+      retryTimer = setTimeout(connect, RETRY_DELAY_MS);
+    }
+  };
+
+  connect();
+
+  return () => {
+    closed = true;
+    clearTimeout(retryTimer);
+    if (controller) controller.abort();
+  };
+};
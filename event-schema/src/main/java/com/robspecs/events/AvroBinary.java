@@ -0,0 +1,168 @@
+package com.robspecs.events;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Avro binary encoding of the types the event schemas use: zig-zag varint int/long,
+ * length-prefixed UTF-8 strings and ["null", T] unions. Byte-for-byte what the Avro
+ * library writes for the same schema, so either side can move to it without a format
+ * change.
+ */
+public final class AvroBinary {
+
+	private AvroBinary() {
+	}
+
+	public static final class Writer {
+
+		private byte[] buffer;
+		private int position;
+
+		public Writer(int initialCapacity) {
+			buffer = new byte[Math.max(16, initialCapacity)];
+		}
+
+		public Writer writeLong(long value) {
+			ensure(10);
+			long n = (value << 1) ^ (value >> 63); // zig-zag: small magnitudes of either sign stay short
+			while ((n & ~0x7FL) != 0) {
+				buffer[position++] = (byte) ((n & 0x7F) | 0x80);
+				n >>>= 7;
+			}
+			buffer[position++] = (byte) n;
+			return this;
+		}
+
+		public Writer writeInt(int value) {
+			return writeLong(value);
+		}
+
+		public Writer writeString(String value) {
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			writeLong(bytes.length);
+			writeRaw(bytes);
+			return this;
+		}
+
+		public Writer writeNullableLong(Long value) {
+			return value == null ? writeLong(0) : writeLong(1).writeLong(value);
+		}
+
+		public Writer writeNullableInt(Integer value) {
+			return value == null ? writeLong(0) : writeLong(1).writeInt(value);
+		}
+
+		public Writer writeNullableString(String value) {
+			return value == null ? writeLong(0) : writeLong(1).writeString(value);
+		}
+
+		/**
+		 * Writes the branch index of a ["null", record] union; the record's fields follow
+		 * when this returns true.
+		 */
+		public boolean writePresent(Object value) {
+			writeLong(value == null ? 0 : 1);
+			return value != null;
+		}
+
+		public Writer writeRaw(byte[] bytes) {
+			ensure(bytes.length);
+			System.arraycopy(bytes, 0, buffer, position, bytes.length);
+			position += bytes.length;
+			return this;
+		}
+
+		public byte[] toByteArray() {
+			return Arrays.copyOf(buffer, position);
+		}
+
+		private void ensure(int extra) {
+			if (position + extra > buffer.length) {
+				buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+			}
+		}
+	}
+
+	public static final class Reader {
+
+		private final byte[] data;
+		private int position;
+
+		public Reader(byte[] data, int offset) {
+			this.data = data;
+			this.position = offset;
+		}
+
+		public long readLong() {
+			long n = 0;
+			int shift = 0;
+			while (true) {
+				if (shift > 63) {
+					throw new IllegalArgumentException("Malformed varint.");
+				}
+				int b = next();
+				n |= (long) (b & 0x7F) << shift;
+				if ((b & 0x80) == 0) {
+					break;
+				}
+				shift += 7;
+			}
+			return (n >>> 1) ^ -(n & 1);
+		}
+
+		public int readInt() {
+			long value = readLong();
+			if (value != (int) value) {
+				throw new IllegalArgumentException("Int out of range: " + value);
+			}
+			return (int) value;
+		}
+
+		public String readString() {
+			long length = readLong();
+			if (length < 0 || length > data.length - position) {
+				throw new IllegalArgumentException("Invalid string length " + length);
+			}
+			String value = new String(data, position, (int) length, StandardCharsets.UTF_8);
+			position += (int) length;
+			return value;
+		}
+
+		public Long readNullableLong() {
+			return readPresent() ? readLong() : null;
+		}
+
+		public Integer readNullableInt() {
+			return readPresent() ? readInt() : null;
+		}
+
+		public String readNullableString() {
+			return readPresent() ? readString() : null;
+		}
+
+		/**
+		 * Reads the branch index of a ["null", T] union.
+		 *
+		 * @return true if a value follows.
+		 */
+		public boolean readPresent() {
+			long branch = readLong();
+			if (branch != 0 && branch != 1) {
+				throw new IllegalArgumentException("Invalid union branch " + branch);
+			}
+			return branch == 1;
+		}
+
+		public boolean hasRemaining() {
+			return position < data.length;
+		}
+
+		private int next() {
+			if (position >= data.length) {
+				throw new IllegalArgumentException("Unexpected end of encoded event.");
+			}
+			return data[position++] & 0xFF;
+		}
+	}
+}
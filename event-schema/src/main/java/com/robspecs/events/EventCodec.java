@@ -0,0 +1,71 @@
+package com.robspecs.events;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Avro single-object encoding of one event type: the two marker bytes C3 01, the
+ * writer schema's 64-bit fingerprint (little-endian), then the Avro binary body.
+ * Decoding picks the reader for the fingerprint found, so schema versions can be
+ * rolled out producer and consumer independently. Thread-safe.
+ */
+public final class EventCodec<T> {
+
+	static final int HEADER_LENGTH = 10;
+	private static final byte MARKER_0 = (byte) 0xC3;
+	private static final byte MARKER_1 = (byte) 0x01;
+
+	private final EventSchema<T> schema;
+	private final byte[] header;
+	private final Map<Long, Function<AvroBinary.Reader, T>> readers = new HashMap<>();
+
+	public EventCodec(EventSchema<T> schema) {
+		this.schema = schema;
+		long fingerprint = SchemaFingerprint.ofResource(schema.schemaResource());
+		this.header = header(fingerprint);
+		readers.put(fingerprint, schema::read);
+		schema.previousVersions().forEach((resource, reader) -> readers.put(SchemaFingerprint.ofResource(resource), reader));
+	}
+
+	public byte[] encode(T event) {
+		AvroBinary.Writer out = new AvroBinary.Writer(schema.expectedSize());
+		out.writeRaw(header);
+		schema.write(event, out);
+		return out.toByteArray();
+	}
+
+	/**
+	 * @throws IllegalArgumentException if the data is not single-object encoded, was
+	 *         written with an unknown schema version, or is malformed.
+	 */
+	public T decode(byte[] data) {
+		if (!isEncoded(data)) {
+			throw new IllegalArgumentException("Not an Avro single-object encoded event.");
+		}
+		long fingerprint = 0;
+		for (int i = HEADER_LENGTH - 1; i >= 2; i--) {
+			fingerprint = (fingerprint << 8) | (data[i] & 0xFF);
+		}
+		Function<AvroBinary.Reader, T> reader = readers.get(fingerprint);
+		if (reader == null) {
+			throw new IllegalArgumentException(
+					"Unknown schema fingerprint " + Long.toHexString(fingerprint) + " for " + schema.schemaResource());
+		}
+		return reader.apply(new AvroBinary.Reader(data, HEADER_LENGTH));
+	}
+
+	public static boolean isEncoded(byte[] data) {
+		return data != null && data.length >= HEADER_LENGTH && data[0] == MARKER_0 && data[1] == MARKER_1;
+	}
+
+	private static byte[] header(long fingerprint) {
+		byte[] header = new byte[HEADER_LENGTH];
+		header[0] = MARKER_0;
+		header[1] = MARKER_1;
+		for (int i = 0; i < 8; i++) {
+			header[2 + i] = (byte) (fingerprint >>> (8 * i));
+		}
+		return header;
+	}
+}
@@ -0,0 +1,42 @@
+package com.robspecs.events;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+/**
+ * Kafka deserializer for events written by {@link EventSerializer}. Records from before
+ * the binary encoding (JSON, starting with '{') go to the legacy deserializer if one is
+ * given, so a topic can be switched over without draining it first.
+ */
+public class EventDeserializer<T> implements Deserializer<T> {
+
+	private final EventCodec<T> codec;
+	private final Deserializer<T> legacy; // may be null
+
+	public EventDeserializer(EventSchema<T> schema, Deserializer<T> legacy) {
+		this.codec = new EventCodec<>(schema);
+		this.legacy = legacy;
+	}
+
+	@Override
+	public T deserialize(String topic, byte[] data) {
+		if (data == null) {
+			return null;
+		}
+		if (legacy != null && data.length > 0 && data[0] == '{') {
+			return legacy.deserialize(topic, data);
+		}
+		try {
+			return codec.decode(data);
+		} catch (IllegalArgumentException e) {
+			throw new SerializationException("Could not decode record from " + topic + ": " + e.getMessage(), e);
+		}
+	}
+
+	@Override
+	public void close() {
+		if (legacy != null) {
+			legacy.close();
+		}
+	}
+}
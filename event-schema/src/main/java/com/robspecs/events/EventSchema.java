@@ -0,0 +1,39 @@
+package com.robspecs.events;
+
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Binding between an event class and its Avro schema file under {@code avro/}. The
+ * write/read methods must follow the field order of that file; its fingerprint is sent
+ * with every message, so a reader knows exactly which version produced it.
+ * <p>
+ * Changing a schema: copy the current file to a versioned name (e.g.
+ * {@code WatchHeartbeatEvent.v1.avsc}), edit the original, and return a reader for the
+ * old file from {@link #previousVersions()} until no producer writes it anymore.
+ */
+public interface EventSchema<T> {
+
+	/**
+	 * Classpath location of the current schema.
+	 */
+	String schemaResource();
+
+	void write(T event, AvroBinary.Writer out);
+
+	T read(AvroBinary.Reader in);
+
+	/**
+	 * Readers for older schema versions still accepted, by schema resource.
+	 */
+	default Map<String, Function<AvroBinary.Reader, T>> previousVersions() {
+		return Map.of();
+	}
+
+	/**
+	 * Typical encoded size, used to size the write buffer.
+	 */
+	default int expectedSize() {
+		return 128;
+	}
+}
@@ -0,0 +1,21 @@
+package com.robspecs.events;
+
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Kafka serializer writing events with their {@link EventCodec}. Null stays null
+ * (tombstones).
+ */
+public class EventSerializer<T> implements Serializer<T> {
+
+	private final EventCodec<T> codec;
+
+	public EventSerializer(EventSchema<T> schema) {
+		this.codec = new EventCodec<>(schema);
+	}
+
+	@Override
+	public byte[] serialize(String topic, T data) {
+		return data == null ? null : codec.encode(data);
+	}
+}
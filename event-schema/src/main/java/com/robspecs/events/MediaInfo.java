@@ -0,0 +1,82 @@
+package com.robspecs.events;
+
+import java.io.Serializable;
+
+/**
+ * What the streaming service's upload-time probe read from a file's container headers
+ * (the MediaInfo record of VideoProcessingRequest.avsc). Fields the probe could not
+ * determine are null.
+ */
+public class MediaInfo implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private String container; // mp4, mov, matroska, webm, avi, mpegts, ...
+	private String videoCodec; // FFmpeg codec names where known (h264, hevc, vp9, av1, ...)
+	private String audioCodec;
+	private Integer width;
+	private Integer height;
+	private Long durationMillis;
+
+	public MediaInfo() {
+	}
+
+	public MediaInfo(String container) {
+		this.container = container;
+	}
+
+	public String getContainer() {
+		return container;
+	}
+
+	public void setContainer(String container) {
+		this.container = container;
+	}
+
+	public String getVideoCodec() {
+		return videoCodec;
+	}
+
+	public void setVideoCodec(String videoCodec) {
+		this.videoCodec = videoCodec;
+	}
+
+	public String getAudioCodec() {
+		return audioCodec;
+	}
+
+	public void setAudioCodec(String audioCodec) {
+		this.audioCodec = audioCodec;
+	}
+
+	public Integer getWidth() {
+		return width;
+	}
+
+	public void setWidth(Integer width) {
+		this.width = width;
+	}
+
+	public Integer getHeight() {
+		return height;
+	}
+
+	public void setHeight(Integer height) {
+		this.height = height;
+	}
+
+	public Long getDurationMillis() {
+		return durationMillis;
+	}
+
+	public void setDurationMillis(Long durationMillis) {
+		this.durationMillis = durationMillis;
+	}
+
+	@Override
+	public String toString() {
+		return "MediaInfo{" + "container='" + container + '\'' + ", videoCodec='" + videoCodec + '\''
+				+ ", audioCodec='" + audioCodec + '\'' + ", width=" + width + ", height=" + height
+				+ ", durationMillis=" + durationMillis + '}';
+	}
+}
@@ -0,0 +1,29 @@
+package com.robspecs.events;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Processing priority of an upload, chosen from its size and probed duration. Each lane
+ * has its own topic and its own workers in the processor, so short clips are never
+ * queued behind long transcodes. LARGE keeps the original topic.
+ */
+public enum ProcessingLane {
+	SMALL("video-upload-events-small"),
+	MEDIUM("video-upload-events-medium"),
+	LARGE("video-upload-events");
+
+	private final String topic;
+
+	ProcessingLane(String topic) {
+		this.topic = topic;
+	}
+
+	public String getTopic() {
+		return topic;
+	}
+
+	public static List<String> topics() {
+		return Arrays.stream(values()).map(ProcessingLane::getTopic).toList();
+	}
+}
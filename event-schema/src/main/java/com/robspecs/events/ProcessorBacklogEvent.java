@@ -0,0 +1,89 @@
+package com.robspecs.events;
+
+import java.io.Serializable;
+
+/**
+ * Periodic heartbeat of one processor instance's backlog, published on
+ * "video-processor-backlog" (keyed by instanceId). Jobs in the executor queue have
+ * already been consumed from Kafka, so consumer lag alone does not show them. Encoded
+ * as JSON.
+ */
+public class ProcessorBacklogEvent implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private String instanceId;
+	private int queued; // waiting in the processing executor
+	private int running;
+	private int queueCapacity; // -1 if unknown
+	private long estimatedDrainSeconds; // -1 if unknown
+	private long occurredAt;
+
+	public ProcessorBacklogEvent() {
+	}
+
+	public ProcessorBacklogEvent(String instanceId, int queued, int running, int queueCapacity,
+			long estimatedDrainSeconds, long occurredAt) {
+		this.instanceId = instanceId;
+		this.queued = queued;
+		this.running = running;
+		this.queueCapacity = queueCapacity;
+		this.estimatedDrainSeconds = estimatedDrainSeconds;
+		this.occurredAt = occurredAt;
+	}
+
+	public String getInstanceId() {
+		return instanceId;
+	}
+
+	public void setInstanceId(String instanceId) {
+		this.instanceId = instanceId;
+	}
+
+	public int getQueued() {
+		return queued;
+	}
+
+	public void setQueued(int queued) {
+		this.queued = queued;
+	}
+
+	public int getRunning() {
+		return running;
+	}
+
+	public void setRunning(int running) {
+		this.running = running;
+	}
+
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	public void setQueueCapacity(int queueCapacity) {
+		this.queueCapacity = queueCapacity;
+	}
+
+	public long getEstimatedDrainSeconds() {
+		return estimatedDrainSeconds;
+	}
+
+	public void setEstimatedDrainSeconds(long estimatedDrainSeconds) {
+		this.estimatedDrainSeconds = estimatedDrainSeconds;
+	}
+
+	public long getOccurredAt() {
+		return occurredAt;
+	}
+
+	public void setOccurredAt(long occurredAt) {
+		this.occurredAt = occurredAt;
+	}
+
+	@Override
+	public String toString() {
+		return "ProcessorBacklogEvent{" + "instanceId='" + instanceId + '\'' + ", queued=" + queued + ", running="
+				+ running + ", queueCapacity=" + queueCapacity + ", estimatedDrainSeconds=" + estimatedDrainSeconds
+				+ ", occurredAt=" + occurredAt + '}';
+	}
+}
@@ -0,0 +1,161 @@
+package com.robspecs.events;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * 64-bit Rabin fingerprint (CRC-64-AVRO) of an Avro schema's Parsing Canonical Form,
+ * the id Avro's single-object encoding puts in front of every message. Covers the
+ * schema features the event schemas use: records, enums, fixed, arrays, maps, unions
+ * and primitives.
+ */
+public final class SchemaFingerprint {
+
+	private static final long EMPTY = 0xc15d213aa4d7a795L;
+	private static final long[] TABLE = new long[256];
+	private static final Set<String> PRIMITIVES = Set.of("null", "boolean", "int", "long", "float", "double",
+			"bytes", "string");
+
+	static {
+		for (int i = 0; i < 256; i++) {
+			long fp = i;
+			for (int j = 0; j < 8; j++) {
+				fp = (fp >>> 1) ^ (EMPTY & -(fp & 1L));
+			}
+			TABLE[i] = fp;
+		}
+	}
+
+	private SchemaFingerprint() {
+	}
+
+	/**
+	 * Fingerprint of a schema file on the classpath.
+	 */
+	public static long ofResource(String resource) {
+		try (InputStream in = SchemaFingerprint.class.getClassLoader().getResourceAsStream(resource)) {
+			if (in == null) {
+				throw new IllegalStateException("Schema not found on classpath: " + resource);
+			}
+			return of(new ObjectMapper().readTree(in));
+		} catch (IOException e) {
+			throw new UncheckedIOException("Could not read schema " + resource, e);
+		}
+	}
+
+	public static long of(JsonNode schema) {
+		return rabin(canonicalForm(schema).getBytes(StandardCharsets.UTF_8));
+	}
+
+	static String canonicalForm(JsonNode schema) {
+		StringBuilder out = new StringBuilder();
+		canonical(schema, "", new HashSet<>(), out);
+		return out.toString();
+	}
+
+	static long rabin(byte[] bytes) {
+		long fp = EMPTY;
+		for (byte b : bytes) {
+			fp = (fp >>> 8) ^ TABLE[(int) (fp ^ b) & 0xff];
+		}
+		return fp;
+	}
+
+	private static void canonical(JsonNode schema, String namespace, Set<String> defined, StringBuilder out) {
+		if (schema.isTextual()) {
+			String name = schema.asText();
+			quote(PRIMITIVES.contains(name) ? name : fullName(name, namespace), out);
+			return;
+		}
+		if (schema.isArray()) {
+			out.append('[');
+			for (Iterator<JsonNode> it = schema.elements(); it.hasNext();) {
+				canonical(it.next(), namespace, defined, out);
+				if (it.hasNext()) {
+					out.append(',');
+				}
+			}
+			out.append(']');
+			return;
+		}
+		String type = schema.path("type").asText();
+		switch (type) {
+		case "record", "error", "enum", "fixed" -> {
+			String name = schema.path("name").asText();
+			String ns = schema.hasNonNull("namespace") ? schema.get("namespace").asText() : namespace;
+			String fullName = fullName(name, ns);
+			if (!defined.add(fullName)) {
+				quote(fullName, out); // Later uses of a named type are just its name
+				return;
+			}
+			String innerNamespace = fullName.contains(".") ? fullName.substring(0, fullName.lastIndexOf('.')) : "";
+			out.append("{\"name\":");
+			quote(fullName, out);
+			out.append(",\"type\":");
+			quote(type.equals("error") ? "record" : type, out);
+			if (type.equals("enum")) {
+				out.append(",\"symbols\":[");
+				for (Iterator<JsonNode> it = schema.path("symbols").elements(); it.hasNext();) {
+					quote(it.next().asText(), out);
+					if (it.hasNext()) {
+						out.append(',');
+					}
+				}
+				out.append(']');
+			} else if (type.equals("fixed")) {
+				out.append(",\"size\":").append(schema.path("size").asInt());
+			} else {
+				out.append(",\"fields\":[");
+				for (Iterator<JsonNode> it = schema.path("fields").elements(); it.hasNext();) {
+					JsonNode field = it.next();
+					out.append("{\"name\":");
+					quote(field.path("name").asText(), out);
+					out.append(",\"type\":");
+					canonical(field.get("type"), innerNamespace, defined, out);
+					out.append('}');
+					if (it.hasNext()) {
+						out.append(',');
+					}
+				}
+				out.append(']');
+			}
+			out.append('}');
+		}
+		case "array" -> {
+			out.append("{\"type\":\"array\",\"items\":");
+			canonical(schema.get("items"), namespace, defined, out);
+			out.append('}');
+		}
+		case "map" -> {
+			out.append("{\"type\":\"map\",\"values\":");
+			canonical(schema.get("values"), namespace, defined, out);
+			out.append('}');
+		}
+		default -> canonical(schema.get("type"), namespace, defined, out); // {"type": "long"} is just "long"
+		}
+	}
+
+	private static String fullName(String name, String namespace) {
+		return name.contains(".") || namespace.isEmpty() ? name : namespace + "." + name;
+	}
+
+	private static void quote(String value, StringBuilder out) {
+		out.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"' || c == '\\') {
+				out.append('\\');
+			}
+			out.append(c);
+		}
+		out.append('"');
+	}
+}
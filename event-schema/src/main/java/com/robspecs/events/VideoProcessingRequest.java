@@ -1,7 +1,11 @@
-package com.robspecs.streaming.dto;
+package com.robspecs.events;
 
 import java.io.Serializable;
 
+/**
+ * Published on "video-upload-events" (one topic per processing lane) when an upload is
+ * registered; encoded with {@link VideoProcessingRequestSchema}.
+ */
 public class VideoProcessingRequest implements Serializable {
 
 	private static final long serialVersionUID = 1L; // Recommended for Serializable classes
@@ -11,6 +15,7 @@ public class VideoProcessingRequest implements Serializable {
 	private Long fileSize; // Size of the original video file
 	private String uploadUserEmailorUsername; // Email of the user who uploaded the video
 	private Long uploadUserId;
+	private MediaInfo mediaInfo; // Upload-time probe of the raw file; null or partial if the container was not fully parsed
 
 	// Default constructor for deserialization
 	public VideoProcessingRequest() {
@@ -69,6 +74,14 @@ public class VideoProcessingRequest implements Serializable {
 		this.uploadUserId = uploadUserId;
 	}
 
+	public MediaInfo getMediaInfo() {
+		return mediaInfo;
+	}
+
+	public void setMediaInfo(MediaInfo mediaInfo) {
+		this.mediaInfo = mediaInfo;
+	}
+
 	@Override
 	public String toString() {
 		return "VideoProcessingRequest{" + "videoId=" + videoId + ", originalFilePath='" + originalFilePath + '\''
@@ -0,0 +1,61 @@
+package com.robspecs.events;
+
+/**
+ * avro/VideoProcessingRequest.avsc: published by the streaming service, read by
+ * video-processor-service.
+ */
+public final class VideoProcessingRequestSchema implements EventSchema<VideoProcessingRequest> {
+
+	public static final VideoProcessingRequestSchema INSTANCE = new VideoProcessingRequestSchema();
+
+	private VideoProcessingRequestSchema() {
+	}
+
+	@Override
+	public String schemaResource() {
+		return "avro/VideoProcessingRequest.avsc";
+	}
+
+	@Override
+	public void write(VideoProcessingRequest event, AvroBinary.Writer out) {
+		out.writeLong(event.getVideoId());
+		out.writeString(event.getOriginalFilePath());
+		out.writeNullableLong(event.getFileSize());
+		out.writeNullableString(event.getUploadUserEmailOrUsername());
+		out.writeNullableLong(event.getUploadUserId());
+		MediaInfo mediaInfo = event.getMediaInfo();
+		if (out.writePresent(mediaInfo)) {
+			out.writeNullableString(mediaInfo.getContainer());
+			out.writeNullableString(mediaInfo.getVideoCodec());
+			out.writeNullableString(mediaInfo.getAudioCodec());
+			out.writeNullableInt(mediaInfo.getWidth());
+			out.writeNullableInt(mediaInfo.getHeight());
+			out.writeNullableLong(mediaInfo.getDurationMillis());
+		}
+	}
+
+	@Override
+	public VideoProcessingRequest read(AvroBinary.Reader in) {
+		VideoProcessingRequest event = new VideoProcessingRequest();
+		event.setVideoId(in.readLong());
+		event.setOriginalFilePath(in.readString());
+		event.setFileSize(in.readNullableLong());
+		event.setUploadUserEmailOrUsername(in.readNullableString());
+		event.setUploadUserId(in.readNullableLong());
+		if (in.readPresent()) {
+			MediaInfo mediaInfo = new MediaInfo(in.readNullableString());
+			mediaInfo.setVideoCodec(in.readNullableString());
+			mediaInfo.setAudioCodec(in.readNullableString());
+			mediaInfo.setWidth(in.readNullableInt());
+			mediaInfo.setHeight(in.readNullableInt());
+			mediaInfo.setDurationMillis(in.readNullableLong());
+			event.setMediaInfo(mediaInfo);
+		}
+		return event;
+	}
+
+	@Override
+	public int expectedSize() {
+		return 192;
+	}
+}
@@ -0,0 +1,116 @@
+package com.robspecs.events;
+
+import java.io.Serializable;
+
+/**
+ * Transient progress of a video being processed, published by video-processor-service
+ * on "video-progress-events" (keyed by videoId, short retention). Final outcomes are
+ * carried by {@link VideoStatusChangedEvent}, not by this event. Encoded as JSON.
+ */
+public class VideoProgressEvent implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private Long videoId;
+	private Long uploadUserId;
+	private String stage; // THUMBNAIL, TRANSCODING
+	private int percent; // 0-99 across the whole job
+	private long occurredAt;
+	// Only set while TRANSCODING
+	private String rendition;
+	private Long framesDone;
+	private Long framesTotal;
+	private Double fps;
+	private Long etaSeconds; // whole transcode
+
+	public VideoProgressEvent() {
+	}
+
+	public VideoProgressEvent(Long videoId, Long uploadUserId, String stage, int percent, long occurredAt) {
+		this.videoId = videoId;
+		this.uploadUserId = uploadUserId;
+		this.stage = stage;
+		this.percent = percent;
+		this.occurredAt = occurredAt;
+	}
+
+	public Long getVideoId() {
+		return videoId;
+	}
+
+	public void setVideoId(Long videoId) {
+		this.videoId = videoId;
+	}
+
+	public Long getUploadUserId() {
+		return uploadUserId;
+	}
+
+	public void setUploadUserId(Long uploadUserId) {
+		this.uploadUserId = uploadUserId;
+	}
+
+	public String getStage() {
+		return stage;
+	}
+
+	public void setStage(String stage) {
+		this.stage = stage;
+	}
+
+	public int getPercent() {
+		return percent;
+	}
+
+	public void setPercent(int percent) {
+		this.percent = percent;
+	}
+
+	public long getOccurredAt() {
+		return occurredAt;
+	}
+
+	public void setOccurredAt(long occurredAt) {
+		this.occurredAt = occurredAt;
+	}
+
+	public String getRendition() {
+		return rendition;
+	}
+
+	public void setRendition(String rendition) {
+		this.rendition = rendition;
+	}
+
+	public Long getFramesDone() {
+		return framesDone;
+	}
+
+	public void setFramesDone(Long framesDone) {
+		this.framesDone = framesDone;
+	}
+
+	public Long getFramesTotal() {
+		return framesTotal;
+	}
+
+	public void setFramesTotal(Long framesTotal) {
+		this.framesTotal = framesTotal;
+	}
+
+	public Double getFps() {
+		return fps;
+	}
+
+	public void setFps(Double fps) {
+		this.fps = fps;
+	}
+
+	public Long getEtaSeconds() {
+		return etaSeconds;
+	}
+
+	public void setEtaSeconds(Long etaSeconds) {
+		this.etaSeconds = etaSeconds;
+	}
+}
@@ -0,0 +1,94 @@
+package com.robspecs.events;
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * Published by video-processor-service to the compacted "video-status-events" topic
+ * (keyed by videoId) whenever it changes a video's status. Compaction keeps the latest
+ * event per video, so the topic doubles as a snapshot of every video's processing state.
+ * The streaming service publishes a tombstone (null value) for the key when a video is
+ * deleted. Encoded as JSON.
+ */
+public class VideoStatusChangedEvent implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private Long videoId;
+	private Long uploadUserId;
+	private String status; // VideoStatus name: PROCESSING, READY or FAILED
+	private Long durationMillis;
+	private Map<String, String> resolutionFilePaths; // hls_master, thumbnail_master, trickplay_vtt, ...
+	private String thumbnailBlurHash;
+	private long occurredAt; // epoch millis; consumers ignore events older than what they have
+
+	public VideoStatusChangedEvent() {
+	}
+
+	public VideoStatusChangedEvent(Long videoId, Long uploadUserId, String status, Long durationMillis,
+			Map<String, String> resolutionFilePaths, String thumbnailBlurHash, long occurredAt) {
+		this.videoId = videoId;
+		this.uploadUserId = uploadUserId;
+		this.status = status;
+		this.durationMillis = durationMillis;
+		this.resolutionFilePaths = resolutionFilePaths;
+		this.thumbnailBlurHash = thumbnailBlurHash;
+		this.occurredAt = occurredAt;
+	}
+
+	public Long getVideoId() {
+		return videoId;
+	}
+
+	public void setVideoId(Long videoId) {
+		this.videoId = videoId;
+	}
+
+	public Long getUploadUserId() {
+		return uploadUserId;
+	}
+
+	public void setUploadUserId(Long uploadUserId) {
+		this.uploadUserId = uploadUserId;
+	}
+
+	public String getStatus() {
+		return status;
+	}
+
+	public void setStatus(String status) {
+		this.status = status;
+	}
+
+	public Long getDurationMillis() {
+		return durationMillis;
+	}
+
+	public void setDurationMillis(Long durationMillis) {
+		this.durationMillis = durationMillis;
+	}
+
+	public Map<String, String> getResolutionFilePaths() {
+		return resolutionFilePaths;
+	}
+
+	public void setResolutionFilePaths(Map<String, String> resolutionFilePaths) {
+		this.resolutionFilePaths = resolutionFilePaths;
+	}
+
+	public String getThumbnailBlurHash() {
+		return thumbnailBlurHash;
+	}
+
+	public void setThumbnailBlurHash(String thumbnailBlurHash) {
+		this.thumbnailBlurHash = thumbnailBlurHash;
+	}
+
+	public long getOccurredAt() {
+		return occurredAt;
+	}
+
+	public void setOccurredAt(long occurredAt) {
+		this.occurredAt = occurredAt;
+	}
+}
@@ -0,0 +1,90 @@
+package com.robspecs.events;
+
+import java.io.Serializable;
+
+/**
+ * Heartbeat as published to the "video-watch-heartbeats" topic (keyed by videoId).
+ * Kept flat and small; encoded with {@link WatchHeartbeatEventSchema}.
+ */
+public class WatchHeartbeatEvent implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private Long videoId;
+	private Long userId;
+	private String sessionId;
+	private long positionMillis;
+	private long watchedMillis;
+	private String rendition;
+	private long timestamp; // epoch millis when the heartbeat was received
+
+	public WatchHeartbeatEvent() {
+	}
+
+	public WatchHeartbeatEvent(Long videoId, Long userId, String sessionId, long positionMillis, long watchedMillis,
+			String rendition, long timestamp) {
+		this.videoId = videoId;
+		this.userId = userId;
+		this.sessionId = sessionId;
+		this.positionMillis = positionMillis;
+		this.watchedMillis = watchedMillis;
+		this.rendition = rendition;
+		this.timestamp = timestamp;
+	}
+
+	public Long getVideoId() {
+		return videoId;
+	}
+
+	public void setVideoId(Long videoId) {
+		this.videoId = videoId;
+	}
+
+	public Long getUserId() {
+		return userId;
+	}
+
+	public void setUserId(Long userId) {
+		this.userId = userId;
+	}
+
+	public String getSessionId() {
+		return sessionId;
+	}
+
+	public void setSessionId(String sessionId) {
+		this.sessionId = sessionId;
+	}
+
+	public long getPositionMillis() {
+		return positionMillis;
+	}
+
+	public void setPositionMillis(long positionMillis) {
+		this.positionMillis = positionMillis;
+	}
+
+	public long getWatchedMillis() {
+		return watchedMillis;
+	}
+
+	public void setWatchedMillis(long watchedMillis) {
+		this.watchedMillis = watchedMillis;
+	}
+
+	public String getRendition() {
+		return rendition;
+	}
+
+	public void setRendition(String rendition) {
+		this.rendition = rendition;
+	}
+
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	public void setTimestamp(long timestamp) {
+		this.timestamp = timestamp;
+	}
+}
@@ -0,0 +1,40 @@
+package com.robspecs.events;
+
+/**
+ * avro/WatchHeartbeatEvent.avsc: published by the streaming service, read by
+ * video-processor-service.
+ */
+public final class WatchHeartbeatEventSchema implements EventSchema<WatchHeartbeatEvent> {
+
+	public static final WatchHeartbeatEventSchema INSTANCE = new WatchHeartbeatEventSchema();
+
+	private WatchHeartbeatEventSchema() {
+	}
+
+	@Override
+	public String schemaResource() {
+		return "avro/WatchHeartbeatEvent.avsc";
+	}
+
+	@Override
+	public void write(WatchHeartbeatEvent event, AvroBinary.Writer out) {
+		out.writeLong(event.getVideoId());
+		out.writeNullableLong(event.getUserId());
+		out.writeNullableString(event.getSessionId());
+		out.writeLong(event.getPositionMillis());
+		out.writeLong(event.getWatchedMillis());
+		out.writeNullableString(event.getRendition());
+		out.writeLong(event.getTimestamp());
+	}
+
+	@Override
+	public WatchHeartbeatEvent read(AvroBinary.Reader in) {
+		return new WatchHeartbeatEvent(in.readLong(), in.readNullableLong(), in.readNullableString(), in.readLong(),
+				in.readLong(), in.readNullableString(), in.readLong());
+	}
+
+	@Override
+	public int expectedSize() {
+		return 64;
+	}
+}
@@ -0,0 +1,125 @@
+package com.robspecs.events;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.TextNode;
+
+/**
+ * The hand-written codec must produce exactly what the Avro library would, so any Avro
+ * consumer can read our topics. Expected values come from the Avro specification
+ * (binary encoding, Parsing Canonical Form, single-object encoding) and from the
+ * reference fingerprints in Avro's share/test/data/schema-tests.txt.
+ */
+class EventCodecTest {
+
+	private static final String REQUEST_CANONICAL_FORM = "{\"name\":\"com.robspecs.events.VideoProcessingRequest\","
+			+ "\"type\":\"record\",\"fields\":["
+			+ "{\"name\":\"videoId\",\"type\":\"long\"},"
+			+ "{\"name\":\"originalFilePath\",\"type\":\"string\"},"
+			+ "{\"name\":\"fileSize\",\"type\":[\"null\",\"long\"]},"
+			+ "{\"name\":\"uploadUserEmailOrUsername\",\"type\":[\"null\",\"string\"]},"
+			+ "{\"name\":\"uploadUserId\",\"type\":[\"null\",\"long\"]},"
+			+ "{\"name\":\"mediaInfo\",\"type\":[\"null\",{\"name\":\"com.robspecs.events.MediaInfo\","
+			+ "\"type\":\"record\",\"fields\":["
+			+ "{\"name\":\"container\",\"type\":[\"null\",\"string\"]},"
+			+ "{\"name\":\"videoCodec\",\"type\":[\"null\",\"string\"]},"
+			+ "{\"name\":\"audioCodec\",\"type\":[\"null\",\"string\"]},"
+			+ "{\"name\":\"width\",\"type\":[\"null\",\"int\"]},"
+			+ "{\"name\":\"height\",\"type\":[\"null\",\"int\"]},"
+			+ "{\"name\":\"durationMillis\",\"type\":[\"null\",\"long\"]}]}]}]}";
+
+	@Test
+	void primitiveFingerprintsMatchAvroReferenceValues() {
+		assertEquals(7195948357588979594L, SchemaFingerprint.of(TextNode.valueOf("null")));
+		assertEquals(-6970731678124411036L, SchemaFingerprint.of(TextNode.valueOf("boolean")));
+		assertEquals(8247732601305521295L, SchemaFingerprint.of(TextNode.valueOf("int")));
+		assertEquals(-3434872931120570953L, SchemaFingerprint.of(TextNode.valueOf("long")));
+		assertEquals(5583340709985441680L, SchemaFingerprint.of(TextNode.valueOf("float")));
+		assertEquals(-8181574048448539266L, SchemaFingerprint.of(TextNode.valueOf("double")));
+		assertEquals(5746618253357095269L, SchemaFingerprint.of(TextNode.valueOf("bytes")));
+		assertEquals(-8142146995180207161L, SchemaFingerprint.of(TextNode.valueOf("string")));
+	}
+
+	@Test
+	void schemaFileReducesToParsingCanonicalForm() throws Exception {
+		JsonNode schema = new ObjectMapper().readTree(
+				getClass().getClassLoader().getResourceAsStream("avro/VideoProcessingRequest.avsc"));
+
+		assertEquals(REQUEST_CANONICAL_FORM, SchemaFingerprint.canonicalForm(schema));
+		assertEquals(SchemaFingerprint.rabin(REQUEST_CANONICAL_FORM.getBytes(StandardCharsets.UTF_8)),
+				SchemaFingerprint.ofResource("avro/VideoProcessingRequest.avsc"));
+	}
+
+	@Test
+	void varintsUseZigZagEncoding() {
+		assertEquals("00", hex(new AvroBinary.Writer(8).writeLong(0)));
+		assertEquals("01", hex(new AvroBinary.Writer(8).writeLong(-1)));
+		assertEquals("02", hex(new AvroBinary.Writer(8).writeLong(1)));
+		assertEquals("7f", hex(new AvroBinary.Writer(8).writeLong(-64)));
+		assertEquals("8001", hex(new AvroBinary.Writer(8).writeLong(64)));
+		assertEquals("8101", hex(new AvroBinary.Writer(8).writeLong(-65)));
+		assertEquals("feffffffffffffffff01", hex(new AvroBinary.Writer(16).writeLong(Long.MAX_VALUE)));
+		assertEquals("06666f6f", hex(new AvroBinary.Writer(8).writeString("foo")));
+	}
+
+	@Test
+	void encodesSingleObjectHeaderAndBody() {
+		VideoProcessingRequest request = new VideoProcessingRequest(1L, "a", null, null, 2L);
+		MediaInfo mediaInfo = new MediaInfo("mp4");
+		mediaInfo.setWidth(1280);
+		mediaInfo.setDurationMillis(60000L);
+		request.setMediaInfo(mediaInfo);
+
+		byte[] encoded = new EventCodec<>(VideoProcessingRequestSchema.INSTANCE).encode(request);
+
+		long fingerprint = SchemaFingerprint.rabin(REQUEST_CANONICAL_FORM.getBytes(StandardCharsets.UTF_8));
+		byte[] header = new byte[10];
+		header[0] = (byte) 0xC3;
+		header[1] = (byte) 0x01;
+		for (int i = 0; i < 8; i++) {
+			header[2 + i] = (byte) (fingerprint >>> (8 * i)); // little-endian
+		}
+		assertArrayEquals(header, Arrays.copyOf(encoded, 10));
+		assertEquals("02" + "0261" + "00" + "00" + "0204" // videoId, path, fileSize, user, userId
+				+ "02" + "02066d7034" + "00" + "00" + "028014" + "00" + "02c0a907", // mediaInfo
+				hex(Arrays.copyOfRange(encoded, 10, encoded.length)));
+	}
+
+	@Test
+	void roundTripsAndRejectsUnknownFingerprints() {
+		EventCodec<VideoProcessingRequest> codec = new EventCodec<>(VideoProcessingRequestSchema.INSTANCE);
+		VideoProcessingRequest request = new VideoProcessingRequest(42L, "raw/42.mp4", 1024L, "user@example.com", 7L);
+
+		VideoProcessingRequest decoded = codec.decode(codec.encode(request));
+		assertEquals(42L, decoded.getVideoId());
+		assertEquals("raw/42.mp4", decoded.getOriginalFilePath());
+		assertEquals(1024L, decoded.getFileSize());
+		assertEquals("user@example.com", decoded.getUploadUserEmailOrUsername());
+		assertEquals(7L, decoded.getUploadUserId());
+		assertNull(decoded.getMediaInfo());
+
+		byte[] otherVersion = codec.encode(request);
+		otherVersion[2] ^= 1;
+		assertThrows(IllegalArgumentException.class, () -> codec.decode(otherVersion));
+		assertThrows(IllegalArgumentException.class, () -> codec.decode("{}".getBytes(StandardCharsets.UTF_8)));
+	}
+
+	private static String hex(AvroBinary.Writer out) {
+		return hex(out.toByteArray());
+	}
+
+	private static String hex(byte[] bytes) {
+		return HexFormat.of().formatHex(bytes);
+	}
+}
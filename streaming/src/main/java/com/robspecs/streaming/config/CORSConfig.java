@@ -30,7 +30,8 @@ public class CORSConfig implements WebMvcConfigurer {
 		// TODO Auto-generated method stub
 		registry.addMapping("/**").allowCredentials(allowedCredentials).allowedHeaders(allowedHeaders)
 				.allowedMethods(allowedMethods).allowedOrigins(allowedOrigins).maxAge(3600)
-				.exposedHeaders("Authorization");
+				// Upload-* and Location are read by the resumable upload client
+				.exposedHeaders("Authorization", "Location", "Upload-Offset", "Upload-Length", "Upload-Chunk-Size");
 		logger.debug("CORS mapping added for path '/**'");
 		logger.debug("Allowed Origins: {}", String.join(",", allowedOrigins));
 		logger.debug("Allowed Methods: {}", String.join(",", allowedMethods));
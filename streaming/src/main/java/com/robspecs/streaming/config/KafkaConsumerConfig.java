@@ -0,0 +1,157 @@
+package com.robspecs.streaming.config;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.util.backoff.FixedBackOff;
+
+import com.robspecs.events.ProcessorBacklogEvent;
+import com.robspecs.events.VideoProgressEvent;
+import com.robspecs.events.VideoStatusChangedEvent;
+
+@EnableKafka
+@Configuration
+public class KafkaConsumerConfig {
+
+	private static final Logger logger = LoggerFactory.getLogger(KafkaConsumerConfig.class);
+
+	public static final String VIDEO_STATUS_TOPIC = "video-status-events";
+	public static final String VIDEO_PROGRESS_TOPIC = "video-progress-events";
+	public static final String PROCESSOR_BACKLOG_TOPIC = "video-processor-backlog";
+
+	@Value("${spring.kafka.bootstrap-servers}")
+	private String bootstrapServers;
+
+	@Value("${status-events.topic.partitions:3}")
+	private int statusTopicPartitionCount;
+
+	@Value("${progress-events.consumer.group-prefix:streaming-progress}")
+	private String progressGroupPrefix;
+
+	@Value("${processor-backlog.consumer.group-prefix:streaming-admission}")
+	private String backlogGroupPrefix;
+
+	/**
+	 * Each node needs every status event, not a share of the partitions, so the read
+	 * model assigns itself all partitions (see {@link #statusTopicPartitions()}) and
+	 * replays the compacted topic from the start. There is no group: nothing is
+	 * committed and no consumer group is left behind when a node goes away.
+	 */
+	@Bean
+	public ConsumerFactory<String, VideoStatusChangedEvent> statusEventConsumerFactory() {
+		Map<String, Object> props = new HashMap<>();
+		props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+		props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+		props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+
+		JsonDeserializer<VideoStatusChangedEvent> jsonDeserializer = new JsonDeserializer<>(
+				VideoStatusChangedEvent.class);
+		jsonDeserializer.addTrustedPackages("*");
+		jsonDeserializer.setUseTypeHeaders(false);
+
+		return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(),
+				new ErrorHandlingDeserializer<>(jsonDeserializer));
+	}
+
+	@Bean
+	public ConcurrentKafkaListenerContainerFactory<String, VideoStatusChangedEvent> statusEventListenerContainerFactory() {
+		ConcurrentKafkaListenerContainerFactory<String, VideoStatusChangedEvent> factory = new ConcurrentKafkaListenerContainerFactory<>();
+		factory.setConsumerFactory(statusEventConsumerFactory());
+		// Applying an event can't fail in a retryable way; log and move on
+		factory.setCommonErrorHandler(new DefaultErrorHandler(new FixedBackOff(0L, 0L)));
+		return factory;
+	}
+
+	/**
+	 * Partition IDs of the status topic, for the read model's manual assignment. Falls
+	 * back to {@code status-events.topic.partitions} when the topic can't be described
+	 * yet (the processor service creates it).
+	 */
+	@Bean
+	public String[] statusTopicPartitions() {
+		try (Consumer<String, VideoStatusChangedEvent> consumer = statusEventConsumerFactory().createConsumer()) {
+			List<PartitionInfo> partitions = consumer.partitionsFor(VIDEO_STATUS_TOPIC);
+			if (partitions != null && !partitions.isEmpty()) {
+				return partitions.stream().map(p -> String.valueOf(p.partition())).toArray(String[]::new);
+			}
+		} catch (KafkaException e) {
+			logger.warn("Could not describe topic {}: {}", VIDEO_STATUS_TOPIC, e.getMessage());
+		}
+		logger.warn("Assuming {} partitions for topic {}", statusTopicPartitionCount, VIDEO_STATUS_TOPIC);
+		return IntStream.range(0, statusTopicPartitionCount).mapToObj(String::valueOf).toArray(String[]::new);
+	}
+
+	/**
+	 * Progress is pushed to whoever is connected to this node right now, so each node
+	 * reads every partition under its own group and starts at the live end.
+	 */
+	@Bean
+	public ConsumerFactory<String, VideoProgressEvent> progressEventConsumerFactory() {
+		Map<String, Object> props = new HashMap<>();
+		props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+		props.put(ConsumerConfig.GROUP_ID_CONFIG, progressGroupPrefix + "-" + UUID.randomUUID());
+		props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+
+		JsonDeserializer<VideoProgressEvent> jsonDeserializer = new JsonDeserializer<>(VideoProgressEvent.class);
+		jsonDeserializer.addTrustedPackages("*");
+		jsonDeserializer.setUseTypeHeaders(false);
+
+		return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(),
+				new ErrorHandlingDeserializer<>(jsonDeserializer));
+	}
+
+	@Bean
+	public ConcurrentKafkaListenerContainerFactory<String, VideoProgressEvent> progressEventListenerContainerFactory() {
+		ConcurrentKafkaListenerContainerFactory<String, VideoProgressEvent> factory = new ConcurrentKafkaListenerContainerFactory<>();
+		factory.setConsumerFactory(progressEventConsumerFactory());
+		factory.setCommonErrorHandler(new DefaultErrorHandler(new FixedBackOff(0L, 0L)));
+		return factory;
+	}
+
+	/**
+	 * Every node makes its own admission decisions, so each one reads all backlog
+	 * heartbeats under its own group, from the live end.
+	 */
+	@Bean
+	public ConsumerFactory<String, ProcessorBacklogEvent> backlogEventConsumerFactory() {
+		Map<String, Object> props = new HashMap<>();
+		props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+		props.put(ConsumerConfig.GROUP_ID_CONFIG, backlogGroupPrefix + "-" + UUID.randomUUID());
+		props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+
+		JsonDeserializer<ProcessorBacklogEvent> jsonDeserializer = new JsonDeserializer<>(ProcessorBacklogEvent.class);
+		jsonDeserializer.addTrustedPackages("*");
+		jsonDeserializer.setUseTypeHeaders(false);
+
+		return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(),
+				new ErrorHandlingDeserializer<>(jsonDeserializer));
+	}
+
+	@Bean
+	public ConcurrentKafkaListenerContainerFactory<String, ProcessorBacklogEvent> backlogEventListenerContainerFactory() {
+		ConcurrentKafkaListenerContainerFactory<String, ProcessorBacklogEvent> factory = new ConcurrentKafkaListenerContainerFactory<>();
+		factory.setConsumerFactory(backlogEventConsumerFactory());
+		factory.setCommonErrorHandler(new DefaultErrorHandler(new FixedBackOff(0L, 0L)));
+		return factory;
+	}
+}
@@ -4,6 +4,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -11,9 +12,13 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.ProducerListener;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 
-import com.robspecs.streaming.dto.VideoProcessingRequest;
+import com.robspecs.events.EventSerializer;
+import com.robspecs.events.VideoStatusChangedEvent;
+import com.robspecs.events.WatchHeartbeatEvent;
+import com.robspecs.events.WatchHeartbeatEventSchema;
 
 @Configuration
 public class KafkaProducerConfig {
@@ -21,27 +26,109 @@ public class KafkaProducerConfig {
 	@Value("${spring.kafka.bootstrap-servers}")
 	private String bootstrapServers;
 
-	@Bean
-	public ProducerFactory<String, VideoProcessingRequest> producerFactory() {
+	// Shared producer profile; each factory below starts from it and overrides what its events need
+	@Value("${kafka.producer.linger-ms:10}")
+	private int lingerMs;
+
+	@Value("${kafka.producer.batch-size:65536}")
+	private int batchSize;
+
+	@Value("${kafka.producer.compression-type:lz4}")
+	private String compressionType;
+
+	@Value("${kafka.producer.max-in-flight-requests:5}")
+	private int maxInFlightRequests;
+
+	@Value("${heartbeat.producer.linger-ms:20}")
+	private int heartbeatLingerMs;
+
+	@Value("${heartbeat.producer.batch-size:131072}")
+	private int heartbeatBatchSize;
+
+	/**
+	 * Durable, batched profile: acks=all with idempotence (ordered and duplicate-free
+	 * under retries with up to 5 in-flight requests), a short linger so concurrent
+	 * sends share a request, and compression of whole batches.
+	 */
+	private Map<String, Object> producerProfile(Class<?> valueSerializer) {
 		Map<String, Object> configProps = new HashMap<>();
 		configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
 		configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-		configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-		// Add more producer properties if needed, e.g., acks, retries, batch size
+		if (valueSerializer != null) { // null when the factory is given a serializer instance
+			configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, valueSerializer);
+		}
+		configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+		configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+		configProps.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, maxInFlightRequests);
+		configProps.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+		configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+		configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+		if (valueSerializer == JsonSerializer.class) {
+			configProps.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+		}
+		return configProps;
+	}
 
-		// Configure JsonSerializer to trust all packages (IMPORTANT for deserialization
-		// later)
-		// In a production environment, you should specify exact packages or use a
-		// custom TrustedPackagesConverter
-		configProps.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false); // No type info headers if using standard JSON
-		configProps.put(JsonSerializer.TYPE_MAPPINGS,
-				"videoProcessingRequest:com.robspecs.streaming.dto.VideoProcessingRequest");
+	// Every template reports completions to the shared metrics listener
+	private <V> KafkaTemplate<String, V> template(ProducerFactory<String, V> producerFactory,
+			KafkaProducerMetrics producerMetrics) {
+		KafkaTemplate<String, V> template = new KafkaTemplate<>(producerFactory);
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		ProducerListener<String, V> listener = (ProducerListener) producerMetrics;
+		template.setProducerListener(listener);
+		return template;
+	}
 
+	/**
+	 * Upload events are relayed from the outbox already encoded (Avro binary, see
+	 * events.VideoProcessingRequestSchema), using the shared profile as is.
+	 */
+	@Bean
+	public ProducerFactory<String, byte[]> uploadEventProducerFactory() {
+		Map<String, Object> configProps = producerProfile(ByteArraySerializer.class);
+		// The relay holds its outbox rows locked while sending; give up quickly and retry on the next run
+		configProps.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, 5000);
 		return new DefaultKafkaProducerFactory<>(configProps);
 	}
 
 	@Bean
-	public KafkaTemplate<String, VideoProcessingRequest> kafkaTemplate() {
-		return new KafkaTemplate<>(producerFactory());
+	public KafkaTemplate<String, byte[]> uploadEventKafkaTemplate(KafkaProducerMetrics producerMetrics) {
+		return template(uploadEventProducerFactory(), producerMetrics);
+	}
+
+	/**
+	 * Separate producer for player heartbeats: high volume and loss-tolerant, so it
+	 * trades durability (acks=1, no idempotence) for larger, compressed batches.
+	 */
+	@Bean
+	public ProducerFactory<String, WatchHeartbeatEvent> heartbeatProducerFactory() {
+		Map<String, Object> configProps = producerProfile(null);
+		configProps.put(ProducerConfig.ACKS_CONFIG, "1");
+		configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, false);
+		configProps.put(ProducerConfig.LINGER_MS_CONFIG, heartbeatLingerMs);
+		configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, heartbeatBatchSize);
+		// Never block a request thread for long if Kafka is unavailable; heartbeats are dropped instead
+		configProps.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, 1000);
+		// Highest-volume event: Avro binary is about a third of the JSON size and much cheaper to encode
+		return new DefaultKafkaProducerFactory<>(configProps, new StringSerializer(),
+				new EventSerializer<>(WatchHeartbeatEventSchema.INSTANCE));
+	}
+
+	@Bean
+	public KafkaTemplate<String, WatchHeartbeatEvent> heartbeatKafkaTemplate(KafkaProducerMetrics producerMetrics) {
+		return template(heartbeatProducerFactory(), producerMetrics);
+	}
+
+	/**
+	 * Only used to publish tombstones to the status topic when a video is deleted.
+	 */
+	@Bean
+	public ProducerFactory<String, VideoStatusChangedEvent> statusEventProducerFactory() {
+		return new DefaultKafkaProducerFactory<>(producerProfile(JsonSerializer.class));
+	}
+
+	@Bean
+	public KafkaTemplate<String, VideoStatusChangedEvent> statusEventKafkaTemplate(KafkaProducerMetrics producerMetrics) {
+		return template(statusEventProducerFactory(), producerMetrics);
 	}
 }
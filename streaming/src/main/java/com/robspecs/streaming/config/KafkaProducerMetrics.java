@@ -0,0 +1,98 @@
+package com.robspecs.streaming.config;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.support.ProducerListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Completion callback shared by every KafkaTemplate: counts acknowledged and failed
+ * sends per topic and the send-to-ack latency, taken from the record timestamp the
+ * producer sets when the record is handed to it. Totals are logged and reset on a
+ * fixed delay. Runs on the producer's I/O thread, so it only bumps counters.
+ */
+@Component
+public class KafkaProducerMetrics implements ProducerListener<Object, Object> {
+
+	private static final Logger logger = LoggerFactory.getLogger(KafkaProducerMetrics.class);
+
+	private final Map<String, TopicStats> topics = new ConcurrentHashMap<>();
+
+	@Override
+	public void onSuccess(ProducerRecord<Object, Object> record, RecordMetadata metadata) {
+		TopicStats stats = stats(record.topic());
+		stats.acknowledged.increment();
+		if (metadata.hasTimestamp()) {
+			long latency = Math.max(0, System.currentTimeMillis() - metadata.timestamp());
+			stats.latencyMillis.add(latency);
+			stats.maxLatencyMillis.accumulate(latency);
+		}
+	}
+
+	@Override
+	public void onError(ProducerRecord<Object, Object> record, RecordMetadata metadata, Exception exception) {
+		stats(record.topic()).failed.increment();
+		logger.debug("Kafka send to {} failed: {}", record.topic(), exception.getMessage());
+	}
+
+	/**
+	 * Acknowledged and failed sends to a topic since the last report.
+	 *
+	 * @return {acknowledged, failed, average latency ms, max latency ms}
+	 */
+	public long[] snapshot(String topic) {
+		TopicStats stats = topics.get(topic);
+		if (stats == null) {
+			return new long[] { 0, 0, 0, 0 };
+		}
+		long acknowledged = stats.acknowledged.sum();
+		return new long[] { acknowledged, stats.failed.sum(),
+				acknowledged > 0 ? stats.latencyMillis.sum() / acknowledged : 0, stats.maxLatencyMillis.get() };
+	}
+
+	@Scheduled(fixedDelayString = "${kafka.producer.metrics.log-interval-ms:60000}")
+	public void logAndReset() {
+		topics.forEach((topic, stats) -> {
+			long[] totals = snapshot(topic);
+			stats.reset();
+			if (totals[0] == 0 && totals[1] == 0) {
+				return;
+			}
+			if (totals[1] > 0) {
+				logger.warn("Kafka producer {}: {} acknowledged, {} FAILED, latency avg {} ms, max {} ms", topic,
+						totals[0], totals[1], totals[2], totals[3]);
+			} else {
+				logger.info("Kafka producer {}: {} acknowledged, latency avg {} ms, max {} ms", topic, totals[0],
+						totals[2], totals[3]);
+			}
+		});
+	}
+
+	private TopicStats stats(String topic) {
+		return topics.computeIfAbsent(topic, t -> new TopicStats());
+	}
+
+	private static final class TopicStats {
+
+		final LongAdder acknowledged = new LongAdder();
+		final LongAdder failed = new LongAdder();
+		final LongAdder latencyMillis = new LongAdder();
+		final LongAccumulator maxLatencyMillis = new LongAccumulator(Math::max, 0);
+
+		// Counts landing between the snapshot and the reset are dropped; fine for a periodic report
+		void reset() {
+			acknowledged.reset();
+			failed.reset();
+			latencyMillis.reset();
+			maxLatencyMillis.reset();
+		}
+	}
+}
@@ -0,0 +1,37 @@
+package com.robspecs.streaming.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.multipart.MultipartResolver;
+import org.springframework.web.multipart.support.StandardServletMultipartResolver;
+import org.springframework.web.servlet.DispatcherServlet;
+
+import com.robspecs.streaming.controller.VideoController;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Replaces Boot's default multipart resolver with one that leaves the video upload
+ * endpoint alone. That endpoint parses its body as a stream and writes the file straight
+ * to storage; resolving it here would make the container spool the whole upload to a
+ * temp file first, doubling the disk writes.
+ */
+@Configuration
+public class MultipartConfig {
+
+	@Bean(name = DispatcherServlet.MULTIPART_RESOLVER_BEAN_NAME)
+	public MultipartResolver multipartResolver() {
+		return new StandardServletMultipartResolver() {
+			@Override
+			public boolean isMultipart(HttpServletRequest request) {
+				return !VideoController.UPLOAD_PATH.equals(pathWithinApplication(request)) && super.isMultipart(request);
+			}
+		};
+	}
+
+	// The request URI would also carry the servlet context path, if one is configured
+	private static String pathWithinApplication(HttpServletRequest request) {
+		String pathInfo = request.getPathInfo();
+		return pathInfo != null ? request.getServletPath() + pathInfo : request.getServletPath();
+	}
+}
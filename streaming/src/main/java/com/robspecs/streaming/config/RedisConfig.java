@@ -10,6 +10,7 @@ import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
@@ -85,6 +86,16 @@ public class RedisConfig {
 		return objectMapper;
 	}
 
+	@Bean
+	public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory,
+			AsyncTaskExecutor redisMessageExecutor) {
+		RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+		container.setConnectionFactory(connectionFactory);
+		container.setTaskExecutor(redisMessageExecutor); // Listeners run on the dedicated executor
+		logger.debug("RedisMessageListenerContainer bean created");
+		return container;
+	}
+
 	@Bean(name = "redisMessageExecutor") // Explicitly named for clarity
 	public AsyncTaskExecutor redisMessageExecutor() {
 		logger.info("Configuring dedicated TaskExecutor 'redisMessageExecutor' for Redis message listeners.");
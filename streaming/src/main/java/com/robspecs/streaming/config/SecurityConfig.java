@@ -24,11 +24,14 @@ import com.robspecs.streaming.security.JWTAuthenticationEntryPoint;
 import com.robspecs.streaming.security.JWTAuthenticationFilter;
 import com.robspecs.streaming.security.JWTRefreshFilter;
 import com.robspecs.streaming.security.JWTValidationFilter;
+import com.robspecs.streaming.security.ThumbnailTokenValidationFilter;
 import com.robspecs.streaming.service.FileStorageService;
 import com.robspecs.streaming.service.TokenBlacklistService;
 import com.robspecs.streaming.service.VideoService;
 import com.robspecs.streaming.utils.JWTUtils;
+import com.robspecs.streaming.utils.ThumbnailTokenSigner;
 
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletResponse;
 
 @Configuration
@@ -54,7 +57,8 @@ public class SecurityConfig {
     @Bean
     public SecurityFilterChain securityFilterChain(AuthenticationManager authenticationManager, HttpSecurity http,
                                                      JWTUtils jwtUtils, CustomUserDetailsService customUserDetailsService,
-                                                     TokenBlacklistService tokenService) throws Exception {
+                                                     TokenBlacklistService tokenService,
+                                                     ThumbnailTokenSigner thumbnailTokenSigner) throws Exception {
 
         logger.info("Configuring SecurityFilterChain.");
 
@@ -73,6 +77,9 @@ public class SecurityConfig {
         HlsTokenValidationFilter hlsFilter = new HlsTokenValidationFilter(jwtUtils); // <--- ADD THIS
         logger.debug("HlsTokenValidationFilter instance created."); // <--- ADD THIS
 
+        ThumbnailTokenValidationFilter thumbnailFilter = new ThumbnailTokenValidationFilter(thumbnailTokenSigner);
+        logger.debug("ThumbnailTokenValidationFilter instance created.");
+
         return http
                 .csrf(AbstractHttpConfigurer::disable)
                 .cors(withDefaults())
@@ -98,6 +105,13 @@ public class SecurityConfig {
                     // Consolidated log message for clarity and accuracy
                     logger.debug("Public URLs configured: /api/auth/** endpoints and /api/videos/stream/** are permitted (HLS handled by HlsTokenValidationFilter).");
 
+                    // Plain images loaded via <img>, no auth header available: a signed per-video token instead
+                    auth.requestMatchers("/api/videos/thumbnails/**").hasRole("THUMBNAIL_VIEWER");
+
+                    // Async dispatches (SSE streams completing or timing out) belong to a request that was
+                    // already authorized; the stateless JWT context is gone by then
+                    auth.dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll();
+
                     auth.anyRequest().authenticated();
                     logger.debug("All other requests require authentication.");
                 })
@@ -105,6 +119,7 @@ public class SecurityConfig {
                 .addFilterBefore(authFilter, UsernamePasswordAuthenticationFilter.class)
                 // New: Add HlsTokenValidationFilter before the general JWTValidationFilter
                 .addFilterBefore(hlsFilter, JWTAuthenticationFilter.class) // <--- ADD THIS LINE (Before other JWT filters)
+                .addFilterBefore(thumbnailFilter, JWTAuthenticationFilter.class)
                 .addFilterAfter(validationFilter, JWTAuthenticationFilter.class)
                 .addFilterAfter(jwtRefreshFilter, JWTValidationFilter.class)
                 .build();
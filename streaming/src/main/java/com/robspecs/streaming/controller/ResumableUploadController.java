@@ -0,0 +1,124 @@
+package com.robspecs.streaming.controller;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.robspecs.streaming.dto.ResumableUploadRequest;
+import com.robspecs.streaming.dto.ResumableUploadStatusDTO;
+import com.robspecs.streaming.entities.User;
+import com.robspecs.streaming.exceptions.FileNotFoundException;
+import com.robspecs.streaming.service.ResumableUploadService;
+import com.robspecs.streaming.service.UploadAdmissionService;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Resumable uploads: POST creates a session, PATCH sends one chunk at its
+ * {@code Upload-Offset} (raw bytes, any order, in parallel), HEAD reports the offset to
+ * resume from, DELETE abandons the upload. Chunk bodies are read straight from the
+ * request stream, never through multipart parsing.
+ */
+@RestController
+@RequestMapping("/api/videos/uploads")
+public class ResumableUploadController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResumableUploadController.class);
+
+    private static final String UPLOAD_OFFSET = "Upload-Offset";
+    private static final String UPLOAD_LENGTH = "Upload-Length";
+    private static final String UPLOAD_CHUNK_SIZE = "Upload-Chunk-Size";
+
+    private final ResumableUploadService resumableUploadService;
+    private final UploadAdmissionService uploadAdmissionService;
+
+    public ResumableUploadController(ResumableUploadService resumableUploadService,
+            UploadAdmissionService uploadAdmissionService) {
+        this.resumableUploadService = resumableUploadService;
+        this.uploadAdmissionService = uploadAdmissionService;
+    }
+
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ResumableUploadStatusDTO> createUpload(@RequestBody ResumableUploadRequest request,
+            @AuthenticationPrincipal User currentUser) {
+        logger.info("Creating resumable upload of {} bytes for user: {}", request.getLength(),
+                currentUser.getUsername());
+        // Only new sessions are deferred; chunks of an admitted upload are always accepted
+        uploadAdmissionService.admit();
+        ResumableUploadStatusDTO status = resumableUploadService.create(request, currentUser);
+        return ResponseEntity.created(URI.create("/api/videos/uploads/" + status.getUploadId()))
+                .header(UPLOAD_OFFSET, String.valueOf(status.getOffset()))
+                .header(UPLOAD_LENGTH, String.valueOf(status.getLength()))
+                .header(UPLOAD_CHUNK_SIZE, String.valueOf(status.getChunkSize()))
+                .body(status);
+    }
+
+    @RequestMapping(value = "/{uploadId}", method = RequestMethod.HEAD)
+    public ResponseEntity<Void> getUploadOffset(@PathVariable String uploadId,
+            @AuthenticationPrincipal User currentUser) {
+        ResumableUploadStatusDTO status = resumableUploadService.getStatus(uploadId, currentUser);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .header(UPLOAD_OFFSET, String.valueOf(status.getOffset()))
+                .header(UPLOAD_LENGTH, String.valueOf(status.getLength()))
+                .header(UPLOAD_CHUNK_SIZE, String.valueOf(status.getChunkSize()))
+                .build();
+    }
+
+    @PatchMapping("/{uploadId}")
+    public ResponseEntity<ResumableUploadStatusDTO> uploadChunk(@PathVariable String uploadId,
+            @RequestHeader(UPLOAD_OFFSET) long offset, HttpServletRequest request,
+            @AuthenticationPrincipal User currentUser) throws IOException {
+        ResumableUploadStatusDTO status = resumableUploadService.writeChunk(uploadId, currentUser, offset,
+                request.getContentLengthLong(), request.getInputStream());
+        if (status.isComplete()) {
+            logger.info("Resumable upload {} finished as videoId {}", uploadId, status.getVideoId());
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .header(UPLOAD_OFFSET, String.valueOf(status.getOffset()))
+                .body(status);
+    }
+
+    @DeleteMapping("/{uploadId}")
+    public ResponseEntity<Void> abortUpload(@PathVariable String uploadId,
+            @AuthenticationPrincipal User currentUser) {
+        resumableUploadService.abort(uploadId, currentUser);
+        return ResponseEntity.noContent().build();
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleBadRequest(IllegalArgumentException e) {
+        logger.warn("Rejected resumable upload request: {}", e.getMessage());
+        return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+    }
+
+    @ExceptionHandler(FileNotFoundException.class)
+    public ResponseEntity<Map<String, String>> handleNotFound(FileNotFoundException e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", e.getMessage()));
+    }
+
+    @ExceptionHandler(SecurityException.class)
+    public ResponseEntity<Map<String, String>> handleForbidden(SecurityException e) {
+        logger.warn("Access denied to resumable upload: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("message", e.getMessage()));
+    }
+}
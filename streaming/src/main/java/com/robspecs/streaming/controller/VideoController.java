@@ -4,14 +4,19 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -19,7 +24,6 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.DeleteMapping;
-import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -29,16 +33,28 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.GetMapping; // Explicitly import GetMapping
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.robspecs.streaming.dto.AudienceRetentionDTO;
+import com.robspecs.streaming.dto.CursorPageDTO;
+import com.robspecs.streaming.dto.ThumbnailImage;
+import com.robspecs.streaming.dto.UniqueViewersDTO;
 import com.robspecs.streaming.dto.VideoDetailsDTO;
 import com.robspecs.streaming.dto.VideoUpdateRequest;
-import com.robspecs.streaming.dto.VideoUploadDTO;
+import com.robspecs.streaming.dto.VideoStatusSnapshot;
+import com.robspecs.streaming.dto.WatchHeartbeatRequest;
 import com.robspecs.streaming.entities.User;
 import com.robspecs.streaming.entities.Video;
 import com.robspecs.streaming.enums.VideoStatus;
 import com.robspecs.streaming.exceptions.FileNotFoundException;
 import com.robspecs.streaming.service.FileStorageService;
+import com.robspecs.streaming.service.ThumbnailService;
+import com.robspecs.streaming.service.UploadAdmissionService;
+import com.robspecs.streaming.service.VideoEventStreamService;
 import com.robspecs.streaming.service.VideoService;
+import com.robspecs.streaming.service.VideoStatusReadModel;
+import com.robspecs.streaming.service.WatchAnalyticsService;
 import com.robspecs.streaming.utils.JWTUtils;
 
 import jakarta.servlet.http.HttpServletRequest; // Import HttpServletRequest
@@ -49,37 +65,59 @@ public class VideoController {
 
     private static final Logger logger = LoggerFactory.getLogger(VideoController.class);
 
+    public static final String UPLOAD_PATH = "/api/videos/upload";
+
     private final VideoService videoService;
     private final FileStorageService fileStorageService;
     private final JWTUtils jwtUtils;
+    private final ThumbnailService thumbnailService;
+    private final WatchAnalyticsService watchAnalyticsService;
+    private final VideoStatusReadModel videoStatusReadModel;
+    private final VideoEventStreamService videoEventStreamService;
+    private final UploadAdmissionService uploadAdmissionService;
+
+    private static final int MAX_PAGE_SIZE = 100;
 
-    // Define file size thresholds in bytes for clarity
-    private static final long SMALL_VIDEO_THRESHOLD_BYTES = 10 * 1024 * 1024; // 10 MB
-    private static final long MEDIUM_VIDEO_THRESHOLD_BYTES = 50 * 1024 * 1024; // 50 MB
+    private static final Pattern PLAYLIST_URI_ATTRIBUTE = Pattern.compile("(?<=[:,])URI=\"([^\"]*)\"");
 
-    public VideoController(VideoService videoService, FileStorageService fileStorageService, JWTUtils jwtUtils) {
+    private static final String TRICKPLAY_VTT_FILE = "thumbnails.vtt";
+    private static final String HLS_MASTER_KEY = "hls_master";
+    private static final String HLS_MASTER_SUFFIX = "/hls/master.m3u8";
+    private static final Pattern TRICKPLAY_SPRITE_PATTERN = Pattern.compile("sprite-\\d+\\.jpg");
+
+    public VideoController(VideoService videoService, FileStorageService fileStorageService, JWTUtils jwtUtils,
+            ThumbnailService thumbnailService, WatchAnalyticsService watchAnalyticsService,
+            VideoStatusReadModel videoStatusReadModel, VideoEventStreamService videoEventStreamService,
+            UploadAdmissionService uploadAdmissionService) {
         this.videoService = videoService;
         this.fileStorageService = fileStorageService;
         this.jwtUtils = jwtUtils;
+        this.thumbnailService = thumbnailService;
+        this.watchAnalyticsService = watchAnalyticsService;
+        this.videoStatusReadModel = videoStatusReadModel;
+        this.videoEventStreamService = videoEventStreamService;
+        this.uploadAdmissionService = uploadAdmissionService;
     }
 
+    // The body is read as a raw stream (see MultipartConfig), so the file goes to storage without a temp copy
     @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<?> uploadVideo(@ModelAttribute VideoUploadDTO videoDTO,
-            @AuthenticationPrincipal User currentUser) {
+    public ResponseEntity<?> uploadVideo(HttpServletRequest request, @AuthenticationPrincipal User currentUser) {
 
         logger.info("Received video upload request for user: {}", currentUser.getUsername());
-
-        if (videoDTO.getFile() == null || videoDTO.getFile().isEmpty()) {
-            logger.warn("No file provided in upload request by user: {}", currentUser.getUsername());
-            return ResponseEntity.badRequest().body(Map.of("message", "No file provided"));
-        }
+        // Before reading the body: a deferred client should not have to send the whole file first
+        uploadAdmissionService.admit();
 
         try {
-            Video uploadedVideo = videoService.uploadVideo(videoDTO, currentUser);
+            Video uploadedVideo = videoService.uploadVideo(request.getInputStream(), request.getContentType(),
+                    currentUser);
             logger.info("Video upload initiated for videoId: {}", uploadedVideo.getVideoId());
             return ResponseEntity
                     .ok(Map.of("message", "Video upload initiated successfully. Processing will begin shortly.",
                             "videoId", uploadedVideo.getVideoId(), "videoName", uploadedVideo.getVideoName()));
+        } catch (MaxUploadSizeExceededException e) {
+            logger.warn("Video upload by user {} exceeded {} bytes", currentUser.getUsername(), e.getMaxUploadSize());
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                    .body(Map.of("message", "Video upload failed: file exceeds the maximum upload size."));
         } catch (IllegalArgumentException e) {
             logger.error("Video upload failed for user {}: {}", currentUser.getUsername(), e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -113,6 +151,23 @@ public class VideoController {
         }
     }
 
+    @GetMapping("/trending")
+    public ResponseEntity<List<VideoDetailsDTO>> getTrendingVideos(
+            @RequestParam(name = "page", defaultValue = "0") int page,
+            @RequestParam(name = "size", defaultValue = "20") int size,
+            @AuthenticationPrincipal User currentUser) {
+        logger.info("Fetching trending videos (page {}, size {}) for user: {}", page, size, currentUser.getUsername());
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().body(null);
+        }
+        try {
+            return ResponseEntity.ok(videoService.getTrendingVideos(page, size));
+        } catch (Exception e) {
+            logger.error("Error fetching trending videos: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+        }
+    }
+
     @GetMapping("/search")
     public ResponseEntity<VideoDetailsDTO> searchVideoByTitle(@RequestParam String title,
             @AuthenticationPrincipal User currentUser) {
@@ -154,19 +209,206 @@ public class VideoController {
         }
     }
 
+    @GetMapping("/{videoId}/unique-viewers")
+    public ResponseEntity<UniqueViewersDTO> getUniqueViewers(@PathVariable Long videoId,
+            @RequestParam(name = "date", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(name = "days", defaultValue = "1") int days,
+            @AuthenticationPrincipal User currentUser) {
+        logger.info("Fetching unique viewers for videoId: {} by user: {}", videoId, currentUser.getUsername());
+        LocalDate endDate = date != null ? date : LocalDate.now(ZoneOffset.UTC);
+        try {
+            return ResponseEntity.ok(videoService.getUniqueViewers(videoId, endDate, days));
+        } catch (FileNotFoundException e) {
+            logger.warn("Video not found for unique viewers: {}", videoId);
+            throw e;
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid unique viewers request for videoId {}: {}", videoId, e.getMessage());
+            return ResponseEntity.badRequest().body(null);
+        } catch (Exception e) {
+            logger.error("Error fetching unique viewers for videoId {}: {}", videoId, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+        }
+    }
+
+    @PostMapping("/{videoId}/heartbeat")
+    public ResponseEntity<Void> recordHeartbeat(@PathVariable Long videoId,
+            @RequestBody WatchHeartbeatRequest heartbeat,
+            @AuthenticationPrincipal User currentUser) {
+        // Hot path (every few seconds per viewer): no INFO logging and no database access
+        try {
+            watchAnalyticsService.recordHeartbeat(videoId, heartbeat, currentUser);
+            return ResponseEntity.accepted().build();
+        } catch (IllegalArgumentException e) {
+            logger.debug("Rejected heartbeat for videoId {}: {}", videoId, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            logger.error("Error recording heartbeat for videoId {}: {}", videoId, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    @GetMapping("/{videoId}/retention")
+    public ResponseEntity<AudienceRetentionDTO> getAudienceRetention(@PathVariable Long videoId,
+            @AuthenticationPrincipal User currentUser) {
+        logger.info("Fetching audience retention for videoId: {} by user: {}", videoId, currentUser.getUsername());
+        try {
+            return ResponseEntity.ok(watchAnalyticsService.getRetention(videoId));
+        } catch (FileNotFoundException e) {
+            logger.warn("Video not found for retention: {}", videoId);
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error fetching audience retention for videoId {}: {}", videoId, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+        }
+    }
+
     @GetMapping
-    public ResponseEntity<List<VideoDetailsDTO>> getAllVideos(@AuthenticationPrincipal User currentUser) {
+    public ResponseEntity<CursorPageDTO<VideoDetailsDTO>> getAllVideos(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = "24") int size,
+            @AuthenticationPrincipal User currentUser) {
         logger.info("Fetching all videos (admin view or public listing) for user: {}", currentUser.getUsername());
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().body(null);
+        }
         try {
-            List<VideoDetailsDTO> videos = videoService.getAllVideos();
+            CursorPageDTO<VideoDetailsDTO> videos = videoService.getAllVideos(cursor, size);
             return ResponseEntity.ok(videos);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid cursor for video listing: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(null);
         } catch (Exception e) {
             logger.error("Error fetching all videos: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
         }
     }
 
-  
+    /**
+     * Serves a thumbnail of a video. List endpoints only return a BlurHash
+     * placeholder, so clients paint that first and load this image lazily.
+     * Needs the video's thumbnailToken from those responses as ?token= (checked by
+     * ThumbnailTokenValidationFilter), so it can be used directly as an img src.
+     * The optional width is snapped to 160/320/640/1280; WebP is served when the
+     * client accepts it (or asks for it via format=webp) and the server can encode it.
+     */
+    @GetMapping("/thumbnails/{videoId}")
+    public ResponseEntity<byte[]> getThumbnail(@PathVariable Long videoId,
+            @RequestParam(name = "w", required = false) Integer width,
+            @RequestParam(name = "format", required = false) String format,
+            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+        logger.debug("Serving thumbnail for videoId: {} (w={}, format={})", videoId, width, format);
+        boolean preferWebp = format != null ? "webp".equalsIgnoreCase(format)
+                : (accept != null && accept.contains("image/webp"));
+        try {
+            ThumbnailImage thumbnail = thumbnailService.getThumbnail(videoId, width, preferWebp);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(thumbnail.getMediaType()))
+                    .contentLength(thumbnail.getData().length)
+                    .cacheControl(CacheControl.maxAge(7, TimeUnit.DAYS).cachePublic())
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                    .body(thumbnail.getData());
+        } catch (FileNotFoundException e) {
+            logger.debug("Thumbnail not found for videoId {}: {}", videoId, e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Serves trick-play (seek preview) assets: the WebVTT index and the sprite sheets it points to.
+     * Protected by the same HLS token as the playlists; sprite URLs inside the VTT get the token appended.
+     */
+    @GetMapping("/stream/{videoId}/trickplay/{fileName:.+}")
+    public ResponseEntity<?> streamTrickPlay(
+            @PathVariable Long videoId,
+            @PathVariable String fileName,
+            @RequestParam(name = "token", required = false) String hlsToken) {
+
+        logger.debug("Received trick-play request for videoId: {} file: {}", videoId, fileName);
+
+        boolean isIndex = TRICKPLAY_VTT_FILE.equals(fileName);
+        if (!isIndex && !TRICKPLAY_SPRITE_PATTERN.matcher(fileName).matches()) {
+            logger.warn("Unsupported trick-play file requested for videoId {}: {}", videoId, fileName);
+            return ResponseEntity.badRequest().body("Unsupported file type for trick-play.");
+        }
+
+        try {
+            VideoStatusSnapshot video = videoStatusReadModel.get(videoId);
+            if (video.getStatus() != VideoStatus.READY) {
+                return ResponseEntity.status(HttpStatus.LOCKED).body("Video not ready for streaming.");
+            }
+
+            String relativeFilePathToServe = processedDirectoryOf(video) + "/trickplay/" + fileName;
+            Resource resource = fileStorageService.loadFileAsResource(relativeFilePathToServe);
+
+            if (isIndex) {
+                String vttContent = new String(resource.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+                // Cue payloads look like "sprite-0.jpg#xywh=0,0,160,90"; the token goes before the fragment
+                String rewrittenVtt = vttContent.lines()
+                        .map(line -> {
+                            if (hlsToken != null && !hlsToken.isEmpty() && line.startsWith("sprite-")) {
+                                int fragmentStart = line.indexOf('#');
+                                String file = fragmentStart >= 0 ? line.substring(0, fragmentStart) : line;
+                                String fragment = fragmentStart >= 0 ? line.substring(fragmentStart) : "";
+                                return file + "?token=" + hlsToken + fragment;
+                            }
+                            return line;
+                        })
+                        .collect(Collectors.joining("\n"));
+                return ResponseEntity.ok()
+                        .contentType(MediaType.parseMediaType("text/vtt"))
+                        .contentLength(rewrittenVtt.getBytes(StandardCharsets.UTF_8).length)
+                        .cacheControl(CacheControl.maxAge(1, TimeUnit.HOURS).noTransform().mustRevalidate())
+                        .body(rewrittenVtt);
+            }
+
+            // Sprite sheets never change once written, so let the browser keep them
+            Path actualPath = fileStorageService.getFilePath(relativeFilePathToServe);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.IMAGE_JPEG)
+                    .contentLength(Files.size(actualPath))
+                    .cacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate().immutable())
+                    .body(resource);
+
+        } catch (FileNotFoundException e) {
+            logger.debug("Trick-play file not found for videoId {} / {}: {}", videoId, fileName, e.getMessage());
+            return ResponseEntity.notFound().build();
+        } catch (IOException e) {
+            logger.error("IO error serving trick-play file for videoId {} / {}: {}", videoId, fileName, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error reading trick-play file.");
+        }
+    }
+
+    /**
+     * Appends the HLS token to every URI in a playlist: plain URI lines (variant playlists,
+     * segments) and the URI="..." attribute of any tag that has one (EXT-X-MAP init sections,
+     * EXT-X-I-FRAME-STREAM-INF playlists, ...). HlsTokenValidationFilter rejects any untokenized fetch.
+     */
+    static String appendTokenToPlaylistUris(String playlistContent, String hlsToken) {
+        // The token should always be present here due to HlsTokenValidationFilter.
+        if (hlsToken == null || hlsToken.isEmpty()) {
+            return playlistContent.lines().collect(Collectors.joining("\n"));
+        }
+        return playlistContent.lines()
+                .map(line -> {
+                    if (line.trim().isEmpty()) {
+                        return line;
+                    }
+                    if (!line.startsWith("#")) {
+                        // Example: 360p.m3u8 -> 360p.m3u8?token={hlsToken}
+                        // Example: segment0001.ts -> segment0001.ts?token={hlsToken}
+                        return withToken(line, hlsToken);
+                    }
+                    Matcher uriMatcher = PLAYLIST_URI_ATTRIBUTE.matcher(line);
+                    return uriMatcher.replaceAll(match -> Matcher.quoteReplacement(
+                            "URI=\"" + withToken(match.group(1), hlsToken) + "\""));
+                })
+                .collect(Collectors.joining("\n"));
+    }
+
+    // Don't clobber an existing query string
+    private static String withToken(String uri, String hlsToken) {
+        return uri + (uri.contains("?") ? "&" : "?") + "token=" + hlsToken;
+    }
 
     @GetMapping("/stream/{videoId}/{resolutionOrSegment:.+}") // .+: captures anything including dots and slashes
     public ResponseEntity<?> streamHlsContent(
@@ -179,10 +421,10 @@ public class VideoController {
                 videoId, resolutionOrSegment, hlsToken != null);
 
         try {
-            // Retrieve video entity. This method will throw FileNotFoundException if not found.
+            // Status comes from the in-memory read model (throws FileNotFoundException if not found).
             // Importantly, the HlsTokenValidationFilter should have already authenticated
-            // and authorized this request, so findVideoById just retrieves the entity.
-            Video video = videoService.findVideoById(videoId);
+            // and authorized this request, so this is a plain lookup.
+            VideoStatusSnapshot video = videoStatusReadModel.get(videoId);
 
             // Ensure video is in a streamable status (READY)
             if (video.getStatus() != VideoStatus.READY) {
@@ -190,12 +432,8 @@ public class VideoController {
                 return ResponseEntity.status(HttpStatus.LOCKED).body("Video not ready for streaming."); // 423 Locked
             }
 
-            // Get the user ID associated with the video to construct the file path
-            Long userIdForPath = video.getUploadUser().getUserId();
-
-            // Construct the relative file path based on the user ID, video ID, and the requested segment/playlist
-            String relativeFilePathToServe = String.format("%d/videos/processed/%d/hls/%s",
-                    userIdForPath, videoId, resolutionOrSegment);
+            // Construct the relative file path from the video's processed directory and the requested segment/playlist
+            String relativeFilePathToServe = processedDirectoryOf(video) + "/hls/" + resolutionOrSegment;
 
             MediaType contentType;
             if (resolutionOrSegment.endsWith(".m3u8")) {
@@ -216,23 +454,7 @@ public class VideoController {
                 logger.debug("Rewriting HLS playlist for videoId: {}.", videoId);
                 String playlistContent = new String(resource.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
 
-                String rewrittenPlaylist = playlistContent.lines()
-                        .map(line -> {
-                            // Look for lines that are not comments or empty, and don't start with EXT-X-
-                            // These are typically relative paths to other .m3u8 files or .ts segments
-                            if (!line.startsWith("#") && !line.trim().isEmpty()) {
-                                // Append the token query parameter to the URL
-                                // Example: 360p.m3u8 -> 360p.m3u8?token={hlsToken}
-                                // Example: segment0001.ts -> segment0001.ts?token={hlsToken}
-                                // Ensure we don't double-add if it somehow already has a query.
-                                // The token should always be present here due to HlsTokenValidationFilter.
-                                if (hlsToken != null && !hlsToken.isEmpty()) {
-                                    return line + (line.contains("?") ? "&" : "?") + "token=" + hlsToken;
-                                }
-                            }
-                            return line; // Return unchanged for comments, directives, or if no token
-                        })
-                        .collect(Collectors.joining("\n"));
+                String rewrittenPlaylist = appendTokenToPlaylistUris(playlistContent, hlsToken);
 
                 // Return the rewritten playlist as a String in the ResponseEntity body
                 return ResponseEntity.ok()
@@ -271,17 +493,45 @@ public class VideoController {
    
 
     @GetMapping("/my-videos")
-    public ResponseEntity<List<VideoDetailsDTO>> getMyVideos(@AuthenticationPrincipal User currentUser) {
+    public ResponseEntity<CursorPageDTO<VideoDetailsDTO>> getMyVideos(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = "24") int size,
+            @AuthenticationPrincipal User currentUser) {
         logger.info("Fetching videos for current user: {}", currentUser.getUsername());
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().body(null);
+        }
         try {
-            List<VideoDetailsDTO> userVideos = videoService.getVideosByCurrentUser(currentUser);
+            CursorPageDTO<VideoDetailsDTO> userVideos = videoService.getVideosByCurrentUser(currentUser, cursor, size);
             return ResponseEntity.ok(userVideos);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid cursor for my-videos listing of user {}: {}", currentUser.getUsername(), e.getMessage());
+            return ResponseEntity.badRequest().body(null);
         } catch (Exception e) {
             logger.error("Error fetching videos for user {}: {}", currentUser.getUsername(), e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
         }
     }
 
+    /**
+     * Server-sent event stream of processing updates ("status" and "progress" events) for the
+     * current user's videos, replacing polling of /{videoId} or /my-videos after an upload.
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamVideoEvents(@AuthenticationPrincipal User currentUser) {
+        logger.info("Opening video event stream for user: {}", currentUser.getUsername());
+        try {
+            SseEmitter emitter = videoEventStreamService.subscribe(currentUser);
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noStore())
+                    .header("X-Accel-Buffering", "no") // Don't let reverse proxies buffer the stream
+                    .body(emitter);
+        } catch (IllegalStateException e) {
+            logger.warn("Rejected video event stream for user {}: {}", currentUser.getUsername(), e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        }
+    }
+
 
     @PatchMapping("/{videoId}")
     public ResponseEntity<VideoDetailsDTO> updateVideo(@PathVariable Long videoId,
@@ -341,7 +591,7 @@ public class VideoController {
 
         try {
             // 1. Validate user access to the video and its status
-            Video video = videoService.findVideoById(videoId);
+            VideoStatusSnapshot video = videoStatusReadModel.get(videoId);
 
             // Ensure video is in a streamable status (READY) before generating a token
             if (video.getStatus() != VideoStatus.READY) {
@@ -349,10 +599,10 @@ public class VideoController {
                 return ResponseEntity.status(HttpStatus.LOCKED).body("Video not ready for streaming."); // 423 Locked
             }
 
-            // Perform explicit authorization check here since findVideoById just gets the entity.
+            // Perform explicit authorization check here since the read model lookup is purely retrieval.
             // If getActualVideoEntity from VideoService already handles this based on @AuthenticationPrincipal,
-            // then this can be simplified. Assuming findVideoById is purely retrieval.
-//            if (!video.getUploadUser().getUserId().equals(currentUser.getUserId()) &&
+            // then this can be simplified.
+//            if (!video.getUploadUserId().equals(currentUser.getUserId()) &&
 //                currentUser.getRole() != com.robspecs.streaming.enums.Roles.ADMIN) {
 //                logger.warn("User {} attempted to generate HLS URL for video {} which they do not own and are not admin.",
 //                        currentUser.getUsername(), videoId);
@@ -399,4 +649,13 @@ public class VideoController {
                     .body("An unexpected error occurred while generating the stream URL.");
         }
     }
-}
\ No newline at end of file
+
+    // Where the renditions live: the video's own directory, or that of an earlier upload of the same content
+    private static String processedDirectoryOf(VideoStatusSnapshot video) {
+        String hlsMaster = video.getResolutionFilePaths() != null ? video.getResolutionFilePaths().get(HLS_MASTER_KEY) : null;
+        if (hlsMaster != null && hlsMaster.endsWith(HLS_MASTER_SUFFIX)) {
+            return hlsMaster.substring(0, hlsMaster.length() - HLS_MASTER_SUFFIX.length());
+        }
+        return String.format("%d/videos/processed/%d", video.getUploadUserId(), video.getVideoId());
+    }
+}
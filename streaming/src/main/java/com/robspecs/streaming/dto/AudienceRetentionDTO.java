@@ -0,0 +1,65 @@
+package com.robspecs.streaming.dto;
+
+/**
+ * Audience retention of a video. Bucket i covers playback positions
+ * [i * bucketSeconds, (i + 1) * bucketSeconds).
+ */
+public class AudienceRetentionDTO {
+	private Long videoId;
+	private int bucketSeconds;
+	private double[] averageViewers; // watched time in the bucket divided by the bucket length
+	private double[] retention; // averageViewers relative to the first bucket (1.0 = everyone who started)
+	private long totalWatchedSeconds;
+
+	public AudienceRetentionDTO() {
+	}
+
+	public AudienceRetentionDTO(Long videoId, int bucketSeconds, double[] averageViewers, double[] retention,
+			long totalWatchedSeconds) {
+		this.videoId = videoId;
+		this.bucketSeconds = bucketSeconds;
+		this.averageViewers = averageViewers;
+		this.retention = retention;
+		this.totalWatchedSeconds = totalWatchedSeconds;
+	}
+
+	public Long getVideoId() {
+		return videoId;
+	}
+
+	public void setVideoId(Long videoId) {
+		this.videoId = videoId;
+	}
+
+	public int getBucketSeconds() {
+		return bucketSeconds;
+	}
+
+	public void setBucketSeconds(int bucketSeconds) {
+		this.bucketSeconds = bucketSeconds;
+	}
+
+	public double[] getAverageViewers() {
+		return averageViewers;
+	}
+
+	public void setAverageViewers(double[] averageViewers) {
+		this.averageViewers = averageViewers;
+	}
+
+	public double[] getRetention() {
+		return retention;
+	}
+
+	public void setRetention(double[] retention) {
+		this.retention = retention;
+	}
+
+	public long getTotalWatchedSeconds() {
+		return totalWatchedSeconds;
+	}
+
+	public void setTotalWatchedSeconds(long totalWatchedSeconds) {
+		this.totalWatchedSeconds = totalWatchedSeconds;
+	}
+}
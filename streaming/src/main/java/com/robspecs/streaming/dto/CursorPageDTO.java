@@ -0,0 +1,46 @@
+package com.robspecs.streaming.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing. Pass {@code nextCursor} back as the
+ * {@code cursor} request parameter to get the following page.
+ */
+public class CursorPageDTO<T> {
+	private List<T> items;
+	private String nextCursor; // null on the last page
+	private boolean hasMore;
+
+	public CursorPageDTO() {
+	}
+
+	public CursorPageDTO(List<T> items, String nextCursor, boolean hasMore) {
+		this.items = items;
+		this.nextCursor = nextCursor;
+		this.hasMore = hasMore;
+	}
+
+	public List<T> getItems() {
+		return items;
+	}
+
+	public void setItems(List<T> items) {
+		this.items = items;
+	}
+
+	public String getNextCursor() {
+		return nextCursor;
+	}
+
+	public void setNextCursor(String nextCursor) {
+		this.nextCursor = nextCursor;
+	}
+
+	public boolean isHasMore() {
+		return hasMore;
+	}
+
+	public void setHasMore(boolean hasMore) {
+		this.hasMore = hasMore;
+	}
+}
@@ -0,0 +1,53 @@
+package com.robspecs.streaming.dto;
+
+/**
+ * Body of POST /api/videos/uploads: what the client is about to upload.
+ */
+public class ResumableUploadRequest {
+
+	private String title; // for videoName
+	private String description; // optional
+	private String fileName; // original file name, only its extension is kept
+	private String contentType; // must be video/*
+	private long length; // total size in bytes
+
+	public String getTitle() {
+		return title;
+	}
+
+	public void setTitle(String title) {
+		this.title = title;
+	}
+
+	public String getDescription() {
+		return description;
+	}
+
+	public void setDescription(String description) {
+		this.description = description;
+	}
+
+	public String getFileName() {
+		return fileName;
+	}
+
+	public void setFileName(String fileName) {
+		this.fileName = fileName;
+	}
+
+	public String getContentType() {
+		return contentType;
+	}
+
+	public void setContentType(String contentType) {
+		this.contentType = contentType;
+	}
+
+	public long getLength() {
+		return length;
+	}
+
+	public void setLength(long length) {
+		this.length = length;
+	}
+}
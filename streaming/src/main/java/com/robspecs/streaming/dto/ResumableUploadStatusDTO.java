@@ -0,0 +1,45 @@
+package com.robspecs.streaming.dto;
+
+/**
+ * State of a resumable upload session.
+ */
+public class ResumableUploadStatusDTO {
+
+	private final String uploadId;
+	private final long length;
+	private final long chunkSize;
+	private final long offset; // bytes received without gaps from the start; resume from here
+	private final Long videoId; // set once the last chunk arrived and the video was created
+
+	public ResumableUploadStatusDTO(String uploadId, long length, long chunkSize, long offset, Long videoId) {
+		this.uploadId = uploadId;
+		this.length = length;
+		this.chunkSize = chunkSize;
+		this.offset = offset;
+		this.videoId = videoId;
+	}
+
+	public String getUploadId() {
+		return uploadId;
+	}
+
+	public long getLength() {
+		return length;
+	}
+
+	public long getChunkSize() {
+		return chunkSize;
+	}
+
+	public long getOffset() {
+		return offset;
+	}
+
+	public Long getVideoId() {
+		return videoId;
+	}
+
+	public boolean isComplete() {
+		return videoId != null;
+	}
+}
@@ -0,0 +1,22 @@
+package com.robspecs.streaming.dto;
+
+/**
+ * An encoded thumbnail derivative together with its media type.
+ */
+public class ThumbnailImage {
+	private final byte[] data;
+	private final String mediaType; // e.g. "image/jpeg" or "image/webp"
+
+	public ThumbnailImage(byte[] data, String mediaType) {
+		this.data = data;
+		this.mediaType = mediaType;
+	}
+
+	public byte[] getData() {
+		return data;
+	}
+
+	public String getMediaType() {
+		return mediaType;
+	}
+}
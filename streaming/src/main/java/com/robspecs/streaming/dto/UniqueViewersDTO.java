@@ -0,0 +1,66 @@
+package com.robspecs.streaming.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Approximate unique-viewer counts of a video. Values are HyperLogLog estimates.
+ */
+public class UniqueViewersDTO {
+	private Long videoId;
+	private LocalDate fromDate; // first day (UTC) of the window, inclusive
+	private LocalDate toDate; // last day (UTC) of the window, inclusive
+	private long windowUniqueViewers;
+	private long allTimeUniqueViewers;
+
+	public UniqueViewersDTO() {
+	}
+
+	public UniqueViewersDTO(Long videoId, LocalDate fromDate, LocalDate toDate, long windowUniqueViewers,
+			long allTimeUniqueViewers) {
+		this.videoId = videoId;
+		this.fromDate = fromDate;
+		this.toDate = toDate;
+		this.windowUniqueViewers = windowUniqueViewers;
+		this.allTimeUniqueViewers = allTimeUniqueViewers;
+	}
+
+	public Long getVideoId() {
+		return videoId;
+	}
+
+	public void setVideoId(Long videoId) {
+		this.videoId = videoId;
+	}
+
+	public LocalDate getFromDate() {
+		return fromDate;
+	}
+
+	public void setFromDate(LocalDate fromDate) {
+		this.fromDate = fromDate;
+	}
+
+	public LocalDate getToDate() {
+		return toDate;
+	}
+
+	public void setToDate(LocalDate toDate) {
+		this.toDate = toDate;
+	}
+
+	public long getWindowUniqueViewers() {
+		return windowUniqueViewers;
+	}
+
+	public void setWindowUniqueViewers(long windowUniqueViewers) {
+		this.windowUniqueViewers = windowUniqueViewers;
+	}
+
+	public long getAllTimeUniqueViewers() {
+		return allTimeUniqueViewers;
+	}
+
+	public void setAllTimeUniqueViewers(long allTimeUniqueViewers) {
+		this.allTimeUniqueViewers = allTimeUniqueViewers;
+	}
+}
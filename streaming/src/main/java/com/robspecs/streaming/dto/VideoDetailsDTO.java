@@ -15,7 +15,8 @@ public class VideoDetailsDTO {
 	    private Long fileSize; // Added based on your VideoServiceImpl constructor
 	    private Long views;    // Added based on your VideoServiceImpl constructor
 	    private Map<String, String> resolutionFilePaths;
-	    private byte[] thumbnailData;
+	    private String thumbnailBlurHash; // Small placeholder; the image itself is served by /api/videos/thumbnails/{id}
+	    private String thumbnailToken; // ?token= for the thumbnail URL; set per response, never cached
 
 	public VideoDetailsDTO() {
 		// Default constructor
@@ -23,7 +24,7 @@ public class VideoDetailsDTO {
 
 	public VideoDetailsDTO(Long videoId,  String videoName, String description, Long fileSize, String status,
             Long durationMillis, Long views, String uploadUserName, Map<String, String> resolutionFilePaths,
-            byte[] thumbnailData) {
+            String thumbnailBlurHash) {
 		this.videoId = videoId;
 		this.videoName = videoName;
         this.description = description;
@@ -36,7 +37,25 @@ public class VideoDetailsDTO {
         this.views = views;
         this.uploadUsername = uploadUserName;
         this.resolutionFilePaths = resolutionFilePaths;
-        this.thumbnailData = thumbnailData; // Initialize thumbnailData
+        this.thumbnailBlurHash = thumbnailBlurHash;
+	}
+
+	/**
+	 * List-view projection, used by JPQL constructor expressions in VideosRepository.
+	 * Only scalar columns are selected: no resolution map and no thumbnail BLOB.
+	 */
+	public VideoDetailsDTO(Long videoId, String videoName, String description, Long fileSize, VideoStatus status,
+			Long durationMillis, Long views, Long uploadUserId, String uploadUsername, String thumbnailBlurHash) {
+		this.videoId = videoId;
+		this.videoName = videoName;
+		this.description = description;
+		this.fileSize = fileSize;
+		this.status = status;
+		this.durationMillis = durationMillis;
+		this.views = views;
+		this.uploadUserId = uploadUserId;
+		this.uploadUsername = uploadUsername;
+		this.thumbnailBlurHash = thumbnailBlurHash;
 	}
 
 	// --- Getters and Setters (auto-generate or write them out) ---
@@ -101,12 +120,20 @@ public class VideoDetailsDTO {
 
 	}
 
-	  public byte[] getThumbnailData() {
-	        return thumbnailData;
+	  public String getThumbnailBlurHash() {
+	        return thumbnailBlurHash;
+	    }
+
+	    public void setThumbnailBlurHash(String thumbnailBlurHash) {
+	        this.thumbnailBlurHash = thumbnailBlurHash;
+	    }
+
+	    public String getThumbnailToken() {
+	        return thumbnailToken;
 	    }
 
-	    public void setThumbnailData(byte[] thumbnailData) {
-	        this.thumbnailData = thumbnailData;
+	    public void setThumbnailToken(String thumbnailToken) {
+	        this.thumbnailToken = thumbnailToken;
 	    }
 
 		public Long getUploadUserId() {
@@ -0,0 +1,72 @@
+package com.robspecs.streaming.dto;
+
+/**
+ * Payload of the "status" and "progress" server-sent events on /api/videos/events.
+ */
+public class VideoProcessingUpdateDTO {
+
+	private Long videoId;
+	private String status; // VideoStatus name
+	private String stage; // Only set on progress events
+	private Integer percent; // 100 once READY
+	private String rendition; // Rendition being encoded, on transcode progress events
+	private Long etaSeconds; // Estimated time left, on transcode progress events
+
+	public VideoProcessingUpdateDTO() {
+	}
+
+	public VideoProcessingUpdateDTO(Long videoId, String status, String stage, Integer percent) {
+		this.videoId = videoId;
+		this.status = status;
+		this.stage = stage;
+		this.percent = percent;
+	}
+
+	public Long getVideoId() {
+		return videoId;
+	}
+
+	public void setVideoId(Long videoId) {
+		this.videoId = videoId;
+	}
+
+	public String getStatus() {
+		return status;
+	}
+
+	public void setStatus(String status) {
+		this.status = status;
+	}
+
+	public String getStage() {
+		return stage;
+	}
+
+	public void setStage(String stage) {
+		this.stage = stage;
+	}
+
+	public Integer getPercent() {
+		return percent;
+	}
+
+	public void setPercent(Integer percent) {
+		this.percent = percent;
+	}
+
+	public String getRendition() {
+		return rendition;
+	}
+
+	public void setRendition(String rendition) {
+		this.rendition = rendition;
+	}
+
+	public Long getEtaSeconds() {
+		return etaSeconds;
+	}
+
+	public void setEtaSeconds(Long etaSeconds) {
+		this.etaSeconds = etaSeconds;
+	}
+}
@@ -0,0 +1,54 @@
+package com.robspecs.streaming.dto;
+
+import java.util.Collections;
+import java.util.Map;
+
+import com.robspecs.streaming.enums.VideoStatus;
+
+/**
+ * Immutable view of a video's processing state, as kept by the in-memory read model.
+ */
+public final class VideoStatusSnapshot {
+
+	private final Long videoId;
+	private final Long uploadUserId;
+	private final VideoStatus status;
+	private final Long durationMillis;
+	private final Map<String, String> resolutionFilePaths;
+	private final long occurredAt; // 0 when loaded from the database, so any event supersedes it
+
+	public VideoStatusSnapshot(Long videoId, Long uploadUserId, VideoStatus status, Long durationMillis,
+			Map<String, String> resolutionFilePaths, long occurredAt) {
+		this.videoId = videoId;
+		this.uploadUserId = uploadUserId;
+		this.status = status;
+		this.durationMillis = durationMillis;
+		this.resolutionFilePaths = resolutionFilePaths != null ? Map.copyOf(resolutionFilePaths)
+				: Collections.emptyMap();
+		this.occurredAt = occurredAt;
+	}
+
+	public Long getVideoId() {
+		return videoId;
+	}
+
+	public Long getUploadUserId() {
+		return uploadUserId;
+	}
+
+	public VideoStatus getStatus() {
+		return status;
+	}
+
+	public Long getDurationMillis() {
+		return durationMillis;
+	}
+
+	public Map<String, String> getResolutionFilePaths() {
+		return resolutionFilePaths;
+	}
+
+	public long getOccurredAt() {
+		return occurredAt;
+	}
+}
@@ -0,0 +1,43 @@
+package com.robspecs.streaming.dto;
+
+/**
+ * Body of a player heartbeat, sent every few seconds while a video is playing.
+ */
+public class WatchHeartbeatRequest {
+	private Double positionSeconds; // current playback position
+	private Double watchedSeconds; // playback time since the previous heartbeat
+	private String rendition; // e.g. "720p", or "auto" if unknown
+	private String sessionId; // random per player instance
+
+	public Double getPositionSeconds() {
+		return positionSeconds;
+	}
+
+	public void setPositionSeconds(Double positionSeconds) {
+		this.positionSeconds = positionSeconds;
+	}
+
+	public Double getWatchedSeconds() {
+		return watchedSeconds;
+	}
+
+	public void setWatchedSeconds(Double watchedSeconds) {
+		this.watchedSeconds = watchedSeconds;
+	}
+
+	public String getRendition() {
+		return rendition;
+	}
+
+	public void setRendition(String rendition) {
+		this.rendition = rendition;
+	}
+
+	public String getSessionId() {
+		return sessionId;
+	}
+
+	public void setSessionId(String sessionId) {
+		this.sessionId = sessionId;
+	}
+}
@@ -0,0 +1,80 @@
+package com.robspecs.streaming.entities;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.CreationTimestamp;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * An upload event waiting to be published to its lane's topic. Written in the
+ * same transaction as the video row, so the event exists if and only if the upload
+ * committed; the relay deletes it once Kafka has acknowledged it.
+ */
+@Entity
+@Table(name = "video_upload_outbox")
+public class UploadOutboxEvent {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@Column(name = "video_id", nullable = false)
+	private Long videoId; // Kafka key
+
+	@Column(length = 64)
+	private String topic; // ProcessingLane topic; null for rows queued before lanes existed
+
+	@Column(nullable = false, columnDefinition = "BLOB")
+	private byte[] payload; // VideoProcessingRequest, encoded as sent (see events.EventCodec)
+
+	@CreationTimestamp
+	@Column(name = "created_at", nullable = false, updatable = false)
+	private LocalDateTime createdAt;
+
+	public UploadOutboxEvent() {
+	}
+
+	public UploadOutboxEvent(Long videoId, String topic, byte[] payload) {
+		this.videoId = videoId;
+		this.topic = topic;
+		this.payload = payload;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public Long getVideoId() {
+		return videoId;
+	}
+
+	public void setVideoId(Long videoId) {
+		this.videoId = videoId;
+	}
+
+	public String getTopic() {
+		return topic;
+	}
+
+	public void setTopic(String topic) {
+		this.topic = topic;
+	}
+
+	public byte[] getPayload() {
+		return payload;
+	}
+
+	public void setPayload(byte[] payload) {
+		this.payload = payload;
+	}
+
+	public LocalDateTime getCreatedAt() {
+		return createdAt;
+	}
+}
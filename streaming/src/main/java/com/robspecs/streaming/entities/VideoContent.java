@@ -0,0 +1,62 @@
+package com.robspecs.streaming.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Processed output shared by every video uploaded with the same content hash. The
+ * renditions live in the processed directory of the video that was transcoded first
+ * ({@code sourceVideoId}); {@code refCount} counts the videos serving from it, and the
+ * directory is only deleted when the last of them is.
+ */
+@Entity
+@Table(name = "video_contents")
+public class VideoContent {
+
+	@Id
+	@Column(name = "content_hash", length = 64)
+	private String contentHash;
+
+	@Column(name = "processed_directory", length = 512)
+	private String processedDirectory;
+
+	@Column(name = "source_video_id")
+	private Long sourceVideoId;
+
+	@Column(name = "ref_count", nullable = false)
+	private Integer refCount = 0;
+
+	public String getContentHash() {
+		return contentHash;
+	}
+
+	public void setContentHash(String contentHash) {
+		this.contentHash = contentHash;
+	}
+
+	public String getProcessedDirectory() {
+		return processedDirectory;
+	}
+
+	public void setProcessedDirectory(String processedDirectory) {
+		this.processedDirectory = processedDirectory;
+	}
+
+	public Long getSourceVideoId() {
+		return sourceVideoId;
+	}
+
+	public void setSourceVideoId(Long sourceVideoId) {
+		this.sourceVideoId = sourceVideoId;
+	}
+
+	public Integer getRefCount() {
+		return refCount;
+	}
+
+	public void setRefCount(Integer refCount) {
+		this.refCount = refCount;
+	}
+}
@@ -0,0 +1,89 @@
+package com.robspecs.streaming.entities;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+
+/**
+ * One bucket of a video's audience-retention histogram: total watched time at
+ * playback positions [bucketIndex * bucketSeconds, (bucketIndex + 1) * bucketSeconds).
+ * Rows are only ever incremented by the heartbeat aggregator in video-processor-service.
+ */
+@Entity
+@Table(name = "video_retention_buckets")
+@IdClass(VideoRetentionBucket.Key.class)
+public class VideoRetentionBucket {
+
+	@Id
+	@Column(name = "video_id")
+	private Long videoId;
+
+	@Id
+	@Column(name = "bucket_index")
+	private Integer bucketIndex;
+
+	@Column(name = "watched_millis", nullable = false)
+	private Long watchedMillis = 0L;
+
+	public Long getVideoId() {
+		return videoId;
+	}
+
+	public void setVideoId(Long videoId) {
+		this.videoId = videoId;
+	}
+
+	public Integer getBucketIndex() {
+		return bucketIndex;
+	}
+
+	public void setBucketIndex(Integer bucketIndex) {
+		this.bucketIndex = bucketIndex;
+	}
+
+	public Long getWatchedMillis() {
+		return watchedMillis;
+	}
+
+	public void setWatchedMillis(Long watchedMillis) {
+		this.watchedMillis = watchedMillis;
+	}
+
+	public static class Key implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private Long videoId;
+		private Integer bucketIndex;
+
+		public Key() {
+		}
+
+		public Key(Long videoId, Integer bucketIndex) {
+			this.videoId = videoId;
+			this.bucketIndex = bucketIndex;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) o;
+			return Objects.equals(videoId, other.videoId) && Objects.equals(bucketIndex, other.bucketIndex);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(videoId, bucketIndex);
+		}
+	}
+}
@@ -5,6 +5,7 @@ import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -21,6 +22,7 @@ import com.robspecs.streaming.exceptions.OtpCooldownException;
 import com.robspecs.streaming.exceptions.TokenNotFoundException;
 import com.robspecs.streaming.exceptions.TooManyOtpAttemptsException;
 import com.robspecs.streaming.exceptions.UnauthorizedException;
+import com.robspecs.streaming.exceptions.UploadThrottledException;
 import com.robspecs.streaming.exceptions.UserAlreadyExistsException;
 import com.robspecs.streaming.exceptions.VideoRetrievalException;
 
@@ -78,6 +80,19 @@ public class GlobalExceptionHandler {
 		return new ResponseEntity<>(ex.getMessage(), HttpStatus.TOO_MANY_REQUESTS);
 	}
 
+	/**
+	 * Handles UploadThrottledException (HTTP 503 Service Unavailable). Occurs when a
+	 * new upload is deferred because video processing is backlogged; Retry-After says
+	 * when to try again.
+	 */
+	@ExceptionHandler(UploadThrottledException.class)
+	public ResponseEntity<Map<String, Object>> handleUploadThrottledException(UploadThrottledException ex) {
+		logger.warn("UploadThrottledException caught: {}", ex.getMessage());
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+				.header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+				.body(Map.of("message", ex.getMessage(), "retryAfterSeconds", ex.getRetryAfterSeconds()));
+	}
+
 	/**
 	 * Handles InvalidOtpException (HTTP 400 Bad Request). Occurs when an OTP is
 	 * invalid or expired.
@@ -0,0 +1,19 @@
+package com.robspecs.streaming.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE) // HTTP 503, with Retry-After
+public class UploadThrottledException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public UploadThrottledException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
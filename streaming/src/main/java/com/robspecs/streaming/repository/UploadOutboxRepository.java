@@ -0,0 +1,18 @@
+package com.robspecs.streaming.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.robspecs.streaming.entities.UploadOutboxEvent;
+
+@Repository
+public interface UploadOutboxRepository extends JpaRepository<UploadOutboxEvent, Long> {
+
+	// Oldest pending events, locked until the relay's transaction ends; SKIP LOCKED lets every node relay its own batch
+	@Query(value = "select * from video_upload_outbox order by id limit :limit for update skip locked", nativeQuery = true)
+	List<UploadOutboxEvent> lockOldest(@Param("limit") int limit);
+}
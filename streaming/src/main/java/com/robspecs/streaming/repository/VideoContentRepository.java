@@ -0,0 +1,27 @@
+package com.robspecs.streaming.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.robspecs.streaming.entities.VideoContent;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface VideoContentRepository extends JpaRepository<VideoContent, String> {
+
+	// Concurrent first uploads of the same file race here; INSERT IGNORE lets both continue to the row lock
+	@Modifying
+	@Query(value = "insert ignore into video_contents (content_hash, ref_count) values (:contentHash, 0)", nativeQuery = true)
+	int insertIfAbsent(@Param("contentHash") String contentHash);
+
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("select c from VideoContent c where c.contentHash = :contentHash")
+	Optional<VideoContent> findForUpdate(@Param("contentHash") String contentHash);
+}
@@ -0,0 +1,23 @@
+package com.robspecs.streaming.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.robspecs.streaming.entities.VideoRetentionBucket;
+
+@Repository
+public interface VideoRetentionRepository extends JpaRepository<VideoRetentionBucket, VideoRetentionBucket.Key> {
+
+	List<VideoRetentionBucket> findByVideoIdOrderByBucketIndex(Long videoId);
+
+	@Transactional
+	@Modifying
+	@Query("delete from VideoRetentionBucket b where b.videoId = :videoId")
+	int deleteByVideoId(@Param("videoId") Long videoId);
+}
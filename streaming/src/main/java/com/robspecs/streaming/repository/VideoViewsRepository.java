@@ -0,0 +1,21 @@
+package com.robspecs.streaming.repository;
+
+import java.util.Map;
+
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Custom fragment of {@link VideosRepository} for writing batched view-count deltas.
+ */
+public interface VideoViewsRepository {
+
+	/**
+	 * Adds the given deltas to videos.views using multi-row UPDATE statements
+	 * ({@code SET views = views + CASE video_id WHEN ... END}), one per chunk of videos.
+	 *
+	 * @param deltas View increments keyed by video ID.
+	 * @return Number of rows updated.
+	 */
+	@Transactional // All chunks commit together, so a failed flush can be retried without double counting
+	int addViews(Map<Long, Long> deltas);
+}
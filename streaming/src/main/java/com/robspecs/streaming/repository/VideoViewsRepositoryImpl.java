@@ -0,0 +1,43 @@
+package com.robspecs.streaming.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+public class VideoViewsRepositoryImpl implements VideoViewsRepository {
+
+	// Keeps each statement well below MySQL's max_allowed_packet and placeholder limits
+	private static final int MAX_ROWS_PER_STATEMENT = 500;
+
+	private final JdbcTemplate jdbcTemplate;
+
+	public VideoViewsRepositoryImpl(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	@Override
+	public int addViews(Map<Long, Long> deltas) {
+		List<Map.Entry<Long, Long>> entries = new ArrayList<>(deltas.entrySet());
+		int updated = 0;
+		for (int start = 0; start < entries.size(); start += MAX_ROWS_PER_STATEMENT) {
+			List<Map.Entry<Long, Long>> chunk = entries.subList(start, Math.min(entries.size(), start + MAX_ROWS_PER_STATEMENT));
+			StringBuilder sql = new StringBuilder("UPDATE videos SET views = views + CASE video_id");
+			List<Object> args = new ArrayList<>(chunk.size() * 3);
+			for (Map.Entry<Long, Long> entry : chunk) {
+				sql.append(" WHEN ? THEN ?");
+				args.add(entry.getKey());
+				args.add(entry.getValue());
+			}
+			sql.append(" ELSE 0 END WHERE video_id IN (");
+			for (int i = 0; i < chunk.size(); i++) {
+				sql.append(i == 0 ? "?" : ",?");
+				args.add(chunk.get(i).getKey());
+			}
+			sql.append(')');
+			updated += jdbcTemplate.update(sql.toString(), args.toArray());
+		}
+		return updated;
+	}
+}
@@ -1,28 +1,75 @@
 package com.robspecs.streaming.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.robspecs.streaming.dto.VideoDetailsDTO;
 import com.robspecs.streaming.entities.User;
 import com.robspecs.streaming.entities.Video;
+import com.robspecs.streaming.enums.VideoStatus;
 
 import jakarta.persistence.LockModeType;
 
 @Repository
-public interface VideosRepository extends JpaRepository<Video, Long> {
+public interface VideosRepository extends JpaRepository<Video, Long>, VideoViewsRepository {
 
-	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	// Plain read: this runs for every stream request, and no caller updates the row under this lock
+	@Lock(LockModeType.NONE)
 	@Override // It's good practice to mark overridden methods explicitly
 	Optional<Video> findById(Long id);
 
+	// Everything VideoDetailsDTO needs in one statement (uploader and resolution map fetched with the video)
+	@Query("select distinct v from Video v join fetch v.uploadUser left join fetch v.resolutionFilePaths where v.videoId = :videoId")
+	Optional<Video> findDetailsById(@Param("videoId") Long videoId);
+
 	Optional<Video> findByVideoNameAndUploadUser(String videoName, User user);
 
 	Optional<Video> findByVideoIdAndUploadUser(Long id, User user);
 
-	List<Video> findAllByUploadUser(User user);
+	// Candidates for sharing renditions with a new upload of the same file
+	@Query("select distinct v from Video v left join fetch v.resolutionFilePaths where v.contentHash = :contentHash and v.status = :status")
+	List<Video> findByContentHashAndStatus(@Param("contentHash") String contentHash, @Param("status") VideoStatus status);
+
+	// List views select a constructor projection: one query, scalar columns only (no thumbnail BLOB, no
+	// video_resolutions collection, no separate user load). Keyset pagination, newest first:
+	// "videoId < cursor ORDER BY videoId DESC" walks the primary key (or idx_upload_user_video for one user)
+	// from the cursor, so deep pages cost the same as the first one.
+	String VIDEO_SUMMARY_SELECT = "select new com.robspecs.streaming.dto.VideoDetailsDTO(v.videoId, v.videoName, "
+			+ "v.description, v.fileSize, v.status, v.durationMillis, v.views, u.userId, u.userName, v.thumbnailBlurHash) "
+			+ "from Video v join v.uploadUser u ";
+
+	@Query(VIDEO_SUMMARY_SELECT + "where v.videoId < :cursor order by v.videoId desc")
+	List<VideoDetailsDTO> findVideoSummariesBefore(@Param("cursor") Long cursor, Pageable pageable);
+
+	@Query(VIDEO_SUMMARY_SELECT + "where v.uploadUser.userId = :userId and v.videoId < :cursor order by v.videoId desc")
+	List<VideoDetailsDTO> findVideoSummariesByUserBefore(@Param("userId") Long userId, @Param("cursor") Long cursor,
+			Pageable pageable);
+
+	// Videos of one user still being processed; read once when the user opens an event stream
+	@Query(VIDEO_SUMMARY_SELECT + "where v.uploadUser.userId = :userId and v.status in :statuses order by v.videoId desc")
+	List<VideoDetailsDTO> findVideoSummariesByUserAndStatusIn(@Param("userId") Long userId,
+			@Param("statuses") Collection<VideoStatus> statuses);
+
+	@Query(VIDEO_SUMMARY_SELECT + "where v.videoId in :videoIds")
+	List<VideoDetailsDTO> findVideoSummariesByIds(@Param("videoIds") Collection<Long> videoIds);
+
+	// Loads only the thumbnail column, without locking the row or fetching the uploader
+	@Query("select v.thumbnailData from Video v where v.videoId = :videoId")
+	Optional<byte[]> findThumbnailDataByVideoId(@Param("videoId") Long videoId);
+
+	// Plain read of the counter (no row lock); used to seed the Redis view counter
+	@Query("select v.views from Video v where v.videoId = :videoId")
+	Optional<Long> findViewsByVideoId(@Param("videoId") Long videoId);
+
+	@Query("select value(r) from Video v join v.resolutionFilePaths r where v.videoId = :videoId and key(r) = :resolutionKey")
+	Optional<String> findResolutionFilePath(@Param("videoId") Long videoId, @Param("resolutionKey") String resolutionKey);
 
 }
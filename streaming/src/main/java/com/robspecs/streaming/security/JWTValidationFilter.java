@@ -55,6 +55,7 @@ public class JWTValidationFilter extends OncePerRequestFilter {
 	        // This filter should NOT run for HLS stream paths, as HlsTokenValidationFilter handles them.
 	        // It also should skip other public/authentication endpoints already handled by other filters or explicitly permitted.
 	        return path.startsWith("/api/videos/stream/") || // **CRITICAL for HLS**
+	               path.startsWith("/api/videos/thumbnails/") || // ThumbnailTokenValidationFilter handles them
 	               PUBLIC_URLS.contains(path); // Uses your existing PUBLIC_URLS list
 	    }
 	
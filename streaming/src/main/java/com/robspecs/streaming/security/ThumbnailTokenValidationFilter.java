@@ -0,0 +1,85 @@
+package com.robspecs.streaming.security;
+
+import com.robspecs.streaming.utils.ThumbnailTokenSigner;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Thumbnails are loaded via img tags, which can't send the bearer token, so list
+ * responses carry a signed per-video token instead (see {@link ThumbnailTokenSigner}).
+ * A valid token for the video in the path grants ROLE_THUMBNAIL_VIEWER for this request.
+ */
+public class ThumbnailTokenValidationFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThumbnailTokenValidationFilter.class);
+
+    public static final String THUMBNAIL_PATH_PREFIX = "/api/videos/thumbnails/";
+
+    private final ThumbnailTokenSigner thumbnailTokenSigner;
+
+    public ThumbnailTokenValidationFilter(ThumbnailTokenSigner thumbnailTokenSigner) {
+        this.thumbnailTokenSigner = thumbnailTokenSigner;
+        logger.info("ThumbnailTokenValidationFilter initialized.");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        String path = request.getServletPath();
+        Long videoId = extractVideoIdFromPath(path);
+        String token = request.getParameter("token");
+
+        if (token == null || token.isEmpty()) {
+            logger.debug("Thumbnail token is missing for path: {}", path);
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            response.setContentType("application/json");
+            response.getWriter().write("{\"error\": \"Thumbnail Token Missing\"}");
+            return;
+        }
+        if (!thumbnailTokenSigner.isValid(videoId, token)) {
+            logger.debug("Invalid or expired thumbnail token for path: {}", path);
+            response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+            response.setContentType("application/json");
+            response.getWriter().write("{\"error\": \"Invalid Thumbnail Token\"}");
+            return;
+        }
+
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                "thumbnail-" + videoId, null, AuthorityUtils.createAuthorityList("ROLE_THUMBNAIL_VIEWER"));
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * @return The ID from /api/videos/thumbnails/{videoId}, or null if the path has no valid ID.
+     */
+    private Long extractVideoIdFromPath(String path) {
+        String idSegment = path.substring(THUMBNAIL_PATH_PREFIX.length());
+        int nextSlash = idSegment.indexOf('/');
+        if (nextSlash >= 0) {
+            idSegment = idSegment.substring(0, nextSlash);
+        }
+        try {
+            return Long.parseLong(idSegment);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) throws ServletException {
+        return !request.getServletPath().startsWith(THUMBNAIL_PATH_PREFIX);
+    }
+}
@@ -53,6 +53,18 @@ public interface FileStorageService {
 
 
 
+	/**
+     * Moves an already stored file (e.g. a completed staged upload) into a user's video folder.
+     *
+     * @param sourceRelativePath The relative path of the file to move.
+     * @param fileName The name of the file in its new location.
+     * @param userId The ID of the owner, used for the user-specific folder.
+     * @param typeSubdirectory Subdirectory within the user's video folder (e.g., "raw").
+     * @return The relative path of the moved file.
+     * @throws IOException If the file cannot be moved.
+     */
+	String moveFile(String sourceRelativePath, String fileName, Long userId, String typeSubdirectory) throws IOException;
+
 	/**
      * Deletes a directory and all its contents recursively.
      * @param relativeDirectoryPath The relative path of the directory to delete.
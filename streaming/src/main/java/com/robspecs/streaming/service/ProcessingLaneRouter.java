@@ -0,0 +1,16 @@
+package com.robspecs.streaming.service;
+
+import com.robspecs.events.ProcessingLane;
+import com.robspecs.events.VideoProcessingRequest;
+
+public interface ProcessingLaneRouter {
+
+	/**
+	 * Picks the processing lane for an upload from its file size and, when the probe
+	 * found one, its duration. The larger of the two classifications wins.
+	 *
+	 * @param request The processing request about to be published.
+	 * @return The lane whose topic the request is published to.
+	 */
+	ProcessingLane route(VideoProcessingRequest request);
+}
@@ -0,0 +1,44 @@
+package com.robspecs.streaming.service;
+
+import java.io.InputStream;
+
+import com.robspecs.streaming.dto.ResumableUploadRequest;
+import com.robspecs.streaming.dto.ResumableUploadStatusDTO;
+import com.robspecs.streaming.entities.User;
+import com.robspecs.streaming.exceptions.FileNotFoundException;
+
+/**
+ * Resumable uploads in the style of tus: create a session, PATCH fixed-size chunks at
+ * their offsets (in any order, in parallel), HEAD to learn where to resume. The video
+ * is created and queued for processing when the last missing chunk arrives.
+ */
+public interface ResumableUploadService {
+
+	/**
+	 * @throws IllegalArgumentException if the request is invalid (no title, not a video, bad length).
+	 */
+	ResumableUploadStatusDTO create(ResumableUploadRequest request, User user);
+
+	/**
+	 * @throws FileNotFoundException if the session does not exist or has expired.
+	 * @throws SecurityException if the session belongs to another user.
+	 */
+	ResumableUploadStatusDTO getStatus(String uploadId, User user);
+
+	/**
+	 * Writes one chunk at its offset, streaming from {@code body}. Re-sending a chunk is
+	 * harmless.
+	 *
+	 * @param offset        Must be a multiple of the session's chunk size.
+	 * @param contentLength Declared body length, or -1 if unknown.
+	 * @throws IllegalArgumentException if the offset or the chunk length is wrong.
+	 * @throws FileNotFoundException if the session does not exist or has expired.
+	 * @throws SecurityException if the session belongs to another user.
+	 */
+	ResumableUploadStatusDTO writeChunk(String uploadId, User user, long offset, long contentLength, InputStream body);
+
+	/**
+	 * Abandons the session and deletes what was received so far.
+	 */
+	void abort(String uploadId, User user);
+}
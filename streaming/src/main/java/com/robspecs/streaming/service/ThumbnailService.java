@@ -0,0 +1,26 @@
+package com.robspecs.streaming.service;
+
+import com.robspecs.streaming.dto.ThumbnailImage;
+
+public interface ThumbnailService {
+
+	/**
+	 * Returns a thumbnail derivative for a video. The requested width is snapped up
+	 * to the nearest supported size (160/320/640/1280) and sizes are generated lazily
+	 * from the master frame, then kept in a bounded memory and disk cache.
+	 *
+	 * @param videoId        The ID of the video.
+	 * @param requestedWidth Desired width in pixels; null or non-positive means the default size.
+	 * @param preferWebp     Whether the client accepts WebP. Falls back to JPEG if no WebP encoder is available.
+	 * @return The encoded image.
+	 * @throws com.robspecs.streaming.exceptions.FileNotFoundException if the video has no thumbnail.
+	 */
+	ThumbnailImage getThumbnail(Long videoId, Integer requestedWidth, boolean preferWebp);
+
+	/**
+	 * Drops every cached derivative of a video, e.g. after it was deleted.
+	 *
+	 * @param videoId The ID of the video.
+	 */
+	void evict(Long videoId);
+}
@@ -0,0 +1,28 @@
+package com.robspecs.streaming.service;
+
+import java.util.List;
+
+public interface TrendingService {
+
+	/**
+	 * Adds one view to the video's trending score. O(log n) in the number of ranked videos.
+	 *
+	 * @param videoId The ID of the viewed video.
+	 */
+	void recordView(Long videoId);
+
+	/**
+	 * Returns one page of video IDs, most trending first. O(log n + size).
+	 *
+	 * @param page Zero-based page number.
+	 * @param size Page size.
+	 */
+	List<Long> getTrendingVideoIds(int page, int size);
+
+	/**
+	 * Removes a deleted video from the ranking.
+	 *
+	 * @param videoId The ID of the video.
+	 */
+	void remove(Long videoId);
+}
@@ -0,0 +1,34 @@
+package com.robspecs.streaming.service;
+
+import java.time.LocalDate;
+
+import com.robspecs.streaming.dto.UniqueViewersDTO;
+
+public interface UniqueViewerService {
+
+	/**
+	 * Records a viewer in the video's all-time and daily HyperLogLogs. Repeated
+	 * calls with the same viewer key do not change the estimates.
+	 *
+	 * @param videoId   The ID of the video.
+	 * @param viewerKey Stable identifier of the viewer, e.g. "u:{userId}" or "s:{sessionId}".
+	 */
+	void recordViewer(Long videoId, String viewerKey);
+
+	/**
+	 * Estimates unique viewers of a video (HyperLogLog, ~0.81% standard error).
+	 *
+	 * @param videoId The ID of the video.
+	 * @param endDate Last day (UTC) of the daily window.
+	 * @param days    Number of days in the window, ending at {@code endDate}.
+	 * @return The windowed and all-time estimates.
+	 */
+	UniqueViewersDTO getUniqueViewers(Long videoId, LocalDate endDate, int days);
+
+	/**
+	 * Drops all unique-viewer sketches of a deleted video.
+	 *
+	 * @param videoId The ID of the video.
+	 */
+	void remove(Long videoId);
+}
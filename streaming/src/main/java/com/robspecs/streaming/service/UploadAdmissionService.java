@@ -0,0 +1,19 @@
+package com.robspecs.streaming.service;
+
+public interface UploadAdmissionService {
+
+	/**
+	 * Checks whether a new upload may start given the current processing backlog.
+	 * Uploads already in progress are never refused here.
+	 *
+	 * @throws com.robspecs.streaming.exceptions.UploadThrottledException if processing is
+	 *         saturated; carries how long the client should wait before retrying.
+	 */
+	void admit();
+
+	/**
+	 * Re-reads the backlog (consumer lag of the processor plus the queue depth its
+	 * instances report). Called periodically.
+	 */
+	void refreshBacklog();
+}
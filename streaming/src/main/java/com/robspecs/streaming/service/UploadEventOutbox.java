@@ -0,0 +1,20 @@
+package com.robspecs.streaming.service;
+
+import com.robspecs.events.VideoProcessingRequest;
+
+public interface UploadEventOutbox {
+
+	/**
+	 * Stores a processing request for publishing. Must be called inside the transaction
+	 * that saves the video, so the event is committed or rolled back with it.
+	 *
+	 * @param request The request to publish, keyed by its videoId.
+	 */
+	void enqueue(VideoProcessingRequest request);
+
+	/**
+	 * Publishes pending events in batches and removes the ones Kafka acknowledged.
+	 * Called periodically.
+	 */
+	void relayPending();
+}
@@ -0,0 +1,36 @@
+package com.robspecs.streaming.service;
+
+import java.util.List;
+
+import com.robspecs.streaming.entities.Video;
+
+/**
+ * Deduplicates processing of identical uploads. A new video whose content hash matches
+ * already processed output is linked to that output instead of being transcoded again;
+ * shared output is reference counted so it outlives every video but the last.
+ */
+public interface VideoContentService {
+
+	/**
+	 * Saves a newly uploaded video, linking it to existing renditions of the same content
+	 * where possible. A linked video is saved as READY with the shared resolution paths,
+	 * duration and thumbnail.
+	 *
+	 * @return true if the video was linked and must not be queued for processing.
+	 */
+	boolean saveUploadedVideo(Video video);
+
+	/**
+	 * Drops the video's reference to its processed output.
+	 *
+	 * @return Relative directories that are no longer used by any video and can be deleted.
+	 */
+	List<String> release(Video video);
+
+	/**
+	 * @return The directory the processor writes a video's own output to.
+	 */
+	static String processedDirectoryOf(Video video) {
+		return String.format("%s/videos/processed/%d", video.getUploadUser().getUserId(), video.getVideoId());
+	}
+}
@@ -0,0 +1,36 @@
+package com.robspecs.streaming.service;
+
+import java.util.function.Function;
+
+import com.robspecs.streaming.dto.VideoDetailsDTO;
+
+public interface VideoDetailsCache {
+
+	/**
+	 * Read-through lookup: local near-cache, then Redis, then {@code loader}. A
+	 * value produced by the loader is written back to both tiers, unless the entry was
+	 * evicted while it was loading.
+	 *
+	 * @param videoId The ID of the video.
+	 * @param loader  Loads the details from the database; may return null if the video does not exist
+	 *                (null is not cached).
+	 * @return A copy the caller may modify, or null if the loader returned null.
+	 */
+	VideoDetailsDTO get(Long videoId, Function<Long, VideoDetailsDTO> loader);
+
+	/**
+	 * Drops the entry from Redis and from the near-caches of all nodes. Inside a
+	 * transaction this happens after commit, so readers can't re-cache the old row.
+	 *
+	 * @param videoId The ID of the video.
+	 */
+	void evict(Long videoId);
+
+	/**
+	 * Drops the entry from Redis and from this node's near-cache only, for callers that
+	 * already run on every node (such as the status event consumer).
+	 *
+	 * @param videoId The ID of the video.
+	 */
+	void evictLocally(Long videoId);
+}
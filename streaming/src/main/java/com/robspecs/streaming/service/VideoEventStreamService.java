@@ -0,0 +1,23 @@
+package com.robspecs.streaming.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.robspecs.streaming.dto.VideoStatusSnapshot;
+import com.robspecs.streaming.entities.User;
+
+public interface VideoEventStreamService {
+
+	/**
+	 * Opens a server-sent event stream of status and progress updates for the user's
+	 * own videos. The current state of videos still being processed is sent first.
+	 *
+	 * @param user The authenticated user.
+	 * @throws IllegalStateException if the user already has too many open streams.
+	 */
+	SseEmitter subscribe(User user);
+
+	/**
+	 * Pushes a status change to the uploader's open streams, if any.
+	 */
+	void publishStatus(VideoStatusSnapshot snapshot);
+}
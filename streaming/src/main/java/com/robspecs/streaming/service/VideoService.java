@@ -1,17 +1,29 @@
 package com.robspecs.streaming.service;
 
+import java.io.InputStream;
+import java.time.LocalDate;
 import java.util.List;
 
+import com.robspecs.streaming.dto.CursorPageDTO;
+import com.robspecs.streaming.dto.UniqueViewersDTO;
 import com.robspecs.streaming.dto.VideoDetailsDTO;
 import com.robspecs.streaming.dto.VideoUpdateRequest;
-import com.robspecs.streaming.dto.VideoUploadDTO;
 import com.robspecs.streaming.entities.User;
 import com.robspecs.streaming.entities.Video;
 import com.robspecs.streaming.exceptions.FileNotFoundException;
 
 public interface VideoService {
 
-    Video uploadVideo(VideoUploadDTO videoUploadDTO, User user);
+    /**
+     * Stores a multipart/form-data upload (fields title, description and file) without
+     * spooling it: the file part is streamed directly to its final raw location.
+     * @param multipartBody The raw request body.
+     * @param contentType The request Content-Type, carrying the multipart boundary.
+     * @param user The uploader.
+     * @return The persisted Video entity.
+     * @throws IllegalArgumentException if the body is not a valid video upload.
+     */
+    Video uploadVideo(InputStream multipartBody, String contentType, User user);
 
     VideoDetailsDTO getVideo(Long videoId, User user);
 
@@ -19,20 +31,45 @@ public interface VideoService {
 
     Long updateViews(Long videoId, User user);
 
+    /**
+     * Estimated unique viewers of a video over a window of days and all-time.
+     * @param videoId The ID of the video.
+     * @param endDate Last day (UTC) of the window.
+     * @param days Length of the window in days.
+     * @throws com.robspecs.streaming.exceptions.FileNotFoundException if the video is not found.
+     */
+    UniqueViewersDTO getUniqueViewers(Long videoId, LocalDate endDate, int days);
+
     Video getActualVideoEntity(Long videoId, User user);
 
-    List<VideoDetailsDTO> getAllVideos();
+    /**
+     * Returns one page of all videos, newest first.
+     * @param cursor The nextCursor of the previous page, or null for the first page.
+     * @param size Page size.
+     * @throws IllegalArgumentException if the cursor is malformed.
+     */
+    CursorPageDTO<VideoDetailsDTO> getAllVideos(String cursor, int size);
+
+    /**
+     * Returns one page of videos ordered by time-decayed popularity.
+     * @param page Zero-based page number.
+     * @param size Page size.
+     */
+    List<VideoDetailsDTO> getTrendingVideos(int page, int size);
 
     // You might also want a method to retrieve a video by its path for streaming purposes
     // This could return a Resource or simply the Path, depending on how your controller handles it
     Video getVideoByFilePath(String relativeFilePath);
 
     /**
-    * Retrieves all videos uploaded by a specific user.
+    * Retrieves one page of the videos uploaded by a specific user, newest first.
     * @param user The authenticated user.
-    * @return A list of VideoDetailsDTOs for the user's videos.
+    * @param cursor The nextCursor of the previous page, or null for the first page.
+    * @param size Page size.
+    * @return A page of VideoDetailsDTOs for the user's videos.
+    * @throws IllegalArgumentException if the cursor is malformed.
     */
-   List<VideoDetailsDTO> getVideosByCurrentUser(User user); // <--- NEW METHOD SIGNATURE
+   CursorPageDTO<VideoDetailsDTO> getVideosByCurrentUser(User user, String cursor, int size);
 
    /**
     * Updates details of an existing video.
@@ -54,4 +91,5 @@ public interface VideoService {
    void deleteVideo(Long videoId, User currentUser); // <--- NEW METHOD SIGNATURE
    
    Video findVideoById(Long videoId) throws FileNotFoundException;
+
 }
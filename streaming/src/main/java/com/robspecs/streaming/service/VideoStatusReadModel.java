@@ -0,0 +1,32 @@
+package com.robspecs.streaming.service;
+
+import com.robspecs.events.VideoStatusChangedEvent;
+import com.robspecs.streaming.dto.VideoStatusSnapshot;
+import com.robspecs.streaming.exceptions.FileNotFoundException;
+
+public interface VideoStatusReadModel {
+
+	/**
+	 * Current processing state of a video, answered from memory. Videos the model has
+	 * not heard about yet are loaded from the database once.
+	 *
+	 * @param videoId The ID of the video.
+	 * @throws FileNotFoundException if the video does not exist.
+	 */
+	VideoStatusSnapshot get(Long videoId) throws FileNotFoundException;
+
+	/**
+	 * Applies a status event unless the model already holds a newer one for the video.
+	 *
+	 * @return The snapshot built from the event, or null if the event was stale or invalid.
+	 */
+	VideoStatusSnapshot apply(VideoStatusChangedEvent event);
+
+	/**
+	 * Forgets a deleted video on every node by publishing a tombstone for it. Inside a
+	 * transaction this happens after commit.
+	 *
+	 * @param videoId The ID of the video.
+	 */
+	void remove(Long videoId);
+}
@@ -0,0 +1,34 @@
+package com.robspecs.streaming.service;
+
+public interface ViewCounterService {
+
+	/**
+	 * Atomically counts one view. The count is kept in Redis and written to the
+	 * database later in batches, so no row lock is taken on the hot path.
+	 *
+	 * @param videoId The ID of the video.
+	 * @return The approximate live view count (persisted views plus pending ones).
+	 * @throws com.robspecs.streaming.exceptions.FileNotFoundException if the video does not exist.
+	 */
+	long increment(Long videoId);
+
+	/**
+	 * Reads the live view count without counting a view.
+	 *
+	 * @param videoId The ID of the video.
+	 * @return The live count, or null if the counter is not in Redis (no recent views).
+	 */
+	Long peek(Long videoId);
+
+	/**
+	 * Writes all pending view deltas to the database. Called periodically.
+	 */
+	void flushPendingViews();
+
+	/**
+	 * Drops the live counter of a deleted video.
+	 *
+	 * @param videoId The ID of the video.
+	 */
+	void remove(Long videoId);
+}
@@ -0,0 +1,28 @@
+package com.robspecs.streaming.service;
+
+import com.robspecs.streaming.dto.AudienceRetentionDTO;
+import com.robspecs.streaming.dto.WatchHeartbeatRequest;
+import com.robspecs.streaming.entities.User;
+
+public interface WatchAnalyticsService {
+
+	/**
+	 * Publishes a player heartbeat for asynchronous aggregation. Does not touch the
+	 * database; the event is batched by the Kafka producer.
+	 *
+	 * @throws IllegalArgumentException if the position or watched time is invalid.
+	 */
+	void recordHeartbeat(Long videoId, WatchHeartbeatRequest heartbeat, User user);
+
+	/**
+	 * Reads the aggregated audience-retention histogram of a video.
+	 *
+	 * @throws com.robspecs.streaming.exceptions.FileNotFoundException if the video is not found.
+	 */
+	AudienceRetentionDTO getRetention(Long videoId);
+
+	/**
+	 * Drops the retention histogram of a deleted video.
+	 */
+	void remove(Long videoId);
+}
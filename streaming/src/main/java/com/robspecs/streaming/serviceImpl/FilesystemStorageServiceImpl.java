@@ -3,10 +3,14 @@ package com.robspecs.streaming.serviceImpl;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.Comparator;
 import java.util.Objects;
 import java.util.stream.Stream;
@@ -26,6 +30,8 @@ import jakarta.annotation.PostConstruct;
 @Service
 public class FilesystemStorageServiceImpl implements FileStorageService {
 
+	private static final int COPY_BUFFER_BYTES = 1024 * 1024;
+
 	private final Path fileStorageLocation;
 	public FilesystemStorageServiceImpl(@Value("${files.video.base-path}") String videoBasePath) {
 		this.fileStorageLocation = Paths.get(videoBasePath).toAbsolutePath().normalize();
@@ -71,7 +77,7 @@ public class FilesystemStorageServiceImpl implements FileStorageService {
 
 		try {
 			// Copy file to the target location
-			Files.copy(inputStream, targetFilePath, StandardCopyOption.REPLACE_EXISTING);
+			copyToFile(inputStream, targetFilePath);
 
 			// Construct and return the relative path (from base_path)
 			// This path is what we will store in the database.
@@ -83,6 +89,44 @@ public class FilesystemStorageServiceImpl implements FileStorageService {
 		}
 	}
 
+	// Large writes keep syscalls per upload low; a partial file is removed if the source fails mid-way
+	private static void copyToFile(InputStream inputStream, Path targetFilePath) throws IOException {
+		byte[] buffer = new byte[COPY_BUFFER_BYTES];
+		ByteBuffer wrapped = ByteBuffer.wrap(buffer);
+		try (FileChannel channel = FileChannel.open(targetFilePath, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			int read;
+			while ((read = inputStream.readNBytes(buffer, 0, buffer.length)) > 0) {
+				wrapped.clear().limit(read);
+				while (wrapped.hasRemaining()) {
+					channel.write(wrapped);
+				}
+			}
+		} catch (IOException | RuntimeException ex) {
+			Files.deleteIfExists(targetFilePath);
+			throw ex;
+		}
+	}
+
+	@Override
+	public String moveFile(String sourceRelativePath, String fileName, Long userId, String typeSubdirectory)
+			throws IOException {
+		Path source = getFilePath(sourceRelativePath);
+		Path targetDirectory = this.fileStorageLocation.resolve(userId.toString()).resolve("videos");
+		if (StringUtils.hasText(typeSubdirectory)) {
+			targetDirectory = targetDirectory.resolve(StringUtils.cleanPath(typeSubdirectory));
+		}
+		Files.createDirectories(targetDirectory);
+		Path target = targetDirectory.resolve(StringUtils.cleanPath(Objects.requireNonNull(fileName)));
+		try {
+			// Same filesystem, so this is a rename; no bytes are copied
+			Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+		return this.fileStorageLocation.relativize(target).toString();
+	}
+
 	@Override
 	public Resource loadFileAsResource(String relativeFilePath) {
 		try {
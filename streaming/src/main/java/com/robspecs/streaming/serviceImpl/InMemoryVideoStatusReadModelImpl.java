@@ -0,0 +1,190 @@
+package com.robspecs.streaming.serviceImpl;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.PartitionOffset;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.robspecs.events.VideoStatusChangedEvent;
+import com.robspecs.streaming.config.KafkaConsumerConfig;
+import com.robspecs.streaming.dto.VideoStatusSnapshot;
+import com.robspecs.streaming.entities.Video;
+import com.robspecs.streaming.enums.VideoStatus;
+import com.robspecs.streaming.exceptions.FileNotFoundException;
+import com.robspecs.streaming.repository.VideosRepository;
+import com.robspecs.streaming.service.VideoDetailsCache;
+import com.robspecs.streaming.service.VideoEventStreamService;
+import com.robspecs.streaming.service.VideoStatusReadModel;
+
+/**
+ * Per-node map of video status, fed by the compacted status topic. Every node assigns
+ * itself all partitions and reads them from the beginning, so after startup the map
+ * holds the latest state of every video and stream requests never touch MySQL. Until
+ * then (or if an event was lost) misses fall back to one database load; such entries
+ * carry timestamp 0, so the next event for the video always replaces them.
+ * <p>
+ * Records below the end offsets captured at assignment are history: they only rebuild
+ * the map. Evicting cached details or pushing statuses to SSE clients for them would
+ * wipe the shared Redis cache and send stale statuses on every restart.
+ */
+@Service
+public class InMemoryVideoStatusReadModelImpl implements VideoStatusReadModel, ConsumerSeekAware {
+
+	private static final Logger logger = LoggerFactory.getLogger(InMemoryVideoStatusReadModelImpl.class);
+
+	private final ConcurrentHashMap<Long, VideoStatusSnapshot> snapshots = new ConcurrentHashMap<>();
+	// First live offset per partition; records below it are replayed history
+	private final ConcurrentHashMap<TopicPartition, Long> replayEndOffsets = new ConcurrentHashMap<>();
+
+	private final VideosRepository videoRepository;
+	private final VideoDetailsCache videoDetailsCache;
+	private final KafkaTemplate<String, VideoStatusChangedEvent> statusEventKafkaTemplate;
+	private final VideoEventStreamService videoEventStreamService;
+	private final ConsumerFactory<String, VideoStatusChangedEvent> statusEventConsumerFactory;
+
+	public InMemoryVideoStatusReadModelImpl(VideosRepository videoRepository, VideoDetailsCache videoDetailsCache,
+			@Qualifier("statusEventKafkaTemplate") KafkaTemplate<String, VideoStatusChangedEvent> statusEventKafkaTemplate,
+			VideoEventStreamService videoEventStreamService,
+			@Qualifier("statusEventConsumerFactory") ConsumerFactory<String, VideoStatusChangedEvent> statusEventConsumerFactory) {
+		this.videoRepository = videoRepository;
+		this.videoDetailsCache = videoDetailsCache;
+		this.statusEventKafkaTemplate = statusEventKafkaTemplate;
+		this.videoEventStreamService = videoEventStreamService;
+		this.statusEventConsumerFactory = statusEventConsumerFactory;
+	}
+
+	@Override
+	public VideoStatusSnapshot get(Long videoId) throws FileNotFoundException {
+		VideoStatusSnapshot snapshot = snapshots.get(videoId);
+		if (snapshot != null) {
+			return snapshot;
+		}
+		Video video = videoRepository.findDetailsById(videoId).orElseThrow(() -> {
+			logger.warn("Video not found with ID: {}", videoId);
+			return new FileNotFoundException("Video not found with ID: " + videoId);
+		});
+		VideoStatusSnapshot loaded = new VideoStatusSnapshot(videoId, video.getUploadUser().getUserId(),
+				video.getStatus(), video.getDurationMillis(), video.getResolutionFilePaths(), 0L);
+		// An event may have arrived while we were loading; it wins
+		VideoStatusSnapshot existing = snapshots.putIfAbsent(videoId, loaded);
+		return existing != null ? existing : loaded;
+	}
+
+	@Override
+	public VideoStatusSnapshot apply(VideoStatusChangedEvent event) {
+		VideoStatus status;
+		try {
+			status = VideoStatus.valueOf(event.getStatus());
+		} catch (IllegalArgumentException | NullPointerException e) {
+			logger.warn("Ignoring status event with unknown status {} for videoId {}", event.getStatus(),
+					event.getVideoId());
+			return null;
+		}
+		VideoStatusSnapshot incoming = new VideoStatusSnapshot(event.getVideoId(), event.getUploadUserId(), status,
+				event.getDurationMillis(), event.getResolutionFilePaths(), event.getOccurredAt());
+		VideoStatusSnapshot current = snapshots.merge(event.getVideoId(), incoming,
+				(existing, candidate) -> candidate.getOccurredAt() >= existing.getOccurredAt() ? candidate : existing);
+		return current == incoming ? incoming : null;
+	}
+
+	@Override
+	public void remove(Long videoId) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					publishTombstone(videoId);
+				}
+			});
+		} else {
+			publishTombstone(videoId);
+		}
+	}
+
+	private void publishTombstone(Long videoId) {
+		snapshots.remove(videoId);
+		statusEventKafkaTemplate.send(KafkaConsumerConfig.VIDEO_STATUS_TOPIC, videoId.toString(), null)
+				.whenComplete((result, ex) -> {
+					if (ex != null) {
+						// Other nodes keep a stale entry; harmless, since the video's rows and files are gone
+						logger.warn("Failed to publish status tombstone for videoId {}: {}", videoId, ex.getMessage());
+					}
+				});
+	}
+
+	/**
+	 * Called once the container has assigned itself the partitions. If the end offsets
+	 * can't be read, everything counts as live: side effects for old records are only
+	 * wasteful, while swallowing new ones would leave clients waiting.
+	 */
+	@Override
+	public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+		replayEndOffsets.clear();
+		try (Consumer<String, VideoStatusChangedEvent> consumer = statusEventConsumerFactory.createConsumer()) {
+			replayEndOffsets.putAll(consumer.endOffsets(assignments.keySet()));
+			logger.info("Replaying status topic up to offsets {}", replayEndOffsets);
+		} catch (KafkaException e) {
+			logger.warn("Could not read end offsets of the status topic; treating all events as live: {}",
+					e.getMessage());
+		}
+	}
+
+	/**
+	 * Null values are tombstones. Records that fail to deserialize never get here; the
+	 * container's error handler logs and skips them.
+	 */
+	@KafkaListener(topicPartitions = @org.springframework.kafka.annotation.TopicPartition(
+			topic = KafkaConsumerConfig.VIDEO_STATUS_TOPIC, partitions = "#{@statusTopicPartitions}",
+			partitionOffsets = @PartitionOffset(partition = "*", initialOffset = "0")),
+			containerFactory = "statusEventListenerContainerFactory")
+	public void onStatusEvent(ConsumerRecord<String, VideoStatusChangedEvent> record) {
+		VideoStatusChangedEvent event = record.value();
+		if (event == null) {
+			try {
+				snapshots.remove(Long.valueOf(record.key()));
+			} catch (NumberFormatException e) {
+				logger.warn("Ignoring status tombstone with malformed key {}", record.key());
+			}
+			return;
+		}
+		if (event.getVideoId() == null) {
+			logger.warn("Ignoring status event without videoId at offset {}", record.offset());
+			return;
+		}
+		VideoStatusSnapshot applied = apply(event);
+		if (isReplay(record)) {
+			return;
+		}
+		// Every node consumes every event, so each drops only its own near-cache copy
+		videoDetailsCache.evictLocally(event.getVideoId());
+		if (applied != null) {
+			videoEventStreamService.publishStatus(applied);
+		}
+		logger.debug("Applied status {} for videoId {}", event.getStatus(), event.getVideoId());
+	}
+
+	private boolean isReplay(ConsumerRecord<?, ?> record) {
+		Long endOffset = replayEndOffsets.get(new TopicPartition(record.topic(), record.partition()));
+		if (endOffset == null || record.offset() >= endOffset) {
+			return false;
+		}
+		if (record.offset() == endOffset - 1) {
+			logger.info("Status read model caught up on partition {}", record.partition());
+		}
+		return true;
+	}
+}
@@ -0,0 +1,113 @@
+package com.robspecs.streaming.serviceImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.robspecs.events.EventCodec;
+import com.robspecs.events.ProcessingLane;
+import com.robspecs.events.VideoProcessingRequest;
+import com.robspecs.events.VideoProcessingRequestSchema;
+import com.robspecs.streaming.entities.UploadOutboxEvent;
+import com.robspecs.streaming.repository.UploadOutboxRepository;
+import com.robspecs.streaming.service.ProcessingLaneRouter;
+import com.robspecs.streaming.service.UploadEventOutbox;
+
+import jakarta.transaction.Transactional;
+
+/**
+ * Transactional outbox for upload events. {@link #enqueue} only inserts a row next to
+ * the new video; the relay locks a batch of the oldest rows, sends them all before
+ * waiting for any acknowledgement, and deletes the acknowledged ones in the same
+ * transaction. If the relay dies between the acknowledgement and the commit the batch
+ * is sent again, which the idempotent producer cannot catch; the processor skips
+ * videos that are already processed. Each event goes to the topic of the processing
+ * lane chosen at enqueue time.
+ */
+@Service
+public class JpaUploadEventOutboxImpl implements UploadEventOutbox {
+
+	private static final Logger logger = LoggerFactory.getLogger(JpaUploadEventOutboxImpl.class);
+
+	private final UploadOutboxRepository outboxRepository;
+	private final KafkaTemplate<String, byte[]> uploadEventKafkaTemplate;
+	private final ProcessingLaneRouter processingLaneRouter;
+	private final EventCodec<VideoProcessingRequest> codec = new EventCodec<>(VideoProcessingRequestSchema.INSTANCE);
+	private final int batchSize;
+	private final long sendTimeoutMillis;
+
+	public JpaUploadEventOutboxImpl(UploadOutboxRepository outboxRepository,
+			@Qualifier("uploadEventKafkaTemplate") KafkaTemplate<String, byte[]> uploadEventKafkaTemplate,
+			ProcessingLaneRouter processingLaneRouter,
+			@Value("${outbox.relay.batch-size:200}") int batchSize,
+			@Value("${outbox.relay.send-timeout-ms:10000}") long sendTimeoutMillis) {
+		this.outboxRepository = outboxRepository;
+		this.uploadEventKafkaTemplate = uploadEventKafkaTemplate;
+		this.processingLaneRouter = processingLaneRouter;
+		this.batchSize = batchSize;
+		this.sendTimeoutMillis = sendTimeoutMillis;
+	}
+
+	@Override
+	@Transactional(Transactional.TxType.MANDATORY)
+	public void enqueue(VideoProcessingRequest request) {
+		ProcessingLane lane = processingLaneRouter.route(request);
+		outboxRepository.save(new UploadOutboxEvent(request.getVideoId(), lane.getTopic(), codec.encode(request)));
+		logger.debug("Queued upload event for videoId {} in the {} lane", request.getVideoId(), lane);
+	}
+
+	@Override
+	@Transactional
+	@Scheduled(fixedDelayString = "${outbox.relay.interval-ms:250}")
+	public void relayPending() {
+		List<UploadOutboxEvent> batch = outboxRepository.lockOldest(batchSize);
+		if (batch.isEmpty()) {
+			return;
+		}
+
+		List<CompletableFuture<SendResult<String, byte[]>>> sends = new ArrayList<>(batch.size());
+		try {
+			for (UploadOutboxEvent event : batch) {
+				String topic = event.getTopic() != null ? event.getTopic() : ProcessingLane.LARGE.getTopic();
+				sends.add(uploadEventKafkaTemplate.send(topic, event.getVideoId().toString(), event.getPayload()));
+			}
+		} catch (RuntimeException e) {
+			// Usually metadata unavailable; whatever was handed to the producer is still awaited below
+			logger.warn("Stopped relaying upload events after {} of {}: {}", sends.size(), batch.size(), e.getMessage());
+		}
+
+		List<Long> published = new ArrayList<>(sends.size());
+		long deadline = System.currentTimeMillis() + sendTimeoutMillis;
+		for (int i = 0; i < sends.size(); i++) {
+			UploadOutboxEvent event = batch.get(i);
+			try {
+				sends.get(i).get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+				published.add(event.getId());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			} catch (ExecutionException | TimeoutException e) {
+				logger.warn("Upload event for videoId {} not acknowledged, will retry: {}", event.getVideoId(),
+						e.getMessage());
+			}
+		}
+
+		if (!published.isEmpty()) {
+			outboxRepository.deleteAllByIdInBatch(published);
+			logger.info("Relayed {} upload events to Kafka ({} pending retry).", published.size(),
+					batch.size() - published.size());
+		}
+	}
+}
@@ -0,0 +1,196 @@
+package com.robspecs.streaming.serviceImpl;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.ListOffsetsResult.ListOffsetsResultInfo;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.robspecs.events.ProcessingLane;
+import com.robspecs.events.ProcessorBacklogEvent;
+import com.robspecs.streaming.config.KafkaConsumerConfig;
+import com.robspecs.streaming.exceptions.UploadThrottledException;
+import com.robspecs.streaming.service.UploadAdmissionService;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Defers new uploads while video processing is saturated. The backlog is the lag of the
+ * processor's consumer group on the upload topics of all lanes. The processor commits
+ * an upload event only once its job has finished, so the lag already covers the jobs
+ * queued in or running on its executors; the counts the instances report in heartbeats
+ * are only a fallback when the lag cannot be read, and their drain estimates give the
+ * rate used for Retry-After. Admission closes when the backlog reaches
+ * {@code max-backlog} and only reopens once it has fallen below {@code resume-ratio} of
+ * that, so it does not flap at the threshold. With no data at all (Kafka unreachable, no heartbeats) uploads are
+ * admitted: upload events wait in Kafka either way.
+ */
+@Service
+public class KafkaUploadAdmissionServiceImpl implements UploadAdmissionService {
+
+	private static final Logger logger = LoggerFactory.getLogger(KafkaUploadAdmissionServiceImpl.class);
+
+	private static final List<String> VIDEO_UPLOAD_TOPICS = ProcessingLane.topics();
+	private static final long ADMIN_TIMEOUT_MILLIS = 3000;
+	private static final double RETRY_JITTER = 0.1; // +-10%, so deferred clients don't come back in lockstep
+
+	private final Map<String, ProcessorBacklogEvent> heartbeats = new ConcurrentHashMap<>();
+	private final Admin admin;
+	private final String processorGroupId;
+	private final long maxBacklog;
+	private final long resumeBacklog;
+	private final long heartbeatStaleMillis;
+	private final long defaultRetryAfterSeconds;
+	private final long minRetryAfterSeconds;
+	private final long maxRetryAfterSeconds;
+
+	private volatile boolean throttled;
+	private volatile long backlog = -1; // -1 until known
+	private volatile double jobsPerSecond; // 0 if unknown
+
+	public KafkaUploadAdmissionServiceImpl(@Value("${spring.kafka.bootstrap-servers}") String bootstrapServers,
+			@Value("${uploads.admission.processor-group-id:video-processor-group}") String processorGroupId,
+			@Value("${uploads.admission.max-backlog:400}") long maxBacklog,
+			@Value("${uploads.admission.resume-ratio:0.8}") double resumeRatio,
+			@Value("${uploads.admission.heartbeat-stale-ms:30000}") long heartbeatStaleMillis,
+			@Value("${uploads.admission.retry-after.default-seconds:60}") long defaultRetryAfterSeconds,
+			@Value("${uploads.admission.retry-after.min-seconds:15}") long minRetryAfterSeconds,
+			@Value("${uploads.admission.retry-after.max-seconds:900}") long maxRetryAfterSeconds) {
+		Map<String, Object> props = new HashMap<>();
+		props.put(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+		props.put(AdminClientConfig.REQUEST_TIMEOUT_MS_CONFIG, (int) ADMIN_TIMEOUT_MILLIS);
+		props.put(AdminClientConfig.DEFAULT_API_TIMEOUT_MS_CONFIG, (int) ADMIN_TIMEOUT_MILLIS);
+		this.admin = Admin.create(props);
+		this.processorGroupId = processorGroupId;
+		this.maxBacklog = maxBacklog;
+		this.resumeBacklog = Math.round(maxBacklog * resumeRatio);
+		this.heartbeatStaleMillis = heartbeatStaleMillis;
+		this.defaultRetryAfterSeconds = defaultRetryAfterSeconds;
+		this.minRetryAfterSeconds = minRetryAfterSeconds;
+		this.maxRetryAfterSeconds = maxRetryAfterSeconds;
+		logger.debug("KafkaUploadAdmissionServiceImpl initialized: max backlog {}, resume below {}", maxBacklog,
+				resumeBacklog);
+	}
+
+	@Override
+	public void admit() {
+		if (throttled) {
+			long retryAfter = retryAfterSeconds();
+			logger.info("Deferring upload: processing backlog {} (limit {}), retry after {}s", backlog, maxBacklog,
+					retryAfter);
+			throw new UploadThrottledException(
+					"Video processing is busy right now. Please try your upload again in a few minutes.", retryAfter);
+		}
+	}
+
+	@KafkaListener(topics = KafkaConsumerConfig.PROCESSOR_BACKLOG_TOPIC, containerFactory = "backlogEventListenerContainerFactory")
+	public void onBacklogEvent(ProcessorBacklogEvent event) {
+		if (event != null && event.getInstanceId() != null) {
+			heartbeats.put(event.getInstanceId(), event);
+		}
+	}
+
+	@Override
+	@Scheduled(fixedDelayString = "${uploads.admission.refresh-ms:5000}")
+	public void refreshBacklog() {
+		long now = System.currentTimeMillis();
+		// An instance that stopped reporting has stopped or crashed; its queue is gone with it
+		heartbeats.values().removeIf(event -> now - event.getOccurredAt() > heartbeatStaleMillis);
+
+		long lag = consumerLag();
+		if (lag < 0 && heartbeats.isEmpty()) {
+			if (throttled) {
+				logger.warn("Processing backlog unknown; admitting uploads again.");
+			}
+			backlog = -1;
+			throttled = false;
+			return;
+		}
+
+		long inProcessor = 0;
+		double rate = 0;
+		for (ProcessorBacklogEvent event : heartbeats.values()) {
+			long jobs = event.getQueued() + event.getRunning();
+			inProcessor += jobs;
+			if (jobs > 0 && event.getEstimatedDrainSeconds() > 0) {
+				rate += (double) jobs / event.getEstimatedDrainSeconds();
+			}
+		}
+		// Lag includes in-flight jobs (committed on completion); the heartbeats cover a lag read that failed
+		long current = Math.max(lag, inProcessor);
+		backlog = current;
+		jobsPerSecond = rate;
+
+		if (!throttled && current >= maxBacklog) {
+			throttled = true;
+			logger.warn("Processing backlog {} ({} uncommitted, {} in processors) reached {}; deferring new uploads.",
+					current, lag, inProcessor, maxBacklog);
+		} else if (throttled && current < resumeBacklog) {
+			throttled = false;
+			logger.info("Processing backlog down to {}; admitting uploads again.", current);
+		}
+	}
+
+	// Upload events the processor group has not finished (committed); -1 if it cannot be determined
+	private long consumerLag() {
+		try {
+			Map<TopicPartition, OffsetAndMetadata> committed = admin.listConsumerGroupOffsets(processorGroupId)
+					.partitionsToOffsetAndMetadata().get(ADMIN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+			Map<TopicPartition, OffsetSpec> request = new HashMap<>();
+			committed.forEach((partition, offset) -> {
+				// Partitions without a committed offset are not counted: the group has not started on them yet
+				if (offset != null && VIDEO_UPLOAD_TOPICS.contains(partition.topic())) {
+					request.put(partition, OffsetSpec.latest());
+				}
+			});
+			if (request.isEmpty()) {
+				return -1;
+			}
+			Map<TopicPartition, ListOffsetsResultInfo> latest = admin.listOffsets(request).all()
+					.get(ADMIN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+			long lag = 0;
+			for (Map.Entry<TopicPartition, ListOffsetsResultInfo> entry : latest.entrySet()) {
+				lag += Math.max(0, entry.getValue().offset() - committed.get(entry.getKey()).offset());
+			}
+			return lag;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return -1;
+		} catch (ExecutionException | TimeoutException | KafkaException e) {
+			logger.debug("Could not read consumer lag of group {}: {}", processorGroupId, e.getMessage());
+			return -1;
+		}
+	}
+
+	// Time for the backlog to fall below the resume threshold at the processors' current rate
+	private long retryAfterSeconds() {
+		double rate = jobsPerSecond;
+		long seconds = rate > 0 ? Math.round((backlog - resumeBacklog + 1) / rate) : defaultRetryAfterSeconds;
+		seconds = Math.max(minRetryAfterSeconds, Math.min(maxRetryAfterSeconds, seconds));
+		double jitter = 1 + ThreadLocalRandom.current().nextDouble(-RETRY_JITTER, RETRY_JITTER);
+		return Math.max(1, Math.round(seconds * jitter));
+	}
+
+	@PreDestroy
+	public void close() {
+		admin.close(Duration.ofSeconds(5));
+	}
+}
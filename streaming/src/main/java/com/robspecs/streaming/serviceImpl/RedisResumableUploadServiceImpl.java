@@ -0,0 +1,356 @@
+package com.robspecs.streaming.serviceImpl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import com.robspecs.streaming.dto.ResumableUploadRequest;
+import com.robspecs.streaming.dto.ResumableUploadStatusDTO;
+import com.robspecs.streaming.entities.User;
+import com.robspecs.streaming.entities.Video;
+import com.robspecs.streaming.exceptions.FileNotFoundException;
+import com.robspecs.streaming.exceptions.FileStorageException;
+import com.robspecs.streaming.service.FileStorageService;
+import com.robspecs.streaming.service.ResumableUploadService;
+import com.robspecs.streaming.utils.ContentHash;
+
+/**
+ * Resumable upload sessions kept in Redis, shared by all nodes:
+ * <ul>
+ * <li>{@code upload:{id}}: hash with owner, title, description, extension, length and chunk size
+ * (plus videoId once complete);</li>
+ * <li>{@code upload:{id}:chunks}: bitmap of received chunks.</li>
+ * </ul>
+ * Both expire after {@code uploads.resumable.session-ttl-hours} without activity. Chunk
+ * bodies are streamed straight into a staging file under {@value #STAGING_DIRECTORY}
+ * with positional {@link FileChannel} writes, so chunks can arrive in any order and in
+ * parallel and nothing is buffered in memory beyond a small copy buffer. Marking a chunk
+ * and detecting that it was the last one missing is a single Lua script, so exactly one
+ * request finishes the upload: it moves the file to the user's raw folder (a rename)
+ * and creates the video.
+ */
+@Service
+public class RedisResumableUploadServiceImpl implements ResumableUploadService {
+
+	private static final Logger logger = LoggerFactory.getLogger(RedisResumableUploadServiceImpl.class);
+
+	private static final String KEY_PREFIX = "upload:";
+	private static final String CHUNKS_SUFFIX = ":chunks";
+	private static final String STAGING_DIRECTORY = ".uploads";
+	private static final int COPY_BUFFER_BYTES = 64 * 1024;
+
+	private static final long CHUNK_DUPLICATE = 0;
+	private static final long CHUNK_STORED = 1;
+	private static final long UPLOAD_COMPLETED = 2;
+
+	// KEYS: chunks bitmap, session hash. ARGV: chunk index, total chunks, ttl millis.
+	// Returns 0 for a chunk seen before, 1 for a new chunk, 2 if this chunk completed the upload.
+	private static final DefaultRedisScript<Long> MARK_CHUNK_SCRIPT = new DefaultRedisScript<>(
+			"local was = redis.call('SETBIT', KEYS[1], ARGV[1], 1) "
+					+ "redis.call('PEXPIRE', KEYS[1], ARGV[3]) "
+					+ "redis.call('PEXPIRE', KEYS[2], ARGV[3]) "
+					+ "if was == 1 then return 0 end "
+					+ "if redis.call('BITCOUNT', KEYS[1]) == tonumber(ARGV[2]) then return 2 end "
+					+ "return 1",
+			Long.class);
+
+	private final StringRedisTemplate redisTemplate;
+	private final FileStorageService fileStorageService;
+	private final UploadRegistrar uploadRegistrar;
+	private final long chunkSize;
+	private final long maxLength;
+	private final Duration sessionTtl;
+
+	public RedisResumableUploadServiceImpl(StringRedisTemplate redisTemplate, FileStorageService fileStorageService,
+			UploadRegistrar uploadRegistrar,
+			@Value("${uploads.resumable.chunk-size-bytes:8388608}") long chunkSize,
+			@Value("${uploads.resumable.max-length-bytes:10737418240}") long maxLength,
+			@Value("${uploads.resumable.session-ttl-hours:24}") long sessionTtlHours) {
+		this.redisTemplate = redisTemplate;
+		this.fileStorageService = fileStorageService;
+		this.uploadRegistrar = uploadRegistrar;
+		this.chunkSize = chunkSize;
+		this.maxLength = maxLength;
+		this.sessionTtl = Duration.ofHours(sessionTtlHours);
+	}
+
+	@Override
+	public ResumableUploadStatusDTO create(ResumableUploadRequest request, User user) {
+		if (!StringUtils.hasText(request.getTitle())) {
+			throw new IllegalArgumentException("A title is required.");
+		}
+		if (request.getContentType() == null || !request.getContentType().startsWith("video/")) {
+			throw new IllegalArgumentException("Invalid file type. Only video files are allowed.");
+		}
+		if (request.getLength() <= 0 || request.getLength() > maxLength) {
+			throw new IllegalArgumentException("Upload length must be between 1 and " + maxLength + " bytes.");
+		}
+
+		String uploadId = UUID.randomUUID().toString().replace("-", "");
+		try {
+			Path staged = fileStorageService.getFilePath(stagingPath(uploadId));
+			Files.createDirectories(staged.getParent());
+			Files.createFile(staged); // Sparse until chunks arrive
+		} catch (IOException e) {
+			throw new FileStorageException("Could not create staging file for upload " + uploadId, e);
+		}
+
+		String extension = StringUtils.getFilenameExtension(
+				StringUtils.cleanPath(request.getFileName() != null ? request.getFileName() : ""));
+		Map<String, String> session = new HashMap<>();
+		session.put("userId", String.valueOf(user.getUserId()));
+		session.put("title", request.getTitle());
+		session.put("description", request.getDescription() != null ? request.getDescription() : "");
+		session.put("extension", extension != null ? extension : "");
+		session.put("length", String.valueOf(request.getLength()));
+		session.put("chunkSize", String.valueOf(chunkSize));
+		String key = sessionKey(uploadId);
+		redisTemplate.opsForHash().putAll(key, session);
+		redisTemplate.expire(key, sessionTtl);
+
+		logger.info("Created resumable upload {} ({} bytes) for user {}", uploadId, request.getLength(),
+				user.getUsername());
+		return new ResumableUploadStatusDTO(uploadId, request.getLength(), chunkSize, 0, null);
+	}
+
+	@Override
+	public ResumableUploadStatusDTO getStatus(String uploadId, User user) {
+		Map<String, String> session = loadSession(uploadId, user);
+		return toStatus(uploadId, session);
+	}
+
+	@Override
+	public ResumableUploadStatusDTO writeChunk(String uploadId, User user, long offset, long contentLength,
+			InputStream body) {
+		Map<String, String> session = loadSession(uploadId, user);
+		if (session.containsKey("videoId")) {
+			return toStatus(uploadId, session); // Late retry of a chunk of a finished upload
+		}
+		long length = Long.parseLong(session.get("length"));
+		long sessionChunkSize = Long.parseLong(session.get("chunkSize"));
+		if (offset < 0 || offset >= length || offset % sessionChunkSize != 0) {
+			throw new IllegalArgumentException("Upload-Offset must be a multiple of " + sessionChunkSize
+					+ " below " + length + ".");
+		}
+		long expected = Math.min(sessionChunkSize, length - offset);
+		if (contentLength >= 0 && contentLength != expected) {
+			throw new IllegalArgumentException("Chunk at offset " + offset + " must be " + expected + " bytes.");
+		}
+
+		Path staged = fileStorageService.getFilePath(stagingPath(uploadId));
+		long written;
+		try {
+			written = writeAt(staged, offset, expected, body);
+		} catch (NoSuchFileException e) {
+			throw new FileNotFoundException("Upload not found or expired: " + uploadId);
+		} catch (IOException e) {
+			// Typically the client went away mid-chunk; the chunk is simply not marked and gets re-sent
+			throw new FileStorageException("Could not write chunk at offset " + offset + " of upload " + uploadId, e);
+		}
+		if (written != expected) {
+			throw new IllegalArgumentException(
+					"Chunk at offset " + offset + " was " + written + " bytes, expected " + expected + ".");
+		}
+
+		long chunkIndex = offset / sessionChunkSize;
+		long totalChunks = (length + sessionChunkSize - 1) / sessionChunkSize;
+		Long result = redisTemplate.execute(MARK_CHUNK_SCRIPT,
+				List.of(chunksKey(uploadId), sessionKey(uploadId)), String.valueOf(chunkIndex),
+				String.valueOf(totalChunks), String.valueOf(sessionTtl.toMillis()));
+
+		if (result != null && result == UPLOAD_COMPLETED) {
+			try {
+				Long videoId = finish(uploadId, session, user, staged, length);
+				session.put("videoId", String.valueOf(videoId));
+			} catch (IllegalArgumentException e) {
+				// Not a playable video; retrying cannot help, so the session is gone
+				redisTemplate.delete(List.of(sessionKey(uploadId), chunksKey(uploadId)));
+				throw e;
+			} catch (RuntimeException e) {
+				// Unmark the chunk, so re-sending it retries completion
+				redisTemplate.opsForValue().setBit(chunksKey(uploadId), chunkIndex, false);
+				throw e;
+			}
+		} else if (result != null && result == CHUNK_DUPLICATE) {
+			logger.debug("Chunk {} of upload {} was already received", chunkIndex, uploadId);
+		}
+		return toStatus(uploadId, session);
+	}
+
+	@Override
+	public void abort(String uploadId, User user) {
+		Map<String, String> session = loadSession(uploadId, user);
+		redisTemplate.delete(List.of(sessionKey(uploadId), chunksKey(uploadId)));
+		if (!session.containsKey("videoId")) {
+			deleteStagingFile(uploadId);
+		}
+		logger.info("Aborted resumable upload {} of user {}", uploadId, user.getUsername());
+	}
+
+	/**
+	 * Deletes staging files whose session expired. Files younger than an hour are kept,
+	 * so a session that is being created right now is never touched.
+	 */
+	@Scheduled(fixedDelayString = "${uploads.resumable.cleanup-interval-ms:3600000}")
+	public void deleteAbandonedUploads() {
+		Path stagingDirectory = fileStorageService.getFilePath(STAGING_DIRECTORY);
+		if (!Files.isDirectory(stagingDirectory)) {
+			return;
+		}
+		long cutoff = System.currentTimeMillis() - Duration.ofHours(1).toMillis();
+		int deleted = 0;
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(stagingDirectory, "*.part")) {
+			for (Path file : files) {
+				String name = file.getFileName().toString();
+				String uploadId = name.substring(0, name.length() - ".part".length());
+				if (Files.getLastModifiedTime(file).toMillis() < cutoff
+						&& !Boolean.TRUE.equals(redisTemplate.hasKey(sessionKey(uploadId)))) {
+					Files.deleteIfExists(file);
+					deleted++;
+				}
+			}
+		} catch (IOException e) {
+			logger.warn("Failed to clean up abandoned uploads: {}", e.getMessage());
+		}
+		if (deleted > 0) {
+			logger.info("Deleted {} abandoned upload staging files", deleted);
+		}
+	}
+
+	private static long writeAt(Path file, long position, long expected, InputStream body) throws IOException {
+		byte[] buffer = new byte[COPY_BUFFER_BYTES];
+		ByteBuffer wrapped = ByteBuffer.wrap(buffer);
+		long written = 0;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+			int read;
+			// Ask for one byte more than still expected, so an oversized body is noticed
+			while ((read = body.read(buffer, 0, (int) Math.min(buffer.length, expected - written + 1))) != -1) {
+				if (written + read > expected) {
+					return written + read;
+				}
+				wrapped.clear().limit(read);
+				while (wrapped.hasRemaining()) {
+					written += channel.write(wrapped, position + written);
+				}
+			}
+		}
+		return written;
+	}
+
+	private Long finish(String uploadId, Map<String, String> session, User user, Path staged, long length) {
+		String extension = session.get("extension");
+		String fileName = UUID.randomUUID().toString() + (StringUtils.hasText(extension) ? "." + extension : "");
+		String rawPath;
+		String contentHash;
+		try {
+			try (FileChannel channel = FileChannel.open(staged, StandardOpenOption.WRITE)) {
+				channel.force(true); // Chunks were written without syncing; sync once before handing the file on
+			}
+			// Chunks arrive out of order, so the hash needs one sequential read of the assembled file
+			contentHash = ContentHash.of(staged);
+			rawPath = fileStorageService.moveFile(stagingPath(uploadId), fileName, user.getUserId(), "raw");
+		} catch (IOException e) {
+			throw new FileStorageException("Could not store completed upload " + uploadId, e);
+		}
+
+		Video video;
+		try {
+			String description = session.get("description");
+			video = uploadRegistrar.register(user, session.get("title"),
+					StringUtils.hasText(description) ? description : null, rawPath, length, contentHash);
+		} catch (IllegalArgumentException e) {
+			deleteQuietly(rawPath);
+			throw e;
+		} catch (RuntimeException e) {
+			try {
+				Files.move(fileStorageService.getFilePath(rawPath), staged);
+			} catch (IOException moveBack) {
+				logger.error("Could not move {} back to staging for upload {}: {}", rawPath, uploadId,
+						moveBack.getMessage());
+			}
+			throw e;
+		}
+
+		redisTemplate.opsForHash().put(sessionKey(uploadId), "videoId", String.valueOf(video.getVideoId()));
+		redisTemplate.delete(chunksKey(uploadId));
+		logger.info("Resumable upload {} complete: video {} stored at {}", uploadId, video.getVideoId(), rawPath);
+		return video.getVideoId();
+	}
+
+	private Map<String, String> loadSession(String uploadId, User user) {
+		if (!StringUtils.hasText(uploadId) || !uploadId.matches("[0-9a-f]{32}")) {
+			throw new FileNotFoundException("Upload not found or expired: " + uploadId);
+		}
+		Map<Object, Object> entries = redisTemplate.opsForHash().entries(sessionKey(uploadId));
+		if (entries.isEmpty()) {
+			throw new FileNotFoundException("Upload not found or expired: " + uploadId);
+		}
+		Map<String, String> session = new HashMap<>(entries.size());
+		entries.forEach((field, value) -> session.put(field.toString(), value.toString()));
+		if (!session.get("userId").equals(String.valueOf(user.getUserId()))) {
+			throw new SecurityException("Upload " + uploadId + " belongs to another user.");
+		}
+		return session;
+	}
+
+	private ResumableUploadStatusDTO toStatus(String uploadId, Map<String, String> session) {
+		long length = Long.parseLong(session.get("length"));
+		long sessionChunkSize = Long.parseLong(session.get("chunkSize"));
+		if (session.containsKey("videoId")) {
+			return new ResumableUploadStatusDTO(uploadId, length, sessionChunkSize, length,
+					Long.valueOf(session.get("videoId")));
+		}
+		// First chunk not received yet; BITPOS of a missing key is 0
+		byte[] key = chunksKey(uploadId).getBytes(StandardCharsets.UTF_8);
+		Long firstMissing = redisTemplate.execute((RedisCallback<Long>) connection -> connection.stringCommands()
+				.bitPos(key, false));
+		long offset = Math.min(length, (firstMissing != null ? firstMissing : 0) * sessionChunkSize);
+		return new ResumableUploadStatusDTO(uploadId, length, sessionChunkSize, offset, null);
+	}
+
+	private void deleteStagingFile(String uploadId) {
+		deleteQuietly(stagingPath(uploadId));
+	}
+
+	private void deleteQuietly(String relativePath) {
+		try {
+			fileStorageService.deleteFile(relativePath);
+		} catch (IOException e) {
+			logger.warn("Could not delete upload file {}: {}", relativePath, e.getMessage());
+		}
+	}
+
+	private static String sessionKey(String uploadId) {
+		return KEY_PREFIX + uploadId;
+	}
+
+	private static String chunksKey(String uploadId) {
+		return KEY_PREFIX + uploadId + CHUNKS_SUFFIX;
+	}
+
+	private static String stagingPath(String uploadId) {
+		return STAGING_DIRECTORY + "/" + uploadId + ".part";
+	}
+}
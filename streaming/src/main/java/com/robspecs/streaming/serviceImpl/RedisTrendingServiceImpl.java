@@ -0,0 +1,90 @@
+package com.robspecs.streaming.serviceImpl;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+
+import com.robspecs.streaming.service.TrendingService;
+
+/**
+ * Trending ranking kept in the Redis sorted set {@code videos:trending}.
+ * <p>
+ * A video's trending score is the sum over its views of {@code exp(-lambda * age)},
+ * i.e. every view loses half its weight per half-life. Decaying every member on each
+ * tick would be O(n), so scores are stored relative to a fixed epoch instead:
+ * {@code ln(sum exp(lambda * (t_view - epoch)))}. A view only changes its own member
+ * (log-add-exp in a Lua script), and the ordering of these values is the same as the
+ * ordering of the decayed scores at any moment. The set is trimmed to the top entries.
+ */
+@Service
+public class RedisTrendingServiceImpl implements TrendingService {
+
+	private static final Logger logger = LoggerFactory.getLogger(RedisTrendingServiceImpl.class);
+
+	private static final String TRENDING_KEY = "videos:trending";
+	private static final long EPOCH_SECONDS = Instant.parse("2024-01-01T00:00:00Z").getEpochSecond();
+
+	// ARGV: member, lambda * (now - epoch), max members. Returns the new score as a string (Lua numbers
+	// would be truncated to integers in the reply).
+	private static final DefaultRedisScript<String> RECORD_VIEW_SCRIPT = new DefaultRedisScript<>(
+			"local x = tonumber(ARGV[2]) "
+					+ "local old = redis.call('ZSCORE', KEYS[1], ARGV[1]) "
+					+ "local score = x "
+					+ "if old then "
+					+ "  old = tonumber(old) "
+					+ "  local hi = math.max(old, x) "
+					+ "  score = hi + math.log(math.exp(old - hi) + math.exp(x - hi)) "
+					+ "end "
+					+ "redis.call('ZADD', KEYS[1], score, ARGV[1]) "
+					+ "local excess = redis.call('ZCARD', KEYS[1]) - tonumber(ARGV[3]) "
+					+ "if excess > 0 then redis.call('ZREMRANGEBYRANK', KEYS[1], 0, excess - 1) end "
+					+ "return tostring(score)",
+			String.class);
+
+	private final StringRedisTemplate redisTemplate;
+	private final double lambdaPerSecond;
+	private final long maxRankedVideos;
+
+	public RedisTrendingServiceImpl(StringRedisTemplate redisTemplate,
+			@Value("${trending.half-life-hours:24}") double halfLifeHours,
+			@Value("${trending.max-ranked-videos:10000}") long maxRankedVideos) {
+		if (halfLifeHours <= 0) {
+			throw new IllegalArgumentException("trending.half-life-hours must be positive.");
+		}
+		this.redisTemplate = redisTemplate;
+		this.lambdaPerSecond = Math.log(2) / (halfLifeHours * 3600);
+		this.maxRankedVideos = maxRankedVideos;
+	}
+
+	@Override
+	public void recordView(Long videoId) {
+		double exponent = lambdaPerSecond * (Instant.now().getEpochSecond() - EPOCH_SECONDS);
+		String score = redisTemplate.execute(RECORD_VIEW_SCRIPT, List.of(TRENDING_KEY), String.valueOf(videoId),
+				String.valueOf(exponent), String.valueOf(maxRankedVideos));
+		logger.debug("Trending score of video ID {} is now {}", videoId, score);
+	}
+
+	@Override
+	public List<Long> getTrendingVideoIds(int page, int size) {
+		long start = (long) page * size;
+		Set<String> members = redisTemplate.opsForZSet().reverseRange(TRENDING_KEY, start, start + size - 1);
+		List<Long> videoIds = new ArrayList<>(members != null ? members.size() : 0);
+		if (members != null) {
+			members.forEach(member -> videoIds.add(Long.valueOf(member)));
+		}
+		return videoIds;
+	}
+
+	@Override
+	public void remove(Long videoId) {
+		redisTemplate.opsForZSet().remove(TRENDING_KEY, String.valueOf(videoId));
+	}
+}
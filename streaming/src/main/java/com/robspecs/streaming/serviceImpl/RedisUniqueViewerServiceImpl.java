@@ -0,0 +1,92 @@
+package com.robspecs.streaming.serviceImpl;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+
+import com.robspecs.streaming.dto.UniqueViewersDTO;
+import com.robspecs.streaming.service.UniqueViewerService;
+
+/**
+ * Unique viewers per video, estimated with Redis HyperLogLogs. Each sketch is at most
+ * ~12 KB no matter how many viewers it has seen: one all-time sketch per video
+ * ({@code video:uv:{id}:all}) and one per UTC day ({@code video:uv:{id}:yyyyMMdd})
+ * that expires after the retention period. Multi-day windows are answered by
+ * PFCOUNT over several daily keys, which merges them on the fly.
+ */
+@Service
+public class RedisUniqueViewerServiceImpl implements UniqueViewerService {
+
+	private static final Logger logger = LoggerFactory.getLogger(RedisUniqueViewerServiceImpl.class);
+
+	private static final String KEY_PREFIX = "video:uv:";
+	private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.BASIC_ISO_DATE;
+
+	// Adds the viewer to both sketches in one round trip; EXPIRE only on the daily one
+	private static final DefaultRedisScript<Long> RECORD_SCRIPT = new DefaultRedisScript<>(
+			"redis.call('PFADD', KEYS[1], ARGV[1]) "
+					+ "local changed = redis.call('PFADD', KEYS[2], ARGV[1]) "
+					+ "redis.call('EXPIRE', KEYS[2], ARGV[2]) "
+					+ "return changed",
+			Long.class);
+
+	private final StringRedisTemplate redisTemplate;
+	private final int dailyRetentionDays;
+
+	public RedisUniqueViewerServiceImpl(StringRedisTemplate redisTemplate,
+			@Value("${views.unique.daily-retention-days:35}") int dailyRetentionDays) {
+		this.redisTemplate = redisTemplate;
+		this.dailyRetentionDays = Math.max(1, dailyRetentionDays);
+	}
+
+	@Override
+	public void recordViewer(Long videoId, String viewerKey) {
+		String allTimeKey = KEY_PREFIX + videoId + ":all";
+		String dailyKey = dailyKey(videoId, LocalDate.now(ZoneOffset.UTC));
+		long ttlSeconds = (long) dailyRetentionDays * 24 * 3600;
+		redisTemplate.execute(RECORD_SCRIPT, List.of(allTimeKey, dailyKey), viewerKey, String.valueOf(ttlSeconds));
+	}
+
+	@Override
+	public UniqueViewersDTO getUniqueViewers(Long videoId, LocalDate endDate, int days) {
+		if (days < 1 || days > dailyRetentionDays) {
+			throw new IllegalArgumentException("days must be between 1 and " + dailyRetentionDays + ".");
+		}
+		LocalDate fromDate = endDate.minusDays(days - 1L);
+		List<String> dailyKeys = new ArrayList<>(days);
+		for (LocalDate day = fromDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+			dailyKeys.add(dailyKey(videoId, day));
+		}
+		Long window = redisTemplate.opsForHyperLogLog().size(dailyKeys.toArray(new String[0]));
+		Long allTime = redisTemplate.opsForHyperLogLog().size(KEY_PREFIX + videoId + ":all");
+		logger.debug("Unique viewers for video ID {}: {} in {}..{}, {} all-time", videoId, window, fromDate, endDate,
+				allTime);
+		return new UniqueViewersDTO(videoId, fromDate, endDate, window != null ? window : 0,
+				allTime != null ? allTime : 0);
+	}
+
+	@Override
+	public void remove(Long videoId) {
+		// Daily keys older than the retention period have already expired
+		List<String> keys = new ArrayList<>(dailyRetentionDays + 2);
+		keys.add(KEY_PREFIX + videoId + ":all");
+		LocalDate today = LocalDate.now(ZoneOffset.UTC);
+		for (int i = -1; i <= dailyRetentionDays; i++) {
+			keys.add(dailyKey(videoId, today.minusDays(i)));
+		}
+		redisTemplate.delete(keys);
+	}
+
+	private static String dailyKey(Long videoId, LocalDate day) {
+		return KEY_PREFIX + videoId + ":" + DAY_FORMAT.format(day);
+	}
+}
@@ -0,0 +1,283 @@
+package com.robspecs.streaming.serviceImpl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.robspecs.streaming.dto.VideoDetailsDTO;
+import com.robspecs.streaming.service.VideoDetailsCache;
+
+/**
+ * Two-tier cache of serialized {@link VideoDetailsDTO}s.
+ * <ul>
+ * <li>Near-cache: a small LRU map per node with a short TTL, so the hottest videos
+ * don't even cost a Redis round trip.</li>
+ * <li>Redis: {@code video:details:{id}} as JSON with a TTL (plus jitter, so entries
+ * written together don't expire together).</li>
+ * </ul>
+ * Invalidation deletes the Redis key and publishes the ID on
+ * {@value #INVALIDATION_CHANNEL}; every node (including this one) then drops it from
+ * its near-cache. Status changes made by the processor service reach every node
+ * through the status topic instead, and each node evicts locally.
+ * Concurrent misses for the same video share a single database load.
+ * <p>
+ * Every eviction also bumps {@code video:details:version:{id}}. A load remembers the
+ * version it started under and writes its result back only if that is still current,
+ * so a load that read the old row before an eviction can't re-cache it afterwards.
+ */
+@Service
+public class RedisVideoDetailsCacheImpl implements VideoDetailsCache, MessageListener {
+
+	private static final Logger logger = LoggerFactory.getLogger(RedisVideoDetailsCacheImpl.class);
+
+	public static final String KEY_PREFIX = "video:details:";
+	public static final String VERSION_KEY_PREFIX = "video:details:version:";
+	public static final String INVALIDATION_CHANNEL = "video-details-invalidations";
+
+	// Deletes the entry and bumps its version; the version outlives any load in progress
+	private static final DefaultRedisScript<Long> INVALIDATE_SCRIPT = new DefaultRedisScript<>(
+			"redis.call('DEL', KEYS[1]) "
+					+ "local version = redis.call('INCR', KEYS[2]) "
+					+ "redis.call('EXPIRE', KEYS[2], ARGV[1]) "
+					+ "return version",
+			Long.class);
+
+	// Writes the entry only if the version is still the one the load started under ('' = none)
+	private static final DefaultRedisScript<Long> WRITE_IF_CURRENT_SCRIPT = new DefaultRedisScript<>(
+			"if (redis.call('GET', KEYS[2]) or '') ~= ARGV[1] then return 0 end "
+					+ "redis.call('SET', KEYS[1], ARGV[2], 'EX', ARGV[3]) "
+					+ "return 1",
+			Long.class);
+
+	private static final class NearEntry {
+		final String json;
+		final long expiresAtMillis;
+
+		NearEntry(String json, long expiresAtMillis) {
+			this.json = json;
+			this.expiresAtMillis = expiresAtMillis;
+		}
+	}
+
+	private final StringRedisTemplate redisTemplate;
+	private final ObjectMapper objectMapper;
+	private final long ttlSeconds;
+	private final long nearCacheTtlMillis;
+	private final int nearCacheMaxEntries;
+
+	// Access-ordered LRU; guarded by its own monitor
+	private final LinkedHashMap<Long, NearEntry> nearCache;
+	private final ConcurrentHashMap<Long, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+	public RedisVideoDetailsCacheImpl(StringRedisTemplate redisTemplate, ObjectMapper objectMapper,
+			RedisMessageListenerContainer listenerContainer,
+			@Value("${video-details.cache.ttl-seconds:300}") long ttlSeconds,
+			@Value("${video-details.near-cache.ttl-ms:5000}") long nearCacheTtlMillis,
+			@Value("${video-details.near-cache.max-entries:1000}") int nearCacheMaxEntries) {
+		this.redisTemplate = redisTemplate;
+		this.objectMapper = objectMapper;
+		this.ttlSeconds = ttlSeconds;
+		this.nearCacheTtlMillis = nearCacheTtlMillis;
+		this.nearCacheMaxEntries = nearCacheMaxEntries;
+		this.nearCache = new LinkedHashMap<>(64, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, NearEntry> eldest) {
+				return size() > RedisVideoDetailsCacheImpl.this.nearCacheMaxEntries;
+			}
+		};
+		listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+	}
+
+	@Override
+	public VideoDetailsDTO get(Long videoId, Function<Long, VideoDetailsDTO> loader) {
+		String json = getNear(videoId);
+		if (json == null) {
+			json = getFromRedisOrLoad(videoId, loader);
+			if (json == null) {
+				return null;
+			}
+		}
+		return deserialize(json);
+	}
+
+	private String getFromRedisOrLoad(Long videoId, Function<Long, VideoDetailsDTO> loader) {
+		String json = null;
+		String version = null;
+		boolean redisAvailable = true;
+		try {
+			List<String> values = redisTemplate.opsForValue()
+					.multiGet(List.of(KEY_PREFIX + videoId, VERSION_KEY_PREFIX + videoId));
+			if (values != null) {
+				json = values.get(0);
+				version = values.get(1);
+			}
+		} catch (DataAccessException e) {
+			redisAvailable = false;
+			// Redis trouble must not take video pages down; fall through to the database
+			logger.warn("Video details cache read failed for video ID {}: {}", videoId, e.getMessage());
+		}
+		if (json != null) {
+			putNear(videoId, json);
+			return json;
+		}
+
+		CompletableFuture<String> future = new CompletableFuture<>();
+		CompletableFuture<String> existing = inFlight.putIfAbsent(videoId, future);
+		if (existing != null) {
+			return existing.join();
+		}
+		try {
+			VideoDetailsDTO loaded = loader.apply(videoId);
+			String loadedJson = loaded != null ? serialize(loaded) : null;
+			// Without Redis there is no version to check; only the short-lived near-cache is filled
+			if (loadedJson != null && (!redisAvailable || writeToRedisIfCurrent(videoId, version, loadedJson))) {
+				putNear(videoId, loadedJson);
+			}
+			future.complete(loadedJson);
+			return loadedJson;
+		} catch (RuntimeException e) {
+			future.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlight.remove(videoId, future);
+		}
+	}
+
+	@Override
+	public void evict(Long videoId) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					evictNow(videoId);
+				}
+			});
+		} else {
+			evictNow(videoId);
+		}
+	}
+
+	private void evictNow(Long videoId) {
+		removeNear(videoId);
+		try {
+			deleteAndBumpVersion(videoId);
+			redisTemplate.convertAndSend(INVALIDATION_CHANNEL, String.valueOf(videoId));
+			logger.debug("Evicted cached details of video ID {}", videoId);
+		} catch (DataAccessException e) {
+			logger.warn("Failed to evict cached details of video ID {} (expires within {}s): {}", videoId,
+					ttlSeconds, e.getMessage());
+		}
+	}
+
+	@Override
+	public void evictLocally(Long videoId) {
+		removeNear(videoId);
+		try {
+			deleteAndBumpVersion(videoId);
+		} catch (DataAccessException e) {
+			logger.warn("Failed to evict cached details of video ID {} (expires within {}s): {}", videoId,
+					ttlSeconds, e.getMessage());
+		}
+	}
+
+	// Invalidation from any node
+	@Override
+	public void onMessage(Message message, byte[] pattern) {
+		String body = new String(message.getBody(), StandardCharsets.UTF_8);
+		try {
+			removeNear(Long.valueOf(body.trim()));
+		} catch (NumberFormatException e) {
+			logger.warn("Ignoring malformed video details invalidation message: {}", body);
+		}
+	}
+
+	private void deleteAndBumpVersion(Long videoId) {
+		redisTemplate.execute(INVALIDATE_SCRIPT, List.of(KEY_PREFIX + videoId, VERSION_KEY_PREFIX + videoId),
+				String.valueOf(2 * ttlSeconds));
+	}
+
+	/**
+	 * @return false if the entry was evicted since {@code version} was read, so the
+	 *         loaded value may be stale and must not be cached anywhere.
+	 */
+	private boolean writeToRedisIfCurrent(Long videoId, String version, String json) {
+		long jitter = ThreadLocalRandom.current().nextLong(Math.max(1, ttlSeconds / 10));
+		try {
+			Long written = redisTemplate.execute(WRITE_IF_CURRENT_SCRIPT,
+					List.of(KEY_PREFIX + videoId, VERSION_KEY_PREFIX + videoId), version != null ? version : "", json,
+					String.valueOf(ttlSeconds + jitter));
+			if (written != null && written == 0L) {
+				logger.debug("Not caching details of video ID {}: evicted while loading", videoId);
+				return false;
+			}
+		} catch (DataAccessException e) {
+			logger.warn("Video details cache write failed for video ID {}: {}", videoId, e.getMessage());
+		}
+		return true;
+	}
+
+	private String getNear(Long videoId) {
+		synchronized (nearCache) {
+			NearEntry entry = nearCache.get(videoId);
+			if (entry == null) {
+				return null;
+			}
+			if (entry.expiresAtMillis < System.currentTimeMillis()) {
+				nearCache.remove(videoId);
+				return null;
+			}
+			return entry.json;
+		}
+	}
+
+	private void putNear(Long videoId, String json) {
+		synchronized (nearCache) {
+			nearCache.put(videoId, new NearEntry(json, System.currentTimeMillis() + nearCacheTtlMillis));
+		}
+	}
+
+	private void removeNear(Long videoId) {
+		synchronized (nearCache) {
+			nearCache.remove(videoId);
+		}
+	}
+
+	private String serialize(VideoDetailsDTO details) {
+		try {
+			return objectMapper.writeValueAsString(details);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Could not serialize video details " + details.getVideoId(), e);
+		}
+	}
+
+	private VideoDetailsDTO deserialize(String json) {
+		try {
+			return objectMapper.readValue(json, VideoDetailsDTO.class);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Could not deserialize cached video details", e);
+		}
+	}
+}
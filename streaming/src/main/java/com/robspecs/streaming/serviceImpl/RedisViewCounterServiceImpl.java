@@ -0,0 +1,139 @@
+package com.robspecs.streaming.serviceImpl;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import com.robspecs.streaming.exceptions.FileNotFoundException;
+import com.robspecs.streaming.repository.VideosRepository;
+import com.robspecs.streaming.service.ViewCounterService;
+
+/**
+ * Write-behind view counter. Each view is one Redis round trip: the live total
+ * ({@code video:views:{id}}) and a pending delta in the shared hash
+ * {@code video:views:pending} are bumped together by a small Lua script. A scheduled
+ * flush moves the pending hash aside with RENAME (atomic, so no increments are lost)
+ * and applies all deltas to MySQL in one multi-row UPDATE.
+ */
+@Service
+public class RedisViewCounterServiceImpl implements ViewCounterService {
+
+	private static final Logger logger = LoggerFactory.getLogger(RedisViewCounterServiceImpl.class);
+
+	private static final String TOTAL_KEY_PREFIX = "video:views:";
+	private static final String PENDING_KEY = "video:views:pending";
+	private static final String FLUSHING_KEY_PREFIX = "video:views:flushing:";
+
+	// Returns the live total after counting one view; if that created the counter, minus the pending delta
+	// instead (always >= 1, it includes this view), read in the same step so the seed below is exact
+	private static final DefaultRedisScript<Long> INCREMENT_SCRIPT = new DefaultRedisScript<>(
+			"local total = redis.call('INCR', KEYS[1]) "
+					+ "local pending = redis.call('HINCRBY', KEYS[2], ARGV[1], 1) "
+					+ "redis.call('EXPIRE', KEYS[1], ARGV[2]) "
+					+ "if total == 1 then return -pending end "
+					+ "return total",
+			Long.class);
+
+	private final StringRedisTemplate redisTemplate;
+	private final VideosRepository videoRepository;
+	private final long totalTtlSeconds;
+	private final String flushingKey;
+
+	public RedisViewCounterServiceImpl(StringRedisTemplate redisTemplate, VideosRepository videoRepository,
+			@Value("${views.counter.ttl-seconds:86400}") long totalTtlSeconds,
+			@Value("${views.flush.node-id:}") String nodeId) {
+		this.redisTemplate = redisTemplate;
+		this.videoRepository = videoRepository;
+		this.totalTtlSeconds = totalTtlSeconds;
+		// Per-node key, so a node that crashed mid-flush picks up its own leftovers after restart
+		this.flushingKey = FLUSHING_KEY_PREFIX + (StringUtils.hasText(nodeId) ? nodeId : localHostName());
+		logger.debug("RedisViewCounterServiceImpl initialized with flushing key {}", flushingKey);
+	}
+
+	@Override
+	public long increment(Long videoId) {
+		String totalKey = TOTAL_KEY_PREFIX + videoId;
+		long total = redisTemplate.execute(INCREMENT_SCRIPT, List.of(totalKey, PENDING_KEY),
+				String.valueOf(videoId), String.valueOf(totalTtlSeconds));
+
+		if (total < 0) {
+			long pending = -total;
+			// Counter was cold: seed it with the persisted count. Only the caller that created the key gets here,
+			// and INCRBY composes with any increments that raced in meanwhile.
+			Long persisted = videoRepository.findViewsByVideoId(videoId).orElse(null);
+			if (persisted == null) {
+				redisTemplate.delete(totalKey);
+				redisTemplate.opsForHash().delete(PENDING_KEY, String.valueOf(videoId));
+				logger.warn("Video not found for view increment: {}", videoId);
+				throw new FileNotFoundException("Video not found with ID: " + videoId);
+			}
+			total = redisTemplate.opsForValue().increment(totalKey, persisted + pending - 1);
+			logger.debug("Seeded view counter for video ID {} from database value {}", videoId, persisted);
+		}
+		return total;
+	}
+
+	@Override
+	public Long peek(Long videoId) {
+		String total = redisTemplate.opsForValue().get(TOTAL_KEY_PREFIX + videoId);
+		return total != null ? Long.valueOf(total) : null;
+	}
+
+	@Override
+	@Scheduled(fixedDelayString = "${views.flush.interval-ms:10000}", initialDelayString = "${views.flush.interval-ms:10000}")
+	public void flushPendingViews() {
+		try {
+			// A leftover from a failed flush goes first; RENAME would overwrite it
+			if (!Boolean.TRUE.equals(redisTemplate.hasKey(flushingKey))) {
+				if (!Boolean.TRUE.equals(redisTemplate.hasKey(PENDING_KEY))) {
+					return;
+				}
+				redisTemplate.rename(PENDING_KEY, flushingKey);
+			}
+
+			Map<Object, Object> entries = redisTemplate.opsForHash().entries(flushingKey);
+			Map<Long, Long> deltas = new HashMap<>(entries.size());
+			entries.forEach((videoId, delta) -> {
+				long value = Long.parseLong(delta.toString());
+				if (value != 0) {
+					deltas.put(Long.valueOf(videoId.toString()), value);
+				}
+			});
+
+			if (!deltas.isEmpty()) {
+				int updated = videoRepository.addViews(deltas);
+				logger.info("Flushed view deltas for {} videos ({} rows updated).", deltas.size(), updated);
+			}
+			redisTemplate.delete(flushingKey);
+		} catch (DataAccessException e) {
+			// Deltas stay in the flushing hash and are retried on the next run
+			logger.error("Failed to flush pending view counts: {}", e.getMessage(), e);
+		}
+	}
+
+	@Override
+	public void remove(Long videoId) {
+		redisTemplate.delete(TOTAL_KEY_PREFIX + videoId);
+		redisTemplate.opsForHash().delete(PENDING_KEY, String.valueOf(videoId));
+	}
+
+	private static String localHostName() {
+		try {
+			return InetAddress.getLocalHost().getHostName();
+		} catch (UnknownHostException e) {
+			return "local";
+		}
+	}
+}
@@ -0,0 +1,52 @@
+package com.robspecs.streaming.serviceImpl;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.robspecs.events.ProcessingLane;
+import com.robspecs.events.VideoProcessingRequest;
+import com.robspecs.streaming.service.ProcessingLaneRouter;
+
+/**
+ * Size is known for every upload; duration only when the upload-time probe could read
+ * it. Duration is the better predictor of transcode time (a short clip at a high
+ * bitrate is still quick), so it can move an upload to a bigger lane but a missing
+ * duration never moves it to a smaller one.
+ */
+@Service
+public class SizeBasedProcessingLaneRouterImpl implements ProcessingLaneRouter {
+
+	private final long smallMaxBytes;
+	private final long mediumMaxBytes;
+	private final long smallMaxDurationMillis;
+	private final long mediumMaxDurationMillis;
+
+	public SizeBasedProcessingLaneRouterImpl(
+			@Value("${uploads.lanes.small.max-bytes:10485760}") long smallMaxBytes,
+			@Value("${uploads.lanes.medium.max-bytes:52428800}") long mediumMaxBytes,
+			@Value("${uploads.lanes.small.max-duration-seconds:120}") long smallMaxDurationSeconds,
+			@Value("${uploads.lanes.medium.max-duration-seconds:900}") long mediumMaxDurationSeconds) {
+		this.smallMaxBytes = smallMaxBytes;
+		this.mediumMaxBytes = mediumMaxBytes;
+		this.smallMaxDurationMillis = smallMaxDurationSeconds * 1000;
+		this.mediumMaxDurationMillis = mediumMaxDurationSeconds * 1000;
+	}
+
+	@Override
+	public ProcessingLane route(VideoProcessingRequest request) {
+		Long fileSize = request.getFileSize();
+		if (fileSize == null) {
+			return ProcessingLane.LARGE;
+		}
+		ProcessingLane bySize = fileSize <= smallMaxBytes ? ProcessingLane.SMALL
+				: fileSize <= mediumMaxBytes ? ProcessingLane.MEDIUM : ProcessingLane.LARGE;
+
+		Long durationMillis = request.getMediaInfo() != null ? request.getMediaInfo().getDurationMillis() : null;
+		if (durationMillis == null) {
+			return bySize;
+		}
+		ProcessingLane byDuration = durationMillis <= smallMaxDurationMillis ? ProcessingLane.SMALL
+				: durationMillis <= mediumMaxDurationMillis ? ProcessingLane.MEDIUM : ProcessingLane.LARGE;
+		return bySize.compareTo(byDuration) >= 0 ? bySize : byDuration;
+	}
+}
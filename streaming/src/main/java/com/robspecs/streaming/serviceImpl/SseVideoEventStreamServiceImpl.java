@@ -0,0 +1,176 @@
+package com.robspecs.streaming.serviceImpl;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.robspecs.events.VideoProgressEvent;
+import com.robspecs.streaming.config.KafkaConsumerConfig;
+import com.robspecs.streaming.dto.VideoDetailsDTO;
+import com.robspecs.streaming.dto.VideoProcessingUpdateDTO;
+import com.robspecs.streaming.dto.VideoStatusSnapshot;
+import com.robspecs.streaming.entities.User;
+import com.robspecs.streaming.enums.VideoStatus;
+import com.robspecs.streaming.repository.VideosRepository;
+import com.robspecs.streaming.service.VideoEventStreamService;
+
+/**
+ * Fans processing updates out to the uploaders' open SSE streams. Streams are plain
+ * {@link SseEmitter}s on servlet async requests, so an idle subscriber holds a
+ * connection but no thread. Updates come from Kafka: status changes via the read
+ * model's consumer, progress from the progress topic, which every node consumes in
+ * full under its own group. Users without an open stream cost one map lookup per event.
+ */
+@Service
+public class SseVideoEventStreamServiceImpl implements VideoEventStreamService {
+
+	private static final Logger logger = LoggerFactory.getLogger(SseVideoEventStreamServiceImpl.class);
+
+	private static final List<VideoStatus> IN_PROGRESS = List.of(VideoStatus.UPLOADED, VideoStatus.PROCESSING,
+			VideoStatus.ENCODING);
+	private static final long PROGRESS_RETENTION_MILLIS = 60 * 60 * 1000L;
+
+	private final ConcurrentHashMap<Long, Set<SseEmitter>> emittersByUser = new ConcurrentHashMap<>();
+	// Latest progress per video still being processed, replayed to streams opened mid-job
+	private final ConcurrentHashMap<Long, VideoProgressEvent> latestProgress = new ConcurrentHashMap<>();
+
+	private final VideosRepository videoRepository;
+	private final long timeoutMillis;
+	private final long reconnectMillis;
+	private final int maxStreamsPerUser;
+
+	public SseVideoEventStreamServiceImpl(VideosRepository videoRepository,
+			@Value("${video-events.sse.timeout-ms:1800000}") long timeoutMillis,
+			@Value("${video-events.sse.reconnect-ms:5000}") long reconnectMillis,
+			@Value("${video-events.sse.max-streams-per-user:5}") int maxStreamsPerUser) {
+		this.videoRepository = videoRepository;
+		this.timeoutMillis = timeoutMillis;
+		this.reconnectMillis = reconnectMillis;
+		this.maxStreamsPerUser = maxStreamsPerUser;
+	}
+
+	@Override
+	public SseEmitter subscribe(User user) {
+		Long userId = user.getUserId();
+		SseEmitter emitter = new SseEmitter(timeoutMillis);
+		boolean[] added = { false };
+		emittersByUser.compute(userId, (id, emitters) -> {
+			Set<SseEmitter> target = emitters != null ? emitters : ConcurrentHashMap.newKeySet();
+			if (target.size() < maxStreamsPerUser) {
+				added[0] = target.add(emitter);
+			}
+			return target.isEmpty() ? null : target;
+		});
+		if (!added[0]) {
+			throw new IllegalStateException("Too many open event streams for user " + user.getUsername());
+		}
+		emitter.onCompletion(() -> unregister(userId, emitter));
+		emitter.onTimeout(() -> unregister(userId, emitter));
+		emitter.onError(e -> unregister(userId, emitter));
+
+		// Registered before reading the current state, so nothing that happens in between is missed
+		send(userId, emitter, SseEmitter.event().reconnectTime(reconnectMillis).comment("connected"));
+		for (VideoDetailsDTO video : videoRepository.findVideoSummariesByUserAndStatusIn(userId, IN_PROGRESS)) {
+			VideoProgressEvent progress = latestProgress.get(video.getVideoId());
+			VideoProcessingUpdateDTO update = new VideoProcessingUpdateDTO(video.getVideoId(), video.getStatus().name(),
+					progress != null ? progress.getStage() : null, progress != null ? progress.getPercent() : null);
+			send(userId, emitter, SseEmitter.event().name("status").data(update, MediaType.APPLICATION_JSON));
+		}
+		logger.debug("Opened video event stream for user {}", user.getUsername());
+		return emitter;
+	}
+
+	@Override
+	public void publishStatus(VideoStatusSnapshot snapshot) {
+		VideoProgressEvent progress;
+		Integer percent;
+		if (snapshot.getStatus() == VideoStatus.READY || snapshot.getStatus() == VideoStatus.FAILED) {
+			progress = latestProgress.remove(snapshot.getVideoId());
+			percent = snapshot.getStatus() == VideoStatus.READY ? 100 : null;
+		} else {
+			progress = latestProgress.get(snapshot.getVideoId());
+			percent = progress != null ? progress.getPercent() : null;
+		}
+		Set<SseEmitter> emitters = emittersByUser.get(snapshot.getUploadUserId());
+		if (emitters == null) {
+			return;
+		}
+		VideoProcessingUpdateDTO update = new VideoProcessingUpdateDTO(snapshot.getVideoId(),
+				snapshot.getStatus().name(), progress != null ? progress.getStage() : null, percent);
+		for (SseEmitter emitter : emitters) {
+			send(snapshot.getUploadUserId(), emitter,
+					SseEmitter.event().name("status").data(update, MediaType.APPLICATION_JSON));
+		}
+	}
+
+	@KafkaListener(topics = KafkaConsumerConfig.VIDEO_PROGRESS_TOPIC, containerFactory = "progressEventListenerContainerFactory")
+	public void onProgressEvent(VideoProgressEvent event) {
+		if (event == null || event.getVideoId() == null || event.getUploadUserId() == null) {
+			return;
+		}
+		VideoProgressEvent current = latestProgress.merge(event.getVideoId(), event,
+				(existing, candidate) -> candidate.getOccurredAt() >= existing.getOccurredAt() ? candidate : existing);
+		if (current != event) {
+			return; // Out of order
+		}
+		Set<SseEmitter> emitters = emittersByUser.get(event.getUploadUserId());
+		if (emitters == null) {
+			return;
+		}
+		VideoProcessingUpdateDTO update = new VideoProcessingUpdateDTO(event.getVideoId(),
+				VideoStatus.PROCESSING.name(), event.getStage(), event.getPercent());
+		update.setRendition(event.getRendition());
+		update.setEtaSeconds(event.getEtaSeconds());
+		for (SseEmitter emitter : emitters) {
+			send(event.getUploadUserId(), emitter,
+					SseEmitter.event().name("progress").data(update, MediaType.APPLICATION_JSON));
+		}
+	}
+
+	/**
+	 * Comment lines keep proxies from closing idle streams and reveal dead clients,
+	 * whose writes fail. Also forgets progress of jobs that never reported an outcome.
+	 */
+	@Scheduled(fixedDelayString = "${video-events.sse.keepalive-ms:25000}")
+	public void sendKeepAlives() {
+		emittersByUser.forEach((userId, emitters) -> {
+			for (SseEmitter emitter : emitters) {
+				send(userId, emitter, SseEmitter.event().comment("keepalive"));
+			}
+		});
+		long cutoff = System.currentTimeMillis() - PROGRESS_RETENTION_MILLIS;
+		latestProgress.values().removeIf(progress -> progress.getOccurredAt() < cutoff);
+	}
+
+	private void send(Long userId, SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+		try {
+			emitter.send(event);
+		} catch (IOException | IllegalStateException e) {
+			// Client went away (or the emitter already completed); its stream is done
+			logger.debug("Dropping video event stream of user ID {}: {}", userId, e.getMessage());
+			unregister(userId, emitter);
+			try {
+				emitter.complete();
+			} catch (IllegalStateException ignored) {
+				// Already completed
+			}
+		}
+	}
+
+	private void unregister(Long userId, SseEmitter emitter) {
+		emittersByUser.computeIfPresent(userId, (id, emitters) -> {
+			emitters.remove(emitter);
+			return emitters.isEmpty() ? null : emitters;
+		});
+	}
+}
@@ -0,0 +1,383 @@
+package com.robspecs.streaming.serviceImpl;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import com.robspecs.streaming.dto.ThumbnailImage;
+import com.robspecs.streaming.exceptions.FileNotFoundException;
+import com.robspecs.streaming.exceptions.FileStorageException;
+import com.robspecs.streaming.repository.VideosRepository;
+import com.robspecs.streaming.service.FileStorageService;
+import com.robspecs.streaming.service.ThumbnailService;
+
+import jakarta.annotation.PostConstruct;
+
+@Service
+public class ThumbnailServiceImpl implements ThumbnailService {
+
+	private static final Logger logger = LoggerFactory.getLogger(ThumbnailServiceImpl.class);
+
+	// Widths the frontend asks for via srcset; anything else is snapped up to one of these
+	private static final int[] SUPPORTED_WIDTHS = { 160, 320, 640, 1280 };
+	private static final int DEFAULT_WIDTH = 640;
+	private static final String MASTER_RESOLUTION_KEY = "thumbnail_master";
+	private static final float JPEG_QUALITY = 0.82f;
+
+	private final VideosRepository videoRepository;
+	private final FileStorageService fileStorageService;
+	private final Path cacheDirectory;
+	private final long memoryMaxBytes;
+	private final long diskMaxBytes;
+	private final boolean webpSupported;
+
+	// Access-ordered maps give LRU iteration order; guarded by their own monitors
+	private final LinkedHashMap<String, ThumbnailImage> memoryCache = new LinkedHashMap<>(64, 0.75f, true);
+	private long memoryBytes = 0;
+	private final LinkedHashMap<String, Long> diskIndex = new LinkedHashMap<>(256, 0.75f, true);
+	private long diskBytes = 0;
+
+	// One generation per key at a time; concurrent requests for the same size wait for it
+	private final ConcurrentHashMap<String, CompletableFuture<ThumbnailImage>> inFlight = new ConcurrentHashMap<>();
+
+	public ThumbnailServiceImpl(VideosRepository videoRepository, FileStorageService fileStorageService,
+			@Value("${thumbnails.cache.dir:${files.video.base-path}/.thumbnail-cache}") String cacheDir,
+			@Value("${thumbnails.cache.memory-max-bytes:33554432}") long memoryMaxBytes,
+			@Value("${thumbnails.cache.disk-max-bytes:536870912}") long diskMaxBytes) {
+		this.videoRepository = videoRepository;
+		this.fileStorageService = fileStorageService;
+		this.cacheDirectory = Paths.get(cacheDir).toAbsolutePath().normalize();
+		this.memoryMaxBytes = memoryMaxBytes;
+		this.diskMaxBytes = diskMaxBytes;
+		this.webpSupported = ImageIO.getImageWritersByFormatName("webp").hasNext();
+	}
+
+	@PostConstruct
+	public void init() {
+		try {
+			Files.createDirectories(cacheDirectory);
+		} catch (IOException ex) {
+			throw new FileStorageException("Could not create the thumbnail cache directory: " + cacheDirectory, ex);
+		}
+		// Rebuild the disk index oldest-first so LRU order survives restarts
+		try (Stream<Path> files = Files.walk(cacheDirectory)) {
+			files.filter(Files::isRegularFile)
+					.filter(path -> !path.getFileName().toString().endsWith(".tmp"))
+					.sorted(Comparator.comparingLong(this::lastModifiedMillis))
+					.forEach(path -> {
+						try {
+							long size = Files.size(path);
+							synchronized (diskIndex) {
+								diskIndex.put(cacheDirectory.relativize(path).toString(), size);
+								diskBytes += size;
+							}
+						} catch (IOException e) {
+							logger.warn("Could not index cached thumbnail {}: {}", path, e.getMessage());
+						}
+					});
+		} catch (IOException e) {
+			logger.warn("Could not scan thumbnail cache directory {}: {}", cacheDirectory, e.getMessage());
+		}
+		enforceDiskLimit();
+		logger.info("Thumbnail cache ready at {} ({} files, {} bytes). WebP encoding {}.", cacheDirectory,
+				diskIndex.size(), diskBytes, webpSupported ? "available" : "unavailable, serving JPEG only");
+	}
+
+	@Override
+	public ThumbnailImage getThumbnail(Long videoId, Integer requestedWidth, boolean preferWebp) {
+		int width = snapWidth(requestedWidth);
+		String extension = (preferWebp && webpSupported) ? "webp" : "jpg";
+		String key = videoId + "/" + width + "." + extension;
+
+		ThumbnailImage cached = getFromMemory(key);
+		if (cached != null) {
+			return cached;
+		}
+
+		CompletableFuture<ThumbnailImage> future = new CompletableFuture<>();
+		CompletableFuture<ThumbnailImage> existing = inFlight.putIfAbsent(key, future);
+		if (existing != null) {
+			try {
+				return existing.join();
+			} catch (CompletionException e) {
+				if (e.getCause() instanceof RuntimeException runtimeException) {
+					throw runtimeException;
+				}
+				throw e;
+			}
+		}
+		try {
+			ThumbnailImage image = loadOrGenerate(videoId, width, extension, key);
+			putInMemory(key, image);
+			future.complete(image);
+			return image;
+		} catch (RuntimeException e) {
+			future.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlight.remove(key, future);
+		}
+	}
+
+	@Override
+	public void evict(Long videoId) {
+		String prefix = videoId + "/";
+		synchronized (memoryCache) {
+			Iterator<Map.Entry<String, ThumbnailImage>> it = memoryCache.entrySet().iterator();
+			while (it.hasNext()) {
+				Map.Entry<String, ThumbnailImage> entry = it.next();
+				if (entry.getKey().startsWith(prefix)) {
+					memoryBytes -= entry.getValue().getData().length;
+					it.remove();
+				}
+			}
+		}
+		synchronized (diskIndex) {
+			Iterator<Map.Entry<String, Long>> it = diskIndex.entrySet().iterator();
+			while (it.hasNext()) {
+				Map.Entry<String, Long> entry = it.next();
+				if (entry.getKey().startsWith(prefix)) {
+					diskBytes -= entry.getValue();
+					it.remove();
+				}
+			}
+		}
+		Path videoCacheDir = cacheDirectory.resolve(String.valueOf(videoId));
+		if (Files.exists(videoCacheDir)) {
+			try (Stream<Path> files = Files.walk(videoCacheDir)) {
+				files.sorted(Comparator.reverseOrder()).forEach(path -> {
+					try {
+						Files.deleteIfExists(path);
+					} catch (IOException e) {
+						logger.warn("Could not delete cached thumbnail {}: {}", path, e.getMessage());
+					}
+				});
+			} catch (IOException e) {
+				logger.warn("Could not evict cached thumbnails for video ID {}: {}", videoId, e.getMessage());
+			}
+		}
+		logger.debug("Evicted cached thumbnails for video ID: {}", videoId);
+	}
+
+	private ThumbnailImage loadOrGenerate(Long videoId, int width, String extension, String key) {
+		String mediaType = "webp".equals(extension) ? "image/webp" : "image/jpeg";
+		Path cachedFile = cacheDirectory.resolve(key);
+		if (Files.isRegularFile(cachedFile)) {
+			try {
+				byte[] data = Files.readAllBytes(cachedFile);
+				synchronized (diskIndex) {
+					diskIndex.get(key); // touch for LRU order
+				}
+				return new ThumbnailImage(data, mediaType);
+			} catch (IOException e) {
+				logger.warn("Could not read cached thumbnail {}, regenerating: {}", cachedFile, e.getMessage());
+			}
+		}
+
+		BufferedImage master = loadMaster(videoId);
+		int targetWidth = Math.min(width, master.getWidth());
+		int targetHeight = Math.max(1, Math.round((float) master.getHeight() * targetWidth / master.getWidth()));
+		BufferedImage resized = resize(master, targetWidth, targetHeight);
+		byte[] data = encode(resized, extension);
+		logger.debug("Generated {}x{} {} thumbnail for video ID: {}", targetWidth, targetHeight, extension, videoId);
+
+		writeToDisk(key, cachedFile, data);
+		return new ThumbnailImage(data, mediaType);
+	}
+
+	private BufferedImage loadMaster(Long videoId) {
+		try {
+			// Prefer the full-size master frame; older videos only have the 640x360 BLOB
+			String masterPath = videoRepository.findResolutionFilePath(videoId, MASTER_RESOLUTION_KEY).orElse(null);
+			if (StringUtils.hasText(masterPath)) {
+				Path masterFile = fileStorageService.getFilePath(masterPath);
+				if (Files.isRegularFile(masterFile)) {
+					BufferedImage image = ImageIO.read(masterFile.toFile());
+					if (image != null) {
+						return image;
+					}
+				}
+				logger.warn("Master thumbnail {} for video ID {} is missing, falling back to stored thumbnail.",
+						masterPath, videoId);
+			}
+			byte[] blob = videoRepository.findThumbnailDataByVideoId(videoId)
+					.filter(data -> data.length > 0)
+					.orElseThrow(() -> new FileNotFoundException("Thumbnail not found for video ID: " + videoId));
+			BufferedImage image = ImageIO.read(new ByteArrayInputStream(blob));
+			if (image == null) {
+				throw new FileNotFoundException("Stored thumbnail could not be decoded for video ID: " + videoId);
+			}
+			return image;
+		} catch (IOException e) {
+			throw new FileStorageException("Could not read thumbnail source for video ID: " + videoId, e);
+		}
+	}
+
+	/**
+	 * Downscales in steps of at most 2x before the final bicubic pass. A single large
+	 * bilinear/bicubic step samples too few source pixels and produces aliasing.
+	 */
+	private BufferedImage resize(BufferedImage source, int targetWidth, int targetHeight) {
+		BufferedImage current = source;
+		int currentWidth = source.getWidth();
+		int currentHeight = source.getHeight();
+		while (currentWidth / 2 >= targetWidth && currentHeight / 2 >= targetHeight) {
+			currentWidth /= 2;
+			currentHeight /= 2;
+			current = draw(current, currentWidth, currentHeight, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+		}
+		if (currentWidth != targetWidth || currentHeight != targetHeight || current.getType() != BufferedImage.TYPE_INT_RGB) {
+			current = draw(current, targetWidth, targetHeight, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+		}
+		return current;
+	}
+
+	private BufferedImage draw(BufferedImage source, int width, int height, Object interpolation) {
+		BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = target.createGraphics();
+		try {
+			g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolation);
+			g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+			g.drawImage(source, 0, 0, width, height, null);
+		} finally {
+			g.dispose();
+		}
+		return target;
+	}
+
+	private byte[] encode(BufferedImage image, String extension) {
+		String format = "webp".equals(extension) ? "webp" : "jpeg";
+		Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(format);
+		if (!writers.hasNext()) {
+			throw new FileStorageException("No image writer available for format: " + format);
+		}
+		ImageWriter writer = writers.next();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+			writer.setOutput(ios);
+			ImageWriteParam param = writer.getDefaultWriteParam();
+			if (param.canWriteCompressed()) {
+				param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+				if (param.getCompressionTypes() != null && param.getCompressionType() == null) {
+					param.setCompressionType(param.getCompressionTypes()[0]);
+				}
+				param.setCompressionQuality(JPEG_QUALITY);
+			}
+			writer.write(null, new IIOImage(image, null, null), param);
+		} catch (IOException e) {
+			throw new FileStorageException("Failed to encode thumbnail as " + format, e);
+		} finally {
+			writer.dispose();
+		}
+		return out.toByteArray();
+	}
+
+	private void writeToDisk(String key, Path cachedFile, byte[] data) {
+		try {
+			Files.createDirectories(cachedFile.getParent());
+			// Write to a temp file first so concurrent readers never see a partial image
+			Path tempFile = Files.createTempFile(cachedFile.getParent(), "thumb", ".tmp");
+			Files.write(tempFile, data);
+			Files.move(tempFile, cachedFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			synchronized (diskIndex) {
+				Long previous = diskIndex.put(key, (long) data.length);
+				diskBytes += data.length - (previous != null ? previous : 0);
+			}
+			enforceDiskLimit();
+		} catch (IOException e) {
+			// The image is still served; it just is not cached on disk
+			logger.warn("Could not write thumbnail to disk cache {}: {}", cachedFile, e.getMessage());
+		}
+	}
+
+	private void enforceDiskLimit() {
+		while (true) {
+			String eldestKey;
+			synchronized (diskIndex) {
+				if (diskBytes <= diskMaxBytes || diskIndex.isEmpty()) {
+					return;
+				}
+				Map.Entry<String, Long> eldest = diskIndex.entrySet().iterator().next();
+				eldestKey = eldest.getKey();
+				diskBytes -= eldest.getValue();
+				diskIndex.remove(eldestKey);
+			}
+			try {
+				Files.deleteIfExists(cacheDirectory.resolve(eldestKey));
+			} catch (IOException e) {
+				logger.warn("Could not evict cached thumbnail {}: {}", eldestKey, e.getMessage());
+			}
+		}
+	}
+
+	private ThumbnailImage getFromMemory(String key) {
+		synchronized (memoryCache) {
+			return memoryCache.get(key);
+		}
+	}
+
+	private void putInMemory(String key, ThumbnailImage image) {
+		int size = image.getData().length;
+		if (size > memoryMaxBytes) {
+			return;
+		}
+		synchronized (memoryCache) {
+			ThumbnailImage previous = memoryCache.put(key, image);
+			memoryBytes += size - (previous != null ? previous.getData().length : 0);
+			Iterator<Map.Entry<String, ThumbnailImage>> it = memoryCache.entrySet().iterator();
+			while (memoryBytes > memoryMaxBytes && it.hasNext()) {
+				Map.Entry<String, ThumbnailImage> eldest = it.next();
+				memoryBytes -= eldest.getValue().getData().length;
+				it.remove();
+			}
+		}
+	}
+
+	private int snapWidth(Integer requestedWidth) {
+		if (requestedWidth == null || requestedWidth <= 0) {
+			return DEFAULT_WIDTH;
+		}
+		for (int supported : SUPPORTED_WIDTHS) {
+			if (requestedWidth <= supported) {
+				return supported;
+			}
+		}
+		return SUPPORTED_WIDTHS[SUPPORTED_WIDTHS.length - 1];
+	}
+
+	private long lastModifiedMillis(Path path) {
+		try {
+			return Files.readAttributes(path, BasicFileAttributes.class).lastModifiedTime().toMillis();
+		} catch (IOException e) {
+			return 0L;
+		}
+	}
+}
@@ -0,0 +1,121 @@
+package com.robspecs.streaming.serviceImpl;
+
+import java.io.IOException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.robspecs.events.MediaInfo;
+import com.robspecs.events.VideoProcessingRequest;
+import com.robspecs.streaming.entities.User;
+import com.robspecs.streaming.entities.Video;
+import com.robspecs.streaming.enums.VideoStatus;
+import com.robspecs.streaming.exceptions.FileStorageException;
+import com.robspecs.streaming.service.FileStorageService;
+import com.robspecs.streaming.service.UploadEventOutbox;
+import com.robspecs.streaming.service.VideoContentService;
+import com.robspecs.streaming.utils.MediaProbe;
+
+/**
+ * Turns a raw file that is already in storage into a Video and queues it for
+ * processing; the last step of both the multipart and the resumable upload. The probe
+ * reads the file before the transaction starts, so no database connection is held
+ * while container headers are parsed.
+ */
+@Service
+class UploadRegistrar {
+
+	private static final Logger logger = LoggerFactory.getLogger(UploadRegistrar.class);
+
+	private final FileStorageService fileStorageService;
+	private final VideoContentService videoContentService;
+	private final UploadEventOutbox uploadEventOutbox;
+	private final TransactionTemplate transactionTemplate;
+
+	UploadRegistrar(FileStorageService fileStorageService, VideoContentService videoContentService,
+			UploadEventOutbox uploadEventOutbox, PlatformTransactionManager transactionManager) {
+		this.fileStorageService = fileStorageService;
+		this.videoContentService = videoContentService;
+		this.uploadEventOutbox = uploadEventOutbox;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	/**
+	 * @param originalFilePath Relative path of the stored raw file.
+	 * @param fileSize Size of the raw file in bytes.
+	 * @param contentHash SHA-256 of the raw file (hex); identical content already processed is reused
+	 *                    instead of being transcoded again. May be null to always process.
+	 * @return The persisted Video entity.
+	 * @throws IllegalArgumentException if the file is not a playable video (checked from its container headers).
+	 */
+	Video register(User user, String title, String description, String originalFilePath, long fileSize,
+			String contentHash) {
+		// Header-only probe: unplayable files are rejected here instead of failing in the processor later
+		MediaInfo mediaInfo;
+		try {
+			mediaInfo = MediaProbe.probe(fileStorageService.getFilePath(originalFilePath));
+		} catch (IllegalArgumentException e) {
+			logger.warn("Rejected upload {} by user {}: {}", originalFilePath, user.getUsername(), e.getMessage());
+			throw e;
+		} catch (IOException e) {
+			throw new FileStorageException("Could not read uploaded file " + originalFilePath, e);
+		}
+		logger.info("Probed upload {}: {}", originalFilePath, mediaInfo);
+
+		// The outbox write must share the video's transaction
+		return transactionTemplate.execute(status -> persist(user, title, description, originalFilePath, fileSize,
+				contentHash, mediaInfo));
+	}
+
+	private Video persist(User user, String title, String description, String originalFilePath, long fileSize,
+			String contentHash, MediaInfo mediaInfo) {
+		// 3. Create a new Video entity
+		Video newVideo = new Video();
+		newVideo.setVideoName(title); // User-defined video title
+		newVideo.setDescription(description);
+		newVideo.setUploadUser(user);
+		newVideo.setOriginalFilePath(originalFilePath); // Store the relative path returned by FileStorageService
+		newVideo.setFileSize(fileSize); // Set the original file size
+		newVideo.setStatus(VideoStatus.UPLOADED); // Set initial status
+		newVideo.setContentHash(contentHash);
+
+		// Save the video entity to the database to get its ID; identical content already processed is reused
+		boolean sharesExistingOutput = videoContentService.saveUploadedVideo(newVideo);
+		logger.info("Video entity saved to DB with ID: {}", newVideo.getVideoId());
+		if (sharesExistingOutput) {
+			// Renditions come from the earlier upload, so this raw copy is never read. Only once the row is
+			// committed: on rollback the caller deletes the file itself.
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					deleteQuietly(originalFilePath);
+				}
+			});
+			logger.info("Video {} reuses processed output of identical content; skipping transcode", newVideo.getVideoId());
+			return newVideo;
+		}
+
+		// 4. Queue the processing request; it is published to Kafka only once this transaction commits
+		VideoProcessingRequest request = new VideoProcessingRequest(newVideo.getVideoId(),
+				newVideo.getOriginalFilePath(), newVideo.getFileSize(), user.getEmail(), user.getUserId());
+		request.setMediaInfo(mediaInfo);
+
+		uploadEventOutbox.enqueue(request);
+		logger.info("Processing request queued for videoId: {}", newVideo.getVideoId());
+
+		return newVideo; // Return the persisted Video entity
+	}
+
+	private void deleteQuietly(String relativeFilePath) {
+		try {
+			fileStorageService.deleteFile(relativeFilePath);
+		} catch (IOException e) {
+			logger.warn("Could not delete uploaded file {}: {}", relativeFilePath, e.getMessage());
+		}
+	}
+}
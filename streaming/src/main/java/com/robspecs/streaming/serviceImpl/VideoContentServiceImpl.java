@@ -0,0 +1,131 @@
+package com.robspecs.streaming.serviceImpl;
+
+import java.util.HashMap;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.robspecs.streaming.entities.Video;
+import com.robspecs.streaming.entities.VideoContent;
+import com.robspecs.streaming.enums.VideoStatus;
+import com.robspecs.streaming.repository.VideoContentRepository;
+import com.robspecs.streaming.repository.VideosRepository;
+import com.robspecs.streaming.service.VideoContentService;
+
+import jakarta.transaction.Transactional;
+
+/**
+ * Reference counts live in {@code video_contents}, one row per content hash, and are only
+ * changed under a row lock, so linking a new upload and deleting the last referencing
+ * video cannot interleave. A video holds a reference if it is the row's source (it
+ * produces the output) or if its resolution paths point into the row's directory.
+ * Duplicates uploaded while the source is still processing are transcoded on their own
+ * and hold no reference.
+ */
+@Service
+public class VideoContentServiceImpl implements VideoContentService {
+
+	private static final Logger logger = LoggerFactory.getLogger(VideoContentServiceImpl.class);
+
+	private static final String HLS_MASTER_KEY = "hls_master";
+
+	private final VideoContentRepository videoContentRepository;
+	private final VideosRepository videoRepository;
+
+	public VideoContentServiceImpl(VideoContentRepository videoContentRepository, VideosRepository videoRepository) {
+		this.videoContentRepository = videoContentRepository;
+		this.videoRepository = videoRepository;
+	}
+
+	@Override
+	@Transactional
+	public boolean saveUploadedVideo(Video video) {
+		String contentHash = video.getContentHash();
+		if (contentHash == null) {
+			videoRepository.save(video);
+			return false;
+		}
+		videoContentRepository.insertIfAbsent(contentHash);
+		VideoContent content = videoContentRepository.findForUpdate(contentHash)
+				.orElseThrow(() -> new IllegalStateException("Content row vanished for hash " + contentHash));
+
+		Video template = findSharedOutput(content);
+		if (template != null) {
+			video.setStatus(VideoStatus.READY);
+			video.setDurationMillis(template.getDurationMillis());
+			video.setResolutionFilePaths(new HashMap<>(template.getResolutionFilePaths()));
+			video.setThumbnailData(template.getThumbnailData());
+			video.setThumbnailBlurHash(template.getThumbnailBlurHash());
+			videoRepository.save(video);
+			content.setRefCount(content.getRefCount() + 1);
+			logger.info("Video {} has the same content as video {}; sharing {} ({} references)", video.getVideoId(),
+					template.getVideoId(), content.getProcessedDirectory(), content.getRefCount());
+			return true;
+		}
+
+		Video source = content.getSourceVideoId() != null
+				? videoRepository.findById(content.getSourceVideoId()).orElse(null)
+				: null;
+		videoRepository.save(video);
+		if (source != null && (source.getStatus() == VideoStatus.UPLOADED || source.getStatus() == VideoStatus.PROCESSING)) {
+			// No output to share yet; waiting on another job would tie this upload to its outcome
+			logger.info("Content of video {} is still being processed for video {}; processing separately",
+					video.getVideoId(), source.getVideoId());
+			return false;
+		}
+		// First upload of this content, or the previous source failed: this video's output becomes the shared one.
+		// No READY video points into the old directory, so the only reference left to carry over is this one.
+		content.setSourceVideoId(video.getVideoId());
+		content.setProcessedDirectory(VideoContentService.processedDirectoryOf(video));
+		content.setRefCount(1);
+		return false;
+	}
+
+	@Override
+	@Transactional
+	public List<String> release(Video video) {
+		String ownDirectory = VideoContentService.processedDirectoryOf(video);
+		if (video.getContentHash() == null) {
+			return List.of(ownDirectory);
+		}
+		VideoContent content = videoContentRepository.findForUpdate(video.getContentHash()).orElse(null);
+		if (content == null || !holdsReference(video, content)) {
+			return List.of(ownDirectory);
+		}
+
+		int remaining = content.getRefCount() - 1;
+		if (remaining <= 0) {
+			videoContentRepository.delete(content);
+			logger.info("Last reference to {} released by video {}", content.getProcessedDirectory(), video.getVideoId());
+			return ownDirectory.equals(content.getProcessedDirectory()) ? List.of(ownDirectory)
+					: List.of(content.getProcessedDirectory(), ownDirectory);
+		}
+		content.setRefCount(remaining);
+		logger.info("Video {} released {}; {} references left", video.getVideoId(), content.getProcessedDirectory(),
+				remaining);
+		// A source deleted before its sharers leaves its directory in place for them
+		return ownDirectory.equals(content.getProcessedDirectory()) ? List.of() : List.of(ownDirectory);
+	}
+
+	private Video findSharedOutput(VideoContent content) {
+		if (content.getProcessedDirectory() == null) {
+			return null;
+		}
+		return videoRepository.findByContentHashAndStatus(content.getContentHash(), VideoStatus.READY).stream()
+				.filter(candidate -> pointsInto(candidate, content.getProcessedDirectory()))
+				.findFirst()
+				.orElse(null);
+	}
+
+	private static boolean holdsReference(Video video, VideoContent content) {
+		return video.getVideoId().equals(content.getSourceVideoId())
+				|| (content.getProcessedDirectory() != null && pointsInto(video, content.getProcessedDirectory()));
+	}
+
+	private static boolean pointsInto(Video video, String directory) {
+		String hlsMaster = video.getResolutionFilePaths().get(HLS_MASTER_KEY);
+		return hlsMaster != null && hlsMaster.startsWith(directory + "/");
+	}
+}
@@ -1,23 +1,33 @@
 package com.robspecs.streaming.serviceImpl;
 
 import java.io.IOException;
+import java.io.FilterInputStream;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
-import org.springframework.web.multipart.MultipartFile;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 
+import com.robspecs.streaming.dto.CursorPageDTO;
+import com.robspecs.streaming.dto.UniqueViewersDTO;
 import com.robspecs.streaming.dto.VideoDetailsDTO;
-import com.robspecs.streaming.dto.VideoProcessingRequest;
 import com.robspecs.streaming.dto.VideoUpdateRequest;
-import com.robspecs.streaming.dto.VideoUploadDTO;
 import com.robspecs.streaming.entities.User;
 import com.robspecs.streaming.entities.Video;
 import com.robspecs.streaming.enums.VideoStatus;
@@ -25,7 +35,19 @@ import com.robspecs.streaming.exceptions.FileNotFoundException;
 import com.robspecs.streaming.exceptions.FileStorageException;
 import com.robspecs.streaming.repository.VideosRepository;
 import com.robspecs.streaming.service.FileStorageService;
+import com.robspecs.streaming.service.ThumbnailService;
+import com.robspecs.streaming.service.TrendingService;
+import com.robspecs.streaming.service.UniqueViewerService;
+import com.robspecs.streaming.service.VideoContentService;
+import com.robspecs.streaming.service.VideoDetailsCache;
 import com.robspecs.streaming.service.VideoService;
+import com.robspecs.streaming.service.VideoStatusReadModel;
+import com.robspecs.streaming.service.ViewCounterService;
+import com.robspecs.streaming.service.WatchAnalyticsService;
+import com.robspecs.streaming.utils.ContentHash;
+import com.robspecs.streaming.utils.MultipartStreamReader;
+import com.robspecs.streaming.utils.ThumbnailTokenSigner;
+import com.robspecs.streaming.utils.VideoCursor;
 
 import jakarta.transaction.Transactional;
 
@@ -36,85 +58,112 @@ public class VideoServiceImpl implements VideoService {
 
 	private final VideosRepository videoRepository;
 	private final FileStorageService fileStorageService;
-	private final KafkaTemplate<String, VideoProcessingRequest> kafkaTemplate;
-
-	private static final String VIDEO_UPLOAD_TOPIC = "video-upload-events";
+	private final UploadRegistrar uploadRegistrar;
+	private final ThumbnailService thumbnailService;
+	private final ViewCounterService viewCounterService;
+	private final UniqueViewerService uniqueViewerService;
+	private final WatchAnalyticsService watchAnalyticsService;
+	private final TrendingService trendingService;
+	private final VideoDetailsCache videoDetailsCache;
+	private final VideoStatusReadModel videoStatusReadModel;
+	private final VideoContentService videoContentService;
+	private final ThumbnailTokenSigner thumbnailTokenSigner;
+	private final long maxUploadBytes;
+
+	private static final int MAX_FORM_FIELD_BYTES = 64 * 1024;
 
 	public VideoServiceImpl(VideosRepository videoRepository, FileStorageService fileStorageService,
-			KafkaTemplate<String, VideoProcessingRequest> kafkaTemplate) {
+			UploadRegistrar uploadRegistrar, ThumbnailService thumbnailService,
+			ViewCounterService viewCounterService, UniqueViewerService uniqueViewerService,
+			WatchAnalyticsService watchAnalyticsService, TrendingService trendingService,
+			VideoDetailsCache videoDetailsCache, VideoStatusReadModel videoStatusReadModel,
+			VideoContentService videoContentService, ThumbnailTokenSigner thumbnailTokenSigner,
+			@Value("${spring.servlet.multipart.max-file-size:100MB}") DataSize maxUploadSize) {
 		this.videoRepository = videoRepository;
 		this.fileStorageService = fileStorageService;
-		this.kafkaTemplate = kafkaTemplate;
+		this.uploadRegistrar = uploadRegistrar;
+		this.thumbnailService = thumbnailService;
+		this.viewCounterService = viewCounterService;
+		this.uniqueViewerService = uniqueViewerService;
+		this.watchAnalyticsService = watchAnalyticsService;
+		this.trendingService = trendingService;
+		this.videoDetailsCache = videoDetailsCache;
+		this.videoStatusReadModel = videoStatusReadModel;
+		this.videoContentService = videoContentService;
+		this.thumbnailTokenSigner = thumbnailTokenSigner;
+		this.maxUploadBytes = maxUploadSize.toBytes();
 	}
 
 	@Override
-	@Transactional
-	public Video uploadVideo(VideoUploadDTO v, User user) {
-		MultipartFile file = v.getFile();
-
-		// 1. Validate the uploaded file
-		if (file == null || file.isEmpty()) {
-			logger.warn("Attempt to upload empty or null file by user: {}", user.getUsername());
-			throw new IllegalArgumentException("Uploaded file is empty or null.");
-		}
-
-		if (!Objects.requireNonNull(file.getContentType()).startsWith("video/")) {
-			logger.warn("Attempt to upload non-video file type: {} by user: {}", file.getContentType(),
-					user.getUsername());
-			throw new IllegalArgumentException("Invalid file type. Only video files are allowed.");
-		}
-
-		// Generate a unique filename for the original video
-		String originalFileName = StringUtils.cleanPath(Objects.requireNonNull(file.getOriginalFilename()));
-		String fileExtension = StringUtils.getFilenameExtension(originalFileName);
-		String uniqueFileName = UUID.randomUUID().toString() + (fileExtension != null ? "." + fileExtension : "");
-
-		String originalFilePath; // Path where the original file will be stored
-
-		try (InputStream fileStream = file.getInputStream()) {
-			// 2. Save the original video file to your configured filesystem
-			// Store it in the "raw" subdirectory within the user's video folder
-			originalFilePath = fileStorageService.storeFile(fileStream, uniqueFileName, user.getUserId(), "raw");
-			logger.info("Original video file stored at: {} for user: {}", originalFilePath, user.getUsername());
-
+	public Video uploadVideo(InputStream multipartBody, String contentType, User user) {
+		MultipartStreamReader reader = new MultipartStreamReader(multipartBody,
+				MultipartStreamReader.boundaryOf(contentType));
+		String title = null;
+		String description = null;
+		String originalFileName = null;
+		String originalFilePath = null; // Path where the original file will be stored
+		long fileSize = 0;
+		MessageDigest digest = ContentHash.newDigest(); // Hashed on the fly, no second pass over the file
+
+		try {
+			MultipartStreamReader.Part part;
+			while ((part = reader.nextPart()) != null) {
+				if ("title".equals(part.getName())) {
+					title = part.readString(MAX_FORM_FIELD_BYTES);
+				} else if ("description".equals(part.getName())) {
+					description = part.readString(MAX_FORM_FIELD_BYTES);
+				} else if ("file".equals(part.getName()) && part.isFile()) {
+					if (originalFilePath != null) {
+						throw new IllegalArgumentException("Only one file can be uploaded per request.");
+					}
+					// 1. Validate the uploaded file
+					if (part.getContentType() == null || !part.getContentType().startsWith("video/")) {
+						logger.warn("Attempt to upload non-video file type: {} by user: {}", part.getContentType(),
+								user.getUsername());
+						throw new IllegalArgumentException("Invalid file type. Only video files are allowed.");
+					}
+
+					// Generate a unique filename for the original video
+					originalFileName = StringUtils.cleanPath(part.getFileName());
+					String fileExtension = StringUtils.getFilenameExtension(originalFileName);
+					String uniqueFileName = UUID.randomUUID().toString() + (fileExtension != null ? "." + fileExtension : "");
+
+					// 2. Stream the part straight into the "raw" subdirectory of the user's video folder
+					originalFilePath = fileStorageService.storeFile(
+							new DigestInputStream(new SizeLimitedInputStream(part.getContent(), maxUploadBytes), digest),
+							uniqueFileName, user.getUserId(), "raw");
+					fileSize = Files.size(fileStorageService.getFilePath(originalFilePath));
+					logger.info("Original video file stored at: {} for user: {}", originalFilePath, user.getUsername());
+				}
+				// Unknown parts are skipped by nextPart()
+			}
+
+			if (originalFilePath == null || fileSize == 0) {
+				logger.warn("Attempt to upload empty or null file by user: {}", user.getUsername());
+				throw new IllegalArgumentException("Uploaded file is empty or null.");
+			}
+			return uploadRegistrar.register(user, title, description, originalFilePath, fileSize,
+					ContentHash.toHex(digest));
 		} catch (IOException ex) {
+			deleteQuietly(originalFilePath);
 			logger.error("Could not store the original video file {}: {}", originalFileName, ex.getMessage(), ex);
 			throw new FileStorageException("Could not store the original video file: " + originalFileName, ex);
+		} catch (RuntimeException ex) {
+			deleteQuietly(originalFilePath);
+			throw ex;
 		}
-
-		// 3. Create a new Video entity
-		Video newVideo = new Video();
-		newVideo.setVideoName(v.getTitle()); // User-defined video title
-		newVideo.setDescription(v.getDescription());
-		newVideo.setUploadUser(user);
-		newVideo.setOriginalFilePath(originalFilePath); // Store the relative path returned by FileStorageService
-		newVideo.setFileSize(file.getSize()); // Set the original file size
-		newVideo.setStatus(VideoStatus.UPLOADED); // Set initial status
-
-		// Save the video entity to the database to get its ID
-		newVideo = videoRepository.save(newVideo); // Save to get the videoId
-		logger.info("Video entity saved to DB with ID: {}", newVideo.getVideoId());
-
-		// 4. Publish a message to Kafka
-		VideoProcessingRequest request = new VideoProcessingRequest(newVideo.getVideoId(),
-				newVideo.getOriginalFilePath(), newVideo.getFileSize(), user.getEmail(),user.getUserId());
-
-		// Send message to Kafka. The key can be videoId (as String) for
-		// partitioning/ordering
-		kafkaTemplate.send(VIDEO_UPLOAD_TOPIC, newVideo.getVideoId().toString(), request);
-		logger.info("Kafka message sent for videoId: {}", newVideo.getVideoId());
-
-		return newVideo; // Return the persisted Video entity
 	}
 
 	@Override
-	@Transactional
 	public VideoDetailsDTO getVideo(Long videoId, User user) {
 		logger.debug("Fetching video with ID: {} for user: {}", videoId, user.getUsername());
-		Video video = videoRepository.findById(videoId).orElseThrow(() -> {
+		// Read-through cache; no transaction here so cache hits never touch MySQL
+		VideoDetailsDTO details = videoDetailsCache.get(videoId,
+				id -> videoRepository.findDetailsById(id).map(this::convertToVideoDetailsDTO).orElse(null));
+		if (details == null) {
 			logger.warn("Video not found with ID: {}", videoId);
-			return new FileNotFoundException("Video not found with ID: " + videoId);
-		});
+			throw new FileNotFoundException("Video not found with ID: " + videoId);
+		}
 
 		// Basic authorization check: Ensure the user owns the video or is an admin
 		// You might want to refine this based on your Roles enum
@@ -125,8 +174,12 @@ public class VideoServiceImpl implements VideoService {
 //			throw new SecurityException("Access denied to video: " + videoId); // Or a custom AccessDeniedException
 //		}
 
-		// Convert entity to DTO
-		return convertToVideoDetailsDTO(video);
+		// The cached copy can be minutes old; views move faster, so use the live counter when there is one
+		Long liveViews = viewCounterService.peek(videoId);
+		if (liveViews != null) {
+			details.setViews(liveViews);
+		}
+		return withThumbnailToken(details);
 	}
 
 	@Override
@@ -138,33 +191,54 @@ public class VideoServiceImpl implements VideoService {
 			return new FileNotFoundException("Video '" + videoName + "' not found for user: " + user.getUsername());
 		});
 
-		return convertToVideoDetailsDTO(video);
+		return withThumbnailToken(convertToVideoDetailsDTO(video));
 	}
 
 	@Override
-	@Transactional // This method needs a transaction for pessimistic locking
 	public Long updateViews(Long videoId, User user) {
 		logger.debug("Attempting to update views for video ID: {} by user: {}", videoId, user.getUsername());
-		Video video = videoRepository.findById(videoId) // Uses the @Lock(PESSIMISTIC_WRITE) method
-				.orElseThrow(() -> {
-					logger.warn("Video not found for view increment: {}", videoId);
-					return new FileNotFoundException("Video not found with ID: " + videoId);
-				});
+		// Counted in Redis and flushed to the database in batches; no row lock on this path
+		long views = viewCounterService.increment(videoId);
+		// Raw views count every call; the HyperLogLog only counts each user once
+		uniqueViewerService.recordViewer(videoId, "u:" + user.getUserId());
+		trendingService.recordView(videoId);
+		logger.debug("Views incremented for video ID: {} to approximately {}", videoId, views);
+		return views;
+	}
 
-		video.setViews(video.getViews() + 1);
-		videoRepository.save(video);
-		logger.info("Views incremented for video ID: {} to {}", videoId, video.getViews());
+	@Override
+	public UniqueViewersDTO getUniqueViewers(Long videoId, LocalDate endDate, int days) {
+		if (!videoRepository.existsById(videoId)) {
+			logger.warn("Video not found with ID: {}", videoId);
+			throw new FileNotFoundException("Video not found with ID: " + videoId);
+		}
+		return uniqueViewerService.getUniqueViewers(videoId, endDate, days);
+	}
 
-		return video.getViews();
+	@Override
+	@Transactional
+	public CursorPageDTO<VideoDetailsDTO> getAllVideos(String cursor, int size) {
+		logger.debug("Fetching page of all videos (size {}).", size);
+		// One extra row tells whether another page exists, without a COUNT query
+		List<VideoDetailsDTO> videos = videoRepository.findVideoSummariesBefore(VideoCursor.decode(cursor),
+				PageRequest.of(0, size + 1));
+		return toPage(videos, size);
 	}
 
 	@Override
 	@Transactional
-	public List<VideoDetailsDTO> getAllVideos() {
-		logger.debug("Fetching all videos.");
-		List<Video> videos = videoRepository.findAll();
-		logger.info("Found {} videos in total.", videos.size());
-		return videos.stream().map(this::convertToVideoDetailsDTO).collect(Collectors.toList());
+	public List<VideoDetailsDTO> getTrendingVideos(int page, int size) {
+		List<Long> videoIds = trendingService.getTrendingVideoIds(page, size);
+		if (videoIds.isEmpty()) {
+			return List.of();
+		}
+		// One projection query for the whole page, then restore the ranking order
+		Map<Long, VideoDetailsDTO> videosById = videoRepository.findVideoSummariesByIds(videoIds).stream()
+				.collect(Collectors.toMap(VideoDetailsDTO::getVideoId, Function.identity()));
+		List<VideoDetailsDTO> trending = videoIds.stream().map(videosById::get).filter(Objects::nonNull)
+				.map(this::withThumbnailToken).collect(Collectors.toList());
+		logger.debug("Returning {} trending videos for page {} (size {}).", trending.size(), page, size);
+		return trending;
 	}
 
 	@Override
@@ -218,7 +292,7 @@ public class VideoServiceImpl implements VideoService {
 				video.getViews(),
 				video.getUploadUser().getUsername(), // Get username directly
 				video.getResolutionFilePaths(),
-				video.getThumbnailData() // --- HIGHLIGHT: Pass the thumbnailData ---
+				video.getThumbnailBlurHash() // Placeholder only; thumbnail images are served by ThumbnailService
 		);
 	}
 
@@ -243,13 +317,25 @@ public class VideoServiceImpl implements VideoService {
 
 	@Override
     @Transactional
-    public List<VideoDetailsDTO> getVideosByCurrentUser(User user) {
-        logger.debug("Fetching all videos for user: {}", user.getUsername());
-        List<Video> videos = videoRepository.findAllByUploadUser(user);
-        logger.info("Found {} videos for user: {}", videos.size(), user.getUsername());
-        return videos.stream()
-                .map(this::convertToVideoDetailsDTO)
-                .collect(Collectors.toList());
+    public CursorPageDTO<VideoDetailsDTO> getVideosByCurrentUser(User user, String cursor, int size) {
+        logger.debug("Fetching page of videos for user: {} (size {})", user.getUsername(), size);
+        List<VideoDetailsDTO> videos = videoRepository.findVideoSummariesByUserBefore(user.getUserId(),
+                VideoCursor.decode(cursor), PageRequest.of(0, size + 1));
+        return toPage(videos, size);
+    }
+
+    private CursorPageDTO<VideoDetailsDTO> toPage(List<VideoDetailsDTO> videos, int size) {
+        boolean hasMore = videos.size() > size;
+        List<VideoDetailsDTO> items = hasMore ? new ArrayList<>(videos.subList(0, size)) : videos;
+        String nextCursor = hasMore ? VideoCursor.encode(items.get(items.size() - 1).getVideoId()) : null;
+        items.forEach(this::withThumbnailToken);
+        return new CursorPageDTO<>(items, nextCursor, hasMore);
+    }
+
+    // Per response, never in the details cache: tokens expire, cached entries outlive them
+    private VideoDetailsDTO withThumbnailToken(VideoDetailsDTO details) {
+        details.setThumbnailToken(thumbnailTokenSigner.issue(details.getVideoId()));
+        return details;
     }
 
     @Override
@@ -273,8 +359,9 @@ public class VideoServiceImpl implements VideoService {
         }
 
         Video updatedVideo = videoRepository.save(video);
+        videoDetailsCache.evict(videoId); // after commit
         logger.info("Video ID: {} updated successfully by user: {}", videoId, currentUser.getUsername());
-        return convertToVideoDetailsDTO(updatedVideo);
+        return withThumbnailToken(convertToVideoDetailsDTO(updatedVideo));
     }
 
     @Override
@@ -298,10 +385,11 @@ public class VideoServiceImpl implements VideoService {
 //                                                                currentUser.getUserId(),
 //                                                                videoId);
 //            fileStorageService.deleteDirectory(processedVideoDirectoryPath);
-			String videoIdProcessedBaseDirectory = String.format("%s/videos/processed/%d", currentUser.getUserId(),
-					videoId);
-			fileStorageService.deleteDirectory(videoIdProcessedBaseDirectory);
-            logger.info("Deleted processed video directory: {} for video ID: {}", videoIdProcessedBaseDirectory, videoId);
+			// Output shared with other uploads of the same content stays until its last reference is gone
+			for (String processedDirectory : videoContentService.release(video)) {
+				fileStorageService.deleteDirectory(processedDirectory);
+				logger.info("Deleted processed video directory: {} for video ID: {}", processedDirectory, videoId);
+			}
 
         } catch (IOException e) {
             logger.error("Failed to delete video files from storage for video ID {}: {}", videoId, e.getMessage(), e);
@@ -309,6 +397,13 @@ public class VideoServiceImpl implements VideoService {
         }
 
         videoRepository.delete(video);
+        thumbnailService.evict(videoId);
+        viewCounterService.remove(videoId);
+        uniqueViewerService.remove(videoId);
+        watchAnalyticsService.remove(videoId);
+        trendingService.remove(videoId);
+        videoDetailsCache.evict(videoId);
+        videoStatusReadModel.remove(videoId);
         logger.info("Video entity with ID: {} deleted successfully from DB.", videoId);
     }
     
@@ -323,4 +418,55 @@ public class VideoServiceImpl implements VideoService {
                     return new FileNotFoundException("Video not found with ID: " + videoId);
                 });
     }
-}
\ No newline at end of file
+
+
+	private void deleteQuietly(String relativeFilePath) {
+		if (relativeFilePath == null) {
+			return;
+		}
+		try {
+			fileStorageService.deleteFile(relativeFilePath);
+		} catch (IOException e) {
+			logger.warn("Could not delete uploaded file {}: {}", relativeFilePath, e.getMessage());
+		}
+	}
+
+	/**
+	 * Enforces the upload size limit while streaming; multipart parsing no longer does it for us.
+	 */
+	private static final class SizeLimitedInputStream extends FilterInputStream {
+
+		private final long maxBytes;
+		private long count;
+
+		SizeLimitedInputStream(InputStream in, long maxBytes) {
+			super(in);
+			this.maxBytes = maxBytes;
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = super.read();
+			if (b != -1) {
+				count(1);
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int n = super.read(b, off, len);
+			if (n > 0) {
+				count(n);
+			}
+			return n;
+		}
+
+		private void count(int n) {
+			count += n;
+			if (count > maxBytes) {
+				throw new MaxUploadSizeExceededException(maxBytes);
+			}
+		}
+	}
+}
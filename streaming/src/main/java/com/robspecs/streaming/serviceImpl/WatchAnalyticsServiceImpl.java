@@ -0,0 +1,112 @@
+package com.robspecs.streaming.serviceImpl;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import com.robspecs.events.WatchHeartbeatEvent;
+import com.robspecs.streaming.dto.AudienceRetentionDTO;
+import com.robspecs.streaming.dto.WatchHeartbeatRequest;
+import com.robspecs.streaming.entities.User;
+import com.robspecs.streaming.entities.VideoRetentionBucket;
+import com.robspecs.streaming.exceptions.FileNotFoundException;
+import com.robspecs.streaming.repository.VideoRetentionRepository;
+import com.robspecs.streaming.repository.VideosRepository;
+import com.robspecs.streaming.service.WatchAnalyticsService;
+
+@Service
+public class WatchAnalyticsServiceImpl implements WatchAnalyticsService {
+
+	private static final Logger logger = LoggerFactory.getLogger(WatchAnalyticsServiceImpl.class);
+
+	private static final String WATCH_HEARTBEAT_TOPIC = "video-watch-heartbeats";
+	private static final int MAX_RENDITION_LENGTH = 16;
+	private static final int MAX_SESSION_ID_LENGTH = 64;
+
+	private final KafkaTemplate<String, WatchHeartbeatEvent> heartbeatKafkaTemplate;
+	private final VideoRetentionRepository retentionRepository;
+	private final VideosRepository videoRepository;
+	private final long maxWatchedMillis;
+	private final int bucketSeconds;
+
+	public WatchAnalyticsServiceImpl(
+			@Qualifier("heartbeatKafkaTemplate") KafkaTemplate<String, WatchHeartbeatEvent> heartbeatKafkaTemplate,
+			VideoRetentionRepository retentionRepository, VideosRepository videoRepository,
+			@Value("${heartbeat.max-watched-seconds:30}") long maxWatchedSeconds,
+			@Value("${retention.bucket-seconds:10}") int bucketSeconds) {
+		this.heartbeatKafkaTemplate = heartbeatKafkaTemplate;
+		this.retentionRepository = retentionRepository;
+		this.videoRepository = videoRepository;
+		this.maxWatchedMillis = maxWatchedSeconds * 1000;
+		this.bucketSeconds = bucketSeconds;
+	}
+
+	@Override
+	public void recordHeartbeat(Long videoId, WatchHeartbeatRequest heartbeat, User user) {
+		Double position = heartbeat.getPositionSeconds();
+		Double watched = heartbeat.getWatchedSeconds();
+		if (position == null || !Double.isFinite(position) || position < 0) {
+			throw new IllegalArgumentException("positionSeconds must be a non-negative number.");
+		}
+		if (watched == null || !Double.isFinite(watched) || watched < 0) {
+			throw new IllegalArgumentException("watchedSeconds must be a non-negative number.");
+		}
+		// A client can't have watched more than one heartbeat interval (plus slack) since the last one
+		long watchedMillis = Math.min(Math.round(watched * 1000), maxWatchedMillis);
+
+		WatchHeartbeatEvent event = new WatchHeartbeatEvent(videoId, user.getUserId(),
+				truncate(heartbeat.getSessionId(), MAX_SESSION_ID_LENGTH), Math.round(position * 1000), watchedMillis,
+				truncate(heartbeat.getRendition(), MAX_RENDITION_LENGTH), System.currentTimeMillis());
+
+		// Keyed by videoId so one aggregator partition sees all heartbeats of a video
+		heartbeatKafkaTemplate.send(WATCH_HEARTBEAT_TOPIC, videoId.toString(), event).whenComplete((result, ex) -> {
+			if (ex != null) {
+				logger.warn("Dropped watch heartbeat for videoId {}: {}", videoId, ex.getMessage());
+			}
+		});
+	}
+
+	@Override
+	public AudienceRetentionDTO getRetention(Long videoId) {
+		if (!videoRepository.existsById(videoId)) {
+			logger.warn("Video not found with ID: {}", videoId);
+			throw new FileNotFoundException("Video not found with ID: " + videoId);
+		}
+		List<VideoRetentionBucket> buckets = retentionRepository.findByVideoIdOrderByBucketIndex(videoId);
+		int length = buckets.isEmpty() ? 0 : buckets.get(buckets.size() - 1).getBucketIndex() + 1;
+		double bucketMillis = bucketSeconds * 1000.0;
+
+		double[] averageViewers = new double[length];
+		long totalWatchedMillis = 0;
+		for (VideoRetentionBucket bucket : buckets) {
+			averageViewers[bucket.getBucketIndex()] = bucket.getWatchedMillis() / bucketMillis;
+			totalWatchedMillis += bucket.getWatchedMillis();
+		}
+		double[] retention = new double[length];
+		if (length > 0 && averageViewers[0] > 0) {
+			for (int i = 0; i < length; i++) {
+				retention[i] = averageViewers[i] / averageViewers[0];
+			}
+		}
+		return new AudienceRetentionDTO(videoId, bucketSeconds, averageViewers, retention, totalWatchedMillis / 1000);
+	}
+
+	@Override
+	public void remove(Long videoId) {
+		int deleted = retentionRepository.deleteByVideoId(videoId);
+		logger.debug("Deleted {} retention buckets for video ID {}", deleted, videoId);
+	}
+
+	private static String truncate(String value, int maxLength) {
+		if (!StringUtils.hasText(value)) {
+			return null;
+		}
+		return value.length() > maxLength ? value.substring(0, maxLength) : value;
+	}
+}
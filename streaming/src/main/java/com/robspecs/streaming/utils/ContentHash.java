@@ -0,0 +1,50 @@
+package com.robspecs.streaming.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * SHA-256 content hashes of uploaded files, as lowercase hex. SHA-256 runs on the CPU's
+ * SHA extensions where available, so hashing keeps up with upload bandwidth.
+ */
+public final class ContentHash {
+
+	private static final int READ_BUFFER_BYTES = 1024 * 1024;
+
+	private ContentHash() {
+	}
+
+	public static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 not available", e); // Mandatory in every JRE
+		}
+	}
+
+	public static String toHex(MessageDigest digest) {
+		return HexFormat.of().formatHex(digest.digest());
+	}
+
+	/**
+	 * Hashes a file that was not streamed in order (e.g. assembled from chunks).
+	 */
+	public static String of(Path file) throws IOException {
+		MessageDigest digest = newDigest();
+		ByteBuffer buffer = ByteBuffer.allocateDirect(READ_BUFFER_BYTES);
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			while (channel.read(buffer) != -1) {
+				buffer.flip();
+				digest.update(buffer);
+				buffer.clear();
+			}
+		}
+		return toHex(digest);
+	}
+}
@@ -0,0 +1,499 @@
+package com.robspecs.streaming.utils;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+import com.robspecs.events.MediaInfo;
+
+/**
+ * Header-only probe of an uploaded video, so broken files are rejected at upload time
+ * instead of failing in the processor minutes later. Reads only container structure:
+ * <ul>
+ * <li>MP4/MOV: top-level box headers (a few bytes each, even for multi-GB files) plus
+ * the moov box, wherever it is. Checks the file is complete, has a movie header, media
+ * data and a video track, and reads codecs, dimensions and duration.</li>
+ * <li>Matroska/WebM: EBML header, segment info and track entries from the first
+ * {@value #MATROSKA_WINDOW_BYTES} bytes.</li>
+ * <li>AVI, MPEG-TS/PS, FLV, ASF: recognized by signature only; the processor probes them.</li>
+ * </ul>
+ * Anything else is rejected.
+ */
+public final class MediaProbe {
+
+	private static final int SNIFF_BYTES = 512;
+	private static final int MATROSKA_WINDOW_BYTES = 4 * 1024 * 1024;
+	private static final long MAX_MOOV_BYTES = 64L * 1024 * 1024;
+	private static final int MAX_TOP_LEVEL_BOXES = 1_000_000; // fragmented MP4 has two per fragment
+
+	private static final int EBML_ID = 0x1A45DFA3;
+	private static final int EBML_DOC_TYPE = 0x4282;
+	private static final int MKV_SEGMENT = 0x18538067;
+	private static final int MKV_INFO = 0x1549A966;
+	private static final int MKV_TIMECODE_SCALE = 0x2AD7B1;
+	private static final int MKV_DURATION = 0x4489;
+	private static final int MKV_TRACKS = 0x1654AE6B;
+	private static final int MKV_TRACK_ENTRY = 0xAE;
+	private static final int MKV_TRACK_TYPE = 0x83;
+	private static final int MKV_CODEC_ID = 0x86;
+	private static final int MKV_VIDEO = 0xE0;
+	private static final int MKV_PIXEL_WIDTH = 0xB0;
+	private static final int MKV_PIXEL_HEIGHT = 0xBA;
+	private static final int MKV_CLUSTER = 0x1F43B675;
+
+	private static final Map<String, String> MP4_CODECS = Map.ofEntries(Map.entry("avc1", "h264"),
+			Map.entry("avc3", "h264"), Map.entry("hvc1", "hevc"), Map.entry("hev1", "hevc"), Map.entry("vp09", "vp9"),
+			Map.entry("av01", "av1"), Map.entry("mp4v", "mpeg4"), Map.entry("s263", "h263"),
+			Map.entry("apcn", "prores"), Map.entry("apch", "prores"), Map.entry("mp4a", "aac"),
+			Map.entry("Opus", "opus"), Map.entry("ac-3", "ac3"), Map.entry("ec-3", "eac3"), Map.entry(".mp3", "mp3"),
+			Map.entry("fLaC", "flac"), Map.entry("alac", "alac"), Map.entry("sowt", "pcm_s16le"),
+			Map.entry("twos", "pcm_s16be"));
+
+	private static final Map<String, String> MATROSKA_CODECS = Map.ofEntries(
+			Map.entry("V_MPEG4/ISO/AVC", "h264"), Map.entry("V_MPEGH/ISO/HEVC", "hevc"), Map.entry("V_VP8", "vp8"),
+			Map.entry("V_VP9", "vp9"), Map.entry("V_AV1", "av1"), Map.entry("V_MPEG4/ISO/ASP", "mpeg4"),
+			Map.entry("A_AAC", "aac"), Map.entry("A_OPUS", "opus"), Map.entry("A_VORBIS", "vorbis"),
+			Map.entry("A_AC3", "ac3"), Map.entry("A_EAC3", "eac3"), Map.entry("A_MPEG/L3", "mp3"),
+			Map.entry("A_FLAC", "flac"));
+
+	private MediaProbe() {
+	}
+
+	/**
+	 * @throws IllegalArgumentException if the file is not a video that can be processed; the
+	 *                                  message is suitable for the uploader.
+	 * @throws IOException              if the file cannot be read.
+	 */
+	public static MediaInfo probe(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			byte[] head = read(channel, 0, (int) Math.min(SNIFF_BYTES, size));
+			try {
+				if (isIsoBmff(head)) {
+					return probeIsoBmff(channel, size);
+				}
+				if (head.length >= 4 && ByteBuffer.wrap(head).getInt() == EBML_ID) {
+					return probeMatroska(channel, size);
+				}
+			} catch (UnplayableException e) {
+				throw e;
+			} catch (IndexOutOfBoundsException | BufferUnderflowException | IllegalArgumentException e) {
+				// Field offsets or element sizes pointing outside their box
+				throw unplayable("its container headers are corrupt.");
+			}
+			String signatureContainer = containerBySignature(head);
+			if (signatureContainer != null) {
+				return new MediaInfo(signatureContainer);
+			}
+			throw unplayable("the format is not recognized as a video container.");
+		}
+	}
+
+	// ---- MP4 / MOV (ISO base media file format) ----
+
+	private static boolean isIsoBmff(byte[] head) {
+		if (head.length < 8) {
+			return false;
+		}
+		String firstBox = new String(head, 4, 4, StandardCharsets.ISO_8859_1);
+		return switch (firstBox) {
+		case "ftyp", "moov", "mdat", "free", "skip", "wide", "pnot" -> true;
+		default -> false;
+		};
+	}
+
+	private static MediaInfo probeIsoBmff(FileChannel channel, long size) throws IOException {
+		String majorBrand = null;
+		ByteBuffer moov = null;
+		boolean hasMediaData = false;
+		long position = 0;
+		int boxes = 0;
+		while (position < size && boxes++ < MAX_TOP_LEVEL_BOXES) {
+			if (size - position < 8) {
+				throw unplayable("the file is incomplete.");
+			}
+			ByteBuffer header = ByteBuffer.wrap(read(channel, position, (int) Math.min(16, size - position)));
+			long boxSize = header.getInt() & 0xFFFFFFFFL;
+			String type = fourcc(header.getInt());
+			int headerLength = 8;
+			if (boxSize == 1) {
+				if (header.remaining() < 8) {
+					throw unplayable("the file is incomplete.");
+				}
+				boxSize = header.getLong();
+				headerLength = 16;
+			} else if (boxSize == 0) {
+				boxSize = size - position; // Box runs to the end of the file
+			}
+			if (boxSize < headerLength) {
+				throw unplayable("its container structure is corrupt.");
+			}
+			if (boxSize > size - position) {
+				throw unplayable("the file is incomplete (was the upload cut short?).");
+			}
+			switch (type) {
+			case "ftyp" -> majorBrand = fourcc(ByteBuffer.wrap(read(channel, position + headerLength, 4)).getInt());
+			case "moov" -> {
+				if (boxSize - headerLength > MAX_MOOV_BYTES) {
+					throw unplayable("its movie header is too large.");
+				}
+				moov = ByteBuffer.wrap(read(channel, position + headerLength, (int) (boxSize - headerLength)));
+			}
+			case "mdat" -> hasMediaData = true;
+			default -> {
+				// moof, free, uuid, ... are skipped by size
+			}
+			}
+			position += boxSize;
+		}
+		if (moov == null) {
+			throw unplayable("it has no movie header (moov box).");
+		}
+		if (!hasMediaData) {
+			throw unplayable("it contains no media data.");
+		}
+
+		MediaInfo result = new MediaInfo("qt  ".equals(majorBrand) ? "mov" : "mp4");
+		parseMoov(moov, result);
+		if (result.getVideoCodec() == null) {
+			throw unplayable("it has no video track.");
+		}
+		return result;
+	}
+
+	private static void parseMoov(ByteBuffer moov, MediaInfo result) {
+		long[] movie = new long[3]; // timescale, duration, fragmented duration (mehd)
+		forEachBox(moov, (type, payload) -> {
+			switch (type) {
+			case "mvhd" -> {
+				boolean v1 = payload.get(0) == 1;
+				movie[0] = payload.getInt(v1 ? 20 : 12) & 0xFFFFFFFFL;
+				movie[1] = v1 ? payload.getLong(24) : payload.getInt(16) & 0xFFFFFFFFL;
+			}
+			case "mvex" -> forEachBox(payload, (childType, child) -> {
+				if (childType.equals("mehd")) {
+					movie[2] = child.get(0) == 1 ? child.getLong(4) : child.getInt(4) & 0xFFFFFFFFL;
+				}
+			});
+			case "trak" -> parseTrak(payload, result);
+			default -> {
+			}
+			}
+		});
+		long duration = movie[1] > 0 ? movie[1] : movie[2];
+		if (movie[0] > 0 && duration > 0) {
+			result.setDurationMillis(duration / movie[0] * 1000 + (duration % movie[0]) * 1000 / movie[0]);
+		}
+	}
+
+	private static void parseTrak(ByteBuffer trak, MediaInfo result) {
+		String[] track = new String[2]; // handler type, sample entry format
+		int[] dimensions = new int[4]; // tkhd width, height, sample entry width, height
+		forEachBox(trak, (type, payload) -> {
+			if (type.equals("tkhd") && payload.limit() >= 8) {
+				// Display size as 16.16 fixed point, the last two fields of the box
+				dimensions[0] = payload.getInt(payload.limit() - 8) >>> 16;
+				dimensions[1] = payload.getInt(payload.limit() - 4) >>> 16;
+			} else if (type.equals("mdia")) {
+				forEachBox(payload, (mdiaType, mdia) -> {
+					if (mdiaType.equals("hdlr")) {
+						track[0] = fourcc(mdia.getInt(8));
+					} else if (mdiaType.equals("minf")) {
+						forEachBox(mdia, (minfType, minf) -> {
+							if (minfType.equals("stbl")) {
+								forEachBox(minf, (stblType, stbl) -> {
+									if (stblType.equals("stsd") && stbl.getInt(4) > 0) {
+										track[1] = fourcc(stbl.getInt(12));
+										if (stbl.limit() >= 44) {
+											// Visual sample entry: 8 bytes of entry header, 24 reserved, then width and height
+											dimensions[2] = stbl.getShort(40) & 0xFFFF;
+											dimensions[3] = stbl.getShort(42) & 0xFFFF;
+										}
+									}
+								});
+							}
+						});
+					}
+				});
+			}
+		});
+
+		if ("vide".equals(track[0]) && result.getVideoCodec() == null && track[1] != null) {
+			result.setVideoCodec(MP4_CODECS.getOrDefault(track[1], track[1].trim()));
+			boolean coded = dimensions[2] > 0 && dimensions[3] > 0;
+			result.setWidth(coded ? dimensions[2] : dimensions[0]);
+			result.setHeight(coded ? dimensions[3] : dimensions[1]);
+		} else if ("soun".equals(track[0]) && result.getAudioCodec() == null && track[1] != null) {
+			result.setAudioCodec(MP4_CODECS.getOrDefault(track[1], track[1].trim()));
+		}
+	}
+
+	private interface BoxVisitor {
+		void visit(String type, ByteBuffer payload);
+	}
+
+	// Calls the visitor with each child box; payload buffers are zero-based slices
+	private static void forEachBox(ByteBuffer parent, BoxVisitor visitor) {
+		ByteBuffer buffer = parent.duplicate();
+		buffer.position(0);
+		while (buffer.remaining() >= 8) {
+			int start = buffer.position();
+			long boxSize = buffer.getInt() & 0xFFFFFFFFL;
+			String type = fourcc(buffer.getInt());
+			int headerLength = 8;
+			if (boxSize == 1) {
+				boxSize = buffer.getLong();
+				headerLength = 16;
+			} else if (boxSize == 0) {
+				boxSize = buffer.limit() - start;
+			}
+			if (boxSize < headerLength || boxSize > buffer.limit() - start) {
+				throw unplayable("its movie header is corrupt.");
+			}
+			ByteBuffer payload = buffer.duplicate();
+			payload.limit((int) (start + boxSize)).position(start + headerLength);
+			visitor.visit(type, payload.slice());
+			buffer.position((int) (start + boxSize));
+		}
+	}
+
+	// ---- Matroska / WebM (EBML) ----
+
+	private static MediaInfo probeMatroska(FileChannel channel, long size) throws IOException {
+		ByteBuffer window = ByteBuffer.wrap(read(channel, 0, (int) Math.min(MATROSKA_WINDOW_BYTES, size)));
+
+		if (readEbmlId(window) != EBML_ID) {
+			throw unplayable("its EBML header is corrupt.");
+		}
+		long headerSize = readEbmlSize(window);
+		if (headerSize < 0 || headerSize > window.remaining()) {
+			throw unplayable("its EBML header is corrupt.");
+		}
+		String docType = null;
+		int headerEnd = window.position() + (int) headerSize;
+		while (window.position() < headerEnd) {
+			int id = readEbmlId(window);
+			int length = (int) readEbmlSize(window);
+			if (id == EBML_DOC_TYPE) {
+				docType = readString(window, length);
+			} else {
+				window.position(window.position() + length);
+			}
+		}
+		if (!"matroska".equals(docType) && !"webm".equals(docType)) {
+			throw unplayable("it is an EBML file but not Matroska or WebM.");
+		}
+		MediaInfo result = new MediaInfo(docType);
+
+		if (!window.hasRemaining() || readEbmlId(window) != MKV_SEGMENT) {
+			throw unplayable("it has no Matroska segment.");
+		}
+		long segmentSize = readEbmlSize(window);
+		if (segmentSize >= 0 && window.position() + segmentSize > size) {
+			throw unplayable("the file is incomplete (was the upload cut short?).");
+		}
+
+		long timecodeScale = 1_000_000; // Matroska default: timestamps in milliseconds
+		double duration = -1;
+		boolean tracksSeen = false;
+		boolean videoSeen = false;
+		while (window.remaining() >= 2) {
+			int id = readEbmlId(window);
+			long length = readEbmlSize(window);
+			if (id == MKV_CLUSTER || length < 0 || length > window.remaining()) {
+				break; // Media data, or an element we cannot see whole within the window
+			}
+			ByteBuffer element = window.slice(window.position(), (int) length);
+			window.position(window.position() + (int) length);
+			if (id == MKV_INFO) {
+				while (element.hasRemaining()) {
+					int childId = readEbmlId(element);
+					int childLength = (int) readEbmlSize(element);
+					if (childId == MKV_TIMECODE_SCALE) {
+						timecodeScale = readUnsigned(element, childLength);
+					} else if (childId == MKV_DURATION) {
+						duration = childLength == 4 ? element.getFloat() : element.getDouble();
+					} else {
+						element.position(element.position() + childLength);
+					}
+				}
+			} else if (id == MKV_TRACKS) {
+				tracksSeen = true;
+				while (element.hasRemaining()) {
+					int childId = readEbmlId(element);
+					int childLength = (int) readEbmlSize(element);
+					ByteBuffer child = element.slice(element.position(), childLength);
+					element.position(element.position() + childLength);
+					if (childId == MKV_TRACK_ENTRY) {
+						videoSeen |= parseMatroskaTrack(child, result);
+					}
+				}
+			}
+		}
+		if (tracksSeen && !videoSeen) {
+			throw unplayable("it has no video track.");
+		}
+		if (duration > 0) {
+			result.setDurationMillis(Math.round(duration * timecodeScale / 1_000_000.0));
+		}
+		return result;
+	}
+
+	// Returns true for a video track
+	private static boolean parseMatroskaTrack(ByteBuffer entry, MediaInfo result) {
+		long trackType = 0;
+		String codecId = null;
+		int width = 0;
+		int height = 0;
+		while (entry.hasRemaining()) {
+			int id = readEbmlId(entry);
+			int length = (int) readEbmlSize(entry);
+			if (id == MKV_TRACK_TYPE) {
+				trackType = readUnsigned(entry, length);
+			} else if (id == MKV_CODEC_ID) {
+				codecId = readString(entry, length);
+			} else if (id == MKV_VIDEO) {
+				int end = entry.position() + length;
+				while (entry.position() < end) {
+					int videoId = readEbmlId(entry);
+					int videoLength = (int) readEbmlSize(entry);
+					if (videoId == MKV_PIXEL_WIDTH) {
+						width = (int) readUnsigned(entry, videoLength);
+					} else if (videoId == MKV_PIXEL_HEIGHT) {
+						height = (int) readUnsigned(entry, videoLength);
+					} else {
+						entry.position(entry.position() + videoLength);
+					}
+				}
+			} else {
+				entry.position(entry.position() + length);
+			}
+		}
+		String codec = codecId != null ? MATROSKA_CODECS.getOrDefault(codecId, codecId) : null;
+		if (trackType == 1) {
+			if (result.getVideoCodec() == null) {
+				result.setVideoCodec(codec);
+				result.setWidth(width > 0 ? width : null);
+				result.setHeight(height > 0 ? height : null);
+			}
+			return true;
+		}
+		if (trackType == 2 && result.getAudioCodec() == null) {
+			result.setAudioCodec(codec);
+		}
+		return false;
+	}
+
+	// Element IDs keep their length-marker bits, as written in the Matroska spec
+	private static int readEbmlId(ByteBuffer buffer) {
+		int first = buffer.get() & 0xFF;
+		int length = Integer.numberOfLeadingZeros(first) - 23;
+		if (length < 1 || length > 4) {
+			throw unplayable("its Matroska structure is corrupt.");
+		}
+		int id = first;
+		for (int i = 1; i < length; i++) {
+			id = (id << 8) | (buffer.get() & 0xFF);
+		}
+		return id;
+	}
+
+	// Returns -1 for "unknown size" (all value bits set)
+	private static long readEbmlSize(ByteBuffer buffer) {
+		int first = buffer.get() & 0xFF;
+		int length = Integer.numberOfLeadingZeros(first) - 23;
+		if (length < 1 || length > 8) {
+			throw unplayable("its Matroska structure is corrupt.");
+		}
+		long value = first & (0xFF >>> length);
+		boolean allOnes = value == (0xFF >>> length);
+		for (int i = 1; i < length; i++) {
+			int next = buffer.get() & 0xFF;
+			allOnes &= next == 0xFF;
+			value = (value << 8) | next;
+		}
+		return allOnes ? -1 : value;
+	}
+
+	private static long readUnsigned(ByteBuffer buffer, int length) {
+		long value = 0;
+		for (int i = 0; i < length; i++) {
+			value = (value << 8) | (buffer.get() & 0xFF);
+		}
+		return value;
+	}
+
+	private static String readString(ByteBuffer buffer, int length) {
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		int end = length;
+		while (end > 0 && bytes[end - 1] == 0) {
+			end--; // Strings may be zero-padded
+		}
+		return new String(bytes, 0, end, StandardCharsets.US_ASCII);
+	}
+
+	// ---- Other containers ----
+
+	private static String containerBySignature(byte[] head) {
+		if (head.length >= 12 && ascii(head, 0, 4).equals("RIFF") && ascii(head, 8, 4).equals("AVI ")) {
+			return "avi";
+		}
+		if (head.length >= 189 && head[0] == 0x47 && head[188] == 0x47) {
+			return "mpegts";
+		}
+		if (head.length >= 197 && head[4] == 0x47 && head[196] == 0x47) {
+			return "mpegts"; // M2TS: 4-byte timestamp before each packet
+		}
+		if (head.length >= 4 && ascii(head, 0, 3).equals("FLV") && head[3] == 1) {
+			return "flv";
+		}
+		if (head.length >= 4 && head[0] == 0 && head[1] == 0 && head[2] == 1 && (head[3] & 0xFF) == 0xBA) {
+			return "mpeg";
+		}
+		if (head.length >= 4 && (head[0] & 0xFF) == 0x30 && (head[1] & 0xFF) == 0x26 && (head[2] & 0xFF) == 0xB2
+				&& (head[3] & 0xFF) == 0x75) {
+			return "asf";
+		}
+		return null;
+	}
+
+	// ---- Helpers ----
+
+	private static byte[] read(FileChannel channel, long position, int length) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+				throw unplayable("the file is incomplete.");
+			}
+		}
+		return buffer.array();
+	}
+
+	private static String fourcc(int value) {
+		return new String(new byte[] { (byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8),
+				(byte) value }, StandardCharsets.ISO_8859_1);
+	}
+
+	private static String ascii(byte[] bytes, int offset, int length) {
+		return new String(bytes, offset, length, StandardCharsets.ISO_8859_1);
+	}
+
+	private static UnplayableException unplayable(String reason) {
+		return new UnplayableException("The file cannot be processed as a video: " + reason);
+	}
+
+	private static final class UnplayableException extends IllegalArgumentException {
+
+		private static final long serialVersionUID = 1L;
+
+		UnplayableException(String message) {
+			super(message);
+		}
+	}
+}
@@ -0,0 +1,299 @@
+package com.robspecs.streaming.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Incremental parser for {@code multipart/form-data} bodies (RFC 7578). Parts are
+ * handed out one at a time as streams bounded by the next delimiter, so a file part can
+ * be copied straight to its destination without being spooled to a temp file first.
+ * <p>
+ * Usage: call {@link #nextPart()} until it returns null, consuming (or not) each part's
+ * stream before asking for the next one. Not thread-safe.
+ */
+public final class MultipartStreamReader {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final int MAX_HEADER_BYTES = 8 * 1024;
+	private static final int MAX_BOUNDARY_LENGTH = 70;
+
+	private final InputStream in;
+	private final byte[] delimiter; // CRLF "--" boundary
+	private final byte[] buffer = new byte[BUFFER_SIZE];
+	private int head;
+	private int tail;
+	private PartInputStream currentPart;
+	private boolean finished;
+
+	public MultipartStreamReader(InputStream in, String boundary) {
+		if (boundary == null || boundary.isEmpty() || boundary.length() > MAX_BOUNDARY_LENGTH) {
+			throw new IllegalArgumentException("Invalid multipart boundary.");
+		}
+		this.in = in;
+		this.delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+		// The first boundary has no preceding CRLF; seeding one lets the preamble be skipped like a part body
+		buffer[0] = '\r';
+		buffer[1] = '\n';
+		tail = 2;
+	}
+
+	/**
+	 * Extracts the boundary parameter from a {@code multipart/form-data} Content-Type.
+	 *
+	 * @throws IllegalArgumentException if the content type is not multipart or has no boundary.
+	 */
+	public static String boundaryOf(String contentType) {
+		if (contentType == null || !contentType.toLowerCase(Locale.ROOT).startsWith("multipart/form-data")) {
+			throw new IllegalArgumentException("Request must be multipart/form-data.");
+		}
+		String boundary = parameter(contentType, "boundary");
+		if (boundary == null || boundary.isEmpty()) {
+			throw new IllegalArgumentException("Multipart request has no boundary.");
+		}
+		return boundary;
+	}
+
+	/**
+	 * Skips whatever is left of the current part and returns the next one.
+	 *
+	 * @return The next part, or null after the closing delimiter.
+	 * @throws IOException if the body ends early or is malformed.
+	 */
+	public Part nextPart() throws IOException {
+		if (finished) {
+			return null;
+		}
+		(currentPart != null ? currentPart : new PartInputStream()).skipRemaining();
+
+		// After a delimiter comes "--" (end of body) or optional whitespace and CRLF (another part)
+		if (!ensure(2)) {
+			throw new IOException("Unexpected end of multipart body.");
+		}
+		if (buffer[head] == '-' && buffer[head + 1] == '-') {
+			finished = true;
+			currentPart = null;
+			return null;
+		}
+		String headerBlock = readHeaderBlock();
+		String disposition = null;
+		String contentType = null;
+		for (String line : headerBlock.split("\r\n")) {
+			int colon = line.indexOf(':');
+			if (colon <= 0) {
+				continue;
+			}
+			String name = line.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+			String value = line.substring(colon + 1).trim();
+			if (name.equals("content-disposition")) {
+				disposition = value;
+			} else if (name.equals("content-type")) {
+				contentType = value;
+			}
+		}
+		if (disposition == null) {
+			throw new IOException("Multipart part without Content-Disposition.");
+		}
+		currentPart = new PartInputStream();
+		return new Part(parameter(disposition, "name"), parameter(disposition, "filename"), contentType,
+				currentPart);
+	}
+
+	// Consumes the rest of the delimiter line and the part headers up to the empty line
+	private String readHeaderBlock() throws IOException {
+		ByteArrayOutputStream headers = new ByteArrayOutputStream();
+		int matched = 0; // progress through CRLF CRLF; the delimiter line's CRLF counts as the first
+		while (matched < 4) {
+			if (!ensure(1)) {
+				throw new IOException("Unexpected end of multipart headers.");
+			}
+			byte b = buffer[head++];
+			headers.write(b);
+			if (headers.size() > MAX_HEADER_BYTES) {
+				throw new IOException("Multipart part headers too large.");
+			}
+			if ((b == '\r' && (matched == 0 || matched == 2)) || (b == '\n' && (matched == 1 || matched == 3))) {
+				matched++;
+			} else {
+				matched = b == '\r' ? 1 : 0;
+			}
+		}
+		// Browsers send non-ASCII file names as raw UTF-8
+		return headers.toString(StandardCharsets.UTF_8).trim();
+	}
+
+	// Makes at least n unread bytes available; false at end of stream
+	private boolean ensure(int n) throws IOException {
+		while (tail - head < n) {
+			if (!fill()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean fill() throws IOException {
+		if (head > 0) {
+			System.arraycopy(buffer, head, buffer, 0, tail - head);
+			tail -= head;
+			head = 0;
+		}
+		int read = in.read(buffer, tail, buffer.length - tail);
+		if (read == -1) {
+			return false;
+		}
+		tail += read;
+		return true;
+	}
+
+	private int indexOfDelimiter() {
+		int last = tail - delimiter.length;
+		outer: for (int i = head; i <= last; i++) {
+			for (int j = 0; j < delimiter.length; j++) {
+				if (buffer[i + j] != delimiter[j]) {
+					continue outer;
+				}
+			}
+			return i;
+		}
+		return -1;
+	}
+
+	// Value of a ;-separated header parameter such as name="file"; null if absent
+	private static String parameter(String header, String name) {
+		int i = header.indexOf(';');
+		while (i >= 0 && i < header.length()) {
+			int start = i + 1;
+			int equals = header.indexOf('=', start);
+			if (equals < 0) {
+				return null;
+			}
+			String key = header.substring(start, equals).trim();
+			int valueStart = equals + 1;
+			String value;
+			int next;
+			if (valueStart < header.length() && header.charAt(valueStart) == '"') {
+				StringBuilder quoted = new StringBuilder();
+				int j = valueStart + 1;
+				while (j < header.length() && header.charAt(j) != '"') {
+					char c = header.charAt(j);
+					if (c == '\\' && j + 1 < header.length()) {
+						c = header.charAt(++j);
+					}
+					quoted.append(c);
+					j++;
+				}
+				value = quoted.toString();
+				next = header.indexOf(';', j);
+			} else {
+				next = header.indexOf(';', valueStart);
+				value = header.substring(valueStart, next < 0 ? header.length() : next).trim();
+			}
+			if (key.equalsIgnoreCase(name)) {
+				return value;
+			}
+			i = next;
+		}
+		return null;
+	}
+
+	/**
+	 * One part of the body. The stream ends at the part's closing delimiter.
+	 */
+	public static final class Part {
+
+		private final String name;
+		private final String fileName; // null for plain form fields
+		private final String contentType;
+		private final InputStream content;
+
+		Part(String name, String fileName, String contentType, InputStream content) {
+			this.name = name;
+			this.fileName = fileName;
+			this.contentType = contentType;
+			this.content = content;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public String getFileName() {
+			return fileName;
+		}
+
+		public String getContentType() {
+			return contentType;
+		}
+
+		public InputStream getContent() {
+			return content;
+		}
+
+		public boolean isFile() {
+			return fileName != null;
+		}
+
+		/**
+		 * Reads a form field value as UTF-8.
+		 *
+		 * @throws IllegalArgumentException if the value is longer than maxBytes.
+		 */
+		public String readString(int maxBytes) throws IOException {
+			byte[] value = content.readNBytes(maxBytes + 1);
+			if (value.length > maxBytes) {
+				throw new IllegalArgumentException("Form field '" + name + "' is too long.");
+			}
+			return new String(value, StandardCharsets.UTF_8);
+		}
+	}
+
+	private final class PartInputStream extends InputStream {
+
+		private boolean ended;
+
+		@Override
+		public int read() throws IOException {
+			byte[] one = new byte[1];
+			return read(one, 0, 1) == -1 ? -1 : one[0] & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (ended) {
+				return -1;
+			}
+			if (len == 0) {
+				return 0;
+			}
+			while (true) {
+				int delimiterAt = indexOfDelimiter();
+				// Without a match, the last delimiter.length - 1 bytes could still be the start of one
+				int available = (delimiterAt >= 0 ? delimiterAt : tail - delimiter.length + 1) - head;
+				if (available > 0) {
+					int n = Math.min(len, available);
+					System.arraycopy(buffer, head, b, off, n);
+					head += n;
+					return n;
+				}
+				if (delimiterAt == head) {
+					head += delimiter.length;
+					ended = true;
+					return -1;
+				}
+				if (!fill()) {
+					throw new IOException("Unexpected end of multipart body.");
+				}
+			}
+		}
+
+		void skipRemaining() throws IOException {
+			byte[] discard = new byte[8192];
+			while (read(discard, 0, discard.length) != -1) {
+				// Drain up to the delimiter
+			}
+		}
+	}
+}
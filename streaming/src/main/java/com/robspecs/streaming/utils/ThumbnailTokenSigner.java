@@ -0,0 +1,78 @@
+package com.robspecs.streaming.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Signs per-video thumbnail tokens, so thumbnails can be used as a plain img src (no
+ * auth header) without being a public endpoint. A token is {@code <expires>.<signature>},
+ * an HMAC-SHA256 over the video ID and expiry under the HLS secret. Expiries are rounded
+ * up to the next window, so every list response within a window hands out the same URL
+ * and browsers keep hitting their cache; a token stays valid for one to two windows.
+ */
+@Component
+public class ThumbnailTokenSigner {
+
+	private static final Logger logger = LoggerFactory.getLogger(ThumbnailTokenSigner.class);
+
+	private static final String ALGORITHM = "HmacSHA256";
+
+	private final SecretKeySpec key;
+	private final long windowSeconds;
+
+	public ThumbnailTokenSigner(@Value("${hls.jwt.secret}") String secret,
+			@Value("${thumbnails.token.window-seconds:3600}") long windowSeconds) {
+		// Own derivation context, so an HLS signature can never pass as a thumbnail one
+		this.key = new SecretKeySpec(("thumbnail:" + secret).getBytes(StandardCharsets.UTF_8), ALGORITHM);
+		this.windowSeconds = windowSeconds;
+	}
+
+	public String issue(Long videoId) {
+		long now = System.currentTimeMillis() / 1000;
+		long expires = (now / windowSeconds + 2) * windowSeconds;
+		return expires + "." + sign(videoId, expires);
+	}
+
+	public boolean isValid(Long videoId, String token) {
+		if (videoId == null || token == null) {
+			return false;
+		}
+		int dot = token.indexOf('.');
+		if (dot <= 0) {
+			return false;
+		}
+		long expires;
+		try {
+			expires = Long.parseLong(token.substring(0, dot));
+		} catch (NumberFormatException e) {
+			return false;
+		}
+		if (expires < System.currentTimeMillis() / 1000) {
+			logger.debug("Thumbnail token for videoId {} expired at {}", videoId, expires);
+			return false;
+		}
+		byte[] expected = sign(videoId, expires).getBytes(StandardCharsets.US_ASCII);
+		return MessageDigest.isEqual(expected, token.substring(dot + 1).getBytes(StandardCharsets.US_ASCII));
+	}
+
+	private String sign(Long videoId, long expires) {
+		try {
+			Mac mac = Mac.getInstance(ALGORITHM);
+			mac.init(key);
+			byte[] signature = mac.doFinal((videoId + ":" + expires).getBytes(StandardCharsets.UTF_8));
+			return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException("HmacSHA256 is not available", e);
+		}
+	}
+}
@@ -0,0 +1,44 @@
+package com.robspecs.streaming.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.springframework.util.StringUtils;
+
+/**
+ * Opaque keyset cursor for video listings ordered by videoId descending (newest
+ * first; IDs are assigned by an identity column). The cursor is the last videoId
+ * the client has seen, so the next page is "videoId &lt; cursor" and uses the index
+ * regardless of how deep the client has scrolled.
+ */
+public final class VideoCursor {
+
+	private static final String PREFIX = "v1:";
+
+	private VideoCursor() {
+	}
+
+	public static String encode(Long lastVideoId) {
+		return Base64.getUrlEncoder().withoutPadding()
+				.encodeToString((PREFIX + lastVideoId).getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * @return The last seen videoId, or {@link Long#MAX_VALUE} for the first page.
+	 * @throws IllegalArgumentException if the cursor is malformed.
+	 */
+	public static long decode(String cursor) {
+		if (!StringUtils.hasText(cursor)) {
+			return Long.MAX_VALUE;
+		}
+		try {
+			String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			if (!value.startsWith(PREFIX)) {
+				throw new IllegalArgumentException("Invalid cursor.");
+			}
+			return Long.parseLong(value.substring(PREFIX.length()));
+		} catch (IllegalArgumentException e) { // also covers NumberFormatException
+			throw new IllegalArgumentException("Invalid cursor.", e);
+		}
+	}
+}
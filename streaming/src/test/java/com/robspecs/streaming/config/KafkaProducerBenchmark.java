@@ -0,0 +1,105 @@
+package com.robspecs.streaming.config;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.robspecs.events.EventCodec;
+import com.robspecs.events.MediaInfo;
+import com.robspecs.events.VideoProcessingRequest;
+import com.robspecs.events.VideoProcessingRequestSchema;
+
+/**
+ * Producer microbenchmark against a running broker; not part of the regular test run
+ * and not packaged with the service. Run it explicitly:
+ * {@code mvn test -Dtest=KafkaProducerBenchmark -Dkafka.producer.benchmark.events=200000}.
+ * Sends upload-sized events through the upload event template to a throwaway topic,
+ * never to "video-upload-events", and logs events/sec next to the producer's own batch,
+ * compression and request latency metrics. Compare runs by changing the
+ * {@code kafka.producer.*} properties.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "kafka.producer.benchmark.events", matches = "\\d+")
+class KafkaProducerBenchmark {
+
+	private static final Logger logger = LoggerFactory.getLogger(KafkaProducerBenchmark.class);
+
+	private static final Set<String> REPORTED_METRICS = Set.of("record-send-rate", "batch-size-avg",
+			"records-per-request-avg", "compression-rate-avg", "request-latency-avg");
+
+	@Autowired
+	@Qualifier("uploadEventKafkaTemplate")
+	private KafkaTemplate<String, byte[]> uploadEventKafkaTemplate;
+
+	@Autowired
+	private KafkaProducerMetrics producerMetrics;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Value("${kafka.producer.benchmark.events}")
+	private long events;
+
+	@Value("${kafka.producer.benchmark.topic:producer-benchmark}")
+	private String topic;
+
+	@Test
+	void sendUploadEvents() throws Exception {
+		VideoProcessingRequest sample = new VideoProcessingRequest(1L,
+				"42/videos/raw/0b6e2d1c-7a0f-4d7e-9a43-5f1c0c3e8b21.mp4", 73_400_320L, "user@example.com", 42L);
+		MediaInfo mediaInfo = new MediaInfo("mp4");
+		mediaInfo.setVideoCodec("h264");
+		mediaInfo.setAudioCodec("aac");
+		mediaInfo.setWidth(1920);
+		mediaInfo.setHeight(1080);
+		mediaInfo.setDurationMillis(184_320L);
+		sample.setMediaInfo(mediaInfo);
+		byte[] payload = new EventCodec<>(VideoProcessingRequestSchema.INSTANCE).encode(sample);
+
+		// Warm up metadata and connections so they are not part of the measurement
+		uploadEventKafkaTemplate.send(topic, "warmup", payload).get(30, TimeUnit.SECONDS);
+		producerMetrics.logAndReset();
+
+		logger.info("Producer benchmark: sending {} events of {} bytes ({} as JSON) to {}", events, payload.length,
+				objectMapper.writeValueAsBytes(sample).length, topic);
+		AtomicLong failed = new AtomicLong();
+		long start = System.nanoTime();
+		for (long i = 0; i < events; i++) {
+			// Distinct keys spread the events over all partitions, as video ids do
+			uploadEventKafkaTemplate.send(topic, Long.toString(i), payload).whenComplete((result, ex) -> {
+				if (ex != null) {
+					failed.incrementAndGet();
+				}
+			});
+		}
+		// Returns once every record above is acknowledged or failed, callbacks included
+		uploadEventKafkaTemplate.flush();
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		long[] totals = producerMetrics.snapshot(topic);
+		logger.info("Producer benchmark: {} events in {} s = {} events/s ({} MB/s), {} failed, "
+				+ "send-to-ack latency avg {} ms, max {} ms", events, String.format("%.2f", seconds),
+				Math.round(events / seconds), String.format("%.1f", events * payload.length / seconds / 1e6),
+				failed.get(), totals[2], totals[3]);
+		for (Map.Entry<MetricName, ? extends Metric> metric : uploadEventKafkaTemplate.metrics().entrySet()) {
+			MetricName name = metric.getKey();
+			if ("producer-metrics".equals(name.group()) && REPORTED_METRICS.contains(name.name())) {
+				logger.info("Producer benchmark: {} = {}", name.name(), metric.getValue().metricValue());
+			}
+		}
+	}
+}
@@ -0,0 +1,65 @@
+package com.robspecs.streaming.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Playlists as the processor writes them; every URI a player fetches must carry the
+ * token, or HlsTokenValidationFilter answers 401.
+ */
+class VideoControllerPlaylistRewriteTest {
+
+	private static final String TOKEN = "abc.def";
+
+	private static final Pattern QUOTED_URI = Pattern.compile("URI=\"([^\"]*)\"");
+
+	@Test
+	void tokenizesEveryUriInIFramePlaylist() {
+		String playlist = "#EXTM3U\n"
+				+ "#EXT-X-VERSION:5\n"
+				+ "#EXT-X-TARGETDURATION:2\n"
+				+ "#EXT-X-I-FRAMES-ONLY\n"
+				+ "#EXT-X-MAP:URI=\"seg0.ts\",BYTERANGE=\"376@0\"\n"
+				+ "#EXTINF:1.000,\n#EXT-X-BYTERANGE:376@376\nseg0.ts\n"
+				+ "#EXT-X-MAP:URI=\"seg1.ts\",BYTERANGE=\"376@0\"\n"
+				+ "#EXTINF:2.000,\n#EXT-X-BYTERANGE:188@376\nseg1.ts\n"
+				+ "#EXT-X-ENDLIST\n";
+
+		String rewritten = VideoController.appendTokenToPlaylistUris(playlist, TOKEN);
+
+		assertThat(rewritten).contains("#EXT-X-MAP:URI=\"seg0.ts?token=abc.def\",BYTERANGE=\"376@0\"")
+				.contains("#EXT-X-MAP:URI=\"seg1.ts?token=abc.def\",BYTERANGE=\"376@0\"");
+		assertEveryUriTokenized(rewritten);
+	}
+
+	@Test
+	void tokenizesVariantAndIFrameStreamsInMasterPlaylist() {
+		String playlist = "#EXTM3U\n"
+				+ "#EXT-X-STREAM-INF:BANDWIDTH=800000,RESOLUTION=640x360\n360p.m3u8\n"
+				+ "#EXT-X-STREAM-INF:BANDWIDTH=2800000,RESOLUTION=1280x720\n720p.m3u8?v=2\n"
+				+ "#EXT-X-I-FRAME-STREAM-INF:BANDWIDTH=90000,RESOLUTION=640x360,URI=\"360p_iframes.m3u8\"\n";
+
+		String rewritten = VideoController.appendTokenToPlaylistUris(playlist, TOKEN);
+
+		assertThat(rewritten).contains("\n360p.m3u8?token=abc.def\n").contains("\n720p.m3u8?v=2&token=abc.def\n")
+				.contains("URI=\"360p_iframes.m3u8?token=abc.def\"")
+				.contains("#EXT-X-STREAM-INF:BANDWIDTH=800000,RESOLUTION=640x360\n");
+		assertEveryUriTokenized(rewritten);
+	}
+
+	private static void assertEveryUriTokenized(String playlist) {
+		playlist.lines().filter(line -> !line.isBlank()).forEach(line -> {
+			if (!line.startsWith("#")) {
+				assertThat(line).contains("token=" + TOKEN);
+			}
+			Matcher uri = QUOTED_URI.matcher(line);
+			while (uri.find()) {
+				assertThat(uri.group(1)).as(line).contains("token=" + TOKEN);
+			}
+		});
+	}
+}
@@ -0,0 +1,112 @@
+package com.robspecs.streaming.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+
+import com.robspecs.streaming.dto.VideoDetailsDTO;
+import com.robspecs.streaming.entities.User;
+import com.robspecs.streaming.entities.Video;
+import com.robspecs.streaming.enums.Roles;
+import com.robspecs.streaming.enums.VideoStatus;
+
+/**
+ * List projections must load a page in exactly one statement: no per-row user
+ * load, no video_resolutions fetch and no thumbnail BLOB.
+ */
+@DataJpaTest
+@TestPropertySource(properties = {
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.properties.hibernate.generate_statistics=true" })
+class VideosRepositoryProjectionTest {
+
+	private static final int VIDEO_COUNT = 5;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private VideosRepository videosRepository;
+
+	private Statistics statistics;
+	private User uploader;
+
+	@BeforeEach
+	void setUp() {
+		uploader = new User();
+		uploader.setName("Uploader");
+		uploader.setEmail("uploader@example.com");
+		uploader.setUserName("uploader");
+		uploader.setPassword("secret");
+		uploader.setRole(Roles.USER);
+		entityManager.persist(uploader);
+
+		for (int i = 0; i < VIDEO_COUNT; i++) {
+			Video video = new Video();
+			video.setVideoName("video-" + i);
+			video.setDescription("description " + i);
+			video.setOriginalFilePath("raw/video-" + i + ".mp4");
+			video.setFileSize(1000L + i);
+			video.setStatus(VideoStatus.READY);
+			video.setUploadUser(uploader);
+			video.setThumbnailData(new byte[1024]);
+			video.setThumbnailBlurHash("LEHV6nWB2yk8pyo0adR*.7kCMdnj");
+			video.getResolutionFilePaths().put("360p", "hls/360p.m3u8");
+			video.getResolutionFilePaths().put("720p", "hls/720p.m3u8");
+			entityManager.persist(video);
+		}
+		entityManager.flush();
+		entityManager.clear();
+
+		statistics = entityManager.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class)
+				.getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	void catalogPageIsOneStatementWithoutEntityOrCollectionLoads() {
+		List<VideoDetailsDTO> page = videosRepository.findVideoSummariesBefore(Long.MAX_VALUE, PageRequest.of(0, 3));
+
+		assertThat(page).hasSize(3);
+		assertThat(page).extracting(VideoDetailsDTO::getVideoName).containsExactly("video-4", "video-3", "video-2");
+		assertThat(page.get(0).getUploadUsername()).isEqualTo("uploader");
+		assertThat(page.get(0).getStatus()).isEqualTo(VideoStatus.READY);
+		assertOneStatementOnly();
+
+		statistics.clear();
+		List<VideoDetailsDTO> next = videosRepository.findVideoSummariesBefore(page.get(2).getVideoId(),
+				PageRequest.of(0, 3));
+		assertThat(next).extracting(VideoDetailsDTO::getVideoName).containsExactly("video-1", "video-0");
+		assertOneStatementOnly();
+	}
+
+	@Test
+	void userPageAndIdLookupAreOneStatementEach() {
+		List<VideoDetailsDTO> mine = videosRepository.findVideoSummariesByUserBefore(uploader.getUserId(),
+				Long.MAX_VALUE, PageRequest.of(0, 10));
+		assertThat(mine).hasSize(VIDEO_COUNT);
+		assertThat(mine).allSatisfy(video -> assertThat(video.getUploadUserId()).isEqualTo(uploader.getUserId()));
+		assertOneStatementOnly();
+
+		statistics.clear();
+		List<Long> ids = mine.stream().map(VideoDetailsDTO::getVideoId).toList();
+		assertThat(videosRepository.findVideoSummariesByIds(ids)).hasSize(VIDEO_COUNT);
+		assertOneStatementOnly();
+	}
+
+	private void assertOneStatementOnly() {
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+		assertThat(statistics.getEntityLoadCount()).isZero();
+		assertThat(statistics.getCollectionLoadCount()).isZero();
+	}
+}
@@ -0,0 +1,190 @@
+package com.robspecs.streaming.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.robspecs.events.MediaInfo;
+
+/**
+ * Probes minimal hand-built containers: just the boxes and elements MediaProbe reads,
+ * with media data replaced by filler bytes.
+ */
+class MediaProbeTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void probesFaststartMp4() throws IOException {
+		MediaInfo info = MediaProbe.probe(write("faststart.mp4", concat(ftyp("isom"), moov(videoTrak(), audioTrak()),
+				mdat(4096))));
+
+		assertThat(info.getContainer()).isEqualTo("mp4");
+		assertThat(info.getVideoCodec()).isEqualTo("h264");
+		assertThat(info.getAudioCodec()).isEqualTo("aac");
+		assertThat(info.getWidth()).isEqualTo(1280);
+		assertThat(info.getHeight()).isEqualTo(720);
+		assertThat(info.getDurationMillis()).isEqualTo(12_345L);
+	}
+
+	@Test
+	void probesMp4WithMoovAfterMdat() throws IOException {
+		MediaInfo info = MediaProbe.probe(write("tail-moov.mov", concat(ftyp("qt  "), mdat(256 * 1024),
+				moov(audioTrak(), videoTrak()))));
+
+		assertThat(info.getContainer()).isEqualTo("mov");
+		assertThat(info.getVideoCodec()).isEqualTo("h264");
+		assertThat(info.getAudioCodec()).isEqualTo("aac");
+		assertThat(info.getWidth()).isEqualTo(1280);
+		assertThat(info.getDurationMillis()).isEqualTo(12_345L);
+	}
+
+	@Test
+	void rejectsTruncatedMoov() throws IOException {
+		byte[] complete = concat(ftyp("isom"), mdat(4096), moov(videoTrak()));
+		Path truncated = write("truncated.mp4", Arrays.copyOf(complete, complete.length - 40));
+
+		assertThatThrownBy(() -> MediaProbe.probe(truncated)).isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("incomplete");
+	}
+
+	@Test
+	void rejectsCorruptMoov() throws IOException {
+		byte[] trak = videoTrak();
+		ByteBuffer.wrap(trak).putInt(0, trak.length + 1000); // trak claims more bytes than moov holds
+		Path corrupt = write("corrupt.mp4", concat(ftyp("isom"), moov(trak), mdat(16)));
+
+		assertThatThrownBy(() -> MediaProbe.probe(corrupt)).isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("corrupt");
+	}
+
+	@Test
+	void rejectsMp4WithoutMoovOrVideo() throws IOException {
+		Path noMoov = write("no-moov.mp4", concat(ftyp("isom"), mdat(16)));
+		Path audioOnly = write("audio.m4a", concat(ftyp("M4A "), moov(audioTrak()), mdat(16)));
+
+		assertThatThrownBy(() -> MediaProbe.probe(noMoov)).isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("no movie header");
+		assertThatThrownBy(() -> MediaProbe.probe(audioOnly)).isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("no video track");
+	}
+
+	@Test
+	void probesWebm() throws IOException {
+		byte[] header = ebml(0x1A45DFA3, ebml(0x4282, ascii("webm")));
+		byte[] info = ebml(0x1549A966, concat(ebml(0x2AD7B1, new byte[] { 0x0F, 0x42, 0x40 }), // 1 ms timecodes
+				ebml(0x4489, ByteBuffer.allocate(4).putFloat(5000f).array())));
+		byte[] video = ebml(0xAE, concat(ebml(0x83, new byte[] { 1 }), ebml(0x86, ascii("V_VP9")),
+				ebml(0xE0, concat(ebml(0xB0, new byte[] { 0x02, (byte) 0x80 }), ebml(0xBA, new byte[] { 0x01, 0x68 })))));
+		byte[] audio = ebml(0xAE, concat(ebml(0x83, new byte[] { 2 }), ebml(0x86, ascii("A_OPUS"))));
+		byte[] cluster = concat(new byte[] { 0x1F, 0x43, (byte) 0xB6, 0x75, (byte) 0xFF }, new byte[64]); // unknown size
+		byte[] segmentBody = concat(info, ebml(0x1654AE6B, concat(video, audio)), cluster);
+		byte[] segment = concat(new byte[] { 0x18, 0x53, (byte) 0x80, 0x67 }, ebmlSize(segmentBody.length), segmentBody);
+
+		MediaInfo result = MediaProbe.probe(write("clip.webm", concat(header, segment)));
+
+		assertThat(result.getContainer()).isEqualTo("webm");
+		assertThat(result.getVideoCodec()).isEqualTo("vp9");
+		assertThat(result.getAudioCodec()).isEqualTo("opus");
+		assertThat(result.getWidth()).isEqualTo(640);
+		assertThat(result.getHeight()).isEqualTo(360);
+		assertThat(result.getDurationMillis()).isEqualTo(5000L);
+	}
+
+	@Test
+	void rejectsNonVideoFiles() throws IOException {
+		Path text = write("notes.mp4", ascii("Just some text renamed to .mp4\n"));
+		Path empty = write("empty.mp4", new byte[0]);
+
+		assertThatThrownBy(() -> MediaProbe.probe(text)).isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("not recognized");
+		assertThatThrownBy(() -> MediaProbe.probe(empty)).isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("not recognized");
+	}
+
+	// ---- MP4 boxes ----
+
+	private static byte[] ftyp(String brand) {
+		return box("ftyp", concat(ascii(brand), new byte[4], ascii("isom")));
+	}
+
+	private static byte[] moov(byte[]... traks) {
+		ByteBuffer mvhd = ByteBuffer.allocate(100); // version 0
+		mvhd.putInt(12, 1000); // timescale
+		mvhd.putInt(16, 12_345); // duration
+		return box("moov", concat(box("mvhd", mvhd.array()), concat(traks)));
+	}
+
+	private static byte[] videoTrak() {
+		ByteBuffer tkhd = ByteBuffer.allocate(84);
+		tkhd.putInt(76, 1280 << 16).putInt(80, 720 << 16); // 16.16 fixed point
+		ByteBuffer sampleEntry = ByteBuffer.allocate(86);
+		sampleEntry.putInt(0, 86).put(4, ascii("avc1")).putShort(32, (short) 1280).putShort(34, (short) 720);
+		return trak(tkhd.array(), "vide", sampleEntry.array());
+	}
+
+	private static byte[] audioTrak() {
+		ByteBuffer sampleEntry = ByteBuffer.allocate(36);
+		sampleEntry.putInt(0, 36).put(4, ascii("mp4a"));
+		return trak(new byte[84], "soun", sampleEntry.array());
+	}
+
+	private static byte[] trak(byte[] tkhd, String handler, byte[] sampleEntry) {
+		byte[] hdlr = concat(new byte[8], ascii(handler), new byte[13]);
+		byte[] stsd = concat(new byte[] { 0, 0, 0, 0, 0, 0, 0, 1 }, sampleEntry); // version/flags, entry_count 1
+		byte[] minf = box("minf", box("stbl", box("stsd", stsd)));
+		return box("trak", concat(box("tkhd", tkhd), box("mdia", concat(box("hdlr", hdlr), minf))));
+	}
+
+	private static byte[] mdat(int size) {
+		return box("mdat", new byte[size]);
+	}
+
+	private static byte[] box(String type, byte[] payload) {
+		return concat(ByteBuffer.allocate(4).putInt(8 + payload.length).array(), ascii(type), payload);
+	}
+
+	// ---- EBML elements ----
+
+	private static byte[] ebml(int id, byte[] payload) {
+		int idLength = 4 - Integer.numberOfLeadingZeros(id) / 8;
+		byte[] idBytes = Arrays.copyOfRange(ByteBuffer.allocate(4).putInt(id).array(), 4 - idLength, 4);
+		return concat(idBytes, ebmlSize(payload.length), payload);
+	}
+
+	// Always the 8-byte form; parsers must accept any length
+	private static byte[] ebmlSize(long size) {
+		byte[] bytes = ByteBuffer.allocate(8).putLong(size).array();
+		bytes[0] = 0x01;
+		return bytes;
+	}
+
+	// ---- Helpers ----
+
+	private Path write(String name, byte[] data) throws IOException {
+		return Files.write(dir.resolve(name), data);
+	}
+
+	private static byte[] ascii(String s) {
+		return s.getBytes(StandardCharsets.ISO_8859_1);
+	}
+
+	private static byte[] concat(byte[]... parts) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		for (byte[] part : parts) {
+			out.writeBytes(part);
+		}
+		return out.toByteArray();
+	}
+}
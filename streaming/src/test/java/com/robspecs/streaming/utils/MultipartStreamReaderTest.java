@@ -0,0 +1,160 @@
+package com.robspecs.streaming.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Bodies are fed through streams that return few bytes per read, so delimiters and
+ * headers arrive split across buffer refills the way they do on a slow connection.
+ */
+class MultipartStreamReaderTest {
+
+	private static final String BOUNDARY = "----FormBoundary7MA4YWxk";
+
+	@Test
+	void readsFieldsAndFileWithDelimitersSplitAcrossReads() throws IOException {
+		byte[] file = fileContent(200_000);
+		byte[] body = concat(fieldPart("title", "My video"), filePart("file", "clip.mp4", file), closing());
+
+		for (int chunkSize : new int[] { 1, 7, 4093 }) {
+			MultipartStreamReader reader = new MultipartStreamReader(chunked(body, chunkSize), BOUNDARY);
+
+			MultipartStreamReader.Part title = reader.nextPart();
+			assertThat(title.getName()).isEqualTo("title");
+			assertThat(title.isFile()).isFalse();
+			assertThat(title.readString(1024)).isEqualTo("My video");
+
+			MultipartStreamReader.Part upload = reader.nextPart();
+			assertThat(upload.getName()).isEqualTo("file");
+			assertThat(upload.getFileName()).isEqualTo("clip.mp4");
+			assertThat(upload.getContentType()).isEqualTo("video/mp4");
+			assertThat(upload.getContent().readAllBytes()).isEqualTo(file);
+
+			assertThat(reader.nextPart()).isNull();
+			assertThat(reader.nextPart()).isNull();
+		}
+	}
+
+	@Test
+	void skipsPreambleAndUnreadParts() throws IOException {
+		byte[] body = concat(ascii("This is a preamble; clients must ignore it.\r\n"), fieldPart("skipped", "unread"),
+				fieldPart("description", "kept"), closing());
+
+		MultipartStreamReader reader = new MultipartStreamReader(chunked(body, 5), BOUNDARY);
+
+		assertThat(reader.nextPart().getName()).isEqualTo("skipped");
+		MultipartStreamReader.Part description = reader.nextPart();
+		assertThat(description.getName()).isEqualTo("description");
+		assertThat(description.readString(1024)).isEqualTo("kept");
+		assertThat(reader.nextPart()).isNull();
+	}
+
+	@Test
+	void rejectsOversizePartHeaders() {
+		String longHeader = "X-Padding: " + "a".repeat(9 * 1024) + "\r\n";
+		byte[] body = concat(ascii("--" + BOUNDARY + "\r\n" + longHeader
+				+ "Content-Disposition: form-data; name=\"title\"\r\n\r\nvalue"), closing());
+
+		MultipartStreamReader reader = new MultipartStreamReader(chunked(body, 512), BOUNDARY);
+
+		assertThatThrownBy(reader::nextPart).isInstanceOf(IOException.class).hasMessageContaining("too large");
+	}
+
+	@Test
+	void failsOnBodyTruncatedBeforeClosingDelimiter() throws IOException {
+		byte[] body = concat(fieldPart("title", "x"), ascii("--" + BOUNDARY + "\r\n"
+				+ "Content-Disposition: form-data; name=\"file\"; filename=\"a.mp4\"\r\n\r\n"), fileContent(10_000));
+
+		MultipartStreamReader reader = new MultipartStreamReader(chunked(body, 1000), BOUNDARY);
+		reader.nextPart();
+		MultipartStreamReader.Part upload = reader.nextPart();
+
+		assertThatThrownBy(() -> upload.getContent().readAllBytes()).isInstanceOf(IOException.class)
+				.hasMessageContaining("Unexpected end");
+	}
+
+	@Test
+	void partWithoutFilenameIsNotAFile() throws IOException {
+		byte[] body = concat(ascii("--" + BOUNDARY + "\r\n"
+				+ "Content-Disposition: form-data; name=\"file\"\r\nContent-Type: video/mp4\r\n\r\n"),
+				fileContent(100), ascii("\r\n"), closing());
+
+		MultipartStreamReader reader = new MultipartStreamReader(chunked(body, 64), BOUNDARY);
+		MultipartStreamReader.Part part = reader.nextPart();
+
+		assertThat(part.getName()).isEqualTo("file");
+		assertThat(part.getFileName()).isNull();
+		assertThat(part.isFile()).isFalse();
+	}
+
+	@Test
+	void extractsBoundaryFromContentType() {
+		assertThat(MultipartStreamReader.boundaryOf("multipart/form-data; boundary=\"" + BOUNDARY + "\""))
+				.isEqualTo(BOUNDARY);
+		assertThat(MultipartStreamReader.boundaryOf("Multipart/Form-Data; charset=utf-8; boundary=abc")).isEqualTo("abc");
+		assertThatThrownBy(() -> MultipartStreamReader.boundaryOf("application/json"))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> MultipartStreamReader.boundaryOf("multipart/form-data"))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private static byte[] fieldPart(String name, String value) {
+		return ascii("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"" + name + "\"\r\n\r\n" + value
+				+ "\r\n");
+	}
+
+	private static byte[] filePart(String name, String fileName, byte[] content) {
+		return concat(ascii("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"" + name + "\"; filename=\""
+				+ fileName + "\"\r\nContent-Type: video/mp4\r\n\r\n"), content, ascii("\r\n"));
+	}
+
+	private static byte[] closing() {
+		return ascii("--" + BOUNDARY + "--\r\n");
+	}
+
+	// Mostly arbitrary bytes, with near-misses of the delimiter sprinkled in
+	private static byte[] fileContent(int size) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(size);
+		byte[] nearMiss = ascii("\r\n--" + BOUNDARY.substring(0, BOUNDARY.length() - 1) + "X");
+		int i = 0;
+		while (out.size() < size) {
+			if (i % 5000 == 0) {
+				out.writeBytes(nearMiss);
+			}
+			out.write((i * 31) ^ (i >> 7));
+			i++;
+		}
+		return Arrays.copyOf(out.toByteArray(), size);
+	}
+
+	private static InputStream chunked(byte[] body, int chunkSize) {
+		return new FilterInputStream(new ByteArrayInputStream(body)) {
+			@Override
+			public int read(byte[] b, int off, int len) throws IOException {
+				return super.read(b, off, Math.min(len, chunkSize));
+			}
+		};
+	}
+
+	private static byte[] ascii(String s) {
+		return s.getBytes(StandardCharsets.ISO_8859_1);
+	}
+
+	private static byte[] concat(byte[]... parts) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		for (byte[] part : parts) {
+			out.writeBytes(part);
+		}
+		return out.toByteArray();
+	}
+}
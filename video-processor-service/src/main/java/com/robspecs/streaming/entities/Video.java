@@ -27,7 +27,8 @@ import jakarta.persistence.UniqueConstraint;
 @Table(name = "videos", uniqueConstraints = {
 		@UniqueConstraint(name = "uq_video_name_user", columnNames = { "videoName", "upload_user_id" }) }, indexes = {
 				@Index(name = "idx_video_name", columnList = "videoName"),
-				@Index(name = "idx_upload_user_id", columnList = "upload_user_id") })
+				@Index(name = "idx_upload_user_video", columnList = "upload_user_id, video_id"),
+				@Index(name = "idx_video_content_hash", columnList = "content_hash") })
 public class Video {
 
 	@Id
@@ -62,7 +63,9 @@ public class Video {
 	@JoinColumn(name = "upload_user_id", nullable = false)
 	private User uploadUser;
 
-	@Column(nullable = false)
+	// Only written by the batched view-count flush (UPDATE ... SET views = views + ?), never by entity saves,
+	// so saving a stale entity cannot overwrite counts flushed in the meantime
+	@Column(nullable = false, updatable = false)
 	private Long views = 0L;
 
 
@@ -70,6 +73,14 @@ public class Video {
     @Column(name = "thumbnail_data", columnDefinition = "BLOB") // Explicitly define column type if needed for specific DBs
     private byte[] thumbnailData;
 
+	// Compact BlurHash placeholder for the thumbnail, painted by clients before the image loads
+	@Column(name = "thumbnail_blurhash", length = 64)
+	private String thumbnailBlurHash;
+
+	// SHA-256 (hex) of the uploaded file; videos with the same hash can share one set of renditions
+	@Column(name = "content_hash", length = 64)
+	private String contentHash;
+
 	// Constructors
 	public Video() {
 	}
@@ -163,4 +174,20 @@ public class Video {
 	public void setThumbnailData(byte[] thumbnailData) {
 	        this.thumbnailData = thumbnailData;
 	    }
+
+	public String getThumbnailBlurHash() {
+		return thumbnailBlurHash;
+	}
+
+	public void setThumbnailBlurHash(String thumbnailBlurHash) {
+		this.thumbnailBlurHash = thumbnailBlurHash;
+	}
+
+	public String getContentHash() {
+		return contentHash;
+	}
+
+	public void setContentHash(String contentHash) {
+		this.contentHash = contentHash;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.robspecs.streaming.repository;
+
+import java.util.Map;
+
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Bulk write access to {@code video_retention_buckets}, implemented with plain JDBC.
+ */
+public interface RetentionHistogramRepository {
+
+	/**
+	 * Adds watched time to retention buckets in one transaction, creating missing rows.
+	 * Histograms of videos that no longer exist are skipped.
+	 *
+	 * @param histograms Watched milliseconds per bucket index, keyed by video ID.
+	 * @return Number of buckets written.
+	 */
+	@Transactional
+	int addWatchedMillis(Map<Long, long[]> histograms);
+}
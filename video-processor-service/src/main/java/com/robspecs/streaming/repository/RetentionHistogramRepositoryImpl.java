@@ -0,0 +1,39 @@
+package com.robspecs.streaming.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+public class RetentionHistogramRepositoryImpl implements RetentionHistogramRepository {
+
+	// INSERT ... SELECT against videos, so buckets of deleted (or never existing) videos are not created
+	private static final String UPSERT_SQL = "INSERT INTO video_retention_buckets (video_id, bucket_index, watched_millis) "
+			+ "SELECT video_id, ?, ? FROM videos WHERE video_id = ? "
+			+ "ON DUPLICATE KEY UPDATE watched_millis = watched_millis + VALUES(watched_millis)";
+
+	private static final int BATCH_SIZE = 1000;
+
+	private final JdbcTemplate jdbcTemplate;
+
+	public RetentionHistogramRepositoryImpl(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	@Override
+	public int addWatchedMillis(Map<Long, long[]> histograms) {
+		List<Object[]> rows = new ArrayList<>();
+		histograms.forEach((videoId, buckets) -> {
+			for (int i = 0; i < buckets.length; i++) {
+				if (buckets[i] != 0) {
+					rows.add(new Object[] { i, buckets[i], videoId });
+				}
+			}
+		});
+		for (int start = 0; start < rows.size(); start += BATCH_SIZE) {
+			jdbcTemplate.batchUpdate(UPSERT_SQL, rows.subList(start, Math.min(rows.size(), start + BATCH_SIZE)));
+		}
+		return rows.size();
+	}
+}
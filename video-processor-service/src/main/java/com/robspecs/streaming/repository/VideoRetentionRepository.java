@@ -0,0 +1,12 @@
+package com.robspecs.streaming.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.robspecs.streaming.entities.VideoRetentionBucket;
+
+@Repository
+public interface VideoRetentionRepository
+		extends JpaRepository<VideoRetentionBucket, VideoRetentionBucket.Key>, RetentionHistogramRepository {
+
+}
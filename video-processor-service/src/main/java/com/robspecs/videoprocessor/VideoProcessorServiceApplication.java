@@ -5,11 +5,13 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @ComponentScan(basePackages = { "com.robspecs.videoprocessor", "com.robspecs.streaming" })
 @EnableJpaRepositories(basePackages = "com.robspecs.streaming.repository")
 @EntityScan(basePackages = "com.robspecs.streaming.entities")
+@EnableScheduling
 public class VideoProcessorServiceApplication {
 
 	public static void main(String[] args) {
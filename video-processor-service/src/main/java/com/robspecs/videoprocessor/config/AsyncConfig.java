@@ -2,6 +2,7 @@ package com.robspecs.videoprocessor.config;
 
 import java.util.concurrent.Executor;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
@@ -37,16 +38,39 @@ public class AsyncConfig {
     }
     */
 	 
-	  @Bean(name = "videoProcessingExecutor") // Give it a specific name
-	    public Executor videoProcessingExecutor() {
+	  @Bean(name = "videoProcessingExecutor") // Large lane (and the original topic)
+	    public Executor videoProcessingExecutor(@Value("${processing.workers:0}") int workers) {
+	        // Each transcode is multithreaded itself, so by default one job per two cores; 0 means auto
+	        int poolSize = workers > 0 ? workers : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
 	        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-	        executor.setCorePoolSize(2); // Number of core threads (e.g., number of CPU cores)
-	        executor.setMaxPoolSize(5);  // Maximum number of threads in the pool
-	        executor.setQueueCapacity(500); // Capacity of the queue for pending tasks
+	        executor.setCorePoolSize(poolSize); // Core = max: extra threads would only start once the queue is full
+	        executor.setMaxPoolSize(poolSize);
+	        executor.setQueueCapacity(500); // Safety net only; the listener runs one consumer per thread, each holding one job
 	        executor.setThreadNamePrefix("VideoProcessor-"); // Prefix for thread names
 	        executor.initialize();
 	        return executor;
 	    }
+
+	  // Dedicated workers for the small and medium lanes, so short videos never wait behind long transcodes
+	  @Bean(name = "smallVideoProcessingExecutor")
+	    public Executor smallVideoProcessingExecutor(@Value("${processing.lanes.small.workers:1}") int workers) {
+	        return laneExecutor(workers, "VideoProcessor-small-");
+	    }
+
+	  @Bean(name = "mediumVideoProcessingExecutor")
+	    public Executor mediumVideoProcessingExecutor(@Value("${processing.lanes.medium.workers:1}") int workers) {
+	        return laneExecutor(workers, "VideoProcessor-medium-");
+	    }
+
+	  private Executor laneExecutor(int workers, String threadNamePrefix) {
+	        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+	        executor.setCorePoolSize(Math.max(1, workers));
+	        executor.setMaxPoolSize(Math.max(1, workers));
+	        executor.setQueueCapacity(500);
+	        executor.setThreadNamePrefix(threadNamePrefix);
+	        executor.initialize();
+	        return executor;
+	    }
 	 
 	 
 }
\ No newline at end of file
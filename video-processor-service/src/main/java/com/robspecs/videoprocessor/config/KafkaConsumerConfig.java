@@ -3,19 +3,29 @@ package com.robspecs.videoprocessor.config;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.backoff.FixedBackOff;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties.AckMode;
 import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 
-import com.robspecs.videoprocessor.dto.VideoProcessingRequest; // Import the DTO from its new location
+import com.robspecs.events.EventDeserializer;
+import com.robspecs.events.ProcessingLane;
+import com.robspecs.events.VideoProcessingRequest;
+import com.robspecs.events.VideoProcessingRequestSchema;
+import com.robspecs.events.WatchHeartbeatEvent;
+import com.robspecs.events.WatchHeartbeatEventSchema;
 
 @EnableKafka // Enables Kafka listener annotation processing
 @Configuration
@@ -27,6 +37,24 @@ public class KafkaConsumerConfig {
 	@Value("${spring.kafka.consumer.group-id}")
 	private String groupId;
 
+	@Value("${upload-events.topic.partitions:6}")
+	private int uploadTopicPartitions;
+
+	@Value("${upload-events.topic.replicas:1}")
+	private int uploadTopicReplicas;
+
+	@Value("${processing.consumer.max-poll-interval-ms:300000}")
+	private int uploadMaxPollIntervalMs;
+
+	@Value("${heartbeats.consumer.group-id:watch-heartbeat-aggregator}")
+	private String heartbeatGroupId;
+
+	@Value("${heartbeats.consumer.concurrency:3}")
+	private int heartbeatConcurrency;
+
+	@Value("${heartbeats.consumer.max-poll-records:5000}")
+	private int heartbeatMaxPollRecords;
+
 	 private final DefaultErrorHandler errorHandler;
 	 public KafkaConsumerConfig(DefaultErrorHandler errorHandler) {
 	        this.errorHandler = errorHandler;
@@ -38,24 +66,96 @@ public class KafkaConsumerConfig {
 		props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
 		props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
 		props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+		// One record per poll: with async acks the consumer takes nothing new until it is acknowledged, so
+		// each consumer holds exactly one job. The job runs off the consumer thread, which keeps polling
+		// (paused) meanwhile, so the poll interval only has to cover one listener call, not a whole transcode
+		props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 1);
+		props.put(ConsumerConfig.MAX_POLL_INTERVAL_MS_CONFIG, uploadMaxPollIntervalMs);
+		props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
 
-		// Configure JsonDeserializer for the value
+		// Avro binary (events/VideoProcessingRequestSchema); JSON only for records published before the switch
 		JsonDeserializer<VideoProcessingRequest> jsonDeserializer = new JsonDeserializer<>(
 				VideoProcessingRequest.class);
 		jsonDeserializer.setRemoveTypeHeaders(false); // Keep type headers for safer deserialization
 		jsonDeserializer.addTrustedPackages("*"); // Trust all packages for deserialization
 		jsonDeserializer.setUseTypeHeaders(false);
 
-		return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), jsonDeserializer);
+		// An undecodable record is handed to the error handler and skipped instead of failing every poll
+		return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), new ErrorHandlingDeserializer<>(
+				new EventDeserializer<>(VideoProcessingRequestSchema.INSTANCE, jsonDeserializer)));
 	}
 
 	@Bean
     public ConcurrentKafkaListenerContainerFactory<String, VideoProcessingRequest> kafkaListenerContainerFactory() {
         ConcurrentKafkaListenerContainerFactory<String, VideoProcessingRequest> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
-        factory.setConcurrency(1); // Keep concurrency at 1 for long-running tasks per message
+        // Concurrency is set per listener to its lane's worker count (VideoProcessorService).
+        // Offsets are committed when a job finishes (VideoProcessorService acknowledges from the worker);
+        // async acks keep the consumer paused until then and commit out-of-order acks only once contiguous
+        factory.getContainerProperties().setAckMode(AckMode.MANUAL);
+        factory.getContainerProperties().setAsyncAcks(true);
 
         factory.setCommonErrorHandler(errorHandler); // This line tells the factory to use our custom error handler
          return factory;
     }
-}
\ No newline at end of file
+
+	/**
+	 * Upload events are keyed by video ID; the partition count caps how many processor
+	 * consumers can share the work. One topic per processing lane, the large lane on the
+	 * original topic.
+	 */
+	@Bean
+	public NewTopic videoUploadTopic() {
+		return uploadTopic(ProcessingLane.LARGE);
+	}
+
+	@Bean
+	public NewTopic smallVideoUploadTopic() {
+		return uploadTopic(ProcessingLane.SMALL);
+	}
+
+	@Bean
+	public NewTopic mediumVideoUploadTopic() {
+		return uploadTopic(ProcessingLane.MEDIUM);
+	}
+
+	private NewTopic uploadTopic(ProcessingLane lane) {
+		return TopicBuilder.name(lane.getTopic())
+				.partitions(uploadTopicPartitions)
+				.replicas(uploadTopicReplicas)
+				.build();
+	}
+
+	/**
+	 * Consumer for player heartbeats: large polls for throughput and a deserializer
+	 * that turns bad records into nulls instead of blocking the partition.
+	 */
+	@Bean
+	public ConsumerFactory<String, WatchHeartbeatEvent> heartbeatConsumerFactory() {
+		Map<String, Object> props = new HashMap<>();
+		props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+		props.put(ConsumerConfig.GROUP_ID_CONFIG, heartbeatGroupId);
+		props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+		props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, heartbeatMaxPollRecords);
+		props.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, 64 * 1024);
+		props.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, 200);
+
+		JsonDeserializer<WatchHeartbeatEvent> jsonDeserializer = new JsonDeserializer<>(WatchHeartbeatEvent.class);
+		jsonDeserializer.addTrustedPackages("*");
+		jsonDeserializer.setUseTypeHeaders(false);
+
+		return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), new ErrorHandlingDeserializer<>(
+				new EventDeserializer<>(WatchHeartbeatEventSchema.INSTANCE, jsonDeserializer)));
+	}
+
+	@Bean
+	public ConcurrentKafkaListenerContainerFactory<String, WatchHeartbeatEvent> heartbeatListenerContainerFactory() {
+		ConcurrentKafkaListenerContainerFactory<String, WatchHeartbeatEvent> factory = new ConcurrentKafkaListenerContainerFactory<>();
+		factory.setConsumerFactory(heartbeatConsumerFactory());
+		factory.setBatchListener(true);
+		factory.setConcurrency(heartbeatConcurrency);
+		// Heartbeats are not worth retrying; log and move on
+		factory.setCommonErrorHandler(new DefaultErrorHandler(new FixedBackOff(0L, 0L)));
+		return factory;
+	}
+}
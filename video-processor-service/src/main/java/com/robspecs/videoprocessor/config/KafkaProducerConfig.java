@@ -0,0 +1,136 @@
+package com.robspecs.videoprocessor.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.config.TopicConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import com.robspecs.events.ProcessorBacklogEvent;
+import com.robspecs.events.VideoProgressEvent;
+import com.robspecs.events.VideoStatusChangedEvent;
+
+@Configuration
+public class KafkaProducerConfig {
+
+	public static final String VIDEO_STATUS_TOPIC = "video-status-events";
+	public static final String VIDEO_PROGRESS_TOPIC = "video-progress-events";
+	public static final String PROCESSOR_BACKLOG_TOPIC = "video-processor-backlog";
+
+	@Value("${spring.kafka.bootstrap-servers}")
+	private String bootstrapServers;
+
+	@Value("${status-events.topic.partitions:3}")
+	private int statusTopicPartitions;
+
+	@Value("${status-events.topic.replicas:1}")
+	private int statusTopicReplicas;
+
+	/**
+	 * Log-compacted, keyed by videoId: the latest event per video is kept forever, so a
+	 * consumer reading from the beginning rebuilds the current state of every video.
+	 */
+	@Bean
+	public NewTopic videoStatusTopic() {
+		return TopicBuilder.name(VIDEO_STATUS_TOPIC)
+				.partitions(statusTopicPartitions)
+				.replicas(statusTopicReplicas)
+				.compact()
+				.config(TopicConfig.MIN_COMPACTION_LAG_MS_CONFIG, "60000")
+				.build();
+	}
+
+	/**
+	 * Status events are low volume but must not be lost or reordered per video, since
+	 * consumers keep only the newest one: acks=all with idempotence.
+	 */
+	@Bean
+	public ProducerFactory<String, VideoStatusChangedEvent> statusEventProducerFactory() {
+		Map<String, Object> configProps = new HashMap<>();
+		configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+		configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+		configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+		configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+		configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+		configProps.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+		return new DefaultKafkaProducerFactory<>(configProps);
+	}
+
+	@Bean
+	public KafkaTemplate<String, VideoStatusChangedEvent> statusEventKafkaTemplate() {
+		return new KafkaTemplate<>(statusEventProducerFactory());
+	}
+
+	// Progress is only interesting while it happens; keep an hour for consumers that restart
+	@Bean
+	public NewTopic videoProgressTopic() {
+		return TopicBuilder.name(VIDEO_PROGRESS_TOPIC)
+				.partitions(statusTopicPartitions)
+				.replicas(statusTopicReplicas)
+				.config(TopicConfig.RETENTION_MS_CONFIG, "3600000")
+				.build();
+	}
+
+	/**
+	 * Progress updates are disposable: acks=1, and never block an encoding thread for
+	 * long if Kafka is unavailable.
+	 */
+	@Bean
+	public ProducerFactory<String, VideoProgressEvent> progressEventProducerFactory() {
+		Map<String, Object> configProps = new HashMap<>();
+		configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+		configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+		configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+		configProps.put(ProducerConfig.ACKS_CONFIG, "1");
+		configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, false);
+		configProps.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, 1000);
+		configProps.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+		return new DefaultKafkaProducerFactory<>(configProps);
+	}
+
+	@Bean
+	public KafkaTemplate<String, VideoProgressEvent> progressEventKafkaTemplate() {
+		return new KafkaTemplate<>(progressEventProducerFactory());
+	}
+
+	// Heartbeats are only read from the live end; a single partition keeps them in one place
+	@Bean
+	public NewTopic processorBacklogTopic() {
+		return TopicBuilder.name(PROCESSOR_BACKLOG_TOPIC)
+				.partitions(1)
+				.replicas(statusTopicReplicas)
+				.config(TopicConfig.RETENTION_MS_CONFIG, "600000")
+				.build();
+	}
+
+	/**
+	 * Backlog heartbeats are superseded every few seconds: same settings as progress.
+	 */
+	@Bean
+	public ProducerFactory<String, ProcessorBacklogEvent> backlogEventProducerFactory() {
+		Map<String, Object> configProps = new HashMap<>();
+		configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+		configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+		configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+		configProps.put(ProducerConfig.ACKS_CONFIG, "1");
+		configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, false);
+		configProps.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, 1000);
+		configProps.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+		return new DefaultKafkaProducerFactory<>(configProps);
+	}
+
+	@Bean
+	public KafkaTemplate<String, ProcessorBacklogEvent> backlogEventKafkaTemplate() {
+		return new KafkaTemplate<>(backlogEventProducerFactory());
+	}
+}
@@ -0,0 +1,23 @@
+package com.robspecs.videoprocessor.dto;
+
+/**
+ * Relative paths of the artifacts produced by FFmpegService.transcodeToHLS.
+ */
+public class HlsTranscodeResult {
+
+	private final String masterPlaylistPath;
+	private final String trickPlayVttPath; // null if trick-play generation was skipped or failed
+
+	public HlsTranscodeResult(String masterPlaylistPath, String trickPlayVttPath) {
+		this.masterPlaylistPath = masterPlaylistPath;
+		this.trickPlayVttPath = trickPlayVttPath;
+	}
+
+	public String getMasterPlaylistPath() {
+		return masterPlaylistPath;
+	}
+
+	public String getTrickPlayVttPath() {
+		return trickPlayVttPath;
+	}
+}
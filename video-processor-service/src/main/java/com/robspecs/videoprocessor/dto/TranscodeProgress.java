@@ -0,0 +1,60 @@
+package com.robspecs.videoprocessor.dto;
+
+/**
+ * Point-in-time progress of one HLS transcode, as reported by FFmpegService.transcodeToHLS.
+ */
+public class TranscodeProgress {
+
+	private final String rendition; // e.g. "720p"
+	private final int renditionIndex; // zero-based, renditions are encoded one after another
+	private final int renditionCount;
+	private final long framesDone; // in the current rendition
+	private final long framesTotal; // estimated frames per rendition
+	private final double fps; // smoothed encode rate of the current rendition, 0 until measured
+	private final long etaSeconds; // whole transcode, -1 until fps is known
+	private final int percent; // whole transcode, 0-100
+
+	public TranscodeProgress(String rendition, int renditionIndex, int renditionCount, long framesDone,
+			long framesTotal, double fps, long etaSeconds, int percent) {
+		this.rendition = rendition;
+		this.renditionIndex = renditionIndex;
+		this.renditionCount = renditionCount;
+		this.framesDone = framesDone;
+		this.framesTotal = framesTotal;
+		this.fps = fps;
+		this.etaSeconds = etaSeconds;
+		this.percent = percent;
+	}
+
+	public String getRendition() {
+		return rendition;
+	}
+
+	public int getRenditionIndex() {
+		return renditionIndex;
+	}
+
+	public int getRenditionCount() {
+		return renditionCount;
+	}
+
+	public long getFramesDone() {
+		return framesDone;
+	}
+
+	public long getFramesTotal() {
+		return framesTotal;
+	}
+
+	public double getFps() {
+		return fps;
+	}
+
+	public long getEtaSeconds() {
+		return etaSeconds;
+	}
+
+	public int getPercent() {
+		return percent;
+	}
+}
@@ -8,9 +8,11 @@ import java.nio.file.Path;
 import java.util.ArrayList; // Added for List
 import java.util.Arrays; // Added for Arrays.asList
 import java.util.Comparator; // Added for sorting resolution profiles
+import java.util.HashMap;
 import java.util.LinkedHashMap; // Added for LinkedHashMap
 import java.util.List;
 import java.util.Map; // Added for Map
+import java.util.function.Consumer;
 
 import javax.imageio.ImageIO; // For ImageIO.write
 
@@ -27,8 +29,18 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.robspecs.videoprocessor.dto.HlsTranscodeResult;
+import com.robspecs.videoprocessor.dto.TranscodeProgress;
 import com.robspecs.videoprocessor.dto.VideoMetadata;
 import com.robspecs.videoprocessor.exception.VideoProcessingException;
+import com.robspecs.videoprocessor.utils.BlurHashEncoder;
+import com.robspecs.videoprocessor.utils.IFramePlaylistWriter;
+import com.robspecs.videoprocessor.utils.KeyframeSchedule;
+import com.robspecs.videoprocessor.utils.RenditionAlignmentVerifier;
+import com.robspecs.videoprocessor.utils.TranscodeProgressTracker;
+import com.robspecs.videoprocessor.utils.TrickPlaySpriteWriter;
+
+import jakarta.annotation.PostConstruct;
 
 @Service
 public class FFmpegService {
@@ -40,6 +52,46 @@ public class FFmpegService {
     @Value("${ffmpeg.executable.path:#{null}}")
     private String ffmpegExecutablePath;
 
+    // Keyframe interval shared by all rungs, so every segment boundary is a keyframe in every rendition
+    @Value("${hls.keyframe-interval-seconds:2}")
+    private int keyframeIntervalSeconds;
+
+    // Default segment duration; rungs can override it via hls.segment-seconds-by-rung (e.g. "240p:6,1080p:4")
+    @Value("${hls.segment-seconds:4}")
+    private int defaultSegmentSeconds;
+
+    @Value("${hls.segment-seconds-by-rung:}")
+    private String segmentSecondsByRung;
+
+    @Value("${hls.iframe-playlists.enabled:true}")
+    private boolean iFramePlaylistsEnabled;
+
+    // Fail the job instead of shipping renditions whose segment boundaries drift apart
+    @Value("${hls.alignment-check.enabled:true}")
+    private boolean alignmentCheckEnabled;
+
+    private final Map<String, Integer> segmentSecondsOverrides = new HashMap<>();
+
+    // Minimum time between two progress reports from the encode loop
+    @Value("${transcode.progress.interval-ms:2000}")
+    private long progressIntervalMillis;
+
+    // Trick-play (seek preview) sprite settings
+    @Value("${trickplay.enabled:true}")
+    private boolean trickPlayEnabled;
+
+    @Value("${trickplay.interval-seconds:5}")
+    private int trickPlayIntervalSeconds;
+
+    @Value("${trickplay.tile-width:160}")
+    private int trickPlayTileWidth;
+
+    @Value("${trickplay.grid-columns:10}")
+    private int trickPlayGridColumns;
+
+    @Value("${trickplay.grid-rows:10}")
+    private int trickPlayGridRows;
+
     public FFmpegService(FileStorageService fileStorageService) {
         this.fileStorageService = fileStorageService;
     }
@@ -87,6 +139,44 @@ public class FFmpegService {
     );
     // --- END NEW: Resolution Profile Definition ---
 
+    // BlurHash placeholder settings: 4x3 components sampled from a 32x18 (16:9) image
+    private static final int BLURHASH_COMPONENTS_X = 4;
+    private static final int BLURHASH_COMPONENTS_Y = 3;
+    private static final int BLURHASH_SAMPLE_WIDTH = 32;
+    private static final int BLURHASH_SAMPLE_HEIGHT = 18;
+
+    @PostConstruct
+    void parseSegmentSettings() {
+        if (keyframeIntervalSeconds <= 0) {
+            throw new IllegalStateException("hls.keyframe-interval-seconds must be positive.");
+        }
+        if (segmentSecondsByRung == null || segmentSecondsByRung.isBlank()) {
+            return;
+        }
+        for (String entry : segmentSecondsByRung.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalStateException("Invalid hls.segment-seconds-by-rung entry: " + entry);
+            }
+            segmentSecondsOverrides.put(parts[0].trim(), Integer.parseInt(parts[1].trim()));
+        }
+        logger.info("HLS segment duration overrides per rung: {}", segmentSecondsOverrides);
+    }
+
+    /**
+     * Segment duration for a rung, rounded up to a whole number of keyframe intervals.
+     * Segments can only be cut on keyframes, so any other value would drift.
+     */
+    private int segmentSecondsFor(ResolutionProfile profile) {
+        int requested = segmentSecondsOverrides.getOrDefault(profile.getName(), defaultSegmentSeconds);
+        int aligned = Math.max(1, (requested + keyframeIntervalSeconds - 1) / keyframeIntervalSeconds) * keyframeIntervalSeconds;
+        if (aligned != requested) {
+            logger.warn("Segment duration {}s for {} is not a multiple of the {}s keyframe interval; using {}s.",
+                    requested, profile.getName(), keyframeIntervalSeconds, aligned);
+        }
+        return aligned;
+    }
+
     public VideoMetadata getMediaInfo(Path videoPath) {
         // ... (unchanged) ...
         File videoFile = videoPath.toFile();
@@ -142,10 +232,19 @@ public class FFmpegService {
      * @param originalVideoPath The absolute Path to the original video file.
      * @param videoId           The ID of the video being processed.
      * @param userId            The ID of the user for creating a unique output directory.
-     * @return The relative path to the master HLS playlist (e.g., "1/videos/processed/7/hls/master.m3u8").
+     * During the first resolution pass, frames are also sampled into trick-play sprite sheets
+     * with a WebVTT index under "processed/{videoId}/trickplay/". Failures there are logged and
+     * do not fail the transcode.
+     *
+     * @param progressListener  Receives rate-limited progress (per rendition frames, fps, ETA) from the
+     *                          encode loop, on the encoding thread; it must return quickly.
+     *
+     * @return The relative paths of the master HLS playlist (e.g., "1/videos/processed/7/hls/master.m3u8")
+     *         and of the trick-play VTT index (null if none was produced).
      * @throws VideoProcessingException if an error occurs during transcoding.
      */
-    public String transcodeToHLS(Path originalVideoPath, Long videoId, Long userId) {
+    public HlsTranscodeResult transcodeToHLS(Path originalVideoPath, Long videoId, Long userId,
+            Consumer<TranscodeProgress> progressListener) {
         File source = originalVideoPath.toFile();
 
         if (!source.exists() || !source.canRead()) {
@@ -166,6 +265,7 @@ public class FFmpegService {
         List<String> individualPlaylistPaths = new ArrayList<>();
         // Map to store HLS_STREAM_INF lines for the master playlist
         Map<ResolutionProfile, String> streamInfoLines = new LinkedHashMap<>(); // Use LinkedHashMap to preserve order
+        String trickPlayVttRelativePath = null;
 
         if (ffmpegExecutablePath != null && !ffmpegExecutablePath.isEmpty()) {
             logger.debug(
@@ -185,6 +285,12 @@ public class FFmpegService {
             double originalFrameRate = grabber.getFrameRate();
             int originalSampleRate = grabber.getSampleRate();
             int originalAudioChannels = grabber.getAudioChannels();
+            double outputFrameRate = originalFrameRate > 0 ? originalFrameRate : 24; // Use original, default to 24 if invalid
+
+            // One keyframe schedule for the whole ladder, so every rung cuts its segments at the same frames
+            KeyframeSchedule keyframeSchedule = new KeyframeSchedule(outputFrameRate, keyframeIntervalSeconds);
+            Map<String, Path> encodedPlaylists = new LinkedHashMap<>();
+            Map<String, Integer> encodedSegmentSeconds = new HashMap<>();
 
             // Validate original stream properties
             if (originalWidth <= 0 || originalHeight <= 0 || originalFrameRate <= 0 || originalSampleRate <= 0 || originalAudioChannels <= 0) {
@@ -202,8 +308,20 @@ public class FFmpegService {
                 throw new VideoProcessingException("No applicable HLS resolutions could be generated for video " + videoId + " with original dimensions " + originalWidth + "x" + originalHeight);
             }
 
+            TranscodeProgressTracker progressTracker = new TranscodeProgressTracker(
+                    applicableResolutions.stream().map(ResolutionProfile::getName).toArray(String[]::new),
+                    applicableResolutions.stream().mapToLong(p -> (long) p.getWidth() * p.getHeight()).toArray(),
+                    estimateFrameCount(grabber, outputFrameRate), progressIntervalMillis);
+            int renditionIndex = -1;
+
             for (ResolutionProfile profile : applicableResolutions) {
+                renditionIndex++;
                 FFmpegFrameRecorder recorder = null;
+                // Sprites are sampled from the first pass only; later passes decode the same frames again
+                TrickPlaySpriteWriter spriteWriter = (trickPlayEnabled && individualPlaylistPaths.isEmpty() && trickPlayVttRelativePath == null)
+                        ? createTrickPlayWriter(processedUserVideoDir, originalWidth, originalHeight, videoId)
+                        : null;
+                Java2DFrameConverter spriteConverter = spriteWriter != null ? new Java2DFrameConverter() : null;
                 try {
                     String outputFileName = profile.getName() + ".m3u8";
                     Path targetPlaylistPath = hlsOutputBaseDir.resolve(outputFileName);
@@ -215,8 +333,12 @@ public class FFmpegService {
                     recorder.setFormat("hls");
                     recorder.setVideoCodec(avcodec.AV_CODEC_ID_H264);
                     recorder.setVideoBitrate(profile.getVideoBitrate());
-                    recorder.setFrameRate(originalFrameRate > 0 ? originalFrameRate : 24); // Use original, default to 24 if invalid
-                    recorder.setGopSize((int) (recorder.getFrameRate() * 2)); // Typically 2x frame rate for 2-second segments
+                    recorder.setFrameRate(outputFrameRate);
+                    // A fixed, closed GOP from the shared schedule puts keyframes on the same frames in every rung.
+                    // gop_size is the IDR period for libopenh264 too; scene cuts can only be disabled for x264
+                    int gopFrames = keyframeSchedule.getGopFrames();
+                    recorder.setGopSize(gopFrames);
+                    recorder.setVideoOption("x264-params", String.format("keyint=%d:min-keyint=%d:scenecut=0", gopFrames, gopFrames));
                     recorder.setPixelFormat(avutil.AV_PIX_FMT_YUV420P);
 
                     // Set H.264 profile and level
@@ -228,7 +350,8 @@ public class FFmpegService {
                     recorder.setSampleRate(originalSampleRate > 0 ? originalSampleRate : 48000); // Use original, default to 48kHz
                     recorder.setAudioChannels(originalAudioChannels > 0 ? originalAudioChannels : 2); // Use original, default to stereo
 
-                    recorder.setOption("hls_time", "10"); // Segment duration in seconds
+                    int segmentSeconds = segmentSecondsFor(profile);
+                    recorder.setOption("hls_time", String.valueOf(segmentSeconds)); // Segment duration in seconds
                     recorder.setOption("hls_playlist_type", "vod"); // VOD (Video On Demand)
 
                     recorder.start();
@@ -240,16 +363,45 @@ public class FFmpegService {
                     // multiple recorders or more advanced FFmpeg command line arguments.
                     grabber.restart(); // Restart grabber for a fresh read for this resolution
 
+                    progressTracker.startRendition(renditionIndex, System.nanoTime());
+                    reportProgress(progressListener, progressTracker.report(System.nanoTime()), videoId);
+
                     Frame frame;
                     long resolutionFrameCount = 0;
                     while ((frame = grabber.grab()) != null) {
+                        if (spriteWriter != null && frame.image != null && spriteWriter.isDue(frame.timestamp)) {
+                            try {
+                                spriteWriter.addFrame(spriteConverter.getBufferedImage(frame), frame.timestamp);
+                            } catch (IOException | RuntimeException e) {
+                                logger.warn("Trick-play sprite generation failed for video {}: {}. Continuing without previews.", videoId, e.getMessage());
+                                spriteWriter = null;
+                            }
+                        }
                         recorder.record(frame);
                         resolutionFrameCount++;
+                        if (frame.image != null && progressTracker.frameEncoded(System.nanoTime())) {
+                            reportProgress(progressListener, progressTracker.report(System.nanoTime()), videoId);
+                        }
                     }
                     logger.info("HLS transcoding completed for video {} at resolution {}. Total frames: {}", videoId, profile.getName(), resolutionFrameCount);
+                    reportProgress(progressListener, progressTracker.report(System.nanoTime()), videoId);
+
+                    if (spriteWriter != null) {
+                        try {
+                            Path vttPath = spriteWriter.finish();
+                            if (vttPath != null) {
+                                trickPlayVttRelativePath = fileStorageService.getRelativePath(vttPath);
+                                logger.info("Trick-play sprites and VTT index written for video {}: {}", videoId, trickPlayVttRelativePath);
+                            }
+                        } catch (IOException e) {
+                            logger.warn("Failed to finish trick-play sprites for video {}: {}", videoId, e.getMessage());
+                        }
+                    }
 
                     // Add this individual playlist to the list for master playlist generation
                     individualPlaylistPaths.add(outputFileName);
+                    encodedPlaylists.put(profile.getName(), targetPlaylistPath);
+                    encodedSegmentSeconds.put(profile.getName(), segmentSeconds);
                     // Add stream info for the master playlist
                     // CODECS string: video_codec (avc1) + profile.level, audio_codec (mp4a.40.2 for AAC LC)
                     String codecs = String.format("avc1.%02x%02x%02x,mp4a.40.2",
@@ -292,22 +444,43 @@ public class FFmpegService {
                 throw new VideoProcessingException("No HLS resolution playlists were successfully generated for video " + videoId);
             }
 
+            if (alignmentCheckEnabled) {
+                List<String> alignmentProblems = RenditionAlignmentVerifier.verify(encodedPlaylists, encodedSegmentSeconds, keyframeSchedule);
+                if (!alignmentProblems.isEmpty()) {
+                    logger.error("HLS renditions of video {} are not keyframe-aligned: {}", videoId, alignmentProblems);
+                    throw new VideoProcessingException("HLS renditions are not keyframe-aligned for video " + videoId + ": "
+                            + alignmentProblems.subList(0, Math.min(5, alignmentProblems.size())));
+                }
+                logger.info("Segment boundaries of {} renditions verified as aligned for video {}.", encodedPlaylists.size(), videoId);
+            }
+
             // Generate the master playlist
             StringBuilder masterPlaylistContent = new StringBuilder();
             masterPlaylistContent.append("#EXTM3U\n");
-            masterPlaylistContent.append("#EXT-X-VERSION:3\n"); // HLS protocol version
+            masterPlaylistContent.append("#EXT-X-VERSION:4\n"); // HLS protocol version (4 for I-frame playlists)
 
             // Add stream info for each successfully transcoded resolution
             for (Map.Entry<ResolutionProfile, String> entry : streamInfoLines.entrySet()) {
                 masterPlaylistContent.append(entry.getValue()).append("\n");
             }
+            // Media playlists are only complete once their recorder is stopped, so I-frame playlists come last
+            if (iFramePlaylistsEnabled) {
+                for (ResolutionProfile profile : streamInfoLines.keySet()) {
+                    String iFrameLine = writeIFramePlaylist(hlsOutputBaseDir, profile, videoId);
+                    if (iFrameLine != null) {
+                        masterPlaylistContent.append(iFrameLine).append("\n");
+                    }
+                }
+            }
 
             Path masterPlaylistPath = hlsOutputBaseDir.resolve("master.m3u8");
             Files.writeString(masterPlaylistPath, masterPlaylistContent.toString());
 
             logger.info("Master HLS playlist created for video {}: {}", videoId, masterPlaylistPath.toAbsolutePath());
-            return fileStorageService.getRelativePath(masterPlaylistPath);
+            return new HlsTranscodeResult(fileStorageService.getRelativePath(masterPlaylistPath), trickPlayVttRelativePath);
 
+        } catch (VideoProcessingException e) {
+            throw e;
         } catch (FrameGrabber.Exception e) {
             logger.error("Error starting grabber for video {}: {}", videoId, e.getMessage(), e);
             throw new VideoProcessingException("Failed to initiate grabber for video " + videoId, e);
@@ -330,6 +503,69 @@ public class FFmpegService {
         }
     }
 
+    /**
+     * Video frames per rendition pass: the container's count if it has one, else duration x frame rate.
+     */
+    private static long estimateFrameCount(FFmpegFrameGrabber grabber, double frameRate) {
+        long frames = grabber.getLengthInFrames();
+        if (frames > 0) {
+            return frames;
+        }
+        return Math.max(1, Math.round(grabber.getLengthInTime() / 1_000_000.0 * frameRate));
+    }
+
+    private static void reportProgress(Consumer<TranscodeProgress> listener, TranscodeProgress progress, Long videoId) {
+        logger.debug("Transcode progress for video {}: {} {}/{} frames at {} fps, {}% done, ETA {}s", videoId,
+                progress.getRendition(), progress.getFramesDone(), progress.getFramesTotal(),
+                String.format("%.1f", progress.getFps()), progress.getPercent(), progress.getEtaSeconds());
+        try {
+            listener.accept(progress);
+        } catch (RuntimeException e) {
+            // Progress is informational; it must never fail a transcode
+            logger.warn("Progress listener failed for video {}: {}", videoId, e.getMessage());
+        }
+    }
+
+    /**
+     * Writes "{rung}_iframes.m3u8" next to the rung's media playlist.
+     *
+     * @return The EXT-X-I-FRAME-STREAM-INF line for the master playlist, or null if it could not be generated.
+     */
+    private String writeIFramePlaylist(Path hlsOutputBaseDir, ResolutionProfile profile, Long videoId) {
+        String iFramePlaylistName = profile.getName() + "_iframes.m3u8";
+        Path mediaPlaylistPath = hlsOutputBaseDir.resolve(profile.getName() + ".m3u8");
+        try {
+            IFramePlaylistWriter.Result result = IFramePlaylistWriter.write(mediaPlaylistPath, hlsOutputBaseDir.resolve(iFramePlaylistName));
+            if (result == null) {
+                logger.warn("No keyframes found for I-frame playlist of video {} at {}.", videoId, profile.getName());
+                return null;
+            }
+            logger.info("I-frame playlist {} written for video {} ({} keyframes).", iFramePlaylistName, videoId, result.getKeyFrameCount());
+            return String.format("#EXT-X-I-FRAME-STREAM-INF:BANDWIDTH=%d,RESOLUTION=%dx%d,CODECS=\"%s\",URI=\"%s\"",
+                    result.getPeakBandwidth(), profile.getWidth(), profile.getHeight(), "avc1.42E01E", iFramePlaylistName);
+        } catch (IOException | RuntimeException e) {
+            // I-frame playlists only speed up seeking; playback works without them
+            logger.warn("Failed to write I-frame playlist for video {} at {}: {}", videoId, profile.getName(), e.getMessage());
+            return null;
+        }
+    }
+
+    private TrickPlaySpriteWriter createTrickPlayWriter(Path processedUserVideoDir, int sourceWidth, int sourceHeight, Long videoId) {
+        try {
+            Path trickPlayDir = processedUserVideoDir.resolve("trickplay");
+            Files.createDirectories(trickPlayDir);
+            // Keep the source aspect ratio for the tiles; fall back to 16:9 if it is unknown
+            int tileHeight = (sourceWidth > 0 && sourceHeight > 0)
+                    ? Math.max(2, (int) Math.round((double) trickPlayTileWidth * sourceHeight / sourceWidth) & ~1)
+                    : trickPlayTileWidth * 9 / 16;
+            return new TrickPlaySpriteWriter(trickPlayDir, trickPlayIntervalSeconds * 1000L, trickPlayTileWidth, tileHeight,
+                    trickPlayGridColumns, trickPlayGridRows);
+        } catch (IOException | IllegalArgumentException e) {
+            logger.warn("Could not set up trick-play sprites for video {}: {}", videoId, e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * Generates a thumbnail (JPEG byte array) from a video at a specific timestamp.
      *
@@ -400,4 +636,56 @@ public class FFmpegService {
             }
         }
     }
+
+    /**
+     * Rescales an encoded image (e.g. the master thumbnail) to the given size and re-encodes it as JPEG.
+     *
+     * @param imageBytes The encoded source image.
+     * @param width Target width.
+     * @param height Target height.
+     * @return JPEG bytes of the scaled image.
+     * @throws VideoProcessingException if the image cannot be decoded or encoded.
+     */
+    public byte[] scaleImage(byte[] imageBytes, int width, int height) {
+        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+            java.awt.image.BufferedImage source = ImageIO.read(new java.io.ByteArrayInputStream(imageBytes));
+            if (source == null) {
+                throw new VideoProcessingException("Image bytes could not be decoded for scaling.");
+            }
+            java.awt.image.BufferedImage scaled = new java.awt.image.BufferedImage(width, height, java.awt.image.BufferedImage.TYPE_INT_RGB);
+            java.awt.Graphics2D g2d = scaled.createGraphics();
+            g2d.setRenderingHint(java.awt.RenderingHints.KEY_INTERPOLATION, java.awt.RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            g2d.drawImage(source, 0, 0, width, height, null);
+            g2d.dispose();
+            ImageIO.write(scaled, "jpeg", baos);
+            return baos.toByteArray();
+        } catch (IOException e) {
+            throw new VideoProcessingException("Failed to scale image to " + width + "x" + height, e);
+        }
+    }
+
+    /**
+     * Computes a BlurHash placeholder from an already generated thumbnail. The image is
+     * first shrunk to a tiny size because BlurHash only keeps low-frequency components.
+     *
+     * @param thumbnailBytes JPEG bytes as returned by {@link #generateThumbnail}.
+     * @return The BlurHash string (roughly 20-30 characters).
+     * @throws VideoProcessingException if the thumbnail cannot be decoded.
+     */
+    public String generateBlurHash(byte[] thumbnailBytes) {
+        try {
+            java.awt.image.BufferedImage source = ImageIO.read(new java.io.ByteArrayInputStream(thumbnailBytes));
+            if (source == null) {
+                throw new VideoProcessingException("Thumbnail bytes could not be decoded for BlurHash generation.");
+            }
+            java.awt.image.BufferedImage small = new java.awt.image.BufferedImage(BLURHASH_SAMPLE_WIDTH, BLURHASH_SAMPLE_HEIGHT, java.awt.image.BufferedImage.TYPE_INT_RGB);
+            java.awt.Graphics2D g2d = small.createGraphics();
+            g2d.setRenderingHint(java.awt.RenderingHints.KEY_INTERPOLATION, java.awt.RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g2d.drawImage(source, 0, 0, BLURHASH_SAMPLE_WIDTH, BLURHASH_SAMPLE_HEIGHT, null);
+            g2d.dispose();
+            return BlurHashEncoder.encode(small, BLURHASH_COMPONENTS_X, BLURHASH_COMPONENTS_Y);
+        } catch (IOException e) {
+            throw new VideoProcessingException("Failed to generate BlurHash placeholder.", e);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,58 @@
+package com.robspecs.videoprocessor.service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import com.robspecs.events.ProcessingLane;
+
+/**
+ * Runs upload jobs on their lane's executor. Intake is bounded by the listener
+ * containers, not here: jobs are acknowledged only once their outcome is recorded, and
+ * with async acks a consumer does not get its next record before every record from its
+ * previous poll (one, see KafkaConsumerConfig) is acknowledged. Each lane's listener therefore runs
+ * one consumer per worker, so a lane holds at most as many jobs as it has workers, and
+ * nothing waits in a local queue where it would be lost on a crash or hidden from
+ * instances with idle workers. A consumer waiting for its ack keeps polling, so the
+ * group membership stays alive. Lanes never wait for each other.
+ */
+@Service
+public class ProcessingFlowControl {
+
+	private static final Logger logger = LoggerFactory.getLogger(ProcessingFlowControl.class);
+
+	public static final String SMALL_LISTENER_ID = "videoUploadListener-small";
+	public static final String MEDIUM_LISTENER_ID = "videoUploadListener-medium";
+	public static final String LARGE_LISTENER_ID = "videoUploadListener-large";
+
+	private final Map<ProcessingLane, Executor> executors = new EnumMap<>(ProcessingLane.class);
+
+	public ProcessingFlowControl(@Qualifier("smallVideoProcessingExecutor") Executor smallExecutor,
+			@Qualifier("mediumVideoProcessingExecutor") Executor mediumExecutor,
+			@Qualifier("videoProcessingExecutor") Executor largeExecutor) {
+		executors.put(ProcessingLane.SMALL, smallExecutor);
+		executors.put(ProcessingLane.MEDIUM, mediumExecutor);
+		executors.put(ProcessingLane.LARGE, largeExecutor);
+		executors.forEach((lane, executor) -> logger.info("Processing lane {}: {} workers", lane, workers(executor)));
+	}
+
+	/**
+	 * Runs a job on the lane's executor. Called from the lane's listener.
+	 *
+	 * @throws TaskRejectedException if the executor is shut down or full; the job did not run.
+	 */
+	public void submit(ProcessingLane lane, Runnable job) {
+		executors.get(lane).execute(job);
+	}
+
+	private static int workers(Executor executor) {
+		return executor instanceof ThreadPoolTaskExecutor pool ? pool.getMaxPoolSize() : 1;
+	}
+}
@@ -0,0 +1,53 @@
+package com.robspecs.videoprocessor.service;
+
+import java.lang.management.ManagementFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.robspecs.events.ProcessorBacklogEvent;
+import com.robspecs.videoprocessor.config.KafkaProducerConfig;
+
+/**
+ * Publishes this instance's backlog on a fixed rate so the streaming service can defer
+ * uploads while processing is saturated. Sent even when idle: a missing heartbeat is
+ * how the streaming side notices an instance has gone away.
+ */
+@Service
+public class ProcessorBacklogPublisher {
+
+	private static final Logger logger = LoggerFactory.getLogger(ProcessorBacklogPublisher.class);
+
+	private final KafkaTemplate<String, ProcessorBacklogEvent> backlogEventKafkaTemplate;
+	private final TranscodeThroughputMonitor throughputMonitor;
+	// "pid@hostname": unique per running instance, also across restarts on the same host
+	private final String instanceId = ManagementFactory.getRuntimeMXBean().getName();
+
+	public ProcessorBacklogPublisher(
+			@Qualifier("backlogEventKafkaTemplate") KafkaTemplate<String, ProcessorBacklogEvent> backlogEventKafkaTemplate,
+			TranscodeThroughputMonitor throughputMonitor) {
+		this.backlogEventKafkaTemplate = backlogEventKafkaTemplate;
+		this.throughputMonitor = throughputMonitor;
+	}
+
+	@Scheduled(fixedRateString = "${processor.backlog.heartbeat-ms:5000}")
+	public void publishBacklog() {
+		ProcessorBacklogEvent event = new ProcessorBacklogEvent(instanceId, throughputMonitor.queuedJobs(),
+				throughputMonitor.runningJobs(), throughputMonitor.queueCapacity(),
+				throughputMonitor.estimateDrainSeconds(), System.currentTimeMillis());
+		try {
+			backlogEventKafkaTemplate.send(KafkaProducerConfig.PROCESSOR_BACKLOG_TOPIC, instanceId, event)
+					.whenComplete((result, ex) -> {
+						if (ex != null) {
+							logger.debug("Failed to publish processor backlog: {}", ex.getMessage());
+						}
+					});
+		} catch (RuntimeException e) {
+			logger.debug("Failed to publish processor backlog: {}", e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,121 @@
+package com.robspecs.videoprocessor.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import com.robspecs.videoprocessor.dto.TranscodeProgress;
+
+/**
+ * Live view of transcode throughput on this instance: the latest progress of every
+ * running transcode plus a moving average of finished transcode durations. Together
+ * with the queue depth of the processing executors (one per lane) this gives an
+ * estimate of how long the current backlog takes to drain.
+ */
+@Service
+public class TranscodeThroughputMonitor {
+
+	private static final Logger logger = LoggerFactory.getLogger(TranscodeThroughputMonitor.class);
+
+	private static final double SMOOTHING = 0.2; // weight of the newest finished transcode
+
+	private final Map<Long, TranscodeProgress> active = new ConcurrentHashMap<>();
+	private final List<ThreadPoolTaskExecutor> lanePools; // only the executors that are pools we can inspect
+	private volatile double averageTranscodeSeconds = 0;
+
+	public TranscodeThroughputMonitor(@Qualifier("smallVideoProcessingExecutor") Executor smallExecutor,
+			@Qualifier("mediumVideoProcessingExecutor") Executor mediumExecutor,
+			@Qualifier("videoProcessingExecutor") Executor largeExecutor) {
+		this.lanePools = Stream.of(smallExecutor, mediumExecutor, largeExecutor)
+				.filter(ThreadPoolTaskExecutor.class::isInstance).map(ThreadPoolTaskExecutor.class::cast).toList();
+	}
+
+	public void update(Long videoId, TranscodeProgress progress) {
+		active.put(videoId, progress);
+	}
+
+	public void finish(Long videoId, long elapsedMillis) {
+		active.remove(videoId);
+		double seconds = elapsedMillis / 1000.0;
+		synchronized (this) {
+			averageTranscodeSeconds = averageTranscodeSeconds == 0 ? seconds
+					: SMOOTHING * seconds + (1 - SMOOTHING) * averageTranscodeSeconds;
+		}
+	}
+
+	/**
+	 * Sum of the current encode rates of all running transcodes, in frames per second.
+	 */
+	public double currentFps() {
+		return active.values().stream().mapToDouble(TranscodeProgress::getFps).sum();
+	}
+
+	/**
+	 * Seconds until running and queued jobs are done: remaining time of running
+	 * transcodes plus queued jobs at the average transcode duration, spread over the
+	 * threads of all lanes. -1 if there is not enough data yet.
+	 */
+	public long estimateDrainSeconds() {
+		int queued = queuedJobs();
+		int workers = Math.max(1, sum(ThreadPoolTaskExecutor::getMaxPoolSize));
+		double remaining = 0;
+		for (TranscodeProgress progress : active.values()) {
+			if (progress.getEtaSeconds() < 0) {
+				return -1;
+			}
+			remaining += progress.getEtaSeconds();
+		}
+		if (queued > 0) {
+			if (averageTranscodeSeconds == 0) {
+				return -1;
+			}
+			remaining += queued * averageTranscodeSeconds;
+		}
+		return Math.round(remaining / Math.min(workers, Math.max(1, active.size() + queued)));
+	}
+
+	/**
+	 * Jobs accepted from Kafka but still waiting for a processing thread.
+	 */
+	public int queuedJobs() {
+		return sum(ThreadPoolTaskExecutor::getQueueSize);
+	}
+
+	/**
+	 * Jobs currently being processed.
+	 */
+	public int runningJobs() {
+		return lanePools.isEmpty() ? active.size() : sum(ThreadPoolTaskExecutor::getActiveCount);
+	}
+
+	/**
+	 * Combined capacity of the executors' queues, or -1 if unknown.
+	 */
+	public int queueCapacity() {
+		return lanePools.isEmpty() ? -1 : sum(ThreadPoolTaskExecutor::getQueueCapacity);
+	}
+
+	private int sum(ToIntFunction<ThreadPoolTaskExecutor> metric) {
+		return lanePools.stream().mapToInt(metric).sum();
+	}
+
+	@Scheduled(fixedDelayString = "${transcode.throughput.log-interval-ms:60000}")
+	public void logThroughput() {
+		int queued = queuedJobs();
+		if (active.isEmpty() && queued == 0) {
+			return;
+		}
+		logger.info("Transcode throughput: {} running at {} fps total, {} queued, estimated drain {}s", active.size(),
+				String.format("%.1f", currentFps()), queued, estimateDrainSeconds());
+	}
+}
@@ -2,26 +2,28 @@
 
 package com.robspecs.videoprocessor.service;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.Executor; // Import Executor
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import org.springframework.scheduling.annotation.Async; // Import @Async
 
+import com.robspecs.events.MediaInfo;
+import com.robspecs.events.ProcessingLane;
+import com.robspecs.events.VideoProcessingRequest;
 import com.robspecs.streaming.entities.Video;
 import com.robspecs.streaming.enums.VideoStatus;
 import com.robspecs.streaming.repository.VideosRepository;
+import com.robspecs.videoprocessor.dto.HlsTranscodeResult;
 import com.robspecs.videoprocessor.dto.VideoMetadata;
-import com.robspecs.videoprocessor.dto.VideoProcessingRequest;
 import com.robspecs.videoprocessor.exception.VideoProcessingException;
 
 @Service
@@ -33,42 +35,106 @@ public class VideoProcessorService {
     private final FileStorageService fileStorageService;
     private final FFmpegService ffmpegService;
     private final EmailService emailService;
-    private final Executor videoProcessingExecutor; // Inject the Executor
+    private final VideoStatusPublisher videoStatusPublisher;
+    private final VideoProgressPublisher videoProgressPublisher;
+    private final TranscodeThroughputMonitor transcodeThroughputMonitor;
+    private final ProcessingFlowControl processingFlowControl;
     
+    private static final int THUMBNAIL_MASTER_MAX_WIDTH = 1280;
+    private static final long RETRY_INITIAL_BACKOFF_MILLIS = 5_000;
+    private static final long RETRY_MAX_BACKOFF_MILLIS = 5 * 60_000;
+
     // private static final long SMALL_VIDEO_SIZE_BYTES = 10 * 1024 * 1024; // 10 MB
     // private static final long MEDIUM_VIDEO_SIZE_BYTES = 50 * 1024 * 1024; // 50 MB
 
 
     public VideoProcessorService(VideosRepository videoRepository, FileStorageService fileStorageService,
                                  FFmpegService ffmpegService, EmailService emailService,
-                                 Executor videoProcessingExecutor) { // Add Executor to constructor
+                                 VideoStatusPublisher videoStatusPublisher,
+                                 VideoProgressPublisher videoProgressPublisher,
+                                 TranscodeThroughputMonitor transcodeThroughputMonitor,
+                                 ProcessingFlowControl processingFlowControl) {
         this.videoRepository = videoRepository;
         this.fileStorageService = fileStorageService;
         this.ffmpegService = ffmpegService;
         this.emailService = emailService;
-        this.videoProcessingExecutor = videoProcessingExecutor; // Assign it
+        this.videoStatusPublisher = videoStatusPublisher;
+        this.videoProgressPublisher = videoProgressPublisher;
+        this.transcodeThroughputMonitor = transcodeThroughputMonitor;
+        this.processingFlowControl = processingFlowControl;
     }
 
     /**
-     * Kafka listener method to consume video processing requests. This method should
-     * quickly submit the task to a thread pool.
+     * Kafka listeners, one per processing lane, consuming video processing requests. Each
+     * lane has its own topic and executor, so a long transcode never delays a short one.
+     * These methods should quickly submit the task to the lane's thread pool. Every lane
+     * runs one consumer per worker (see ProcessingFlowControl), so its workers can only be
+     * used in parallel if its topic has at least that many partitions.
      */
-    @KafkaListener(topics = "video-upload-events", groupId = "video-processor-group", containerFactory = "kafkaListenerContainerFactory")
-    public void receiveVideoProcessingRequest(VideoProcessingRequest request) {
-        logger.info("Kafka Listener: Received video processing request for videoId: {}. Submitting to thread pool.", request.getVideoId());
-        // Submit the actual processing to the dedicated executor
-        videoProcessingExecutor.execute(() -> processVideoAsync(request));
+    @KafkaListener(id = ProcessingFlowControl.SMALL_LISTENER_ID, topics = "video-upload-events-small", groupId = "video-processor-group", containerFactory = "kafkaListenerContainerFactory", concurrency = "#{@smallVideoProcessingExecutor.maxPoolSize}")
+    public void receiveSmallVideoProcessingRequest(VideoProcessingRequest request, Acknowledgment ack) {
+        submit(ProcessingLane.SMALL, request, ack);
+    }
+
+    @KafkaListener(id = ProcessingFlowControl.MEDIUM_LISTENER_ID, topics = "video-upload-events-medium", groupId = "video-processor-group", containerFactory = "kafkaListenerContainerFactory", concurrency = "#{@mediumVideoProcessingExecutor.maxPoolSize}")
+    public void receiveMediumVideoProcessingRequest(VideoProcessingRequest request, Acknowledgment ack) {
+        submit(ProcessingLane.MEDIUM, request, ack);
+    }
+
+    @KafkaListener(id = ProcessingFlowControl.LARGE_LISTENER_ID, topics = "video-upload-events", groupId = "video-processor-group", containerFactory = "kafkaListenerContainerFactory", concurrency = "#{@videoProcessingExecutor.maxPoolSize}")
+    public void receiveVideoProcessingRequest(VideoProcessingRequest request, Acknowledgment ack) {
+        submit(ProcessingLane.LARGE, request, ack);
+    }
+
+    private void submit(ProcessingLane lane, VideoProcessingRequest request, Acknowledgment ack) {
+        logger.info("Kafka Listener: Received video processing request for videoId: {} ({} lane). Submitting to thread pool.",
+                request.getVideoId(), lane);
+        // A rejected job is not acknowledged: the error handler retries the record.
+        // Otherwise the offset is committed only once processing is done, and until then
+        // this consumer gets no further records.
+        processingFlowControl.submit(lane, () -> processUntilRecorded(request, ack));
     }
 
     /**
-     * This method contains the actual long-running video processing logic.
-     * It runs asynchronously on the 'videoProcessingExecutor' thread pool.
-     * Note: @Transactional annotation should ideally be applied here if
-     * the entire async method needs to be transactional.
+     * Acknowledges the record only once processVideoAsync returns, i.e. the video is READY
+     * or recorded as FAILED. If it throws (database or Kafka unavailable), nothing was
+     * recorded, so the job is retried on this worker with a growing backoff and the record
+     * stays unacknowledged: a crash or rebalance in the meantime redelivers it. nack() is
+     * not an option here, it only works on the consumer thread and not with async acks.
      */
-    @Async("videoProcessingExecutor") // Specifies which executor to use
-    @Transactional(readOnly = false) // Apply @Transactional here for the entire async operation
-    public void processVideoAsync(VideoProcessingRequest request) {
+    private void processUntilRecorded(VideoProcessingRequest request, Acknowledgment ack) {
+        long backoffMillis = RETRY_INITIAL_BACKOFF_MILLIS;
+        while (true) {
+            try {
+                processVideoAsync(request);
+                ack.acknowledge();
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Async Processor: Processing of videoId {} did not complete and nothing was recorded; retrying in {} ms. Error: {}",
+                        request.getVideoId(), backoffMillis, e.getMessage(), e);
+            }
+            try {
+                Thread.sleep(backoffMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.warn("Async Processor: Interrupted while retrying videoId {}; left unacknowledged for redelivery.",
+                        request.getVideoId());
+                return;
+            }
+            backoffMillis = Math.min(backoffMillis * 2, RETRY_MAX_BACKOFF_MILLIS);
+        }
+    }
+
+    /**
+     * This method contains the actual long-running video processing logic. It runs on a
+     * lane executor thread, called directly from the job submitted by the listener; it
+     * must return only when processing is done, because the caller acknowledges the
+     * Kafka record right after. No @Async or @Transactional here for that reason: a
+     * proxied call could return early. Repository calls run in their own transactions.
+     * Returns normally only once the video is READY, recorded as FAILED, or needs no
+     * processing; any exception means nothing was recorded and the job must be retried.
+     */
+    private void processVideoAsync(VideoProcessingRequest request) {
         logger.info("Async Processor: Starting processing for videoId: {}", request.getVideoId());
 
         Optional<Video> videoOptional = videoRepository.findById(request.getVideoId());
@@ -104,6 +170,7 @@ public class VideoProcessorService {
         // so if an exception occurs before commit, it will be rolled back.
         video.setStatus(VideoStatus.PROCESSING);
         videoRepository.save(video);
+        videoStatusPublisher.publish(video, request.getUploadUserId());
         logger.info("Async Processor: Video {} status set to PROCESSING.", request.getVideoId());
 
         try {
@@ -113,8 +180,13 @@ public class VideoProcessorService {
 
             Files.createDirectories(processedVideoDirectory);
 
-            // 1. Get video metadata (duration) using FFmpegService
-            VideoMetadata mediaInfo = ffmpegService.getMediaInfo(originalVideoAbsolutePath);
+            // 1. Get video metadata (duration): probed at upload time when the container was parsed, else via FFmpegService
+            VideoMetadata mediaInfo = toVideoMetadata(request.getMediaInfo());
+            if (isComplete(mediaInfo)) {
+                logger.info("Async Processor: Using upload-time probe for video {}: {}", request.getVideoId(), mediaInfo);
+            } else {
+                mediaInfo = ffmpegService.getMediaInfo(originalVideoAbsolutePath);
+            }
             long durationMillis = 0;
             if (mediaInfo != null && mediaInfo.getDurationMillis() != null) {
                 durationMillis = mediaInfo.getDurationMillis();
@@ -122,45 +194,81 @@ public class VideoProcessorService {
             video.setDurationMillis(durationMillis);
             logger.info("Async Processor: Video {} duration set to {} ms.", request.getVideoId(), durationMillis);
 
+            Map<String, String> resolutionFilePaths = new HashMap<>();
+
+            videoProgressPublisher.publish(video.getVideoId(), request.getUploadUserId(), "THUMBNAIL", 2);
             try {
                 long captureTimestampMillis = (durationMillis > 0) ? Math.min(2000, durationMillis / 2) : 0;
                 int thumbnailWidth = 640;
                 int thumbnailHeight = 360;
 
-                byte[] thumbnailBytes = ffmpegService.generateThumbnail(
+                // Master frame kept on disk; the streaming service derives responsive sizes from it on demand
+                int sourceWidth = (mediaInfo != null && mediaInfo.getWidth() != null) ? mediaInfo.getWidth() : 0;
+                int masterWidth = Math.max(thumbnailWidth, Math.min(THUMBNAIL_MASTER_MAX_WIDTH, sourceWidth)) & ~1;
+                int masterHeight = (masterWidth * 9 / 16) & ~1;
+
+                byte[] masterBytes = ffmpegService.generateThumbnail(
                         originalVideoAbsolutePath,
                         captureTimestampMillis,
-                        thumbnailWidth,
-                        thumbnailHeight
+                        masterWidth,
+                        masterHeight
                 );
+                String masterRelativePath = fileStorageService.storeFile(new ByteArrayInputStream(masterBytes),
+                        "master.jpg", String.valueOf(request.getUploadUserId()), "videos", "processed",
+                        String.valueOf(video.getVideoId()), "thumbnails");
+                resolutionFilePaths.put("thumbnail_master", masterRelativePath);
+                logger.info("Async Processor: Master thumbnail ({}x{}) stored at {} for videoId: {}", masterWidth,
+                        masterHeight, masterRelativePath, video.getVideoId());
+
+                byte[] thumbnailBytes = ffmpegService.scaleImage(masterBytes, thumbnailWidth, thumbnailHeight);
                 video.setThumbnailData(thumbnailBytes);
                 logger.info("Async Processor: Thumbnail generated and set for videoId: {}", video.getVideoId());
+
+                // Tiny placeholder so catalog lists can paint before the thumbnail itself loads
+                video.setThumbnailBlurHash(ffmpegService.generateBlurHash(thumbnailBytes));
+                logger.info("Async Processor: BlurHash placeholder set for videoId: {}", video.getVideoId());
             } catch (VideoProcessingException e) {
                 logger.error("Async Processor: Failed to generate thumbnail for video {}: {}", request.getVideoId(), e.getMessage());
                 video.setThumbnailData(null);
+                video.setThumbnailBlurHash(null);
             } catch (Exception e) {
                 logger.error("Async Processor: An unexpected error occurred during thumbnail generation for video {}: {}", request.getVideoId(), e.getMessage(), e);
                 video.setThumbnailData(null);
+                video.setThumbnailBlurHash(null);
             }
 
             // 2. Transcode all files to HLS
-            Map<String, String> resolutionFilePaths = new HashMap<>();
             logger.info("Async Processor: Initiating multi-resolution HLS transcoding for video {} ({}MB) regardless of size.",
                     video.getVideoId(),
                     request.getFileSize() / (1024.0 * 1024.0));
 
-            String hlsMasterPlaylistRelativePath = ffmpegService.transcodeToHLS(
-                    originalVideoAbsolutePath,
-                    video.getVideoId(),
-                    request.getUploadUserId()
-            );
+            videoProgressPublisher.publish(video.getVideoId(), request.getUploadUserId(), "TRANSCODING", 5);
+            long transcodeStartMillis = System.currentTimeMillis();
+            HlsTranscodeResult transcodeResult;
+            try {
+                transcodeResult = ffmpegService.transcodeToHLS(
+                        originalVideoAbsolutePath,
+                        video.getVideoId(),
+                        request.getUploadUserId(),
+                        progress -> {
+                            transcodeThroughputMonitor.update(video.getVideoId(), progress);
+                            videoProgressPublisher.publishTranscode(video.getVideoId(), request.getUploadUserId(), progress);
+                        }
+                );
+            } finally {
+                transcodeThroughputMonitor.finish(video.getVideoId(), System.currentTimeMillis() - transcodeStartMillis);
+            }
 
-            resolutionFilePaths.put("hls_master", hlsMasterPlaylistRelativePath);
+            resolutionFilePaths.put("hls_master", transcodeResult.getMasterPlaylistPath());
+            if (transcodeResult.getTrickPlayVttPath() != null) {
+                resolutionFilePaths.put("trickplay_vtt", transcodeResult.getTrickPlayVttPath());
+            }
 
             // Set status to READY and save to DB immediately after successful HLS transcoding
             video.setStatus(VideoStatus.READY);
             video.setResolutionFilePaths(resolutionFilePaths);
             videoRepository.save(video);
+            videoStatusPublisher.publish(video, request.getUploadUserId());
             logger.info("Async Processor: Video {} processed successfully. Status: {}", video.getVideoId(), video.getStatus());
 
             String originalVideoName = video.getVideoName(); // Retrieve the name after successful processing
@@ -189,16 +297,45 @@ public class VideoProcessorService {
 
         } catch (VideoProcessingException e) {
             logger.error("Async Processor: Video processing failed for {}: {}", request.getVideoId(), e.getMessage(), e);
-            video.setStatus(VideoStatus.FAILED);
-            videoRepository.save(video);
-            emailService.sendProcessingFailureEmail(request.getUploadUserEmailOrUsername(), video.getVideoName(), e.getMessage()); // Use video.getVideoName() here
+            markFailed(video, request, e.getMessage());
         } catch (Exception e) {
             logger.error("Async Processor: An unexpected error occurred during video processing for {}: {}", request.getVideoId(),
                     e.getMessage(), e);
-            video.setStatus(VideoStatus.FAILED);
-            videoRepository.save(video);
-            emailService.sendProcessingFailureEmail(request.getUploadUserEmailOrUsername(), video.getVideoName(),
-                    "An unexpected error occurred: " + e.getMessage());
+            markFailed(video, request, "An unexpected error occurred: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Records the terminal FAILED state. If the save throws, the exception propagates and
+     * the job is retried; once it succeeded, notification failures are only logged, so
+     * they can't cause the video to be processed again.
+     */
+    private void markFailed(Video video, VideoProcessingRequest request, String reason) {
+        video.setStatus(VideoStatus.FAILED);
+        videoRepository.save(video);
+        try {
+            videoStatusPublisher.publish(video, request.getUploadUserId());
+        } catch (Exception e) {
+            logger.error("Async Processor: Failed to publish FAILED status for videoId {}: {}", video.getVideoId(), e.getMessage(), e);
+        }
+        try {
+            emailService.sendProcessingFailureEmail(request.getUploadUserEmailOrUsername(), video.getVideoName(), reason);
+        } catch (Exception e) {
+            logger.error("Async Processor: Failed to send failure email for videoId {}: {}", video.getVideoId(), e.getMessage(), e);
+        }
+    }
+
+    // Duration and frame size are what processing needs from the metadata
+    // The upload-time probe has no bitrate; the container is not needed here
+    private static VideoMetadata toVideoMetadata(MediaInfo probe) {
+        return probe == null ? null
+                : new VideoMetadata(probe.getDurationMillis(), probe.getWidth(), probe.getHeight(),
+                        probe.getVideoCodec(), probe.getAudioCodec(), null);
+    }
+
+    private static boolean isComplete(VideoMetadata mediaInfo) {
+        return mediaInfo != null && mediaInfo.getDurationMillis() != null && mediaInfo.getDurationMillis() > 0
+                && mediaInfo.getWidth() != null && mediaInfo.getWidth() > 0
+                && mediaInfo.getHeight() != null && mediaInfo.getHeight() > 0;
+    }
+}
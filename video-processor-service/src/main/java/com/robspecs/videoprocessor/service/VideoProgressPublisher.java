@@ -0,0 +1,70 @@
+package com.robspecs.videoprocessor.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import com.robspecs.events.VideoProgressEvent;
+import com.robspecs.videoprocessor.config.KafkaProducerConfig;
+import com.robspecs.videoprocessor.dto.TranscodeProgress;
+
+/**
+ * Fire-and-forget progress updates for users watching their uploads. Losing one is
+ * harmless (the next one or the final status event supersedes it), so failures are
+ * only logged and never affect processing.
+ */
+@Service
+public class VideoProgressPublisher {
+
+	private static final Logger logger = LoggerFactory.getLogger(VideoProgressPublisher.class);
+
+	private final KafkaTemplate<String, VideoProgressEvent> progressEventKafkaTemplate;
+
+	public VideoProgressPublisher(
+			@Qualifier("progressEventKafkaTemplate") KafkaTemplate<String, VideoProgressEvent> progressEventKafkaTemplate) {
+		this.progressEventKafkaTemplate = progressEventKafkaTemplate;
+	}
+
+	private static final String TRANSCODING_STAGE = "TRANSCODING";
+	// Share of the whole job's percent range covered by the transcode (steps before it report up to 5%)
+	private static final int TRANSCODE_START_PERCENT = 5;
+	private static final int TRANSCODE_END_PERCENT = 99;
+
+	public void publish(Long videoId, Long uploadUserId, String stage, int percent) {
+		send(new VideoProgressEvent(videoId, uploadUserId, stage, Math.max(0, Math.min(99, percent)),
+				System.currentTimeMillis()));
+	}
+
+	/**
+	 * Publishes a progress report from the encode loop, mapping transcode percent into
+	 * the job's range.
+	 */
+	public void publishTranscode(Long videoId, Long uploadUserId, TranscodeProgress progress) {
+		int percent = TRANSCODE_START_PERCENT
+				+ progress.getPercent() * (TRANSCODE_END_PERCENT - TRANSCODE_START_PERCENT) / 100;
+		VideoProgressEvent event = new VideoProgressEvent(videoId, uploadUserId, TRANSCODING_STAGE, percent,
+				System.currentTimeMillis());
+		event.setRendition(progress.getRendition());
+		event.setFramesDone(progress.getFramesDone());
+		event.setFramesTotal(progress.getFramesTotal());
+		event.setFps(Math.round(progress.getFps() * 10) / 10.0);
+		event.setEtaSeconds(progress.getEtaSeconds() >= 0 ? progress.getEtaSeconds() : null);
+		send(event);
+	}
+
+	private void send(VideoProgressEvent event) {
+		Long videoId = event.getVideoId();
+		try {
+			progressEventKafkaTemplate.send(KafkaProducerConfig.VIDEO_PROGRESS_TOPIC, videoId.toString(), event)
+					.whenComplete((result, ex) -> {
+						if (ex != null) {
+							logger.debug("Dropped progress update for videoId {}: {}", videoId, ex.getMessage());
+						}
+					});
+		} catch (RuntimeException e) {
+			logger.debug("Dropped progress update for videoId {}: {}", videoId, e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package com.robspecs.videoprocessor.service;
+
+import java.util.HashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.robspecs.events.VideoStatusChangedEvent;
+import com.robspecs.streaming.entities.Video;
+import com.robspecs.videoprocessor.config.KafkaProducerConfig;
+
+/**
+ * Publishes a {@link VideoStatusChangedEvent} after each status change. The streaming
+ * service keeps its read model and caches up to date from these events.
+ */
+@Service
+public class VideoStatusPublisher {
+
+	private static final Logger logger = LoggerFactory.getLogger(VideoStatusPublisher.class);
+
+	private final KafkaTemplate<String, VideoStatusChangedEvent> statusEventKafkaTemplate;
+
+	public VideoStatusPublisher(KafkaTemplate<String, VideoStatusChangedEvent> statusEventKafkaTemplate) {
+		this.statusEventKafkaTemplate = statusEventKafkaTemplate;
+	}
+
+	/**
+	 * Snapshots the video's current state and publishes it keyed by videoId. Deferred
+	 * until commit when called inside a transaction, so consumers never see a status
+	 * that was rolled back.
+	 */
+	public void publish(Video video, Long uploadUserId) {
+		VideoStatusChangedEvent event = new VideoStatusChangedEvent(video.getVideoId(), uploadUserId,
+				video.getStatus().name(), video.getDurationMillis(),
+				video.getResolutionFilePaths() != null ? new HashMap<>(video.getResolutionFilePaths()) : null,
+				video.getThumbnailBlurHash(), System.currentTimeMillis());
+
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					send(event);
+				}
+			});
+		} else {
+			send(event);
+		}
+	}
+
+	private void send(VideoStatusChangedEvent event) {
+		statusEventKafkaTemplate.send(KafkaProducerConfig.VIDEO_STATUS_TOPIC, event.getVideoId().toString(), event)
+				.whenComplete((result, ex) -> {
+					if (ex != null) {
+						// The database stays authoritative; streaming falls back to it for videos it has no state for
+						logger.error("Failed to publish status {} for videoId {}: {}", event.getStatus(),
+								event.getVideoId(), ex.getMessage());
+					} else {
+						logger.debug("Published status {} for videoId {}", event.getStatus(), event.getVideoId());
+					}
+				});
+	}
+}
@@ -0,0 +1,145 @@
+package com.robspecs.videoprocessor.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.robspecs.events.WatchHeartbeatEvent;
+import com.robspecs.streaming.repository.VideoRetentionRepository;
+import com.robspecs.videoprocessor.utils.RetentionHistogram;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Folds player heartbeats into per-video retention histograms in memory and
+ * periodically adds them to {@code video_retention_buckets}.
+ * <p>
+ * Heartbeats arrive in large batches (batch listener) and each one is a couple of
+ * array writes, so a node keeps up with tens of thousands per second. The database
+ * sees one batched upsert per touched bucket per flush interval. Heartbeats received
+ * since the last flush are lost if the process dies; that is acceptable for analytics.
+ */
+@Service
+public class WatchHeartbeatAggregator {
+
+	private static final Logger logger = LoggerFactory.getLogger(WatchHeartbeatAggregator.class);
+
+	// A slot is retired once the flusher has taken its histogram; late writers then create a fresh one
+	private static final class Slot {
+		final RetentionHistogram histogram = new RetentionHistogram();
+		boolean retired;
+	}
+
+	private final ConcurrentHashMap<Long, Slot> slots = new ConcurrentHashMap<>();
+	private final VideoRetentionRepository retentionRepository;
+	private final long bucketMillis;
+	private final int maxBuckets;
+
+	public WatchHeartbeatAggregator(VideoRetentionRepository retentionRepository,
+			@Value("${retention.bucket-seconds:10}") int bucketSeconds,
+			@Value("${retention.max-buckets:8640}") int maxBuckets) {
+		this.retentionRepository = retentionRepository;
+		this.bucketMillis = bucketSeconds * 1000L;
+		this.maxBuckets = maxBuckets;
+	}
+
+	@KafkaListener(topics = "video-watch-heartbeats", groupId = "${heartbeats.consumer.group-id:watch-heartbeat-aggregator}",
+			containerFactory = "heartbeatListenerContainerFactory")
+	public void receiveHeartbeats(List<WatchHeartbeatEvent> events) {
+		int skipped = 0;
+		Long currentVideoId = null;
+		Slot slot = null;
+		for (WatchHeartbeatEvent event : events) {
+			// null = record that failed to deserialize
+			if (event == null || event.getVideoId() == null || event.getWatchedMillis() <= 0
+					|| event.getPositionMillis() < 0) {
+				skipped++;
+				continue;
+			}
+			// The position is where the watched interval ended; attribute it to the interval's midpoint
+			long midpointMillis = Math.max(0, event.getPositionMillis() - event.getWatchedMillis() / 2);
+			long bucket = midpointMillis / bucketMillis;
+			if (bucket >= maxBuckets) {
+				skipped++;
+				continue;
+			}
+			// Records are keyed by videoId, so a batch tends to contain long runs of the same video
+			if (!event.getVideoId().equals(currentVideoId)) {
+				currentVideoId = event.getVideoId();
+				slot = null;
+			}
+			slot = add(currentVideoId, slot, (int) bucket, event.getWatchedMillis());
+		}
+		if (skipped > 0) {
+			logger.debug("Skipped {} invalid heartbeats out of {}", skipped, events.size());
+		}
+	}
+
+	private Slot add(Long videoId, Slot slot, int bucket, long millis) {
+		while (true) {
+			if (slot == null) {
+				slot = slots.computeIfAbsent(videoId, id -> new Slot());
+			}
+			synchronized (slot) {
+				if (!slot.retired) {
+					slot.histogram.add(bucket, millis);
+					return slot;
+				}
+			}
+			slot = null;
+		}
+	}
+
+	// Same retry as add, but merges a whole histogram under one lock
+	private void restore(Long videoId, long[] buckets) {
+		while (true) {
+			Slot slot = slots.computeIfAbsent(videoId, id -> new Slot());
+			synchronized (slot) {
+				if (!slot.retired) {
+					slot.histogram.addAll(buckets);
+					return;
+				}
+			}
+		}
+	}
+
+	@Scheduled(fixedDelayString = "${retention.flush.interval-ms:30000}", initialDelayString = "${retention.flush.interval-ms:30000}")
+	public void flush() {
+		if (slots.isEmpty()) {
+			return;
+		}
+		Map<Long, long[]> snapshot = new HashMap<>();
+		for (Long videoId : slots.keySet()) {
+			Slot slot = slots.remove(videoId);
+			if (slot == null) {
+				continue;
+			}
+			synchronized (slot) {
+				slot.retired = true;
+				snapshot.put(videoId, slot.histogram.toArray());
+			}
+		}
+		try {
+			int written = retentionRepository.addWatchedMillis(snapshot);
+			logger.info("Flushed retention histograms for {} videos ({} buckets).", snapshot.size(), written);
+		} catch (DataAccessException e) {
+			// The write is transactional, so nothing was applied: put everything back for the next run
+			logger.error("Failed to flush retention histograms, will retry: {}", e.getMessage(), e);
+			snapshot.forEach(this::restore);
+		}
+	}
+
+	@PreDestroy
+	public void flushOnShutdown() {
+		flush();
+	}
+}
@@ -0,0 +1,125 @@
+package com.robspecs.videoprocessor.utils;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Minimal BlurHash encoder (https://blurha.sh). Turns an image into a short
+ * base83 string (~20-30 chars) that clients decode into a blurred placeholder
+ * while the real thumbnail is still loading.
+ */
+public final class BlurHashEncoder {
+
+	private static final String BASE83_CHARS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz#$%*+,-.:;=?@[]^_{|}~";
+
+	private BlurHashEncoder() {
+	}
+
+	/**
+	 * Encodes the given image. Callers should pass an already downscaled image
+	 * (e.g. 32x18) since the cost is O(width * height * componentsX * componentsY).
+	 *
+	 * @param image       The source image.
+	 * @param componentsX Number of horizontal components (1-9).
+	 * @param componentsY Number of vertical components (1-9).
+	 * @return The BlurHash string.
+	 */
+	public static String encode(BufferedImage image, int componentsX, int componentsY) {
+		if (componentsX < 1 || componentsX > 9 || componentsY < 1 || componentsY > 9) {
+			throw new IllegalArgumentException("BlurHash components must be between 1 and 9.");
+		}
+		int width = image.getWidth();
+		int height = image.getHeight();
+
+		// Convert to linear RGB once, so the component loop only does multiplications
+		double[][] linear = new double[width * height][3];
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				int rgb = image.getRGB(x, y);
+				double[] pixel = linear[y * width + x];
+				pixel[0] = srgbToLinear((rgb >> 16) & 0xFF);
+				pixel[1] = srgbToLinear((rgb >> 8) & 0xFF);
+				pixel[2] = srgbToLinear(rgb & 0xFF);
+			}
+		}
+
+		double[][] factors = new double[componentsX * componentsY][];
+		for (int j = 0; j < componentsY; j++) {
+			for (int i = 0; i < componentsX; i++) {
+				factors[j * componentsX + i] = multiplyBasisFunction(linear, width, height, i, j);
+			}
+		}
+
+		StringBuilder hash = new StringBuilder();
+		encode83(hash, (componentsX - 1) + (componentsY - 1) * 9, 1);
+
+		double maximumValue;
+		if (factors.length > 1) {
+			double actualMaximum = 0;
+			for (int k = 1; k < factors.length; k++) {
+				for (double channel : factors[k]) {
+					actualMaximum = Math.max(actualMaximum, Math.abs(channel));
+				}
+			}
+			int quantisedMaximum = (int) Math.max(0, Math.min(82, Math.floor(actualMaximum * 166 - 0.5)));
+			maximumValue = (quantisedMaximum + 1) / 166.0;
+			encode83(hash, quantisedMaximum, 1);
+		} else {
+			maximumValue = 1;
+			encode83(hash, 0, 1);
+		}
+
+		double[] dc = factors[0];
+		encode83(hash, (linearToSrgb(dc[0]) << 16) + (linearToSrgb(dc[1]) << 8) + linearToSrgb(dc[2]), 4);
+
+		for (int k = 1; k < factors.length; k++) {
+			double[] ac = factors[k];
+			int quantR = quantiseAc(ac[0], maximumValue);
+			int quantG = quantiseAc(ac[1], maximumValue);
+			int quantB = quantiseAc(ac[2], maximumValue);
+			encode83(hash, quantR * 19 * 19 + quantG * 19 + quantB, 2);
+		}
+		return hash.toString();
+	}
+
+	private static double[] multiplyBasisFunction(double[][] linear, int width, int height, int i, int j) {
+		double r = 0, g = 0, b = 0;
+		double normalisation = (i == 0 && j == 0) ? 1 : 2;
+		for (int y = 0; y < height; y++) {
+			double basisY = Math.cos(Math.PI * j * y / height);
+			for (int x = 0; x < width; x++) {
+				double basis = normalisation * Math.cos(Math.PI * i * x / width) * basisY;
+				double[] pixel = linear[y * width + x];
+				r += basis * pixel[0];
+				g += basis * pixel[1];
+				b += basis * pixel[2];
+			}
+		}
+		double scale = 1.0 / (width * height);
+		return new double[] { r * scale, g * scale, b * scale };
+	}
+
+	private static int quantiseAc(double value, double maximumValue) {
+		return (int) Math.max(0, Math.min(18, Math.floor(signPow(value / maximumValue, 0.5) * 9 + 9.5)));
+	}
+
+	private static double signPow(double value, double exp) {
+		return Math.copySign(Math.pow(Math.abs(value), exp), value);
+	}
+
+	private static double srgbToLinear(int value) {
+		double v = value / 255.0;
+		return v <= 0.04045 ? v / 12.92 : Math.pow((v + 0.055) / 1.055, 2.4);
+	}
+
+	private static int linearToSrgb(double value) {
+		double v = Math.max(0, Math.min(1, value));
+		return v <= 0.0031308 ? (int) (v * 12.92 * 255 + 0.5) : (int) ((1.055 * Math.pow(v, 1 / 2.4) - 0.055) * 255 + 0.5);
+	}
+
+	private static void encode83(StringBuilder target, int value, int length) {
+		for (int i = 1; i <= length; i++) {
+			int digit = (value / (int) Math.pow(83, length - i)) % 83;
+			target.append(BASE83_CHARS.charAt(digit));
+		}
+	}
+}
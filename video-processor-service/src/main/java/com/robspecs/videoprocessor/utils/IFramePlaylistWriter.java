@@ -0,0 +1,374 @@
+package com.robspecs.videoprocessor.utils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Builds an {@code EXT-X-I-FRAMES-ONLY} playlist for an HLS media playlist by scanning
+ * its MPEG-TS segments. Each entry is an {@code EXT-X-BYTERANGE} into an existing
+ * segment that covers exactly one keyframe, so players can seek and fast-forward
+ * without downloading whole segments. No re-encoding or extra files besides the
+ * playlist are needed. Since only the first keyframe of a segment follows its PAT/PMT,
+ * every segment's PAT and PMT packets are referenced with an {@code EXT-X-MAP} byte
+ * range, so each I-frame can be decoded on its own.
+ * <p>
+ * Keyframes are detected from the adaptation field's random_access_indicator (set by
+ * FFmpeg's mpegts muxer), falling back to looking for an H.264 IDR NAL unit.
+ */
+public final class IFramePlaylistWriter {
+
+	private static final int TS_PACKET_SIZE = 188;
+	private static final int TS_SYNC_BYTE = 0x47;
+	private static final double PTS_CLOCK = 90_000.0;
+
+	private IFramePlaylistWriter() {
+	}
+
+	/**
+	 * A segment as listed in a media playlist.
+	 */
+	public static final class MediaSegment {
+		private final String uri;
+		private final double durationSeconds;
+
+		public MediaSegment(String uri, double durationSeconds) {
+			this.uri = uri;
+			this.durationSeconds = durationSeconds;
+		}
+
+		public String getUri() {
+			return uri;
+		}
+
+		public double getDurationSeconds() {
+			return durationSeconds;
+		}
+	}
+
+	/**
+	 * A keyframe found in a segment: byte range of the TS packets carrying it plus its PTS.
+	 */
+	public static final class KeyFrame {
+		private final String segmentUri;
+		private final long offset;
+		private final long length;
+		private final long pts; // 90 kHz ticks, -1 if the PES header carried none
+		private final boolean segmentStart; // true if this is the first video access unit of its segment
+
+		KeyFrame(String segmentUri, long offset, long length, long pts, boolean segmentStart) {
+			this.segmentUri = segmentUri;
+			this.offset = offset;
+			this.length = length;
+			this.pts = pts;
+			this.segmentStart = segmentStart;
+		}
+
+		public String getSegmentUri() {
+			return segmentUri;
+		}
+
+		public long getOffset() {
+			return offset;
+		}
+
+		public long getLength() {
+			return length;
+		}
+
+		public long getPts() {
+			return pts;
+		}
+
+		public boolean isSegmentStart() {
+			return segmentStart;
+		}
+	}
+
+	/**
+	 * What {@link #scanSegment} found in one segment: the byte range of its first PAT and
+	 * the PMT that follows it (length 0 if there was none), and its keyframes.
+	 */
+	public static final class SegmentScan {
+		private final String segmentUri;
+		private final long headerOffset;
+		private final long headerLength;
+		private final List<KeyFrame> keyFrames;
+
+		SegmentScan(String segmentUri, long headerOffset, long headerLength, List<KeyFrame> keyFrames) {
+			this.segmentUri = segmentUri;
+			this.headerOffset = headerOffset;
+			this.headerLength = headerLength;
+			this.keyFrames = keyFrames;
+		}
+
+		public String getSegmentUri() {
+			return segmentUri;
+		}
+
+		public long getHeaderOffset() {
+			return headerOffset;
+		}
+
+		public long getHeaderLength() {
+			return headerLength;
+		}
+
+		public List<KeyFrame> getKeyFrames() {
+			return keyFrames;
+		}
+	}
+
+	/**
+	 * Outcome of {@link #write}: the values needed for the master playlist's
+	 * {@code EXT-X-I-FRAME-STREAM-INF} line.
+	 */
+	public static final class Result {
+		private final int keyFrameCount;
+		private final long peakBandwidth; // bits per second
+
+		Result(int keyFrameCount, long peakBandwidth) {
+			this.keyFrameCount = keyFrameCount;
+			this.peakBandwidth = peakBandwidth;
+		}
+
+		public int getKeyFrameCount() {
+			return keyFrameCount;
+		}
+
+		public long getPeakBandwidth() {
+			return peakBandwidth;
+		}
+	}
+
+	/**
+	 * Reads the segments of a media playlist and writes the matching I-frame playlist.
+	 *
+	 * @param mediaPlaylist Path of the rendition's media playlist (e.g. ".../hls/360p.m3u8").
+	 * @param output        Path of the I-frame playlist to write (e.g. ".../hls/360p_iframes.m3u8").
+	 * @return Keyframe count and peak bandwidth, or null if no keyframe was found.
+	 * @throws IOException if a playlist or segment cannot be read or written.
+	 */
+	public static Result write(Path mediaPlaylist, Path output) throws IOException {
+		List<MediaSegment> segments = readMediaPlaylist(mediaPlaylist);
+		Path directory = mediaPlaylist.getParent();
+
+		List<KeyFrame> keyFrames = new ArrayList<>();
+		List<SegmentScan> headerOwners = new ArrayList<>(); // per keyframe: the scan whose PAT/PMT it needs
+		double totalDuration = 0;
+		SegmentScan lastWithHeader = null;
+		for (MediaSegment segment : segments) {
+			SegmentScan scan = scanSegment(directory.resolve(segment.getUri()), segment.getUri());
+			if (scan.getHeaderLength() > 0) {
+				lastWithHeader = scan;
+			}
+			for (KeyFrame keyFrame : scan.getKeyFrames()) {
+				keyFrames.add(keyFrame);
+				headerOwners.add(lastWithHeader);
+			}
+			totalDuration += segment.getDurationSeconds();
+		}
+		if (keyFrames.isEmpty() || keyFrames.get(0).getPts() < 0 || headerOwners.get(0) == null) {
+			return null;
+		}
+
+		long firstPts = keyFrames.get(0).getPts();
+		StringBuilder entries = new StringBuilder();
+		double maxDuration = 0;
+		long peakBandwidth = 0;
+		SegmentScan currentMap = null;
+		for (int i = 0; i < keyFrames.size(); i++) {
+			KeyFrame keyFrame = keyFrames.get(i);
+			SegmentScan map = headerOwners.get(i);
+			if (map != currentMap) {
+				entries.append("#EXT-X-MAP:URI=\"").append(map.getSegmentUri()).append("\",BYTERANGE=\"")
+						.append(map.getHeaderLength()).append('@').append(map.getHeaderOffset()).append("\"\n");
+				currentMap = map;
+			}
+			double start = (keyFrame.getPts() - firstPts) / PTS_CLOCK;
+			double end = (i + 1 < keyFrames.size()) ? (keyFrames.get(i + 1).getPts() - firstPts) / PTS_CLOCK : totalDuration;
+			double duration = Math.max(0.001, end - start);
+			maxDuration = Math.max(maxDuration, duration);
+			peakBandwidth = Math.max(peakBandwidth, (long) Math.ceil(keyFrame.getLength() * 8 / duration));
+
+			entries.append(String.format(Locale.ROOT, "#EXTINF:%.3f,\n", duration))
+					.append("#EXT-X-BYTERANGE:").append(keyFrame.getLength()).append('@').append(keyFrame.getOffset()).append('\n')
+					.append(keyFrame.getSegmentUri()).append('\n');
+		}
+
+		StringBuilder playlist = new StringBuilder();
+		playlist.append("#EXTM3U\n")
+				.append("#EXT-X-VERSION:5\n") // EXT-X-MAP in an I-frame playlist
+				.append("#EXT-X-TARGETDURATION:").append((long) Math.ceil(maxDuration)).append('\n')
+				.append("#EXT-X-MEDIA-SEQUENCE:0\n")
+				.append("#EXT-X-PLAYLIST-TYPE:VOD\n")
+				.append("#EXT-X-I-FRAMES-ONLY\n")
+				.append(entries)
+				.append("#EXT-X-ENDLIST\n");
+		Files.writeString(output, playlist.toString());
+		return new Result(keyFrames.size(), peakBandwidth);
+	}
+
+	/**
+	 * Parses the {@code #EXTINF} entries of a media playlist.
+	 */
+	public static List<MediaSegment> readMediaPlaylist(Path mediaPlaylist) throws IOException {
+		List<MediaSegment> segments = new ArrayList<>();
+		double pendingDuration = -1;
+		for (String rawLine : Files.readAllLines(mediaPlaylist)) {
+			String line = rawLine.trim();
+			if (line.startsWith("#EXTINF:")) {
+				String value = line.substring("#EXTINF:".length());
+				int comma = value.indexOf(',');
+				pendingDuration = Double.parseDouble(comma >= 0 ? value.substring(0, comma) : value);
+			} else if (!line.isEmpty() && !line.startsWith("#") && pendingDuration >= 0) {
+				segments.add(new MediaSegment(line, pendingDuration));
+				pendingDuration = -1;
+			}
+		}
+		return segments;
+	}
+
+	/**
+	 * Scans one MPEG-TS segment for keyframes on its video elementary stream.
+	 */
+	public static List<KeyFrame> findKeyFrames(Path segmentPath, String segmentUri) throws IOException {
+		return scanSegment(segmentPath, segmentUri).getKeyFrames();
+	}
+
+	/**
+	 * Scans one MPEG-TS segment for its PAT/PMT and for keyframes on its video elementary stream.
+	 */
+	public static SegmentScan scanSegment(Path segmentPath, String segmentUri) throws IOException {
+		byte[] data = Files.readAllBytes(segmentPath);
+		List<KeyFrame> keyFrames = new ArrayList<>();
+		int pmtPid = -1;
+		int videoPid = -1;
+		long patOffset = -1;
+		long headerEnd = -1;
+		long pendingOffset = -1;
+		long pendingPts = -1;
+		boolean pendingSegmentStart = false;
+		boolean firstVideoUnit = true;
+
+		for (int pos = 0; pos + TS_PACKET_SIZE <= data.length; pos += TS_PACKET_SIZE) {
+			if ((data[pos] & 0xFF) != TS_SYNC_BYTE) {
+				throw new IOException("Lost MPEG-TS sync at byte " + pos + " in " + segmentPath);
+			}
+			boolean payloadUnitStart = (data[pos + 1] & 0x40) != 0;
+			int pid = ((data[pos + 1] & 0x1F) << 8) | (data[pos + 2] & 0xFF);
+			int adaptationControl = (data[pos + 3] >> 4) & 0x03;
+
+			int payloadStart = pos + 4;
+			boolean randomAccess = false;
+			if ((adaptationControl & 0x02) != 0) {
+				int adaptationLength = data[pos + 4] & 0xFF;
+				if (adaptationLength > 0) {
+					randomAccess = (data[pos + 5] & 0x40) != 0;
+				}
+				payloadStart = pos + 5 + adaptationLength;
+			}
+			int packetEnd = pos + TS_PACKET_SIZE;
+			if ((adaptationControl & 0x01) == 0 || payloadStart >= packetEnd) {
+				continue;
+			}
+
+			if (pid == 0 && payloadUnitStart) {
+				pmtPid = parsePmtPid(data, payloadStart, packetEnd);
+				if (patOffset < 0) {
+					patOffset = pos;
+				}
+			} else if (pid == pmtPid && payloadUnitStart) {
+				videoPid = parseVideoPid(data, payloadStart, packetEnd);
+				if (headerEnd < 0 && videoPid >= 0) {
+					headerEnd = packetEnd;
+				}
+			} else if (pid == videoPid && payloadUnitStart) {
+				// A new PES packet (= a new access unit) closes the previous keyframe's byte range
+				if (pendingOffset >= 0) {
+					keyFrames.add(new KeyFrame(segmentUri, pendingOffset, pos - pendingOffset, pendingPts, pendingSegmentStart));
+					pendingOffset = -1;
+				}
+				if (randomAccess || containsIdrNal(data, payloadStart, packetEnd)) {
+					pendingOffset = pos;
+					pendingPts = parsePts(data, payloadStart, packetEnd);
+					pendingSegmentStart = firstVideoUnit;
+				}
+				firstVideoUnit = false;
+			}
+		}
+		if (pendingOffset >= 0) {
+			long end = data.length - (data.length % TS_PACKET_SIZE);
+			keyFrames.add(new KeyFrame(segmentUri, pendingOffset, end - pendingOffset, pendingPts, pendingSegmentStart));
+		}
+		return headerEnd < 0 ? new SegmentScan(segmentUri, 0, 0, keyFrames)
+				: new SegmentScan(segmentUri, patOffset, headerEnd - patOffset, keyFrames);
+	}
+
+	private static int parsePmtPid(byte[] data, int start, int end) {
+		int table = start + 1 + (data[start] & 0xFF); // skip pointer_field
+		if (table + 8 > end || (data[table] & 0xFF) != 0x00) {
+			return -1;
+		}
+		int sectionLength = ((data[table + 1] & 0x0F) << 8) | (data[table + 2] & 0xFF);
+		int programsEnd = Math.min(end, table + 3 + sectionLength - 4); // exclude CRC32
+		for (int p = table + 8; p + 4 <= programsEnd; p += 4) {
+			int programNumber = ((data[p] & 0xFF) << 8) | (data[p + 1] & 0xFF);
+			if (programNumber != 0) {
+				return ((data[p + 2] & 0x1F) << 8) | (data[p + 3] & 0xFF);
+			}
+		}
+		return -1;
+	}
+
+	private static int parseVideoPid(byte[] data, int start, int end) {
+		int table = start + 1 + (data[start] & 0xFF);
+		if (table + 12 > end || (data[table] & 0xFF) != 0x02) {
+			return -1;
+		}
+		int sectionLength = ((data[table + 1] & 0x0F) << 8) | (data[table + 2] & 0xFF);
+		int programInfoLength = ((data[table + 10] & 0x0F) << 8) | (data[table + 11] & 0xFF);
+		int streamsEnd = Math.min(end, table + 3 + sectionLength - 4);
+		for (int s = table + 12 + programInfoLength; s + 5 <= streamsEnd;) {
+			int streamType = data[s] & 0xFF;
+			int elementaryPid = ((data[s + 1] & 0x1F) << 8) | (data[s + 2] & 0xFF);
+			int esInfoLength = ((data[s + 3] & 0x0F) << 8) | (data[s + 4] & 0xFF);
+			if (streamType == 0x1B || streamType == 0x24 || streamType == 0x02) { // H.264, HEVC, MPEG-2
+				return elementaryPid;
+			}
+			s += 5 + esInfoLength;
+		}
+		return -1;
+	}
+
+	private static long parsePts(byte[] data, int start, int end) {
+		if (start + 14 > end || data[start] != 0 || data[start + 1] != 0 || data[start + 2] != 1) {
+			return -1;
+		}
+		if ((data[start + 7] & 0x80) == 0) { // PTS_DTS_flags
+			return -1;
+		}
+		int p = start + 9;
+		return (((long) (data[p] & 0x0E)) << 29)
+				| ((long) (data[p + 1] & 0xFF) << 22)
+				| ((long) (data[p + 2] & 0xFE) << 14)
+				| ((long) (data[p + 3] & 0xFF) << 7)
+				| ((data[p + 4] & 0xFE) >> 1);
+	}
+
+	private static boolean containsIdrNal(byte[] data, int start, int end) {
+		// Skip the PES header so its own start code is not mistaken for a NAL unit
+		if (start + 9 > end || data[start] != 0 || data[start + 1] != 0 || data[start + 2] != 1) {
+			return false;
+		}
+		for (int i = start + 9 + (data[start + 8] & 0xFF); i + 3 < end; i++) {
+			if (data[i] == 0 && data[i + 1] == 0 && data[i + 2] == 1 && (data[i + 3] & 0x1F) == 5) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
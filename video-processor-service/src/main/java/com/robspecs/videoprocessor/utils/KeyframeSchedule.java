@@ -0,0 +1,62 @@
+package com.robspecs.videoprocessor.utils;
+
+/**
+ * The keyframe positions every rendition of a video shares: one keyframe every
+ * {@link #getGopFrames()} frames, starting with the first. That is the encoder's fixed
+ * GOP, set through its regular options, so no frame has to be forced. The GOP is the
+ * interval in frames rounded up, so keyframes are never closer than the interval and
+ * each segment cut lands on the first keyframe after its target. All rungs encode the
+ * same source frames at the same frame rate, so every segment boundary lines up.
+ */
+public final class KeyframeSchedule {
+
+	private final double frameRate;
+	private final int intervalSeconds;
+	private final int gopFrames;
+
+	public KeyframeSchedule(double frameRate, int intervalSeconds) {
+		if (frameRate <= 0 || intervalSeconds <= 0) {
+			throw new IllegalArgumentException("Frame rate and keyframe interval must be positive.");
+		}
+		this.frameRate = frameRate;
+		this.intervalSeconds = intervalSeconds;
+		this.gopFrames = Math.max(1, (int) Math.ceil(intervalSeconds * frameRate - 1e-6));
+	}
+
+	public double getFrameRate() {
+		return frameRate;
+	}
+
+	public int getIntervalSeconds() {
+		return intervalSeconds;
+	}
+
+	/**
+	 * Frames from one keyframe to the next; the encoder's GOP size.
+	 */
+	public int getGopFrames() {
+		return gopFrames;
+	}
+
+	/**
+	 * @return The frame index of the k-th keyframe (k = 0 is the first frame).
+	 */
+	public long frameIndexOf(long k) {
+		return k * gopFrames;
+	}
+
+	/**
+	 * @return The time in seconds of the keyframe closest to the given time.
+	 */
+	public double nearestKeyframeSeconds(double seconds) {
+		long k = Math.max(0, Math.round(seconds * frameRate / gopFrames));
+		return frameIndexOf(k) / frameRate;
+	}
+
+	/**
+	 * Half a frame duration, the tolerance used when comparing timestamps to the schedule.
+	 */
+	public double toleranceSeconds() {
+		return 0.5 / frameRate;
+	}
+}
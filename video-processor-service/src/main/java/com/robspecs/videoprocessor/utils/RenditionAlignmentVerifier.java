@@ -0,0 +1,98 @@
+package com.robspecs.videoprocessor.utils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks the TS segments of all renditions after encoding: every segment must start
+ * with a keyframe, every segment start must sit on the shared {@link KeyframeSchedule},
+ * and renditions with the same segment duration must have identical boundaries.
+ * Misaligned ladders make players fetch overlapping segments on every quality switch.
+ */
+public final class RenditionAlignmentVerifier {
+
+	private static final double PTS_CLOCK = 90_000.0;
+
+	private RenditionAlignmentVerifier() {
+	}
+
+	/**
+	 * @param mediaPlaylists  Media playlist path per rung name, in ladder order.
+	 * @param segmentSeconds  Target segment duration per rung name.
+	 * @param schedule        The keyframe schedule all rungs were encoded with.
+	 * @return Human readable problems; empty if the ladder is aligned.
+	 * @throws IOException if a playlist or segment cannot be read.
+	 */
+	public static List<String> verify(Map<String, Path> mediaPlaylists, Map<String, Integer> segmentSeconds,
+			KeyframeSchedule schedule) throws IOException {
+		List<String> problems = new ArrayList<>();
+		Map<String, List<Long>> segmentStarts = new LinkedHashMap<>();
+		double tolerance = schedule.toleranceSeconds();
+		Long originPts = null;
+
+		for (Map.Entry<String, Path> entry : mediaPlaylists.entrySet()) {
+			String rung = entry.getKey();
+			Path playlist = entry.getValue();
+			List<Long> starts = new ArrayList<>();
+			for (IFramePlaylistWriter.MediaSegment segment : IFramePlaylistWriter.readMediaPlaylist(playlist)) {
+				List<IFramePlaylistWriter.KeyFrame> keyFrames = IFramePlaylistWriter
+						.findKeyFrames(playlist.getParent().resolve(segment.getUri()), segment.getUri());
+				if (keyFrames.isEmpty() || !keyFrames.get(0).isSegmentStart() || keyFrames.get(0).getPts() < 0) {
+					problems.add(rung + ": segment " + segment.getUri() + " does not start with a keyframe");
+					continue;
+				}
+				starts.add(keyFrames.get(0).getPts());
+			}
+			segmentStarts.put(rung, starts);
+			if (originPts == null && !starts.isEmpty()) {
+				originPts = starts.get(0);
+			}
+		}
+		if (originPts == null) {
+			problems.add("no segments found in any rendition");
+			return problems;
+		}
+
+		// Every boundary must be one of the shared keyframes
+		for (Map.Entry<String, List<Long>> entry : segmentStarts.entrySet()) {
+			for (long pts : entry.getValue()) {
+				double seconds = (pts - originPts) / PTS_CLOCK;
+				double expected = schedule.nearestKeyframeSeconds(seconds);
+				if (Math.abs(seconds - expected) > tolerance) {
+					problems.add(String.format("%s: segment boundary at %.3fs is not on the keyframe schedule (nearest %.3fs)",
+							entry.getKey(), seconds, expected));
+				}
+			}
+		}
+
+		// Rungs sharing a segment duration must cut at exactly the same places
+		List<String> rungs = new ArrayList<>(segmentStarts.keySet());
+		for (int i = 0; i < rungs.size(); i++) {
+			for (int j = i + 1; j < rungs.size(); j++) {
+				String a = rungs.get(i);
+				String b = rungs.get(j);
+				if (!segmentSeconds.get(a).equals(segmentSeconds.get(b))) {
+					continue;
+				}
+				List<Long> startsA = segmentStarts.get(a);
+				List<Long> startsB = segmentStarts.get(b);
+				if (startsA.size() != startsB.size()) {
+					problems.add(a + " has " + startsA.size() + " segments but " + b + " has " + startsB.size());
+					continue;
+				}
+				for (int k = 0; k < startsA.size(); k++) {
+					double drift = Math.abs(startsA.get(k) - startsB.get(k)) / PTS_CLOCK;
+					if (drift > tolerance) {
+						problems.add(String.format("%s and %s: segment %d starts %.3fs apart", a, b, k, drift));
+						break;
+					}
+				}
+			}
+		}
+		return problems;
+	}
+}
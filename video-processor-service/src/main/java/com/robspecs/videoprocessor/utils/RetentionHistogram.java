@@ -0,0 +1,44 @@
+package com.robspecs.videoprocessor.utils;
+
+import java.util.Arrays;
+
+/**
+ * Watched time per playback-position bucket of one video, as a growable
+ * {@code long[]} (8 bytes per bucket, no boxing). Not thread-safe.
+ */
+public final class RetentionHistogram {
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	private long[] watchedMillis = new long[INITIAL_CAPACITY];
+	private int length = 0; // highest touched bucket + 1
+
+	public void add(int bucket, long millis) {
+		if (bucket >= watchedMillis.length) {
+			watchedMillis = Arrays.copyOf(watchedMillis, Math.max(bucket + 1, watchedMillis.length * 2));
+		}
+		watchedMillis[bucket] += millis;
+		if (bucket >= length) {
+			length = bucket + 1;
+		}
+	}
+
+	/**
+	 * Adds another histogram's buckets, e.g. one taken by {@link #toArray()}. Walks from
+	 * the highest bucket down, so the array grows at most once.
+	 */
+	public void addAll(long[] other) {
+		for (int i = other.length - 1; i >= 0; i--) {
+			if (other[i] != 0) {
+				add(i, other[i]);
+			}
+		}
+	}
+
+	/**
+	 * @return A copy trimmed to the touched buckets.
+	 */
+	public long[] toArray() {
+		return Arrays.copyOf(watchedMillis, length);
+	}
+}
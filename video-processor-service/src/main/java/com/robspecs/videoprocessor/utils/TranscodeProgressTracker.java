@@ -0,0 +1,112 @@
+package com.robspecs.videoprocessor.utils;
+
+import com.robspecs.videoprocessor.dto.TranscodeProgress;
+
+/**
+ * Progress and ETA of a ladder transcode in which every rendition re-encodes the whole
+ * source, one rendition after another. Encode cost is modeled as frames x output
+ * pixels, so the remaining work of larger renditions is not underestimated while the
+ * small ones run. The rate is an exponentially weighted moving average of samples
+ * taken at report time.
+ * <p>
+ * {@link #frameEncoded(long)} is called once per frame from the encode loop and only
+ * reads the clock every {@value #CLOCK_CHECK_FRAMES} frames. Not thread-safe.
+ */
+public final class TranscodeProgressTracker {
+
+	private static final int CLOCK_CHECK_FRAMES = 16;
+	private static final double SMOOTHING = 0.3; // weight of the newest rate sample
+
+	private final String[] renditionNames;
+	private final long[] renditionPixels;
+	private final long totalWork; // frames x pixels over all renditions
+	private final long estimatedFrames;
+	private final long reportIntervalNanos;
+
+	private int current = -1;
+	private long finishedWork = 0;
+	private long framesDone = 0;
+	private long lastSampleNanos;
+	private long lastSampleFrames;
+	private double fps = 0;
+
+	/**
+	 * @param renditionNames  Names in encode order.
+	 * @param renditionPixels Output width x height of each rendition, same order.
+	 * @param estimatedFrames Frames per rendition (from the container; corrected upwards if exceeded).
+	 * @param reportIntervalMillis Minimum time between two reports within a rendition.
+	 */
+	public TranscodeProgressTracker(String[] renditionNames, long[] renditionPixels, long estimatedFrames,
+			long reportIntervalMillis) {
+		if (renditionNames.length != renditionPixels.length || renditionNames.length == 0) {
+			throw new IllegalArgumentException("One pixel count per rendition is required.");
+		}
+		this.renditionNames = renditionNames.clone();
+		this.renditionPixels = renditionPixels.clone();
+		this.estimatedFrames = Math.max(1, estimatedFrames);
+		this.reportIntervalNanos = reportIntervalMillis * 1_000_000L;
+		long pixels = 0;
+		for (long p : renditionPixels) {
+			pixels += p;
+		}
+		this.totalWork = pixels * this.estimatedFrames;
+	}
+
+	public void startRendition(int index, long nowNanos) {
+		if (current >= 0) {
+			finishedWork += framesTotal() * renditionPixels[current];
+		}
+		current = index;
+		framesDone = 0;
+		lastSampleNanos = nowNanos;
+		lastSampleFrames = 0;
+		// Keep fps from the previous rendition, scaled to this one's pixel count, as the first guess
+		if (index > 0 && fps > 0) {
+			fps = fps * renditionPixels[index - 1] / renditionPixels[index];
+		}
+	}
+
+	/**
+	 * Counts one encoded frame.
+	 *
+	 * @return true if a report is due (at most once per report interval).
+	 */
+	public boolean frameEncoded(long nowNanos) {
+		framesDone++;
+		if (framesDone % CLOCK_CHECK_FRAMES != 0) {
+			return false;
+		}
+		return nowNanos - lastSampleNanos >= reportIntervalNanos;
+	}
+
+	/**
+	 * Takes a rate sample and returns the current progress.
+	 */
+	public TranscodeProgress report(long nowNanos) {
+		long elapsedNanos = nowNanos - lastSampleNanos;
+		if (elapsedNanos > 0 && framesDone > lastSampleFrames) {
+			double sample = (framesDone - lastSampleFrames) * 1e9 / elapsedNanos;
+			fps = fps == 0 ? sample : SMOOTHING * sample + (1 - SMOOTHING) * fps;
+			lastSampleNanos = nowNanos;
+			lastSampleFrames = framesDone;
+		}
+
+		long frames = framesTotal();
+		long doneWork = finishedWork + Math.min(framesDone, frames) * renditionPixels[current];
+		// Renditions that ran long stretch the total; never report more than 100%
+		long work = Math.max(totalWork, doneWork);
+		int percent = (int) Math.min(100, doneWork * 100 / work);
+
+		long etaSeconds = -1;
+		if (fps > 0) {
+			double pixelRate = fps * renditionPixels[current];
+			etaSeconds = Math.round((work - doneWork) / pixelRate);
+		}
+		return new TranscodeProgress(renditionNames[current], current, renditionNames.length, framesDone, frames,
+				fps, etaSeconds, percent);
+	}
+
+	private long framesTotal() {
+		return Math.max(estimatedFrames, framesDone);
+	}
+}
@@ -0,0 +1,152 @@
+package com.robspecs.videoprocessor.utils;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Collects evenly spaced frames into JPEG sprite sheets (a grid of small tiles)
+ * and writes a WebVTT index that maps each time range to its tile using the
+ * {@code sprite-N.jpg#xywh=x,y,w,h} media fragment syntax understood by players.
+ * <p>
+ * Frames are pushed from an existing decode loop, so no extra decoding pass is
+ * needed. Callers should check {@link #isDue(long)} before converting a frame,
+ * since only one frame per interval is actually kept. Not thread-safe.
+ */
+public final class TrickPlaySpriteWriter {
+
+	public static final String VTT_FILE_NAME = "thumbnails.vtt";
+
+	private final Path outputDirectory;
+	private final long intervalMicros;
+	private final int tileWidth;
+	private final int tileHeight;
+	private final int columns;
+	private final int rows;
+
+	private final List<long[]> cues = new ArrayList<>(); // {startMicros, sheetIndex, tileIndex}
+	private BufferedImage currentSheet;
+	private int sheetIndex = 0;
+	private int tileIndex = 0;
+	private long firstTimestampMicros = -1;
+	private long lastTimestampMicros = 0;
+	private long nextSampleMicros = 0;
+
+	public TrickPlaySpriteWriter(Path outputDirectory, long intervalMillis, int tileWidth, int tileHeight, int columns,
+			int rows) {
+		if (intervalMillis <= 0 || tileWidth <= 0 || tileHeight <= 0 || columns <= 0 || rows <= 0) {
+			throw new IllegalArgumentException("Trick-play interval, tile size and grid must be positive.");
+		}
+		this.outputDirectory = outputDirectory;
+		this.intervalMicros = intervalMillis * 1000;
+		this.tileWidth = tileWidth;
+		this.tileHeight = tileHeight;
+		this.columns = columns;
+		this.rows = rows;
+	}
+
+	/**
+	 * @param timestampMicros Frame timestamp as reported by the grabber.
+	 * @return true if a frame at this timestamp should be passed to {@link #addFrame}.
+	 */
+	public boolean isDue(long timestampMicros) {
+		lastTimestampMicros = Math.max(lastTimestampMicros, timestampMicros);
+		if (firstTimestampMicros < 0) {
+			return true;
+		}
+		return timestampMicros - firstTimestampMicros >= nextSampleMicros;
+	}
+
+	/**
+	 * Draws the frame into the next free tile. Full sheets are flushed to disk right away.
+	 */
+	public void addFrame(BufferedImage frame, long timestampMicros) throws IOException {
+		if (firstTimestampMicros < 0) {
+			firstTimestampMicros = timestampMicros;
+		}
+		if (currentSheet == null) {
+			currentSheet = new BufferedImage(tileWidth * columns, tileHeight * rows, BufferedImage.TYPE_INT_RGB);
+		}
+		int x = (tileIndex % columns) * tileWidth;
+		int y = (tileIndex / columns) * tileHeight;
+		Graphics2D g = currentSheet.createGraphics();
+		try {
+			g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			g.drawImage(frame, x, y, tileWidth, tileHeight, null);
+		} finally {
+			g.dispose();
+		}
+		cues.add(new long[] { nextSampleMicros, sheetIndex, tileIndex });
+		nextSampleMicros += intervalMicros;
+		tileIndex++;
+		if (tileIndex == columns * rows) {
+			flushSheet(rows);
+		}
+	}
+
+	/**
+	 * Flushes the last (partial) sheet and writes the WebVTT index.
+	 *
+	 * @return The path of the written VTT file, or null if no frame was collected.
+	 */
+	public Path finish() throws IOException {
+		if (tileIndex > 0) {
+			// Crop the partial sheet to the rows actually used
+			flushSheet((tileIndex + columns - 1) / columns);
+		}
+		if (cues.isEmpty()) {
+			return null;
+		}
+		long endOfStreamMicros = Math.max(0, lastTimestampMicros - firstTimestampMicros);
+
+		StringBuilder vtt = new StringBuilder("WEBVTT\n\n");
+		for (int i = 0; i < cues.size(); i++) {
+			long[] cue = cues.get(i);
+			long start = cue[0];
+			long end;
+			if (i + 1 < cues.size()) {
+				end = cues.get(i + 1)[0];
+			} else {
+				// Last cue runs to the end of the stream
+				end = endOfStreamMicros > start ? endOfStreamMicros : start + intervalMicros;
+			}
+			int tile = (int) cue[2];
+			vtt.append(formatTimestamp(start)).append(" --> ").append(formatTimestamp(end)).append('\n')
+					.append(sheetFileName((int) cue[1]))
+					.append("#xywh=").append((tile % columns) * tileWidth).append(',')
+					.append((tile / columns) * tileHeight).append(',')
+					.append(tileWidth).append(',').append(tileHeight).append("\n\n");
+		}
+		Path vttPath = outputDirectory.resolve(VTT_FILE_NAME);
+		Files.writeString(vttPath, vtt.toString());
+		return vttPath;
+	}
+
+	private void flushSheet(int usedRows) throws IOException {
+		BufferedImage sheet = currentSheet;
+		if (usedRows < rows) {
+			sheet = currentSheet.getSubimage(0, 0, tileWidth * columns, tileHeight * usedRows);
+		}
+		ImageIO.write(sheet, "jpeg", outputDirectory.resolve(sheetFileName(sheetIndex)).toFile());
+		currentSheet = null;
+		sheetIndex++;
+		tileIndex = 0;
+	}
+
+	private static String sheetFileName(int index) {
+		return "sprite-" + index + ".jpg";
+	}
+
+	private static String formatTimestamp(long micros) {
+		long totalMillis = micros / 1000;
+		return String.format("%02d:%02d:%02d.%03d", totalMillis / 3_600_000, (totalMillis / 60_000) % 60,
+				(totalMillis / 1000) % 60, totalMillis % 1000);
+	}
+}
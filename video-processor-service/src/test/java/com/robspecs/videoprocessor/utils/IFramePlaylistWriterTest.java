@@ -0,0 +1,147 @@
+package com.robspecs.videoprocessor.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Runs the TS parser over small synthetic transport streams: PAT, PMT (one H.264
+ * stream) and single-packet video PES units, laid out the way FFmpeg's segmenter does.
+ */
+class IFramePlaylistWriterTest {
+
+	private static final int PMT_PID = 0x1000;
+	private static final int VIDEO_PID = 0x100;
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void findsKeyFramesAndSegmentHeader() throws IOException {
+		Path segment = writeSegment("seg0.ts", firstSegment());
+
+		IFramePlaylistWriter.SegmentScan scan = IFramePlaylistWriter.scanSegment(segment, "seg0.ts");
+
+		assertThat(scan.getHeaderOffset()).isZero();
+		assertThat(scan.getHeaderLength()).isEqualTo(2 * 188);
+		List<IFramePlaylistWriter.KeyFrame> keyFrames = scan.getKeyFrames();
+		assertThat(keyFrames).hasSize(2);
+		// Flagged by random_access_indicator; runs until the next PES (the non-key frame)
+		assertThat(keyFrames.get(0).getOffset()).isEqualTo(2 * 188);
+		assertThat(keyFrames.get(0).getLength()).isEqualTo(2 * 188);
+		assertThat(keyFrames.get(0).getPts()).isEqualTo(900_000);
+		assertThat(keyFrames.get(0).isSegmentStart()).isTrue();
+		// No flag, found by its IDR NAL unit; runs to the end of the segment
+		assertThat(keyFrames.get(1).getOffset()).isEqualTo(5 * 188);
+		assertThat(keyFrames.get(1).getLength()).isEqualTo(2 * 188);
+		assertThat(keyFrames.get(1).getPts()).isEqualTo(990_000);
+		assertThat(keyFrames.get(1).isSegmentStart()).isFalse();
+	}
+
+	@Test
+	void writesMapForEverySegmentsPatAndPmt() throws IOException {
+		writeSegment("seg0.ts", firstSegment());
+		writeSegment("seg1.ts", concat(pat(), pmt(), videoPes(1_080_000, true, true)));
+		Path mediaPlaylist = dir.resolve("360p.m3u8");
+		Files.writeString(mediaPlaylist, "#EXTM3U\n#EXT-X-TARGETDURATION:2\n#EXTINF:2.000,\nseg0.ts\n"
+				+ "#EXTINF:2.000,\nseg1.ts\n#EXT-X-ENDLIST\n");
+		Path output = dir.resolve("360p_iframes.m3u8");
+
+		IFramePlaylistWriter.Result result = IFramePlaylistWriter.write(mediaPlaylist, output);
+
+		assertThat(result.getKeyFrameCount()).isEqualTo(3);
+		assertThat(result.getPeakBandwidth()).isEqualTo(2 * 188 * 8);
+		assertThat(Files.readString(output)).isEqualTo("#EXTM3U\n"
+				+ "#EXT-X-VERSION:5\n"
+				+ "#EXT-X-TARGETDURATION:2\n"
+				+ "#EXT-X-MEDIA-SEQUENCE:0\n"
+				+ "#EXT-X-PLAYLIST-TYPE:VOD\n"
+				+ "#EXT-X-I-FRAMES-ONLY\n"
+				+ "#EXT-X-MAP:URI=\"seg0.ts\",BYTERANGE=\"376@0\"\n"
+				+ "#EXTINF:1.000,\n#EXT-X-BYTERANGE:376@376\nseg0.ts\n"
+				+ "#EXTINF:1.000,\n#EXT-X-BYTERANGE:376@940\nseg0.ts\n"
+				+ "#EXT-X-MAP:URI=\"seg1.ts\",BYTERANGE=\"376@0\"\n"
+				+ "#EXTINF:2.000,\n#EXT-X-BYTERANGE:188@376\nseg1.ts\n"
+				+ "#EXT-X-ENDLIST\n");
+	}
+
+	@Test
+	void rejectsLostSync() throws IOException {
+		byte[] data = firstSegment();
+		data[3 * 188] = 0;
+		Path segment = writeSegment("broken.ts", data);
+
+		assertThatThrownBy(() -> IFramePlaylistWriter.findKeyFrames(segment, "broken.ts"))
+				.isInstanceOf(IOException.class).hasMessageContaining("byte 564");
+	}
+
+	// PAT, PMT, keyframe + continuation, non-key frame, IDR without the flag + continuation
+	private static byte[] firstSegment() {
+		return concat(pat(), pmt(), videoPes(900_000, true, true), continuation(), videoPes(903_003, false, false),
+				videoPes(990_000, false, true), continuation());
+	}
+
+	private Path writeSegment(String name, byte[] data) throws IOException {
+		return Files.write(dir.resolve(name), data);
+	}
+
+	private static byte[] pat() {
+		return packet(0, true, false, new byte[] { 0, // pointer_field
+				0x00, (byte) 0xB0, 13, 0x00, 0x01, (byte) 0xC1, 0x00, 0x00, // header, section_length 13
+				0x00, 0x01, (byte) (0xE0 | PMT_PID >> 8), (byte) PMT_PID, // program 1 -> PMT PID
+				0, 0, 0, 0 }); // CRC32 (not checked)
+	}
+
+	private static byte[] pmt() {
+		return packet(PMT_PID, true, false, new byte[] { 0, // pointer_field
+				0x02, (byte) 0xB0, 18, 0x00, 0x01, (byte) 0xC1, 0x00, 0x00, // header, section_length 18
+				(byte) (0xE0 | VIDEO_PID >> 8), (byte) VIDEO_PID, (byte) 0xF0, 0x00, // PCR PID, no program info
+				0x1B, (byte) (0xE0 | VIDEO_PID >> 8), (byte) VIDEO_PID, (byte) 0xF0, 0x00, // H.264 stream
+				0, 0, 0, 0 }); // CRC32
+	}
+
+	private static byte[] videoPes(long pts, boolean randomAccess, boolean idr) {
+		return packet(VIDEO_PID, true, randomAccess, new byte[] { 0x00, 0x00, 0x01, (byte) 0xE0, 0x00, 0x00,
+				(byte) 0x80, (byte) 0x80, 0x05, // PTS only, 5 header bytes
+				(byte) (0x21 | ((pts >> 29) & 0x0E)), (byte) (pts >> 22), (byte) (((pts >> 14) & 0xFE) | 1),
+				(byte) (pts >> 7), (byte) (((pts << 1) & 0xFE) | 1),
+				0x00, 0x00, 0x01, (byte) (idr ? 0x65 : 0x41) }); // NAL unit: IDR slice or non-IDR slice
+	}
+
+	private static byte[] continuation() {
+		return packet(VIDEO_PID, false, false, new byte[] { 0x00, 0x00, 0x01, 0x65 }); // IDR-like bytes must be ignored
+	}
+
+	// Adaptation field (flags + stuffing) pads every payload to a full 188-byte packet
+	private static byte[] packet(int pid, boolean payloadUnitStart, boolean randomAccess, byte[] payload) {
+		byte[] packet = new byte[188];
+		packet[0] = 0x47;
+		packet[1] = (byte) ((payloadUnitStart ? 0x40 : 0) | (pid >> 8));
+		packet[2] = (byte) pid;
+		packet[3] = 0x30; // adaptation field + payload
+		int adaptationLength = 188 - 5 - payload.length;
+		packet[4] = (byte) adaptationLength;
+		packet[5] = (byte) (randomAccess ? 0x40 : 0);
+		for (int i = 6; i < 5 + adaptationLength; i++) {
+			packet[i] = (byte) 0xFF;
+		}
+		System.arraycopy(payload, 0, packet, 5 + adaptationLength, payload.length);
+		return packet;
+	}
+
+	private static byte[] concat(byte[]... packets) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		for (byte[] packet : packets) {
+			out.writeBytes(packet);
+		}
+		return out.toByteArray();
+	}
+}